@@ -0,0 +1,187 @@
+package us.ihmc.avatar.reachabilityMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape;
+import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape.SphereVoxelType;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.humanoidRobotics.frames.HumanoidReferenceFrames;
+import us.ihmc.mecano.multiBodySystem.interfaces.JointBasics;
+import us.ihmc.mecano.multiBodySystem.interfaces.OneDoFJointBasics;
+import us.ihmc.mecano.multiBodySystem.interfaces.RigidBodyBasics;
+import us.ihmc.mecano.tools.MultiBodySystemTools;
+import us.ihmc.robotics.screwTheory.ScrewTools;
+
+/**
+ * Writes and loads a {@link Voxel3DGrid} in a compact gzipped binary file.
+ * <p>
+ * The file contains the same description as the spreadsheet written by {@link ReachabilityMapFileWriter}: robot name,
+ * grid and voxel properties, grid frame and arm joints. The reachable rays and poses are then stored as the packed bits
+ * of the grid instead of one row per reachable pose, which keeps the file small for large maps.
+ * </p>
+ */
+public class ReachabilityMapBinaryFile
+{
+   public static final String FILE_EXTENSION = ".rmap";
+
+   private static final int MAGIC_NUMBER = 0x524D4150; // "RMAP"
+   private static final int VERSION = 1;
+
+   /**
+    * Creates the path of a new map file, named after the date and the robot, in the resources
+    * folder derived from the given class.
+    */
+   public static Path createFilePath(String robotName, Class<?> classForFilePath)
+   {
+      return ReachabilityMapFileWriter.deriveResourcesPath(classForFilePath).resolve(ReachabilityMapFileWriter.prependDateToFileName(robotName) + FILE_EXTENSION);
+   }
+
+   public static void write(Path filePath, String robotName, OneDoFJointBasics[] robotArmJoints, Voxel3DGrid gridToWrite) throws IOException
+   {
+      if (filePath.getParent() != null)
+         Files.createDirectories(filePath.getParent());
+
+      try (OutputStream outputStream = Files.newOutputStream(filePath))
+      {
+         write(outputStream, robotName, robotArmJoints, gridToWrite);
+      }
+   }
+
+   public static void write(OutputStream outputStream, String robotName, OneDoFJointBasics[] robotArmJoints, Voxel3DGrid gridToWrite) throws IOException
+   {
+      GZIPOutputStream gzipOutputStream = new GZIPOutputStream(new BufferedOutputStream(outputStream));
+      DataOutputStream dataOutputStream = new DataOutputStream(gzipOutputStream);
+
+      dataOutputStream.writeInt(MAGIC_NUMBER);
+      dataOutputStream.writeInt(VERSION);
+      dataOutputStream.writeUTF(robotName);
+
+      dataOutputStream.writeInt(gridToWrite.getNumberOfVoxelsPerDimension());
+      dataOutputStream.writeDouble(gridToWrite.getVoxelSize());
+      dataOutputStream.writeInt(gridToWrite.getSphereVoxelShape().getNumberOfRays());
+      dataOutputStream.writeInt(gridToWrite.getSphereVoxelShape().getNumberOfRotationsAroundRay());
+
+      ReferenceFrame gridReferenceFrame = gridToWrite.getReferenceFrame();
+      dataOutputStream.writeUTF(gridReferenceFrame.getName());
+      dataOutputStream.writeUTF(gridReferenceFrame.isWorldFrame() ? "null" : gridReferenceFrame.getParent().getName());
+      RigidBodyTransform transformToParent = new RigidBodyTransform();
+      if (!gridReferenceFrame.isWorldFrame())
+         gridReferenceFrame.getTransformToDesiredFrame(transformToParent, gridReferenceFrame.getParent());
+      for (int row = 0; row < 3; row++)
+      {
+         for (int column = 0; column < 4; column++)
+            dataOutputStream.writeDouble(transformToParent.getElement(row, column));
+      }
+
+      dataOutputStream.writeInt(robotArmJoints.length);
+      for (OneDoFJointBasics joint : robotArmJoints)
+      {
+         dataOutputStream.writeUTF(joint.getName());
+         dataOutputStream.writeDouble(joint.getJointLimitLower());
+         dataOutputStream.writeDouble(joint.getJointLimitUpper());
+      }
+
+      writeBits(dataOutputStream, gridToWrite.getRayReachabilityBits());
+      writeBits(dataOutputStream, gridToWrite.getPoseReachabilityBits());
+
+      dataOutputStream.flush();
+      gzipOutputStream.finish();
+      gzipOutputStream.flush();
+   }
+
+   public static Voxel3DGrid load(Path filePath, String robotName, RigidBodyBasics rootBody, HumanoidReferenceFrames referenceFrames) throws IOException
+   {
+      try (InputStream inputStream = Files.newInputStream(filePath))
+      {
+         return load(inputStream, robotName, rootBody, referenceFrames);
+      }
+   }
+
+   /**
+    * Loads a grid and attaches its frame to the frame of the robot it was attached to when the map was computed.
+    *
+    * @param referenceFrames optional, used to find the parent of the grid frame when it is not a frame of the joints.
+    */
+   public static Voxel3DGrid load(InputStream inputStream, String robotName, RigidBodyBasics rootBody, HumanoidReferenceFrames referenceFrames)
+         throws IOException
+   {
+      DataInputStream dataInputStream = new DataInputStream(new GZIPInputStream(new BufferedInputStream(inputStream)));
+
+      if (dataInputStream.readInt() != MAGIC_NUMBER)
+         throw new IOException("Not a reachability map file.");
+      int version = dataInputStream.readInt();
+      if (version != VERSION)
+         throw new IOException("Unsupported reachability map file version: " + version);
+
+      String robotNameInFile = dataInputStream.readUTF();
+      if (!robotName.equals(robotNameInFile))
+         throw new RuntimeException("Trying to load the data for another robot: Loading data for " + robotName + ", file contains data for " + robotNameInFile);
+
+      int numberOfVoxelsPerDimension = dataInputStream.readInt();
+      double voxelSize = dataInputStream.readDouble();
+      int numberOfRays = dataInputStream.readInt();
+      int numberOfRotationsAroundRay = dataInputStream.readInt();
+
+      String gridFrameName = dataInputStream.readUTF();
+      String parentFrameName = dataInputStream.readUTF();
+      RigidBodyTransform transformToParent = new RigidBodyTransform();
+      for (int row = 0; row < 3; row++)
+      {
+         for (int column = 0; column < 4; column++)
+            transformToParent.setElement(row, column, dataInputStream.readDouble());
+      }
+
+      int numberOfJoints = dataInputStream.readInt();
+      String[] jointNames = new String[numberOfJoints];
+      for (int i = 0; i < numberOfJoints; i++)
+      {
+         jointNames[i] = dataInputStream.readUTF();
+         dataInputStream.readDouble();
+         dataInputStream.readDouble();
+      }
+
+      JointBasics[] joints = ScrewTools.findJointsWithNames(MultiBodySystemTools.collectSubtreeJoints(rootBody), jointNames);
+      if (MultiBodySystemTools.filterJoints(joints, OneDoFJointBasics.class).length != numberOfJoints)
+         throw new RuntimeException("Could not find all the joints");
+
+      ReferenceFrame parentFrame = ReachabilityMapFileLoader.searchParentFrameInCommonRobotFrames(parentFrameName, referenceFrames, rootBody);
+      if (parentFrame == null)
+         throw new RuntimeException("Could not find the parent of the grid frame: " + parentFrameName);
+      ReferenceFrame gridFrame = ReferenceFrame.constructFrameWithUnchangingTransformToParent(gridFrameName, parentFrame, transformToParent);
+
+      SphereVoxelShape sphereVoxelShape = new SphereVoxelShape(gridFrame, voxelSize, numberOfRays, numberOfRotationsAroundRay, SphereVoxelType.graspOrigin);
+      Voxel3DGrid grid = new Voxel3DGrid(gridFrame, sphereVoxelShape, numberOfVoxelsPerDimension, voxelSize);
+
+      readBits(dataInputStream, grid.getRayReachabilityBits());
+      readBits(dataInputStream, grid.getPoseReachabilityBits());
+
+      return grid;
+   }
+
+   private static void writeBits(DataOutputStream dataOutputStream, long[] bits) throws IOException
+   {
+      dataOutputStream.writeInt(bits.length);
+      for (int i = 0; i < bits.length; i++)
+         dataOutputStream.writeLong(bits[i]);
+   }
+
+   private static void readBits(DataInputStream dataInputStream, long[] bitsToPack) throws IOException
+   {
+      int numberOfWords = dataInputStream.readInt();
+      if (numberOfWords != bitsToPack.length)
+         throw new IOException("Inconsistent reachability data, expected " + bitsToPack.length + " words but got " + numberOfWords);
+      for (int i = 0; i < numberOfWords; i++)
+         bitsToPack[i] = dataInputStream.readLong();
+   }
+}
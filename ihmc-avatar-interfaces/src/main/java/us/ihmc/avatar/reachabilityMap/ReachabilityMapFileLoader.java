@@ -193,7 +193,7 @@ public class ReachabilityMapFileLoader
       return loadedGrid;
    }
 
-   private ReferenceFrame searchParentFrameInCommonRobotFrames(String parentFrameName, HumanoidReferenceFrames referenceFrames, RigidBodyBasics rootBody)
+   static ReferenceFrame searchParentFrameInCommonRobotFrames(String parentFrameName, HumanoidReferenceFrames referenceFrames, RigidBodyBasics rootBody)
    {
       if (parentFrameName.equals(worldFrame.getName()))
          return worldFrame;
@@ -167,7 +167,7 @@ public class ReachabilityMapFileWriter
       }
    }
 
-   private static String prependDateToFileName(String fileName)
+   static String prependDateToFileName(String fileName)
    {
       DateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss_");
       Date date = new Date();
@@ -57,6 +57,9 @@ public class ReachabilityMapSolver
    private final SelectionMatrix3D angularSelection = new SelectionMatrix3D(null, true, true, true);
    private final RobotConfigurationData defaultArmConfiguration;
 
+   private final FramePoint3D desiredPosition = new FramePoint3D();
+   private final FrameQuaternion desiredOrientation = new FrameQuaternion();
+
    public ReachabilityMapSolver(OneDoFJointBasics[] robotArmJoints, YoGraphicsListRegistry yoGraphicsListRegistry, YoVariableRegistry parentRegistry)
    {
       this.robotArmJoints = robotArmJoints;
@@ -89,9 +92,9 @@ public class ReachabilityMapSolver
    public boolean solveFor(FramePoint3DReadOnly position, FrameQuaternionReadOnly orientation)
    {
       kinematicsToolboxController.requestInitialize();
-      FramePoint3D desiredPosition = new FramePoint3D(position);
+      desiredPosition.setIncludingFrame(position);
       desiredPosition.changeFrame(ReferenceFrame.getWorldFrame());
-      FrameQuaternion desiredOrientation = new FrameQuaternion(orientation);
+      desiredOrientation.setIncludingFrame(orientation);
       desiredOrientation.changeFrame(ReferenceFrame.getWorldFrame());
       KinematicsToolboxRigidBodyMessage message = MessageTools.createKinematicsToolboxRigidBodyMessage(endEffector, desiredPosition, desiredOrientation);
       message.getAngularWeightMatrix().set(MessageTools.createWeightMatrix3DMessage(1.0));
@@ -107,7 +110,7 @@ public class ReachabilityMapSolver
    public boolean solveFor(FramePoint3DReadOnly position)
    {
       kinematicsToolboxController.requestInitialize();
-      FramePoint3D desiredPosition = new FramePoint3D(position);
+      desiredPosition.setIncludingFrame(position);
       desiredPosition.changeFrame(ReferenceFrame.getWorldFrame());
       KinematicsToolboxRigidBodyMessage message = MessageTools.createKinematicsToolboxRigidBodyMessage(endEffector, desiredPosition);
       message.getLinearWeightMatrix().set(MessageTools.createWeightMatrix3DMessage(1.0));
@@ -1,10 +1,19 @@
 package us.ihmc.avatar.reachabilityMap;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape;
 import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape.SphereVoxelType;
+import us.ihmc.commons.thread.ThreadTools;
 import us.ihmc.euclid.referenceFrame.FramePoint3D;
 import us.ihmc.euclid.referenceFrame.FramePose3D;
 import us.ihmc.euclid.referenceFrame.FrameQuaternion;
@@ -17,6 +26,9 @@ import us.ihmc.graphicsDescription.yoGraphics.YoGraphicCoordinateSystem;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicPosition;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicReferenceFrame;
 import us.ihmc.mecano.multiBodySystem.interfaces.OneDoFJointBasics;
+import us.ihmc.mecano.multiBodySystem.interfaces.RigidBodyBasics;
+import us.ihmc.mecano.tools.MultiBodySystemFactories;
+import us.ihmc.mecano.tools.MultiBodySystemTools;
 import us.ihmc.robotics.referenceFrames.PoseReferenceFrame;
 import us.ihmc.simulationconstructionset.SimulationConstructionSet;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
@@ -38,6 +50,12 @@ public class ReachabilitySphereMapCalculator
 
    private final ReachabilityMapSolver solver;
    private ReachabilityMapFileWriter reachabilityMapFileWriter;
+   private String binaryFileRobotName;
+   private Class<?> binaryFileClassForFilePath;
+
+   private int numberOfThreads = 1;
+   private final RigidBodyTransform controlFramePose = new RigidBodyTransform();
+   private final boolean[] angularSelection = {true, true, true};
 
    private final PoseReferenceFrame gridFrame = new PoseReferenceFrame("gridFrame", ReferenceFrame.getWorldFrame());
    private final YoGraphicReferenceFrame gridFrameViz = new YoGraphicReferenceFrame(gridFrame, registry, true, 0.5, YoAppearance.Blue());
@@ -45,6 +63,7 @@ public class ReachabilitySphereMapCalculator
                                                                                                  YoAppearance.HotPink());
    private final YoGraphicPosition currentEvaluationPosition = new YoGraphicPosition("currentEvaluationPosition", "", registry, 0.0125,
                                                                                      YoAppearance.DeepPink());
+   private final FramePose3D currentEvaluationFramePose = new FramePose3D();
 
    public ReachabilitySphereMapCalculator(OneDoFJointBasics[] robotArmJoints, SimulationConstructionSet scs)
    {
@@ -96,6 +115,7 @@ public class ReachabilitySphereMapCalculator
     */
    public void setControlFramePose(RigidBodyTransform controlFramePose)
    {
+      this.controlFramePose.set(controlFramePose);
       solver.setControlFramePose(controlFramePose);
    }
 
@@ -109,9 +129,31 @@ public class ReachabilitySphereMapCalculator
     */
    public void setAngularSelection(boolean selectX, boolean selectY, boolean selectZ)
    {
+      angularSelection[0] = selectX;
+      angularSelection[1] = selectY;
+      angularSelection[2] = selectZ;
       solver.setAngularSelection(selectX, selectY, selectZ);
    }
 
+   /**
+    * Sets the number of threads used to explore the grid. By default a single thread is used and
+    * the progress is shown pose by pose in SCS.
+    * <p>
+    * With more than one thread, each thread solves the inverse kinematics of its own copy of the
+    * arm and voxels are handed out to the threads as they become available. The listeners are not
+    * notified and SCS only shows the voxels as they are completed.
+    * </p>
+    * 
+    * @param numberOfThreads the number of threads to use, for instance
+    *           {@code Runtime.getRuntime().availableProcessors()}.
+    */
+   public void setNumberOfThreads(int numberOfThreads)
+   {
+      if (numberOfThreads < 1)
+         throw new IllegalArgumentException("The number of threads has to be at least 1, was: " + numberOfThreads);
+      this.numberOfThreads = numberOfThreads;
+   }
+
    /**
     * Sets the center and orientation of the grid.
     * 
@@ -140,6 +182,25 @@ public class ReachabilitySphereMapCalculator
       reachabilityMapFileWriter = new ReachabilityMapFileWriter(robotName, classForFilePath);
    }
 
+   /**
+    * Sets up the calculator so it exports the result in a binary file, which is much smaller and
+    * faster to write than the Excel file for large grids. That file can later be loaded using
+    * {@link ReachabilityMapBinaryFile}.
+    * 
+    * @param robotName the robot name.
+    * @param classForFilePath this can be the class of the caller of this method.
+    */
+   public void setupCalculatorToRecordInBinaryFile(String robotName, Class<?> classForFilePath)
+   {
+      if (robotName == null || robotName.isEmpty())
+      {
+         System.err.println("Invalid robot name (either null or empty)");
+         return;
+      }
+      binaryFileRobotName = robotName;
+      binaryFileClassForFilePath = classForFilePath;
+   }
+
    /**
     * Attaches a listener that is to be notified every time a pose is successfully reached. Can be
     * used to visualize to robot doing something, decrease boredom when watching progress.
@@ -168,6 +229,20 @@ public class ReachabilitySphereMapCalculator
    {
       initialize();
 
+      if (numberOfThreads > 1)
+         buildReachabilitySpaceInParallel();
+      else
+         buildReachabilitySpaceSequentially();
+
+      if (reachabilityMapFileWriter != null)
+         reachabilityMapFileWriter.exportAndClose();
+      if (binaryFileRobotName != null)
+         exportBinaryFile();
+      System.out.println("Done!");
+   }
+
+   private void buildReachabilitySpaceSequentially()
+   {
       FrameVector3D translationFromVoxelOrigin = new FrameVector3D();
       FrameQuaternion orientation = new FrameQuaternion();
 
@@ -192,7 +267,8 @@ public class ReachabilitySphereMapCalculator
 
                      modifiableVoxelLocation.changeFrame(ReferenceFrame.getWorldFrame());
                      orientation.changeFrame(ReferenceFrame.getWorldFrame());
-                     currentEvaluationPose.setPose(new FramePose3D(modifiableVoxelLocation, orientation));
+                     currentEvaluationFramePose.setIncludingFrame(modifiableVoxelLocation, orientation);
+                     currentEvaluationPose.setPose(currentEvaluationFramePose);
                      currentEvaluationPose.update();
 
                      boolean success = solver.solveFor(modifiableVoxelLocation, orientation);
@@ -224,10 +300,102 @@ public class ReachabilitySphereMapCalculator
             }
          }
       }
+   }
+
+   private void buildReachabilitySpaceInParallel()
+   {
+      AtomicInteger nextVoxelIndex = new AtomicInteger(0);
+      ConcurrentLinkedQueue<int[]> completedVoxels = new ConcurrentLinkedQueue<>();
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+      List<Future<?>> futures = new ArrayList<>();
+
+      for (int i = 0; i < numberOfThreads; i++)
+      {
+         ReachabilityWorker worker = new ReachabilityWorker(i, nextVoxelIndex, completedVoxels);
+         futures.add(executor.submit(worker::run));
+      }
+      executor.shutdown();
+
+      int totalNumberOfVoxels = voxel3dGrid.getTotalNumberOfVoxels();
+      int lastPercentPrinted = 0;
+
+      while (!executor.isTerminated() || !completedVoxels.isEmpty())
+      {
+         int percent = (int) (100L * Math.min(nextVoxelIndex.get(), totalNumberOfVoxels) / totalNumberOfVoxels);
+         if (percent >= lastPercentPrinted + 5)
+         {
+            lastPercentPrinted = percent;
+            System.out.println("Reachability map: " + percent + "% of the voxels handed out to the workers.");
+         }
+
+         int[] completedVoxel = completedVoxels.poll();
+
+         if (completedVoxel == null)
+         {
+            ThreadTools.sleep(10);
+            continue;
+         }
+
+         // Only the voxels with at least one reachable ray are queued, along with their number of
+         // reachable rays so the grid is not read here while the workers are writing it.
+         double reachabilityValue = (double) completedVoxel[3] / (double) numberOfRays;
+         voxel3dGrid.getVoxel(voxelLocation, completedVoxel[0], completedVoxel[1], completedVoxel[2]);
+         scs.addStaticLinkGraphics(sphereVoxelShape.createVisualization(voxelLocation, 0.25, reachabilityValue));
+      }
+
+      for (Future<?> future : futures)
+      {
+         try
+         {
+            future.get();
+         }
+         catch (InterruptedException | ExecutionException e)
+         {
+            throw new RuntimeException("Reachability map worker failed.", e);
+         }
+      }
 
       if (reachabilityMapFileWriter != null)
-         reachabilityMapFileWriter.exportAndClose();
-      System.out.println("Done!");
+         registerGridInFileWriter();
+   }
+
+   private void registerGridInFileWriter()
+   {
+      for (int xIndex = 0; xIndex < gridSizeInNumberOfVoxels; xIndex++)
+      {
+         for (int yIndex = 0; yIndex < gridSizeInNumberOfVoxels; yIndex++)
+         {
+            for (int zIndex = 0; zIndex < gridSizeInNumberOfVoxels; zIndex++)
+            {
+               for (int rayIndex = 0; rayIndex < numberOfRays; rayIndex++)
+               {
+                  if (!voxel3dGrid.isRayReachable(xIndex, yIndex, zIndex, rayIndex))
+                     continue;
+
+                  for (int rotationAroundRayIndex = 0; rotationAroundRayIndex < numberOfRotationsAroundRay; rotationAroundRayIndex++)
+                  {
+                     if (voxel3dGrid.isPoseReachable(xIndex, yIndex, zIndex, rayIndex, rotationAroundRayIndex))
+                        reachabilityMapFileWriter.registerReachablePose(xIndex, yIndex, zIndex, rayIndex, rotationAroundRayIndex);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   private void exportBinaryFile()
+   {
+      Path filePath = ReachabilityMapBinaryFile.createFilePath(binaryFileRobotName, binaryFileClassForFilePath);
+
+      try
+      {
+         ReachabilityMapBinaryFile.write(filePath, binaryFileRobotName, solver.getRobotArmJoints(), voxel3dGrid);
+         System.out.println("Reachability map saved in: " + filePath);
+      }
+      catch (IOException e)
+      {
+         e.printStackTrace();
+      }
    }
 
    private boolean isPositionReachable(int xIndex, int yIndex, int zIndex)
@@ -245,4 +413,95 @@ public class ReachabilitySphereMapCalculator
    {
       return gridSizeInNumberOfVoxels * voxelSize;
    }
+
+   /**
+    * Explores voxels of the grid with its own copy of the arm, grid frame, and solver, such that
+    * workers do not share any reference frame or inverse kinematics state.
+    */
+   private class ReachabilityWorker
+   {
+      private final AtomicInteger nextVoxelIndex;
+      private final ConcurrentLinkedQueue<int[]> completedVoxels;
+
+      private final PoseReferenceFrame workerGridFrame;
+      private final SphereVoxelShape workerSphereVoxelShape;
+      private final ReachabilityMapSolver workerSolver;
+
+      private final FramePoint3D gridVoxelLocation = new FramePoint3D();
+      private final FramePoint3D workerVoxelLocation = new FramePoint3D();
+      private final FramePoint3D evaluationPosition = new FramePoint3D();
+      private final FrameVector3D translationFromVoxelOrigin = new FrameVector3D();
+      private final FrameQuaternion orientation = new FrameQuaternion();
+
+      public ReachabilityWorker(int workerIndex, AtomicInteger nextVoxelIndex, ConcurrentLinkedQueue<int[]> completedVoxels)
+      {
+         this.nextVoxelIndex = nextVoxelIndex;
+         this.completedVoxels = completedVoxels;
+
+         String suffix = "Worker" + workerIndex;
+         OneDoFJointBasics[] robotArmJoints = solver.getRobotArmJoints();
+         RigidBodyBasics base = robotArmJoints[0].getPredecessor();
+         ReferenceFrame baseFrame = base.getParentJoint() != null ? base.getParentJoint().getFrameAfterJoint() : base.getBodyFixedFrame();
+         PoseReferenceFrame workerBaseFrame = new PoseReferenceFrame(base.getName() + suffix, ReferenceFrame.getWorldFrame());
+         workerBaseFrame.setPoseAndUpdate(new FramePose3D(ReferenceFrame.getWorldFrame(), baseFrame.getTransformToWorldFrame()));
+         OneDoFJointBasics[] workerArmJoints = MultiBodySystemTools.filterJoints(MultiBodySystemFactories.cloneKinematicChain(robotArmJoints, suffix,
+                                                                                                                              workerBaseFrame),
+                                                                                OneDoFJointBasics.class);
+
+         workerGridFrame = new PoseReferenceFrame(gridFrame.getName() + suffix, ReferenceFrame.getWorldFrame());
+         workerGridFrame.setPoseAndUpdate(new FramePose3D(ReferenceFrame.getWorldFrame(), gridFrame.getTransformToWorldFrame()));
+         workerSphereVoxelShape = new SphereVoxelShape(workerGridFrame, voxelSize, numberOfRays, numberOfRotationsAroundRay, SphereVoxelType.graspOrigin);
+
+         workerSolver = new ReachabilityMapSolver(workerArmJoints, null, new YoVariableRegistry(suffix));
+         workerSolver.setControlFramePose(controlFramePose);
+         workerSolver.setAngularSelection(angularSelection[0], angularSelection[1], angularSelection[2]);
+      }
+
+      public void run()
+      {
+         int totalNumberOfVoxels = voxel3dGrid.getTotalNumberOfVoxels();
+         int voxelIndex;
+
+         while ((voxelIndex = nextVoxelIndex.getAndIncrement()) < totalNumberOfVoxels)
+         {
+            int zIndex = voxelIndex % gridSizeInNumberOfVoxels;
+            int yIndex = (voxelIndex / gridSizeInNumberOfVoxels) % gridSizeInNumberOfVoxels;
+            int xIndex = voxelIndex / (gridSizeInNumberOfVoxels * gridSizeInNumberOfVoxels);
+
+            int numberOfReachableRays = exploreVoxel(xIndex, yIndex, zIndex);
+            if (numberOfReachableRays > 0)
+               completedVoxels.add(new int[] {xIndex, yIndex, zIndex, numberOfReachableRays});
+         }
+      }
+
+      private int exploreVoxel(int xIndex, int yIndex, int zIndex)
+      {
+         voxel3dGrid.getVoxel(gridVoxelLocation, xIndex, yIndex, zIndex);
+         workerVoxelLocation.setIncludingFrame(workerGridFrame, gridVoxelLocation);
+
+         if (!workerSolver.solveFor(workerVoxelLocation))
+            return 0;
+
+         int numberOfReachableRays = 0;
+
+         for (int rayIndex = 0; rayIndex < numberOfRays; rayIndex++)
+         {
+            for (int rotationAroundRayIndex = 0; rotationAroundRayIndex < numberOfRotationsAroundRay; rotationAroundRayIndex++)
+            {
+               evaluationPosition.setIncludingFrame(workerVoxelLocation);
+               workerSphereVoxelShape.getPose(translationFromVoxelOrigin, orientation, rayIndex, rotationAroundRayIndex);
+               evaluationPosition.add(translationFromVoxelOrigin);
+
+               if (workerSolver.solveFor(evaluationPosition, orientation))
+               {
+                  voxel3dGrid.registerReachablePose(xIndex, yIndex, zIndex, rayIndex, rotationAroundRayIndex);
+                  numberOfReachableRays++;
+                  break;
+               }
+            }
+         }
+
+         return numberOfReachableRays;
+      }
+   }
 }
@@ -23,9 +23,13 @@ public class Voxel3DGrid implements ReferenceFrameHolder
    private final double voxelSize;
    private final int numberOfVoxelsPerDimension;
    private final int totalNumberOfVoxels;
+   private final int numberOfRays;
+   private final int numberOfRotationsAroundRay;
 
-   private final boolean[][][][] isRayReachable;
-   private final boolean[][][][][] isPoseReachable;
+   /** One bit per voxel and ray, the voxels are ordered by x, y, and then z index. */
+   private final long[] isRayReachable;
+   /** One bit per voxel, ray, and rotation around the ray. */
+   private final long[] isPoseReachable;
 
    public Voxel3DGrid(ReferenceFrame referenceFrame, SphereVoxelShape sphereVoxelShape, int gridSizeInNumberOfVoxels, double voxelSize)
    {
@@ -37,11 +41,58 @@ public class Voxel3DGrid implements ReferenceFrameHolder
       gridSize = voxelSize * gridSizeInNumberOfVoxels;
       boundingBox = new BoundingBox3D(-gridSize / 2.0, -gridSize / 2.0, -gridSize / 2.0, gridSize / 2.0, gridSize / 2.0, gridSize / 2.0);
 
-      int numberOfRays = sphereVoxelShape.getNumberOfRays();
-      int numberOfRotationsAroundRay = sphereVoxelShape.getNumberOfRotationsAroundRay();
+      numberOfRays = sphereVoxelShape.getNumberOfRays();
+      numberOfRotationsAroundRay = sphereVoxelShape.getNumberOfRotationsAroundRay();
 
-      isRayReachable = new boolean[numberOfVoxelsPerDimension][numberOfVoxelsPerDimension][numberOfVoxelsPerDimension][numberOfRays];
-      isPoseReachable = new boolean[numberOfVoxelsPerDimension][numberOfVoxelsPerDimension][numberOfVoxelsPerDimension][numberOfRays][numberOfRotationsAroundRay];
+      isRayReachable = new long[computeNumberOfWords((long) totalNumberOfVoxels * numberOfRays)];
+      isPoseReachable = new long[computeNumberOfWords((long) totalNumberOfVoxels * numberOfRays * numberOfRotationsAroundRay)];
+   }
+
+   static int computeNumberOfWords(long numberOfBits)
+   {
+      long numberOfWords = (numberOfBits + 63) >>> 6;
+      if (numberOfWords > Integer.MAX_VALUE)
+         throw new RuntimeException("The grid is too large: " + numberOfBits + " bits.");
+      return (int) numberOfWords;
+   }
+
+   /**
+    * @return the index of the voxel in the flat storage of this grid.
+    */
+   public int getVoxelIndex(int xIndex, int yIndex, int zIndex)
+   {
+      checkIndex(xIndex, numberOfVoxelsPerDimension);
+      checkIndex(yIndex, numberOfVoxelsPerDimension);
+      checkIndex(zIndex, numberOfVoxelsPerDimension);
+      return (xIndex * numberOfVoxelsPerDimension + yIndex) * numberOfVoxelsPerDimension + zIndex;
+   }
+
+   private long getRayBitIndex(int voxelIndex, int rayIndex)
+   {
+      checkIndex(rayIndex, numberOfRays);
+      return (long) voxelIndex * numberOfRays + rayIndex;
+   }
+
+   private long getPoseBitIndex(int voxelIndex, int rayIndex, int rotationAroundRayIndex)
+   {
+      checkIndex(rotationAroundRayIndex, numberOfRotationsAroundRay);
+      return getRayBitIndex(voxelIndex, rayIndex) * numberOfRotationsAroundRay + rotationAroundRayIndex;
+   }
+
+   private static void checkIndex(int index, int size)
+   {
+      if (index < 0 || index >= size)
+         throw new ArrayIndexOutOfBoundsException(index);
+   }
+
+   private static boolean getBit(long[] bits, long bitIndex)
+   {
+      return (bits[(int) (bitIndex >>> 6)] & (1L << bitIndex)) != 0;
+   }
+
+   private static void setBit(long[] bits, long bitIndex)
+   {
+      bits[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
    }
 
    public void getVoxel(FramePoint3D voxelLocationToPack, int xIndex, int yIndex, int zIndex)
@@ -90,19 +141,32 @@ public class Voxel3DGrid implements ReferenceFrameHolder
       return index;
    }
 
-   public void registerReachablePose(int xIndex, int yIndex, int zIndex, int rayIndex, int rotationAroundRayIndex)
+   /**
+    * Registers a reachable pose, this method can be called from several threads.
+    */
+   public synchronized void registerReachablePose(int xIndex, int yIndex, int zIndex, int rayIndex, int rotationAroundRayIndex)
    {
-      boolean poseHasAlreadyBeenRegistered = isPoseReachable[xIndex][yIndex][zIndex][rayIndex][rotationAroundRayIndex];
-      if (!poseHasAlreadyBeenRegistered)
-      {
-         isPoseReachable[xIndex][yIndex][zIndex][rayIndex][rotationAroundRayIndex] = true;
-         registerReachableRay(xIndex, yIndex, zIndex, rayIndex);
-      }
+      int voxelIndex = getVoxelIndex(xIndex, yIndex, zIndex);
+      setBit(isPoseReachable, getPoseBitIndex(voxelIndex, rayIndex, rotationAroundRayIndex));
+      setBit(isRayReachable, getRayBitIndex(voxelIndex, rayIndex));
+   }
+
+   /**
+    * Registers a reachable ray, this method can be called from several threads.
+    */
+   public synchronized void registerReachableRay(int xIndex, int yIndex, int zIndex, int rayIndex)
+   {
+      setBit(isRayReachable, getRayBitIndex(getVoxelIndex(xIndex, yIndex, zIndex), rayIndex));
    }
 
-   public void registerReachableRay(int xIndex, int yIndex, int zIndex, int rayIndex)
+   public boolean isRayReachable(int xIndex, int yIndex, int zIndex, int rayIndex)
    {
-      isRayReachable[xIndex][yIndex][zIndex][rayIndex] = true;
+      return getBit(isRayReachable, getRayBitIndex(getVoxelIndex(xIndex, yIndex, zIndex), rayIndex));
+   }
+
+   public boolean isPoseReachable(int xIndex, int yIndex, int zIndex, int rayIndex, int rotationAroundRayIndex)
+   {
+      return getBit(isPoseReachable, getPoseBitIndex(getVoxelIndex(xIndex, yIndex, zIndex), rayIndex, rotationAroundRayIndex));
    }
 
    /**
@@ -117,10 +181,9 @@ public class Voxel3DGrid implements ReferenceFrameHolder
    public double getD(int xIndex, int yIndex, int zIndex)
    {
       double d = 0;
-      int numberOfRays = sphereVoxelShape.getNumberOfRays();
       for (int i = 0; i < numberOfRays; i++)
       {
-         if (isRayReachable[xIndex][yIndex][zIndex][i])
+         if (isRayReachable(xIndex, yIndex, zIndex, i))
             d += 1.0;
       }
 
@@ -141,14 +204,12 @@ public class Voxel3DGrid implements ReferenceFrameHolder
    public double getD0(int xIndex, int yIndex, int zIndex)
    {
       double d0 = 0;
-      int numberOfRays = sphereVoxelShape.getNumberOfRays();
-      int numberOfRotationsAroundRay = sphereVoxelShape.getNumberOfRotationsAroundRay();
 
       for (int i = 0; i < numberOfRays; i++)
       {
          for (int j = 0; j < numberOfRotationsAroundRay; j++)
          {
-            if (isPoseReachable[xIndex][yIndex][zIndex][i][j])
+            if (isPoseReachable(xIndex, yIndex, zIndex, i, j))
                d0 += 1.0;
          }
       }
@@ -164,12 +225,10 @@ public class Voxel3DGrid implements ReferenceFrameHolder
    // FIXME Still in development
    private void fitCone(int xIndex, int yIndex, int zIndex)
    {
-      boolean[] isRayReachable = this.isRayReachable[xIndex][yIndex][zIndex];
-
       List<Point3D> reachablePointsOnly = new ArrayList<>();
       for (int i = 0; i < sphereVoxelShape.getNumberOfRays(); i++)
       {
-         if (isRayReachable[i])
+         if (isRayReachable(xIndex, yIndex, zIndex, i))
             reachablePointsOnly.add(sphereVoxelShape.getPointsOnSphere()[i]);
       }
 
@@ -257,6 +316,18 @@ public class Voxel3DGrid implements ReferenceFrameHolder
       return totalNumberOfVoxels;
    }
 
+   /** Packed reachable rays, used to write and read this grid from a file. */
+   long[] getRayReachabilityBits()
+   {
+      return isRayReachable;
+   }
+
+   /** Packed reachable poses, used to write and read this grid from a file. */
+   long[] getPoseReachabilityBits()
+   {
+      return isPoseReachable;
+   }
+
    public FramePoint3D getMinPoint()
    {
       return new FramePoint3D(referenceFrame, boundingBox.getMinPoint());
@@ -0,0 +1,101 @@
+package us.ihmc.avatar.reachabilityMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.referenceFrame.tools.ReferenceFrameTools;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.mecano.multiBodySystem.RevoluteJoint;
+import us.ihmc.mecano.multiBodySystem.RigidBody;
+import us.ihmc.mecano.multiBodySystem.interfaces.OneDoFJointBasics;
+import us.ihmc.mecano.multiBodySystem.interfaces.RigidBodyBasics;
+
+public class ReachabilityMapBinaryFileTest
+{
+   private static final String ROBOT_NAME = "testRobot";
+
+   @After
+   public void tearDown()
+   {
+      ReferenceFrameTools.clearWorldFrameTree();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testWriteAndLoad() throws IOException
+   {
+      Random random = new Random(5461L);
+
+      RigidBodyBasics elevator = new RigidBody("elevator", ReferenceFrame.getWorldFrame());
+      OneDoFJointBasics[] armJoints = new OneDoFJointBasics[3];
+      RigidBodyBasics predecessor = elevator;
+      for (int i = 0; i < armJoints.length; i++)
+      {
+         armJoints[i] = new RevoluteJoint("joint" + i, predecessor, new Vector3D(0.0, 0.0, 1.0));
+         armJoints[i].setJointLimitLower(-1.0 - i);
+         armJoints[i].setJointLimitUpper(1.0 + i);
+         predecessor = new RigidBody("link" + i, armJoints[i], 0.1, 0.1, 0.1, 1.0, new Vector3D());
+      }
+
+      RigidBodyTransform gridToParent = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+      ReferenceFrame parentFrame = armJoints[0].getFrameAfterJoint();
+      ReferenceFrame gridFrame = ReferenceFrame.constructFrameWithUnchangingTransformToParent("gridFrame", parentFrame, gridToParent);
+      Voxel3DGrid grid = Voxel3DGridTest.createGrid(gridFrame, 6);
+
+      int numberOfVoxelsPerDimension = grid.getNumberOfVoxelsPerDimension();
+      int numberOfRays = grid.getSphereVoxelShape().getNumberOfRays();
+      int numberOfRotationsAroundRay = grid.getSphereVoxelShape().getNumberOfRotationsAroundRay();
+      for (int i = 0; i < 200; i++)
+      {
+         int xIndex = random.nextInt(numberOfVoxelsPerDimension);
+         int yIndex = random.nextInt(numberOfVoxelsPerDimension);
+         int zIndex = random.nextInt(numberOfVoxelsPerDimension);
+         int rayIndex = random.nextInt(numberOfRays);
+         if (random.nextBoolean())
+            grid.registerReachablePose(xIndex, yIndex, zIndex, rayIndex, random.nextInt(numberOfRotationsAroundRay));
+         else
+            grid.registerReachableRay(xIndex, yIndex, zIndex, rayIndex);
+      }
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      ReachabilityMapBinaryFile.write(outputStream, ROBOT_NAME, armJoints, grid);
+      byte[] fileContent = outputStream.toByteArray();
+
+      Voxel3DGrid loadedGrid = ReachabilityMapBinaryFile.load(new ByteArrayInputStream(fileContent), ROBOT_NAME, elevator, null);
+
+      assertEquals(numberOfVoxelsPerDimension, loadedGrid.getNumberOfVoxelsPerDimension());
+      assertEquals(grid.getVoxelSize(), loadedGrid.getVoxelSize(), 0.0);
+      assertEquals(numberOfRays, loadedGrid.getSphereVoxelShape().getNumberOfRays());
+      assertEquals(numberOfRotationsAroundRay, loadedGrid.getSphereVoxelShape().getNumberOfRotationsAroundRay());
+      assertEquals(gridFrame.getName(), loadedGrid.getReferenceFrame().getName());
+      assertTrue(parentFrame == loadedGrid.getReferenceFrame().getParent());
+      assertTrue(gridToParent.epsilonEquals(loadedGrid.getReferenceFrame().getTransformToParent(), 1.0e-12));
+
+      assertArrayEquals(grid.getRayReachabilityBits(), loadedGrid.getRayReachabilityBits());
+      assertArrayEquals(grid.getPoseReachabilityBits(), loadedGrid.getPoseReachabilityBits());
+
+      try
+      {
+         ReachabilityMapBinaryFile.load(new ByteArrayInputStream(fileContent), "otherRobot", elevator, null);
+         fail("Loaded the map of another robot");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+}
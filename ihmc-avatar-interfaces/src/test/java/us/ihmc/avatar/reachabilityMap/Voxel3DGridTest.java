@@ -0,0 +1,124 @@
+package us.ihmc.avatar.reachabilityMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape;
+import us.ihmc.avatar.reachabilityMap.voxelPrimitiveShapes.SphereVoxelShape.SphereVoxelType;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+
+public class Voxel3DGridTest
+{
+   // None of the numbers of bits is a multiple of 64
+   private static final int NUMBER_OF_VOXELS_PER_DIMENSION = 5;
+   private static final int NUMBER_OF_RAYS = 7;
+   private static final int NUMBER_OF_ROTATIONS_AROUND_RAY = 3;
+   private static final double VOXEL_SIZE = 0.1;
+
+   static Voxel3DGrid createGrid(ReferenceFrame gridFrame, int numberOfVoxelsPerDimension)
+   {
+      SphereVoxelShape sphereVoxelShape = new SphereVoxelShape(gridFrame, VOXEL_SIZE, NUMBER_OF_RAYS, NUMBER_OF_ROTATIONS_AROUND_RAY,
+                                                               SphereVoxelType.graspOrigin);
+      return new Voxel3DGrid(gridFrame, sphereVoxelShape, numberOfVoxelsPerDimension, VOXEL_SIZE);
+   }
+
+   private static String key(int xIndex, int yIndex, int zIndex, int rayIndex)
+   {
+      return xIndex + " " + yIndex + " " + zIndex + " " + rayIndex;
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testReachabilityAtTheCornersOfTheIndexSpace()
+   {
+      Voxel3DGrid grid = createGrid(ReferenceFrame.getWorldFrame(), NUMBER_OF_VOXELS_PER_DIMENSION);
+      int last = NUMBER_OF_VOXELS_PER_DIMENSION - 1;
+      int[] corners = {0, last};
+
+      Set<String> reachableRays = new HashSet<>();
+      Set<String> reachablePoses = new HashSet<>();
+
+      for (int xIndex : corners)
+      {
+         for (int yIndex : corners)
+         {
+            for (int zIndex : corners)
+            {
+               // First and last bit of the voxel, and a ray without pose
+               grid.registerReachablePose(xIndex, yIndex, zIndex, 0, 0);
+               grid.registerReachablePose(xIndex, yIndex, zIndex, NUMBER_OF_RAYS - 1, NUMBER_OF_ROTATIONS_AROUND_RAY - 1);
+               grid.registerReachableRay(xIndex, yIndex, zIndex, 2);
+               reachableRays.add(key(xIndex, yIndex, zIndex, 0));
+               reachableRays.add(key(xIndex, yIndex, zIndex, NUMBER_OF_RAYS - 1));
+               reachableRays.add(key(xIndex, yIndex, zIndex, 2));
+               reachablePoses.add(key(xIndex, yIndex, zIndex, 0) + " " + 0);
+               reachablePoses.add(key(xIndex, yIndex, zIndex, NUMBER_OF_RAYS - 1) + " " + (NUMBER_OF_ROTATIONS_AROUND_RAY - 1));
+            }
+         }
+      }
+
+      for (int xIndex = 0; xIndex < NUMBER_OF_VOXELS_PER_DIMENSION; xIndex++)
+      {
+         for (int yIndex = 0; yIndex < NUMBER_OF_VOXELS_PER_DIMENSION; yIndex++)
+         {
+            for (int zIndex = 0; zIndex < NUMBER_OF_VOXELS_PER_DIMENSION; zIndex++)
+            {
+               int numberOfReachableRays = 0;
+               for (int rayIndex = 0; rayIndex < NUMBER_OF_RAYS; rayIndex++)
+               {
+                  boolean isRayReachable = reachableRays.contains(key(xIndex, yIndex, zIndex, rayIndex));
+                  assertEquals(isRayReachable, grid.isRayReachable(xIndex, yIndex, zIndex, rayIndex));
+                  if (isRayReachable)
+                     numberOfReachableRays++;
+
+                  for (int rotationIndex = 0; rotationIndex < NUMBER_OF_ROTATIONS_AROUND_RAY; rotationIndex++)
+                  {
+                     boolean isPoseReachable = reachablePoses.contains(key(xIndex, yIndex, zIndex, rayIndex) + " " + rotationIndex);
+                     assertEquals(isPoseReachable, grid.isPoseReachable(xIndex, yIndex, zIndex, rayIndex, rotationIndex));
+                  }
+               }
+
+               assertEquals(numberOfReachableRays / (double) NUMBER_OF_RAYS, grid.getD(xIndex, yIndex, zIndex), 1.0e-12);
+            }
+         }
+      }
+
+      assertEquals(3.0 / NUMBER_OF_RAYS, grid.getD(last, last, last), 1.0e-12);
+      assertEquals(2.0 / (NUMBER_OF_RAYS * NUMBER_OF_ROTATIONS_AROUND_RAY), grid.getD0(last, 0, last), 1.0e-12);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testIndicesOutsideOfTheGrid()
+   {
+      Voxel3DGrid grid = createGrid(ReferenceFrame.getWorldFrame(), NUMBER_OF_VOXELS_PER_DIMENSION);
+      int[][] invalidIndices = {{NUMBER_OF_VOXELS_PER_DIMENSION, 0, 0, 0, 0}, {0, -1, 0, 0, 0}, {0, 0, NUMBER_OF_VOXELS_PER_DIMENSION, 0, 0},
+            {0, 0, 0, NUMBER_OF_RAYS, 0}, {0, 0, 0, 0, NUMBER_OF_ROTATIONS_AROUND_RAY}};
+
+      for (int[] indices : invalidIndices)
+      {
+         try
+         {
+            grid.registerReachablePose(indices[0], indices[1], indices[2], indices[3], indices[4]);
+            fail("Registered a pose outside of the grid");
+         }
+         catch (ArrayIndexOutOfBoundsException e)
+         {
+            // Expected
+         }
+      }
+
+      for (long word : grid.getPoseReachabilityBits())
+         assertEquals(0L, word);
+      for (long word : grid.getRayReachabilityBits())
+         assertEquals(0L, word);
+      assertTrue(grid.getPoseReachabilityBits().length * 64L >= (long) grid.getTotalNumberOfVoxels() * NUMBER_OF_RAYS * NUMBER_OF_ROTATIONS_AROUND_RAY);
+   }
+}
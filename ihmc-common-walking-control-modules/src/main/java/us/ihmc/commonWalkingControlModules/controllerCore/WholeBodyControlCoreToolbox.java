@@ -30,6 +30,7 @@ import us.ihmc.mecano.tools.MultiBodySystemTools;
 import us.ihmc.robotics.contactable.ContactablePlaneBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
 import us.ihmc.robotics.screwTheory.TotalMassCalculator;
+import us.ihmc.robotics.time.TickProfiler;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoFrameVector3D;
 
@@ -79,6 +80,7 @@ public class WholeBodyControlCoreToolbox
    private MotionQPInputCalculator motionQPInputCalculator;
    private WholeBodyControllerBoundCalculator qpBoundCalculator;
    private WrenchMatrixCalculator wrenchMatrixCalculator;
+   private TickProfiler controllerCoreProfiler;
 
    private boolean enableInverseDynamicsModule = false;
    private boolean enableInverseKinematicsModule = false;
@@ -285,6 +287,17 @@ public class WholeBodyControlCoreToolbox
       return wrenchMatrixCalculator;
    }
 
+   /**
+    * Profiler shared by the modules of the controller core. A tick overruns when it takes longer
+    * than {@link #getControlDT()}.
+    */
+   public TickProfiler getControllerCoreProfiler()
+   {
+      if (controllerCoreProfiler == null)
+         controllerCoreProfiler = new TickProfiler("controllerCore", controlDT, registry);
+      return controllerCoreProfiler;
+   }
+
    public ControllerCoreOptimizationSettings getOptimizationSettings()
    {
       return optimizationSettings;
@@ -18,6 +18,7 @@ import us.ihmc.humanoidRobotics.model.CenterOfPressureDataHolder;
 import us.ihmc.mecano.multiBodySystem.interfaces.FloatingJointBasics;
 import us.ihmc.mecano.multiBodySystem.interfaces.OneDoFJointBasics;
 import us.ihmc.robotics.time.ExecutionTimer;
+import us.ihmc.robotics.time.TickProfiler;
 import us.ihmc.sensorProcessing.outputData.JointDesiredOutputList;
 import us.ihmc.sensorProcessing.outputData.JointDesiredOutputListBasics;
 import us.ihmc.sensorProcessing.outputData.JointDesiredOutputListReadOnly;
@@ -46,6 +47,13 @@ public class WholeBodyControllerCore
    private final ExecutionTimer controllerCoreComputeTimer = new ExecutionTimer("controllerCoreComputeTimer", 1.0, registry);
    private final ExecutionTimer controllerCoreSubmitTimer = new ExecutionTimer("controllerCoreSubmitTimer", 1.0, registry);
 
+   private final TickProfiler profiler;
+   private final TickProfiler.Stage submitStage;
+   private final TickProfiler.Stage feedbackStage;
+   private final TickProfiler.Stage feedbackSubmitStage;
+   private final TickProfiler.Stage solverStage;
+   private final TickProfiler.Stage outputStage;
+
    public WholeBodyControllerCore(WholeBodyControlCoreToolbox toolbox, FeedbackControlCommandList allPossibleCommands, YoVariableRegistry parentRegistry)
    {
       this(toolbox, allPossibleCommands, null, parentRegistry);
@@ -54,6 +62,13 @@ public class WholeBodyControllerCore
    public WholeBodyControllerCore(WholeBodyControlCoreToolbox toolbox, FeedbackControlCommandList allPossibleCommands,
                                   JointDesiredOutputList lowLevelControllerOutput, YoVariableRegistry parentRegistry)
    {
+      profiler = toolbox.getControllerCoreProfiler();
+      submitStage = profiler.createStage("submit");
+      feedbackStage = profiler.createStage("feedback");
+      feedbackSubmitStage = profiler.createStage("feedbackSubmit");
+      solverStage = profiler.createStage("solver");
+      outputStage = profiler.createStage("output");
+
       feedbackController = new WholeBodyFeedbackController(toolbox, allPossibleCommands, registry);
 
       if (toolbox.isEnableInverseDynamicsModule())
@@ -154,7 +169,9 @@ public class WholeBodyControllerCore
 
    public void submitControllerCoreCommand(ControllerCoreCommand controllerCoreCommand)
    {
+      profiler.startTick();
       controllerCoreSubmitTimer.startMeasurement();
+      submitStage.start();
       reset();
 
       boolean reinitializationRequested = controllerCoreCommand.isReinitializationRequested();
@@ -208,11 +225,13 @@ public class WholeBodyControllerCore
          rootJointDesiredConfigurationData.clear();
 
       controllerCoreCommand.clear();
+      submitStage.stop();
       controllerCoreSubmitTimer.stopMeasurement();
    }
 
    public void compute()
    {
+      profiler.startTick();
       controllerCoreComputeTimer.startMeasurement();
       switch (currentMode.getEnumValue())
       {
@@ -245,16 +264,24 @@ public class WholeBodyControllerCore
          controllerCoreOutput.setRootJointDesiredConfigurationData(rootJointDesiredConfigurationData);
       controllerCoreOutput.setLowLevelOneDoFJointDesiredDataHolder(jointDesiredOutputList);
       controllerCoreComputeTimer.stopMeasurement();
+      profiler.stopTick();
    }
 
    private void doInverseDynamics()
    {
+      feedbackStage.start();
       feedbackController.computeInverseDynamics();
+      feedbackStage.stop();
       InverseDynamicsCommandList feedbackControllerOutput = feedbackController.getInverseDynamicsOutput();
       numberOfFBControllerEnabled.set(feedbackControllerOutput.getNumberOfCommands());
+      feedbackSubmitStage.start();
       inverseDynamicsSolver.submitInverseDynamicsCommandList(feedbackControllerOutput);
+      feedbackSubmitStage.stop();
       inverseDynamicsSolver.submitResetIntegratorRequests(jointDesiredOutputList);
+      solverStage.start();
       inverseDynamicsSolver.compute();
+      solverStage.stop();
+      outputStage.start();
       feedbackController.computeAchievedAccelerations();
       LowLevelOneDoFJointDesiredDataHolder inverseDynamicsOutput = inverseDynamicsSolver.getOutput();
       RootJointDesiredConfigurationDataReadOnly inverseDynamicsOutputForRootJoint = inverseDynamicsSolver.getOutputForRootJoint();
@@ -262,35 +289,52 @@ public class WholeBodyControllerCore
       if (rootJointDesiredConfigurationData != null)
          rootJointDesiredConfigurationData.completeWith(inverseDynamicsOutputForRootJoint);
       controllerCoreOutput.setAndMatchFrameLinearMomentumRate(inverseDynamicsSolver.getAchievedMomentumRateLinear());
+      outputStage.stop();
    }
 
    private void doInverseKinematics()
    {
+      feedbackStage.start();
       feedbackController.computeInverseKinematics();
+      feedbackStage.stop();
       InverseKinematicsCommandList feedbackControllerOutput = feedbackController.getInverseKinematicsOutput();
       numberOfFBControllerEnabled.set(feedbackControllerOutput.getNumberOfCommands());
+      feedbackSubmitStage.start();
       inverseKinematicsSolver.submitInverseKinematicsCommandList(feedbackControllerOutput);
+      feedbackSubmitStage.stop();
+      solverStage.start();
       inverseKinematicsSolver.compute();
+      solverStage.stop();
+      outputStage.start();
       LowLevelOneDoFJointDesiredDataHolder inverseKinematicsOutput = inverseKinematicsSolver.getOutput();
       RootJointDesiredConfigurationDataReadOnly inverseKinematicsOutputForRootJoint = inverseKinematicsSolver.getOutputForRootJoint();
       jointDesiredOutputList.completeWith(inverseKinematicsOutput);
       if (rootJointDesiredConfigurationData != null)
          rootJointDesiredConfigurationData.completeWith(inverseKinematicsOutputForRootJoint);
+      outputStage.stop();
    }
 
    private void doVirtualModelControl()
    {
+      feedbackStage.start();
       feedbackController.computeVirtualModelControl();
+      feedbackStage.stop();
       VirtualModelControlCommandList feedbackControllerOutput = feedbackController.getVirtualModelControlOutput();
       numberOfFBControllerEnabled.set(feedbackControllerOutput.getNumberOfCommands());
+      feedbackSubmitStage.start();
       virtualModelControlSolver.submitVirtualModelControlCommandList(feedbackControllerOutput);
+      feedbackSubmitStage.stop();
+      solverStage.start();
       virtualModelControlSolver.compute();
+      solverStage.stop();
+      outputStage.start();
       LowLevelOneDoFJointDesiredDataHolder virtualModelControlOutput = virtualModelControlSolver.getOutput();
       RootJointDesiredConfigurationDataReadOnly virtualModelControlOutputForRootJoint = virtualModelControlSolver.getOutputForRootJoint();
       jointDesiredOutputList.completeWith(virtualModelControlOutput);
       if (rootJointDesiredConfigurationData != null)
          rootJointDesiredConfigurationData.completeWith(virtualModelControlOutputForRootJoint);
       controllerCoreOutput.setAndMatchFrameLinearMomentumRate(virtualModelControlSolver.getAchievedMomentumRateLinear());
+      outputStage.stop();
    }
 
    private void doNothing()
@@ -323,4 +367,9 @@ public class WholeBodyControllerCore
    {
       return feedbackController.getWholeBodyFeedbackControllerDataHolder();
    }
+
+   public TickProfiler getProfiler()
+   {
+      return profiler;
+   }
 }
@@ -69,6 +69,7 @@ import us.ihmc.commonWalkingControlModules.controllerAPI.input.MessageCollector.
 import us.ihmc.communication.ROS2Tools;
 import us.ihmc.communication.ROS2Tools.MessageTopicNameGenerator;
 import us.ihmc.communication.ROS2Tools.ROS2TopicQualifier;
+import us.ihmc.communication.controllerAPI.CommandInputManager;
 import us.ihmc.communication.controllerAPI.command.Command;
 import us.ihmc.euclid.interfaces.Settable;
 import us.ihmc.humanoidRobotics.communication.controllerAPI.command.AbortWalkingCommand;
@@ -164,6 +165,34 @@ public class ControllerAPIDefinition
       return controllerSupportedCommands;
    }
 
+   /**
+    * Registers the stop and abort commands in the priority lane of the controller input API. Each
+    * one only cancels the commands it stops: {@link StopAllTrajectoryCommand} the trajectories held
+    * by the managers, {@link AbortWalkingCommand} the footsteps.
+    * 
+    * @param commandInputManager the input API created with {@link #getControllerSupportedCommands()}.
+    */
+   public static void registerPriorityCommands(CommandInputManager commandInputManager)
+   {
+      List<Class<? extends Command<?, ?>>> stoppedTrajectoryCommands = new ArrayList<>();
+      stoppedTrajectoryCommands.add(ArmTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(HandTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(HandHybridJointspaceTaskspaceTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(ChestTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(SpineTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(ChestHybridJointspaceTaskspaceTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(FootTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(PelvisTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(PelvisOrientationTrajectoryCommand.class);
+      stoppedTrajectoryCommands.add(PelvisHeightTrajectoryCommand.class);
+      commandInputManager.registerPriorityCommand(StopAllTrajectoryCommand.class, stoppedTrajectoryCommands);
+
+      List<Class<? extends Command<?, ?>>> abortedWalkingCommands = new ArrayList<>();
+      abortedWalkingCommands.add(FootstepDataListCommand.class);
+      abortedWalkingCommands.add(AdjustFootstepCommand.class);
+      commandInputManager.registerPriorityCommand(AbortWalkingCommand.class, abortedWalkingCommands);
+   }
+
    public static List<Class<? extends Settable<?>>> getControllerSupportedStatusMessages()
    {
       return controllerSupportedStatusMessages;
@@ -123,6 +123,7 @@ public class HighLevelHumanoidControllerFactory implements CloseableAndDisposabl
       this.wristSensorNames = wristSensorNames;
 
       commandInputManager = new CommandInputManager(ControllerAPIDefinition.getControllerSupportedCommands());
+      ControllerAPIDefinition.registerPriorityCommands(commandInputManager);
       try
       {
          commandInputManager.registerConversionHelper(new ClearDelayQueueConverter(ControllerAPIDefinition.getControllerSupportedCommands()));
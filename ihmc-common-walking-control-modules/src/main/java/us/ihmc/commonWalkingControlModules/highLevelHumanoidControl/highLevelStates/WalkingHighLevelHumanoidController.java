@@ -70,6 +70,7 @@ import us.ihmc.robotics.screwTheory.ScrewTools;
 import us.ihmc.robotics.stateMachine.core.StateMachine;
 import us.ihmc.robotics.stateMachine.core.StateTransitionCondition;
 import us.ihmc.robotics.stateMachine.factories.StateMachineFactory;
+import us.ihmc.robotics.time.TickProfiler;
 import us.ihmc.yoVariables.parameters.DoubleParameter;
 import us.ihmc.yoVariables.providers.DoubleProvider;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
@@ -134,6 +135,15 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
 
    private final ParameterizedControllerCoreOptimizationSettings controllerCoreOptimizationSettings;
 
+   private final TickProfiler profiler;
+   private final TickProfiler.Stage commandsStage;
+   private final TickProfiler.Stage failureDetectionStage;
+   private final TickProfiler.Stage balanceStage;
+   private final TickProfiler.Stage stateMachineStage;
+   private final TickProfiler.Stage managersStage;
+   private final TickProfiler.Stage controllerCoreCommandsStage;
+   private final TickProfiler.Stage statusStage;
+
    public WalkingHighLevelHumanoidController(CommandInputManager commandInputManager, StatusMessageOutputManager statusOutputManager,
                                              HighLevelControlManagerFactory managerFactory, WalkingControllerParameters walkingControllerParameters,
                                              HighLevelHumanoidControllerToolbox controllerToolbox)
@@ -145,6 +155,15 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
       fullRobotModel = controllerToolbox.getFullRobotModel();
       yoTime = controllerToolbox.getYoTime();
 
+      profiler = new TickProfiler("walkingController", controllerToolbox.getControlDT(), registry);
+      commandsStage = profiler.createStage("commands");
+      failureDetectionStage = profiler.createStage("failureDetection");
+      balanceStage = profiler.createStage("balance");
+      stateMachineStage = profiler.createStage("stateMachine");
+      managersStage = profiler.createStage("managers");
+      controllerCoreCommandsStage = profiler.createStage("controllerCoreCommands");
+      statusStage = profiler.createStage("status");
+
       feet = controllerToolbox.getContactableFeet();
 
       allOneDoFjoints = MultiBodySystemTools.filterJoints(controllerToolbox.getControlledJoints(), OneDoFJointBasics.class);
@@ -508,9 +527,12 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
 
    public void doAction()
    {
+      profiler.startTick();
+
       controllerCoreOutput.getLinearMomentumRate(achievedLinearMomentumRate);
       balanceManager.computeAchievedCMP(achievedLinearMomentumRate);
 
+      commandsStage.start();
       WalkingState currentState = stateMachine.getCurrentState();
       commandConsumer.update();
       commandConsumer.consumeHeadCommands();
@@ -526,24 +548,36 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
       commandConsumer.handleAutomaticManipulationAbortOnICPError(currentState);
       commandConsumer.consumeLoadBearingCommands();
       commandConsumer.consumePlanarRegionsListCommand();
+      commandsStage.stop();
 
+      failureDetectionStage.start();
       updateFailureDetection();
+      failureDetectionStage.stop();
 
+      balanceStage.start();
       balanceManager.update();
 
       if (planarRegionsListHandler.hasNewPlanarRegions())
          balanceManager.submitCurrentPlanarRegions(planarRegionsListHandler.pollHasNewPlanarRegionsList());
+      balanceStage.stop();
 
+      stateMachineStage.start();
       stateMachine.doActionAndTransition();
+      stateMachineStage.stop();
 
       currentState = stateMachine.getCurrentState();
 
+      managersStage.start();
       updateManagers(currentState);
+      managersStage.stop();
 
+      controllerCoreCommandsStage.start();
       handleChangeInContactState();
 
       submitControllerCoreCommands();
+      controllerCoreCommandsStage.stop();
 
+      statusStage.start();
       for (RobotSide robotSide : RobotSide.values)
       {
          controllerCoreOutput.getDesiredCenterOfPressure(footDesiredCoPs.get(robotSide), feet.get(robotSide).getRigidBody());
@@ -552,6 +586,9 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
       }
 
       statusOutputManager.reportStatusMessage(balanceManager.updateAndReturnCapturabilityBasedStatus());
+      statusStage.stop();
+
+      profiler.stopTick();
    }
 
    private void handleChangeInContactState()
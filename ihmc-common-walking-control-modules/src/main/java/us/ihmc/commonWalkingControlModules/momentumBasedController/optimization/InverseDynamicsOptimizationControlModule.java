@@ -35,6 +35,7 @@ import us.ihmc.mecano.spatial.interfaces.SpatialForceReadOnly;
 import us.ihmc.mecano.spatial.interfaces.WrenchReadOnly;
 import us.ihmc.mecano.tools.MultiBodySystemTools;
 import us.ihmc.robotics.contactable.ContactablePlaneBody;
+import us.ihmc.robotics.time.TickProfiler;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoBoolean;
 import us.ihmc.yoVariables.variable.YoDouble;
@@ -81,6 +82,10 @@ public class InverseDynamicsOptimizationControlModule
 
    private final DenseMatrix64F zeroObjective = new DenseMatrix64F(0, 0);
 
+   private final TickProfiler.Stage qpSetupStage;
+   private final TickProfiler.Stage qpSolveStage;
+   private final TickProfiler.Stage qpSolutionStage;
+
    public InverseDynamicsOptimizationControlModule(WholeBodyControlCoreToolbox toolbox, YoVariableRegistry parentRegistry)
    {
       this(toolbox, null, parentRegistry);
@@ -94,6 +99,11 @@ public class InverseDynamicsOptimizationControlModule
       oneDoFJoints = jointIndexHandler.getIndexedOneDoFJoints();
       this.dynamicsMatrixCalculator = dynamicsMatrixCalculator;
 
+      TickProfiler profiler = toolbox.getControllerCoreProfiler();
+      qpSetupStage = profiler.createStage("qpSetup");
+      qpSolveStage = profiler.createStage("qpSolve");
+      qpSolutionStage = profiler.createStage("qpSolution");
+
       ReferenceFrame centerOfMassFrame = toolbox.getCenterOfMassFrame();
 
       numberOfDoFs = MultiBodySystemTools.computeDegreesOfFreedom(jointsToOptimizeFor);
@@ -168,6 +178,7 @@ public class InverseDynamicsOptimizationControlModule
 
    public boolean compute()
    {
+      qpSetupStage.start();
       wrenchMatrixCalculator.computeMatrices();
       if (VISUALIZE_RHO_BASIS_VECTORS)
          basisVectorVisualizer.visualize(wrenchMatrixCalculator.getBasisVectors(), wrenchMatrixCalculator.getBasisVectorsOrigin());
@@ -195,8 +206,13 @@ public class InverseDynamicsOptimizationControlModule
          qpSolver.setUseWarmStart(useWarmStart.getBooleanValue());
          qpSolver.notifyResetActiveSet();
       }
+      qpSetupStage.stop();
 
+      qpSolveStage.start();
       boolean hasConverged = qpSolver.solve();
+      qpSolveStage.stop();
+
+      qpSolutionStage.start();
       if (!hasConverged)
       {
          if (!hasNotConvergedInPast.getBooleanValue())
@@ -224,6 +240,7 @@ public class InverseDynamicsOptimizationControlModule
       momentumModuleSolution.setRhoSolution(rhoSolution);
       momentumModuleSolution.setJointsToOptimizeFor(jointsToOptimizeFor);
       momentumModuleSolution.setRigidBodiesWithExternalWrench(rigidBodiesWithExternalWrench);
+      qpSolutionStage.stop();
 
       return hasConverged;
    }
@@ -16,6 +16,8 @@ import us.ihmc.yoVariables.variable.YoInteger;
 public class InverseDynamicsQPSolver
 {
    private static final boolean SETUP_WRENCHES_CONSTRAINT_AS_OBJECTIVE = true;
+   /** Tasks with a larger fraction of non-zero Jacobian columns are added with dense products */
+   private static final double SPARSE_TASK_MAXIMUM_DENSITY = 0.75;
 
    private final YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
 
@@ -25,6 +27,8 @@ public class InverseDynamicsQPSolver
    private final YoFrameVector3D wrenchEquilibriumTorqueError;
 
    private final YoBoolean addRateRegularization = new YoBoolean("AddRateRegularization", registry);
+   private final YoBoolean useSparseTaskAssembly = new YoBoolean("useSparseTaskAssembly", registry);
+   private final TaskJacobianColumnSupport taskColumnSupport = new TaskJacobianColumnSupport();
    private final ActiveSetQPSolverWithInactiveVariablesInterface qpSolver;
 
    private final DenseMatrix64F solverInput_H;
@@ -85,6 +89,7 @@ public class InverseDynamicsQPSolver
       this.dt = dt;
 
       addRateRegularization.set(false);
+      useSparseTaskAssembly.set(true);
 
       solverInput_H = new DenseMatrix64F(problemSize, problemSize);
       solverInput_f = new DenseMatrix64F(problemSize, 1);
@@ -165,6 +170,14 @@ public class InverseDynamicsQPSolver
       this.useWarmStart = useWarmStart;
    }
 
+   /**
+    * When enabled, the cost of each task is only accumulated over the columns of its Jacobian that are non-zero.
+    */
+   public void setUseSparseTaskAssembly(boolean useSparseTaskAssembly)
+   {
+      this.useSparseTaskAssembly.set(useSparseTaskAssembly);
+   }
+
    public void setMaxNumberOfIterations(int maxNumberOfIterations)
    {
       this.maxNumberOfIterations = maxNumberOfIterations;
@@ -367,6 +380,17 @@ public class InverseDynamicsQPSolver
          throw new RuntimeException("This task does not fit.");
       }
 
+      if (isTaskSparse(taskJacobian))
+      {
+         // J^T W, only the rows of the columns used by the task
+         taskColumnSupport.multTransA(taskJacobian, taskWeight, tempJtW);
+         // Compute: H += J^T W J
+         taskColumnSupport.multAdd(tempJtW, taskJacobian, solverInput_H, offset);
+         // Compute: f += - J^T W Objective
+         taskColumnSupport.multAdd(-1.0, tempJtW, taskObjective, solverInput_f, offset);
+         return;
+      }
+
       tempJtW.reshape(variables, taskSize);
 
       // J^T W
@@ -387,6 +411,15 @@ public class InverseDynamicsQPSolver
          throw new RuntimeException("This task does not fit.");
       }
 
+      if (isTaskSparse(taskJacobian))
+      {
+         // Compute: H += J^T W J
+         taskColumnSupport.multAddInner(taskWeight, taskJacobian, solverInput_H, offset);
+         // Compute: f += - J^T W Objective
+         taskColumnSupport.multAddTransA(-taskWeight, taskJacobian, taskObjective, solverInput_f, offset);
+         return;
+      }
+
       // Compute: H += J^T W J
       MatrixTools.multAddBlockInner(taskWeight, taskJacobian, solverInput_H, offset, offset);
 
@@ -394,6 +427,18 @@ public class InverseDynamicsQPSolver
       MatrixTools.multAddBlockTransA(-taskWeight, taskJacobian, taskObjective, solverInput_f, offset, 0);
    }
 
+   /**
+    * Computes the column support of the task and tells whether it is worth using it.
+    */
+   private boolean isTaskSparse(DenseMatrix64F taskJacobian)
+   {
+      if (!useSparseTaskAssembly.getBooleanValue())
+         return false;
+
+      taskColumnSupport.compute(taskJacobian);
+      return taskColumnSupport.size() < SPARSE_TASK_MAXIMUM_DENSITY * taskJacobian.getNumCols();
+   }
+
    public void addMotionEqualityConstraint(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective)
    {
       if (taskJacobian.getNumCols() != numberOfDoFs)
@@ -0,0 +1,155 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+
+import us.ihmc.convexOptimization.quadraticProgram.SimpleEfficientActiveSetQPSolverWithInactiveVariables;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+/**
+ * Times the accumulation of the motion tasks of one controller tick into the cost of the {@link InverseDynamicsQPSolver},
+ * with and without {@link InverseDynamicsQPSolver#setUseSparseTaskAssembly(boolean)}.
+ * <p>
+ * The tasks mimic what the walking controller submits for Atlas and Valkyrie: feet, hands, chest, pelvis and head
+ * spatial accelerations, momentum rate, privileged configuration and arm joint space tasks. Each task Jacobian is only
+ * non-zero on the joints between the body and the floating base, like the output of the {@link MotionQPInputCalculator}.
+ * </p>
+ */
+public class InverseDynamicsQPSolverTaskAssemblyBenchmark
+{
+   private static final int NUMBER_OF_WARMUP_TICKS = 20000;
+   private static final int NUMBER_OF_TICKS = 100000;
+
+   private final String robotName;
+   private final int numberOfDoFs;
+   private final int rhoSize;
+   private final List<QPInput> motionInputs = new ArrayList<>();
+
+   /**
+    * The joints are ordered: floating base, spine, left leg, right leg, left arm, right arm, neck.
+    */
+   public InverseDynamicsQPSolverTaskAssemblyBenchmark(String robotName, int spineSize, int legSize, int armSize, int neckSize, int rhoSize, Random random)
+   {
+      this.robotName = robotName;
+      this.rhoSize = rhoSize;
+
+      int floatingBaseStart = 0;
+      int spineStart = floatingBaseStart + 6;
+      int leftLegStart = spineStart + spineSize;
+      int rightLegStart = leftLegStart + legSize;
+      int leftArmStart = rightLegStart + legSize;
+      int rightArmStart = leftArmStart + armSize;
+      int neckStart = rightArmStart + armSize;
+      numberOfDoFs = neckStart + neckSize;
+
+      int[] floatingBase = range(floatingBaseStart, 6);
+      int[] spine = range(spineStart, spineSize);
+
+      // feet
+      addSpatialTask(6, random, floatingBase, range(leftLegStart, legSize));
+      addSpatialTask(6, random, floatingBase, range(rightLegStart, legSize));
+      // hands
+      addSpatialTask(6, random, floatingBase, spine, range(leftArmStart, armSize));
+      addSpatialTask(6, random, floatingBase, spine, range(rightArmStart, armSize));
+      // chest, pelvis and head
+      addSpatialTask(3, random, floatingBase, spine);
+      addSpatialTask(6, random, floatingBase);
+      addSpatialTask(3, random, floatingBase, spine, range(neckStart, neckSize));
+      // momentum rate
+      addSpatialTask(6, random, range(0, numberOfDoFs));
+      // privileged configuration and arm joint space tasks
+      addJointspaceTask(range(spineStart, numberOfDoFs - 6));
+      addJointspaceTask(range(leftArmStart, armSize));
+      addJointspaceTask(range(rightArmStart, armSize));
+   }
+
+   private void addSpatialTask(int taskSize, Random random, int[]... jointIndices)
+   {
+      QPInput input = new QPInput(numberOfDoFs);
+      input.reshape(taskSize);
+      input.taskJacobian.zero();
+      for (int[] indices : jointIndices)
+      {
+         for (int col : indices)
+         {
+            for (int row = 0; row < taskSize; row++)
+               input.taskJacobian.set(row, col, random.nextDouble() - 0.5);
+         }
+      }
+      input.taskObjective.set(RandomMatrices.createRandom(taskSize, 1, -1.0, 1.0, random));
+      CommonOps.setIdentity(input.taskWeightMatrix);
+      CommonOps.scale(10.0, input.taskWeightMatrix);
+      motionInputs.add(input);
+   }
+
+   private void addJointspaceTask(int[] jointIndices)
+   {
+      QPInput input = new QPInput(numberOfDoFs);
+      input.reshape(jointIndices.length);
+      input.taskJacobian.zero();
+      for (int row = 0; row < jointIndices.length; row++)
+         input.taskJacobian.set(row, jointIndices[row], 1.0);
+      CommonOps.fill(input.taskObjective, 0.1);
+      input.setUseWeightScalar(true);
+      input.setWeight(5.0);
+      motionInputs.add(input);
+   }
+
+   private static int[] range(int start, int size)
+   {
+      int[] range = new int[size];
+      for (int i = 0; i < size; i++)
+         range[i] = start + i;
+      return range;
+   }
+
+   public void run()
+   {
+      double denseTime = time(false);
+      double sparseTime = time(true);
+
+      System.out.println(String.format("%s (%d DoFs, %d rhos, %d tasks): dense %.2f us/tick, sparse %.2f us/tick, speedup %.2f", robotName, numberOfDoFs,
+                                       rhoSize, motionInputs.size(), denseTime, sparseTime, denseTime / sparseTime));
+   }
+
+   /**
+    * @return the average time in microseconds to reset the solver and add all the tasks
+    */
+   private double time(boolean useSparseTaskAssembly)
+   {
+      InverseDynamicsQPSolver solver = new InverseDynamicsQPSolver(new SimpleEfficientActiveSetQPSolverWithInactiveVariables(), numberOfDoFs, rhoSize, true,
+                                                                   0.001, new YoVariableRegistry("benchmark"));
+      solver.setUseSparseTaskAssembly(useSparseTaskAssembly);
+
+      for (int tick = 0; tick < NUMBER_OF_WARMUP_TICKS; tick++)
+         assembleTasks(solver);
+
+      long startTime = System.nanoTime();
+      for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+         assembleTasks(solver);
+      long stopTime = System.nanoTime();
+
+      return 1.0e-3 * (stopTime - startTime) / NUMBER_OF_TICKS;
+   }
+
+   private void assembleTasks(InverseDynamicsQPSolver solver)
+   {
+      solver.reset();
+      for (int i = 0; i < motionInputs.size(); i++)
+         solver.addMotionInput(motionInputs.get(i));
+   }
+
+   public static void main(String[] args)
+   {
+      Random random = new Random(1776L);
+      // Atlas: 3 back, 6 per leg, 7 per arm, 1 neck joints, 4 contact points with 4 basis vectors per foot
+      new InverseDynamicsQPSolverTaskAssemblyBenchmark("Atlas", 3, 6, 7, 1, 32, random).run();
+      // Valkyrie: 3 torso, 6 per leg, 7 per arm, 3 neck joints, 4 contact points with 4 basis vectors per foot
+      new InverseDynamicsQPSolverTaskAssemblyBenchmark("Valkyrie", 3, 6, 7, 3, 32, random).run();
+   }
+}
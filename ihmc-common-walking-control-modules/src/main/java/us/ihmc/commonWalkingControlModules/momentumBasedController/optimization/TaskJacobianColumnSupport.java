@@ -0,0 +1,186 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * Records which columns of a task Jacobian are non-zero and accumulates the task into the QP cost using only these
+ * columns.
+ * <p>
+ * Motion tasks are expanded to the full number of degrees of freedom, but a task usually only depends on the joints
+ * between the body and the base. For a Jacobian J with s non-zero columns out of n, computing J<sup>T</sup> W J over the
+ * support costs O(s<sup>2</sup> m) instead of O(n<sup>2</sup> m), where m is the task size.
+ * </p>
+ */
+public class TaskJacobianColumnSupport
+{
+   private int[] columns = new int[0];
+   private int size = 0;
+
+   /**
+    * Finds the columns of the Jacobian that have at least one non-zero element.
+    */
+   public void compute(DenseMatrix64F taskJacobian)
+   {
+      int numRows = taskJacobian.getNumRows();
+      int numCols = taskJacobian.getNumCols();
+      double[] data = taskJacobian.getData();
+
+      if (columns.length < numCols)
+         columns = new int[numCols];
+
+      size = 0;
+
+      for (int col = 0; col < numCols; col++)
+      {
+         for (int index = col; index < numRows * numCols; index += numCols)
+         {
+            if (data[index] != 0.0)
+            {
+               columns[size++] = col;
+               break;
+            }
+         }
+      }
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public int getColumn(int index)
+   {
+      return columns[index];
+   }
+
+   /**
+    * Computes: H += a J<sup>T</sup> J over the support, with H being a block of the Hessian starting at (offset, offset).
+    */
+   public void multAddInner(double a, DenseMatrix64F taskJacobian, DenseMatrix64F hessian, int offset)
+   {
+      int numRows = taskJacobian.getNumRows();
+      int numCols = taskJacobian.getNumCols();
+      double[] J = taskJacobian.getData();
+      double[] H = hessian.getData();
+      int hessianCols = hessian.getNumCols();
+
+      for (int i = 0; i < size; i++)
+      {
+         int col_i = columns[i];
+
+         for (int j = i; j < size; j++)
+         {
+            int col_j = columns[j];
+
+            double sum = 0.0;
+            for (int row = 0; row < numRows; row++)
+               sum += J[row * numCols + col_i] * J[row * numCols + col_j];
+            sum *= a;
+
+            H[(col_i + offset) * hessianCols + col_j + offset] += sum;
+            if (col_i != col_j)
+               H[(col_j + offset) * hessianCols + col_i + offset] += sum;
+         }
+      }
+   }
+
+   /**
+    * Computes: f += a J<sup>T</sup> b over the support, with f being a block of the gradient starting at offset.
+    */
+   public void multAddTransA(double a, DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F gradient, int offset)
+   {
+      int numRows = taskJacobian.getNumRows();
+      int numCols = taskJacobian.getNumCols();
+      double[] J = taskJacobian.getData();
+      double[] b = taskObjective.getData();
+
+      for (int i = 0; i < size; i++)
+      {
+         int col = columns[i];
+
+         double sum = 0.0;
+         for (int row = 0; row < numRows; row++)
+            sum += J[row * numCols + col] * b[row];
+
+         gradient.add(col + offset, 0, a * sum);
+      }
+   }
+
+   /**
+    * Computes the rows of J<sup>T</sup> W that belong to the support. The result is packed in a
+    * {@code size() x taskSize} matrix.
+    */
+   public void multTransA(DenseMatrix64F taskJacobian, DenseMatrix64F taskWeight, DenseMatrix64F compactJtWToPack)
+   {
+      int taskSize = taskJacobian.getNumRows();
+      int numCols = taskJacobian.getNumCols();
+      double[] J = taskJacobian.getData();
+      double[] W = taskWeight.getData();
+
+      compactJtWToPack.reshape(size, taskSize);
+      double[] JtW = compactJtWToPack.getData();
+
+      for (int i = 0; i < size; i++)
+      {
+         int col = columns[i];
+
+         for (int k = 0; k < taskSize; k++)
+         {
+            double sum = 0.0;
+            for (int row = 0; row < taskSize; row++)
+               sum += J[row * numCols + col] * W[row * taskSize + k];
+            JtW[i * taskSize + k] = sum;
+         }
+      }
+   }
+
+   /**
+    * Computes: H += (J<sup>T</sup> W) J over the support, with the compact J<sup>T</sup> W from
+    * {@link #multTransA(DenseMatrix64F, DenseMatrix64F, DenseMatrix64F)}.
+    */
+   public void multAdd(DenseMatrix64F compactJtW, DenseMatrix64F taskJacobian, DenseMatrix64F hessian, int offset)
+   {
+      int taskSize = taskJacobian.getNumRows();
+      int numCols = taskJacobian.getNumCols();
+      double[] JtW = compactJtW.getData();
+      double[] J = taskJacobian.getData();
+      double[] H = hessian.getData();
+      int hessianCols = hessian.getNumCols();
+
+      for (int i = 0; i < size; i++)
+      {
+         int rowIndex = (columns[i] + offset) * hessianCols + offset;
+
+         for (int j = 0; j < size; j++)
+         {
+            int col = columns[j];
+
+            double sum = 0.0;
+            for (int k = 0; k < taskSize; k++)
+               sum += JtW[i * taskSize + k] * J[k * numCols + col];
+
+            H[rowIndex + col] += sum;
+         }
+      }
+   }
+
+   /**
+    * Computes: f += a (J<sup>T</sup> W) b over the support, with the compact J<sup>T</sup> W from
+    * {@link #multTransA(DenseMatrix64F, DenseMatrix64F, DenseMatrix64F)}.
+    */
+   public void multAdd(double a, DenseMatrix64F compactJtW, DenseMatrix64F taskObjective, DenseMatrix64F gradient, int offset)
+   {
+      int taskSize = compactJtW.getNumCols();
+      double[] JtW = compactJtW.getData();
+      double[] b = taskObjective.getData();
+
+      for (int i = 0; i < size; i++)
+      {
+         double sum = 0.0;
+         for (int k = 0; k < taskSize; k++)
+            sum += JtW[i * taskSize + k] * b[k];
+
+         gradient.add(columns[i] + offset, 0, a * sum);
+      }
+   }
+}
@@ -2,17 +2,29 @@ package us.ihmc.commonWalkingControlModules.highLevelHumanoidControl.factories;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.junit.Test;
+
+import controller_msgs.msg.dds.AbortWalkingMessage;
+import controller_msgs.msg.dds.ArmTrajectoryMessage;
+import controller_msgs.msg.dds.FootstepDataListMessage;
+import controller_msgs.msg.dds.HighLevelStateMessage;
+import us.ihmc.communication.controllerAPI.CommandInputManager;
 import us.ihmc.communication.controllerAPI.command.Command;
 import us.ihmc.communication.controllerAPI.command.QueueableCommand;
 import us.ihmc.communication.packets.ExecutionMode;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.commons.lists.SupplierBuilder;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.AbortWalkingCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.ArmTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.FootstepDataListCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.HighLevelControllerStateCommand;
+import us.ihmc.humanoidRobotics.communication.packets.dataobjects.HighLevelControllerName;
 
 import java.util.List;
 import java.util.Random;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ControllerAPIDefinitionTest
 {
@@ -61,6 +73,32 @@ public class ControllerAPIDefinitionTest
       }
    }
    
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testAbortWalkingOnlyCancelsFootsteps()
+   {
+      CommandInputManager commandInputManager = new CommandInputManager(ControllerAPIDefinition.getControllerSupportedCommands());
+      ControllerAPIDefinition.registerPriorityCommands(commandInputManager);
+
+      HighLevelStateMessage highLevelStateMessage = new HighLevelStateMessage();
+      highLevelStateMessage.setHighLevelControllerName(HighLevelControllerName.WALKING.toByte());
+      commandInputManager.submitMessage(highLevelStateMessage);
+      commandInputManager.submitMessage(new ArmTrajectoryMessage());
+      commandInputManager.submitMessage(new FootstepDataListMessage());
+      commandInputManager.submitMessage(new AbortWalkingMessage());
+
+      assertTrue(commandInputManager.isNewPriorityCommandAvailable());
+      assertEquals(1, commandInputManager.pollNewCommands(AbortWalkingCommand.class).size());
+
+      List<HighLevelControllerStateCommand> highLevelStateCommands = commandInputManager.pollNewCommands(HighLevelControllerStateCommand.class);
+      assertEquals(1, highLevelStateCommands.size());
+      assertEquals(HighLevelControllerName.WALKING, highLevelStateCommands.get(0).getHighLevelControllerName());
+      assertEquals(1, commandInputManager.pollNewCommands(ArmTrajectoryCommand.class).size());
+
+      assertEquals(0, commandInputManager.pollNewCommands(FootstepDataListCommand.class).size());
+      assertEquals(1, commandInputManager.getNumberOfDroppedCommands(FootstepDataListCommand.class));
+   }
+
    private Command<?, ?> getInstanceUsingEmptyConstructor(Class clazz)
    {
       Command<?, ?> command;
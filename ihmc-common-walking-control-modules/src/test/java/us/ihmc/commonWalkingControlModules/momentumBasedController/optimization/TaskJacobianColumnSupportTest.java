@@ -0,0 +1,81 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.robotics.testing.JUnitTools;
+
+public class TaskJacobianColumnSupportTest
+{
+   private static final double EPSILON = 1.0e-10;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAgainstDenseProducts()
+   {
+      Random random = new Random(4353L);
+      TaskJacobianColumnSupport columnSupport = new TaskJacobianColumnSupport();
+
+      for (int i = 0; i < 100; i++)
+      {
+         int taskSize = 1 + random.nextInt(6);
+         int numberOfVariables = 1 + random.nextInt(40);
+         int offset = random.nextInt(10);
+         int problemSize = offset + numberOfVariables + random.nextInt(10);
+
+         DenseMatrix64F taskJacobian = RandomMatrices.createRandom(taskSize, numberOfVariables, -1.0, 1.0, random);
+         int expectedSupportSize = numberOfVariables;
+         for (int col = 0; col < numberOfVariables; col++)
+         {
+            if (random.nextBoolean())
+            {
+               for (int row = 0; row < taskSize; row++)
+                  taskJacobian.set(row, col, 0.0);
+               expectedSupportSize--;
+            }
+         }
+         DenseMatrix64F taskObjective = RandomMatrices.createRandom(taskSize, 1, -1.0, 1.0, random);
+         DenseMatrix64F taskWeight = RandomMatrices.createRandom(taskSize, taskSize, -1.0, 1.0, random);
+         double taskWeightScalar = random.nextDouble();
+
+         columnSupport.compute(taskJacobian);
+         assertEquals(expectedSupportSize, columnSupport.size());
+
+         // Scalar weight
+         DenseMatrix64F expectedHessian = RandomMatrices.createRandom(problemSize, problemSize, -1.0, 1.0, random);
+         DenseMatrix64F expectedGradient = RandomMatrices.createRandom(problemSize, 1, -1.0, 1.0, random);
+         DenseMatrix64F hessian = new DenseMatrix64F(expectedHessian);
+         DenseMatrix64F gradient = new DenseMatrix64F(expectedGradient);
+
+         MatrixTools.multAddBlockInner(taskWeightScalar, taskJacobian, expectedHessian, offset, offset);
+         MatrixTools.multAddBlockTransA(-taskWeightScalar, taskJacobian, taskObjective, expectedGradient, offset, 0);
+         columnSupport.multAddInner(taskWeightScalar, taskJacobian, hessian, offset);
+         columnSupport.multAddTransA(-taskWeightScalar, taskJacobian, taskObjective, gradient, offset);
+
+         JUnitTools.assertMatrixEquals(expectedHessian, hessian, EPSILON);
+         JUnitTools.assertMatrixEquals(expectedGradient, gradient, EPSILON);
+
+         // Weight matrix
+         DenseMatrix64F JtW = new DenseMatrix64F(numberOfVariables, taskSize);
+         DenseMatrix64F compactJtW = new DenseMatrix64F(0, 0);
+         CommonOps.multTransA(taskJacobian, taskWeight, JtW);
+
+         MatrixTools.multAddBlock(JtW, taskJacobian, expectedHessian, offset, offset);
+         MatrixTools.multAddBlock(-1.0, JtW, taskObjective, expectedGradient, offset, 0);
+         columnSupport.multTransA(taskJacobian, taskWeight, compactJtW);
+         columnSupport.multAdd(compactJtW, taskJacobian, hessian, offset);
+         columnSupport.multAdd(-1.0, compactJtW, taskObjective, gradient, offset);
+
+         JUnitTools.assertMatrixEquals(expectedHessian, hessian, EPSILON);
+         JUnitTools.assertMatrixEquals(expectedGradient, gradient, EPSILON);
+      }
+   }
+}
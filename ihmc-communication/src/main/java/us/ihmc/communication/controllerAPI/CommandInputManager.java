@@ -6,6 +6,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gnu.trove.list.array.TLongArrayList;
 
 import us.ihmc.commons.PrintTools;
 import us.ihmc.communication.controllerAPI.MessageUnpackingTools.MessageUnpacker;
@@ -28,6 +31,10 @@ import us.ihmc.commons.lists.RecyclingArrayList;
  * The list of supported inputs can be accessed using {@link #getListOfSupportedMessages()} and
  * {@link #getListOfSupportedCommands()}.
  * 
+ * How new commands of a type are handed to the controller is defined by its {@link CommandPolicy},
+ * see {@link #setCommandPolicy(Class, CommandPolicy)}. Stop or abort commands can be registered in
+ * a priority lane with {@link #registerPriorityCommand(Class, List)}.
+ * 
  * CommandInputManager assumes that the different methods for submitting a inputs are called from
  * another thread. ABSOLUTELY NO Packet/Command should be directly passed to controller, any
  * Packet/Command has to go through this API to ensure that multi-threading is done properly.
@@ -45,20 +52,20 @@ public class CommandInputManager
     * {@link #clearAllCommands()}. These buffers CANNOT be visible or accessed from outside this
     * class.
     */
-   private final List<ConcurrentRingBuffer<?>> allBuffers = new ArrayList<>();
+   private final List<CommandBuffer<?>> allBuffers = new ArrayList<>();
    /**
     * Map from the registered commands to their associated buffer. These buffers CANNOT be visible
     * or accessed from outside this class.
     */
-   private final Map<Class<? extends Command<?, ?>>, ConcurrentRingBuffer<? extends Command<?, ?>>> commandClassToBufferMap = new HashMap<>();
+   private final Map<Class<? extends Command<?, ?>>, CommandBuffer<?>> commandClassToBufferMap = new HashMap<>();
    /**
     * Map from the registered messages to their associated buffer. These buffers CANNOT be visible
     * or accessed from outside this class.
     */
-   private final Map<Class<? extends Settable<?>>, ConcurrentRingBuffer<? extends Command<?, ?>>> messageClassToBufferMap = new HashMap<>();
+   private final Map<Class<? extends Settable<?>>, CommandBuffer<?>> messageClassToBufferMap = new HashMap<>();
 
-   /** Controller's copy of the new commands to be processed. */
-   private final Map<Class<? extends Command<?, ?>>, RecyclingArrayList<? extends Command<?, ?>>> commandsMap = new HashMap<>();
+   /** Counter used to order the submissions of all command types. */
+   private final AtomicLong submissionCounter = new AtomicLong();
 
    /** Exhaustive list of all the supported commands that this API can process. */
    private final List<Class<? extends Command<?, ?>>> listOfSupportedCommands = new ArrayList<>();
@@ -159,18 +166,115 @@ public class CommandInputManager
    private <C extends Command<C, M>, M extends Settable<M>> void registerNewCommand(Class<C> commandClass)
    {
       Builder<C> builer = createBuilderWithEmptyConstructor(commandClass);
-      ConcurrentRingBuffer<C> newBuffer = new ConcurrentRingBuffer<>(builer, buffersCapacity);
+      CommandBuffer<C> newBuffer = new CommandBuffer<>(commandClass, builer, buffersCapacity);
       allBuffers.add(newBuffer);
       // This is retarded, but I could not find another way that is more elegant.
       Class<M> messageClass = builer.newInstance().getMessageClass();
       commandClassToBufferMap.put(commandClass, newBuffer);
       messageClassToBufferMap.put(messageClass, newBuffer);
-      commandsMap.put(commandClass, new RecyclingArrayList<>(buffersCapacity, commandClass));
 
       listOfSupportedCommands.add(commandClass);
       listOfSupportedMessages.add(messageClass);
    }
 
+   /**
+    * Sets how new commands of a type are handed to the controller. The default is
+    * {@link CommandPolicy#QUEUE}. Use {@link #setRateLimitedCommandPolicy(Class, double)} for
+    * {@link CommandPolicy#RATE_LIMITED}.
+    * <p>
+    * {@link CommandPolicy#LATEST_ONLY} should only be used for commands that always replace the
+    * previous one, e.g. streamed trajectories that are not queued.
+    * </p>
+    * 
+    * @param commandClass the registered command type.
+    * @param policy the policy for that command type.
+    */
+   public void setCommandPolicy(Class<? extends Command<?, ?>> commandClass, CommandPolicy policy)
+   {
+      if (policy == CommandPolicy.RATE_LIMITED)
+         throw new IllegalArgumentException("Use setRateLimitedCommandPolicy to set a rate limit.");
+
+      getBuffer(commandClass).setPolicy(policy, 0.0);
+   }
+
+   /**
+    * Accepts at most one command of the given type per period. Commands submitted sooner after the
+    * last accepted one are dropped before being converted.
+    * 
+    * @param commandClass the registered command type.
+    * @param minimumPeriod minimum time in seconds between two accepted commands.
+    */
+   public void setRateLimitedCommandPolicy(Class<? extends Command<?, ?>> commandClass, double minimumPeriod)
+   {
+      if (!(minimumPeriod > 0.0))
+         throw new IllegalArgumentException("The minimum period has to be positive, was: " + minimumPeriod);
+
+      getBuffer(commandClass).setPolicy(CommandPolicy.RATE_LIMITED, minimumPeriod);
+   }
+
+   public CommandPolicy getCommandPolicy(Class<? extends Command<?, ?>> commandClass)
+   {
+      return getBuffer(commandClass).policy;
+   }
+
+   /**
+    * Registers a command type, e.g. stop or abort commands, in the priority lane. Priority commands
+    * are always queued, never rate limited or coalesced. The commands of the cancelled types that
+    * were submitted before a priority command are discarded if the controller has not polled them
+    * yet. Commands of the other types are not affected.
+    * 
+    * @param commandClass the registered command type.
+    * @param cancelledCommandClasses the registered command types cancelled by this command.
+    */
+   public void registerPriorityCommand(Class<? extends Command<?, ?>> commandClass, List<Class<? extends Command<?, ?>>> cancelledCommandClasses)
+   {
+      CommandBuffer<?> buffer = getBuffer(commandClass);
+      CommandBuffer<?>[] cancelledBuffers = new CommandBuffer<?>[cancelledCommandClasses.size()];
+      for (int i = 0; i < cancelledBuffers.length; i++)
+      {
+         cancelledBuffers[i] = getBuffer(cancelledCommandClasses.get(i));
+         if (cancelledBuffers[i] == buffer)
+            throw new IllegalArgumentException("The priority command " + commandClass.getSimpleName() + " cannot cancel itself.");
+      }
+      buffer.cancelledBuffers = cancelledBuffers;
+      buffer.isPriority = true;
+   }
+
+   private CommandBuffer<?> getBuffer(Class<? extends Command<?, ?>> commandClass)
+   {
+      CommandBuffer<?> buffer = commandClassToBufferMap.get(commandClass);
+      if (buffer == null)
+         throw new RuntimeException(printStatementPrefix + "The command type " + commandClass.getSimpleName() + " is not supported.");
+      return buffer;
+   }
+
+   /**
+    * @return the number of commands of the given type that were accepted for the controller.
+    */
+   public long getNumberOfSubmittedCommands(Class<? extends Command<?, ?>> commandClass)
+   {
+      return getBuffer(commandClass).submittedCommands.get();
+   }
+
+   /**
+    * @return the number of commands of the given type that were replaced by a newer one before the
+    *         controller read them, see {@link CommandPolicy#LATEST_ONLY}.
+    */
+   public long getNumberOfCoalescedCommands(Class<? extends Command<?, ?>> commandClass)
+   {
+      return getBuffer(commandClass).coalescedCommands.get();
+   }
+
+   /**
+    * @return the number of commands of the given type that were dropped because the buffer was
+    *         full, because of the rate limit, or because a priority command cancelling them was
+    *         submitted after them.
+    */
+   public long getNumberOfDroppedCommands(Class<? extends Command<?, ?>> commandClass)
+   {
+      return getBuffer(commandClass).droppedCommands.get();
+   }
+
    public void registerHasReceivedInputListener(HasReceivedInputListener hasReceivedInputListener)
    {
       hasReceivedInputListeners.add(hasReceivedInputListener);
@@ -211,13 +315,16 @@ public class CommandInputManager
          return;
       }
 
-      ConcurrentRingBuffer buffer = messageClassToBufferMap.get(message.getClass());
+      CommandBuffer buffer = messageClassToBufferMap.get(message.getClass());
       if (buffer == null)
       {
          PrintTools.error(this, printStatementPrefix + "The message type " + message.getClass().getSimpleName() + " is not supported.");
          return;
       }
-      Command nextCommand = (Command) buffer.next();
+      if (buffer.isRateLimited())
+         return;
+
+      Command nextCommand = buffer.next();
       if (nextCommand == null)
       {
          PrintTools.warn(this, printStatementPrefix + "The buffer for the message: " + message.getClass().getSimpleName() + " is full. Message ignored.");
@@ -231,12 +338,23 @@ public class CommandInputManager
          nextCommand.setFromMessage(message);
       }
 
-      buffer.commit();
+      commit(buffer);
 
       for (int i = 0; i < hasReceivedInputListeners.size(); i++)
          hasReceivedInputListeners.get(i).hasReceivedInput((Class<? extends Command<?, ?>>) commandClass);
    }
 
+   private void commit(CommandBuffer<?> buffer)
+   {
+      long submission = buffer.commit(submissionCounter.getAndIncrement());
+      if (buffer.isPriority)
+      {
+         CommandBuffer<?>[] cancelledBuffers = buffer.cancelledBuffers;
+         for (int i = 0; i < cancelledBuffers.length; i++)
+            cancelledBuffers[i].cancelBefore(submission);
+      }
+   }
+
    /**
     * Finds the first converter in {@link #commandConverters} that can convert {@code message} into
     * {@code commandToStoreMessage} and use it to convert the message.
@@ -292,21 +410,23 @@ public class CommandInputManager
       if (!command.isCommandValid())
          return;
 
-      ConcurrentRingBuffer<? extends Command<?, ?>> buffer = commandClassToBufferMap.get(command.getClass());
+      CommandBuffer<C> buffer = (CommandBuffer<C>) commandClassToBufferMap.get(command.getClass());
       if (buffer == null)
       {
          PrintTools.error(this, printStatementPrefix + "The command type " + command.getClass().getSimpleName() + " is not supported.");
          return;
       }
+      if (buffer.isRateLimited())
+         return;
 
-      Command<C, ?> nextModifiableMessage = (Command<C, ?>) buffer.next();
+      C nextModifiableMessage = buffer.next();
       if (nextModifiableMessage == null)
       {
          PrintTools.warn(this, printStatementPrefix + "The buffer for the command: " + command.getClass().getSimpleName() + " is full. Command ignored.");
          return;
       }
       nextModifiableMessage.set(command);
-      buffer.commit();
+      commit(buffer);
 
       for (int i = 0; i < hasReceivedInputListeners.size(); i++)
          hasReceivedInputListeners.get(i).hasReceivedInput((Class<? extends Command<?, ?>>) command.getClass());
@@ -329,12 +449,10 @@ public class CommandInputManager
 
    public boolean isNewCommandAvailable()
    {
+      boolean isNewCommandAvailable = false;
       for (int i = 0; i < allBuffers.size(); i++)
-      {
-         if (allBuffers.get(i).poll())
-            return true;
-      }
-      return false;
+         isNewCommandAvailable |= allBuffers.get(i).update();
+      return isNewCommandAvailable;
    }
 
    /**
@@ -345,7 +463,25 @@ public class CommandInputManager
     */
    public boolean isNewCommandAvailable(Class<? extends Command<?, ?>> commandClassToCheck)
    {
-      return commandClassToBufferMap.get(commandClassToCheck).poll();
+      return commandClassToBufferMap.get(commandClassToCheck).update();
+   }
+
+   /**
+    * Check if a new command registered with {@link #registerPriorityCommand(Class, List)} is
+    * available.
+    * 
+    * @return true if at least one new priority command is available.
+    */
+   public boolean isNewPriorityCommandAvailable()
+   {
+      boolean isNewCommandAvailable = false;
+      for (int i = 0; i < allBuffers.size(); i++)
+      {
+         CommandBuffer<?> buffer = allBuffers.get(i);
+         if (buffer.isPriority)
+            isNewCommandAvailable |= buffer.update();
+      }
+      return isNewCommandAvailable;
    }
 
    /**
@@ -363,7 +499,7 @@ public class CommandInputManager
    public void clearAllCommands()
    {
       for (int i = 0; i < allBuffers.size(); i++)
-         clearBuffer(allBuffers.get(i));
+         allBuffers.get(i).clear();
    }
 
    /**
@@ -384,7 +520,7 @@ public class CommandInputManager
     */
    public <C extends Command<C, ?>> void clearCommands(Class<C> commandClassToClear)
    {
-      clearBuffer(commandClassToBufferMap.get(commandClassToClear));
+      commandClassToBufferMap.get(commandClassToClear).clear();
    }
 
    /**
@@ -410,52 +546,8 @@ public class CommandInputManager
    @SuppressWarnings("unchecked")
    public <C extends Command<C, ?>> List<C> pollNewCommands(Class<C> commandClassToPoll)
    {
-      RecyclingArrayList<C> commands = (RecyclingArrayList<C>) commandsMap.get(commandClassToPoll);
-      ConcurrentRingBuffer<C> buffer = (ConcurrentRingBuffer<C>) commandClassToBufferMap.get(commandClassToPoll);
-      pollNewCommands(buffer, commands);
-      return commands;
-   }
-
-   /**
-    * Reads all the available elements from the buffer and then flushes it.
-    * 
-    * @param bufferToClear the buffer to be cleared from the reader perspective. Modified.
-    */
-   private static void clearBuffer(ConcurrentRingBuffer<?> bufferToClear)
-   {
-      if (bufferToClear.poll())
-      {
-         for (int i = 0; i < bufferToClear.getCapacity(); i++)
-         {
-            if (bufferToClear.read() == null)
-               break;
-         }
-         bufferToClear.flush();
-      }
-   }
-
-   /**
-    * This method has to remain private. Reads all the new available commands from a buffer and copy
-    * them in a list.
-    * 
-    * @param buffer Buffer in which the new available commands are stored.
-    * @param commandsToPack Used to copy and store all the new available commands. This list will be
-    *           empty is there is no new available command.
-    */
-   private static <C extends Command<C, ?>> void pollNewCommands(ConcurrentRingBuffer<C> buffer, RecyclingArrayList<C> commandsToPack)
-   {
-      commandsToPack.clear();
-
-      if (buffer.poll())
-      {
-         C command;
-         while ((command = buffer.read()) != null)
-         {
-            commandsToPack.add().set(command);
-            command.clear();
-         }
-         buffer.flush();
-      }
+      CommandBuffer<C> buffer = (CommandBuffer<C>) commandClassToBufferMap.get(commandClassToPoll);
+      return buffer.poll();
    }
 
    /**
@@ -518,6 +610,238 @@ public class CommandInputManager
       return listOfSupportedMessages;
    }
 
+   /**
+    * Defines how the new commands of one type are handed to the controller.
+    */
+   public static enum CommandPolicy
+   {
+      /** Every command is handed to the controller in the order it was submitted. */
+      QUEUE,
+      /**
+       * Only the newest command is handed to the controller, older ones that have not been read yet
+       * are discarded without being copied.
+       */
+      LATEST_ONLY,
+      /** Like {@link #QUEUE}, but commands submitted faster than a given rate are dropped. */
+      RATE_LIMITED
+   }
+
+   /**
+    * Element of the ring buffer, stores the command and the order of its submission.
+    */
+   private static class CommandEntry<C>
+   {
+      private final C command;
+      private long submission;
+
+      private CommandEntry(C command)
+      {
+         this.command = command;
+      }
+   }
+
+   /**
+    * Holds the new commands of one type. The ring buffer is written by the submitting thread. The
+    * controller thread moves the commands it reads into {@link #pendingCommands}, applying the
+    * policy, and hands them over in {@link #poll()}.
+    */
+   private static class CommandBuffer<C extends Command<C, ?>>
+   {
+      private final ConcurrentRingBuffer<CommandEntry<C>> ringBuffer;
+      private RecyclingArrayList<C> pendingCommands;
+      /** Submission numbers of the pending commands, in the same order. */
+      private final TLongArrayList pendingSubmissions;
+      private RecyclingArrayList<C> polledCommands;
+
+      private volatile CommandPolicy policy = CommandPolicy.QUEUE;
+      private volatile long minimumPeriod = 0;
+      private volatile boolean isPriority = false;
+      /** Buffers of the command types cancelled when a command of this priority type is submitted. */
+      private volatile CommandBuffer<?>[] cancelledBuffers = new CommandBuffer<?>[0];
+      /**
+       * Submission number of the last priority command cancelling this command type. Commands
+       * submitted before it are discarded when the controller reads them.
+       */
+      private final AtomicLong cancellingSubmission = new AtomicLong(-1);
+      /** Only accessed by the submitting thread. */
+      private long lastSubmissionTime = Long.MIN_VALUE;
+      private CommandEntry<C> nextEntry;
+
+      private final AtomicLong submittedCommands = new AtomicLong();
+      private final AtomicLong coalescedCommands = new AtomicLong();
+      private final AtomicLong droppedCommands = new AtomicLong();
+
+      private CommandBuffer(Class<C> commandClass, Builder<C> commandBuilder, int capacity)
+      {
+         ringBuffer = new ConcurrentRingBuffer<>(() -> new CommandEntry<>(commandBuilder.newInstance()), capacity);
+         pendingCommands = new RecyclingArrayList<>(capacity, commandClass);
+         pendingSubmissions = new TLongArrayList(capacity);
+         polledCommands = new RecyclingArrayList<>(capacity, commandClass);
+      }
+
+      private void setPolicy(CommandPolicy policy, double minimumPeriod)
+      {
+         this.minimumPeriod = (long) (minimumPeriod * 1.0e9);
+         this.policy = policy;
+      }
+
+      /**
+       * Called by the submitting thread, returns true and counts the command as dropped if it
+       * arrives too soon after the last accepted one.
+       */
+      private boolean isRateLimited()
+      {
+         if (isPriority || policy != CommandPolicy.RATE_LIMITED)
+            return false;
+
+         long currentTime = System.nanoTime();
+         if (lastSubmissionTime != Long.MIN_VALUE && currentTime - lastSubmissionTime < minimumPeriod)
+         {
+            droppedCommands.incrementAndGet();
+            return true;
+         }
+         lastSubmissionTime = currentTime;
+         return false;
+      }
+
+      /**
+       * Called by the submitting thread, returns the command to write into or null if the buffer is
+       * full.
+       */
+      private C next()
+      {
+         nextEntry = ringBuffer.next();
+         if (nextEntry == null)
+         {
+            droppedCommands.incrementAndGet();
+            return null;
+         }
+         return nextEntry.command;
+      }
+
+      /**
+       * Called by the submitting thread after writing into the command returned by
+       * {@link #next()}.
+       * 
+       * @return the submission number.
+       */
+      private long commit(long submission)
+      {
+         nextEntry.submission = submission;
+         nextEntry = null;
+         ringBuffer.commit();
+         submittedCommands.incrementAndGet();
+         return submission;
+      }
+
+      /**
+       * Called by the submitting thread of a priority command cancelling this command type.
+       * Submissions from different threads can commit out of order, the newest one is kept.
+       */
+      private void cancelBefore(long submission)
+      {
+         cancellingSubmission.accumulateAndGet(submission, Math::max);
+      }
+
+      /**
+       * Called by the controller thread, discards the cancelled commands and moves the new commands
+       * from the ring buffer to the pending commands.
+       * 
+       * @return whether there are pending commands.
+       */
+      private boolean update()
+      {
+         long cancellingSubmission = this.cancellingSubmission.get();
+
+         // The pending commands are ordered by submission, the cancelled ones are at the beginning
+         int numberOfCancelledCommands = 0;
+         while (numberOfCancelledCommands < pendingSubmissions.size() && pendingSubmissions.get(numberOfCancelledCommands) < cancellingSubmission)
+            numberOfCancelledCommands++;
+
+         if (numberOfCancelledCommands > 0)
+         {
+            for (int i = 0; i < numberOfCancelledCommands; i++)
+               pendingCommands.remove(0);
+            pendingSubmissions.remove(0, numberOfCancelledCommands);
+            droppedCommands.addAndGet(numberOfCancelledCommands);
+         }
+
+         if (ringBuffer.poll())
+         {
+            CommandEntry<C> newestEntry = null;
+            CommandEntry<C> entry;
+            while ((entry = ringBuffer.read()) != null)
+            {
+               if (entry.submission < cancellingSubmission)
+               {
+                  droppedCommands.incrementAndGet();
+               }
+               else if (policy == CommandPolicy.LATEST_ONLY && !isPriority)
+               {
+                  if (newestEntry != null)
+                  {
+                     coalescedCommands.incrementAndGet();
+                     newestEntry.command.clear();
+                  }
+                  newestEntry = entry;
+                  continue;
+               }
+               else
+               {
+                  pendingCommands.add().set(entry.command);
+                  pendingSubmissions.add(entry.submission);
+               }
+               entry.command.clear();
+            }
+
+            if (newestEntry != null)
+            {
+               coalescedCommands.addAndGet(pendingCommands.size());
+               pendingCommands.clear();
+               pendingSubmissions.resetQuick();
+               pendingCommands.add().set(newestEntry.command);
+               pendingSubmissions.add(newestEntry.submission);
+               newestEntry.command.clear();
+            }
+            ringBuffer.flush();
+         }
+
+         return !pendingCommands.isEmpty();
+      }
+
+      /**
+       * Called by the controller thread, returns the new commands. The list is valid until the next
+       * call to this method.
+       */
+      private RecyclingArrayList<C> poll()
+      {
+         update();
+
+         RecyclingArrayList<C> newCommands = pendingCommands;
+         pendingCommands = polledCommands;
+         polledCommands = newCommands;
+         pendingCommands.clear();
+         pendingSubmissions.resetQuick();
+         return newCommands;
+      }
+
+      /**
+       * Called by the controller thread, throws away all the new commands.
+       */
+      private void clear()
+      {
+         if (ringBuffer.poll())
+         {
+            CommandEntry<C> entry;
+            while ((entry = ringBuffer.read()) != null)
+               entry.command.clear();
+            ringBuffer.flush();
+         }
+         pendingCommands.clear();
+         pendingSubmissions.resetQuick();
+      }
+   }
+
    /**
     * Use this interface to get notified when this API has received a new valid command.
     */
@@ -1,24 +1,19 @@
 package us.ihmc.communication.net;
 
-import java.awt.Container;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.swing.JFrame;
-import javax.swing.JScrollPane;
-import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
-
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.EndPoint;
 import com.esotericsoftware.kryonet.FrameworkMessage.KeepAlive;
 import com.esotericsoftware.kryonet.Listener;
 
-import us.ihmc.commons.FormattingTools;
 import us.ihmc.commons.thread.ThreadTools;
 
 public abstract class KryoObjectCommunicator implements NetworkedObjectCommunicator
@@ -26,48 +21,62 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    private final AtomicBoolean throwExceptionForUnregisteredPackets = new AtomicBoolean(true);
    private final LinkedHashMap<Class<?>, ExecutorService> listenerExecutors = new LinkedHashMap<Class<?>, ExecutorService>();
    private final LinkedHashMap<Class<?>, ArrayList<ObjectConsumer<?>>> listeners = new LinkedHashMap<Class<?>, ArrayList<ObjectConsumer<?>>>();
+   private final LinkedHashMap<Class<?>, PacketStatistics> packetStatistics = new LinkedHashMap<Class<?>, PacketStatistics>();
 
    private final ArrayList<TcpNetStateListener> tcpStateListeners = new ArrayList<TcpNetStateListener>();
    private final ArrayList<ConnectionStateListener> stateListeners = new ArrayList<ConnectionStateListener>();
    
    private final ArrayList<GlobalObjectConsumer> globalListeners = new ArrayList<GlobalObjectConsumer>();
-   
-   // Stuff for data count table 
-   private DefaultTableModel dataRateTable;
-   private LinkedHashMap<Class<?>, TableData> dataCounts;
-   private long startTime = 0;
-   
-   
-   public void showBandwidthDialog(String name)
+
+   private final ArrayList<Class<?>> packetClasses = new ArrayList<Class<?>>();
+   private int numberOfEventLoops = 0;
+   private int eventLoopQueueCapacity = KryoPacketDispatcher.DEFAULT_QUEUE_CAPACITY;
+   private KryoPacketDispatcher dispatcher;
+   private boolean isDisconnected = false;
+
+   /**
+    * Dispatch received objects on a few event loop threads instead of one thread per registered class. Has to be
+    * called before connecting. See {@link KryoPacketDispatcher}.
+    *
+    * @param numberOfEventLoops number of dispatcher threads, the classes are distributed over them
+    * @param queueCapacity number of received objects each event loop can hold before it starts dropping objects
+    */
+   public void useEventLoopDispatcher(int numberOfEventLoops, int queueCapacity)
+   {
+      if (!listenerExecutors.isEmpty() || dispatcher != null)
+         throw new RuntimeException("The dispatcher has to be selected before connecting");
+      if (numberOfEventLoops < 1)
+         throw new IllegalArgumentException("Need at least one event loop, got " + numberOfEventLoops);
+
+      this.numberOfEventLoops = numberOfEventLoops;
+      this.eventLoopQueueCapacity = queueCapacity;
+   }
+
+   /**
+    * @return the counters of a registered class, or null if the class is not registered
+    */
+   public PacketStatistics getPacketStatistics(Class<?> clazz)
+   {
+      return packetStatistics.get(clazz);
+   }
+
+   /**
+    * @return the counters of all registered classes in the order they were registered
+    */
+   public Collection<PacketStatistics> getPacketStatistics()
+   {
+      return Collections.unmodifiableCollection(packetStatistics.values());
+   }
+
+   public void printPacketStatistics()
    {
-      if(dataRateTable == null)
+      for (PacketStatistics statistics : packetStatistics.values())
       {
-         dataCounts = new LinkedHashMap<Class<?>, TableData>();
-         JFrame jFrame = new JFrame(name);
-         Container contentPane = jFrame.getContentPane();
-         
-         dataRateTable = new DefaultTableModel(new Object[]{"Object", "Total bits", "bps"}, 0);
-         
-         int rowNumber = 0;
-         for(Class<?> clazz : listeners.keySet())
-         {
-            dataCounts.put(clazz, new TableData(rowNumber));
-            dataRateTable.addRow(new Object[] { clazz.getSimpleName(), 0, 0 });
-            rowNumber++;
-         }
-         
-         JTable table = new JTable(dataRateTable);
-         JScrollPane scrollPane = new JScrollPane(table);
-         contentPane.add(scrollPane);
-         
-         
-         jFrame.pack();
-         jFrame.setSize(400, 500);
-         jFrame.setLocationByPlatform(true);
-         jFrame.setVisible(true);
+         if (statistics.getSentPackets() > 0 || statistics.getReceivedPackets() > 0)
+            System.out.println(statistics);
       }
    }
-   
+
    protected void registerClassList(NetClassList classList)
    {
 	   if(!listeners.containsKey(Object.class))
@@ -78,9 +87,27 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
 	   for(Class<?> clazz : classList.getPacketClassList())
 	   {
 		   listeners.put(clazz, new ArrayList<ObjectConsumer<?>>());
-		   listenerExecutors.put(clazz, Executors.newFixedThreadPool(1, ThreadTools.getNamedThreadFactory("Kryo" + clazz.getSimpleName() + "Listener")));
+		   packetStatistics.put(clazz, new PacketStatistics(clazz));
+		   packetClasses.add(clazz);
 	   }
    }
+
+   private synchronized void startDispatching()
+   {
+      if (isDisconnected || dispatcher != null || !listenerExecutors.isEmpty())
+         return;
+
+      if (numberOfEventLoops > 0)
+      {
+         dispatcher = new KryoPacketDispatcher(packetClasses, numberOfEventLoops, eventLoopQueueCapacity, this::notifyListeners);
+         dispatcher.start();
+      }
+      else
+      {
+         for (Class<?> clazz : packetClasses)
+            listenerExecutors.put(clazz, Executors.newFixedThreadPool(1, ThreadTools.getNamedThreadFactory("Kryo" + clazz.getSimpleName() + "Listener")));
+      }
+   }
    
    @Override
    public void attachStateListener(ConnectionStateListener stateListener)
@@ -136,16 +163,19 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    }
    
    @Override
-   public synchronized void consumeObject(Object object)
+   public void consumeObject(Object object)
    {
       send(object);
    }
 
+   /**
+    * Sends the object over TCP. The kryonet connections synchronize writes, so this can be called from several threads.
+    */
    @Override
-   public synchronized int send(Object object)
+   public int send(Object object)
    {
-
-      if (!listeners.containsKey(object.getClass()))
+      PacketStatistics statistics = packetStatistics.get(object.getClass());
+      if (statistics == null)
       {
          if (throwExceptionForUnregisteredPackets.get())
             throw new RuntimeException(object.getClass().getSimpleName() + " not registered with ObjectCommunicator");
@@ -153,7 +183,7 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
             return -1;
       }
       int bytesSend = sendTCP(object);
-      updateDataRateTable(object, bytesSend);
+      statistics.packetSent(bytesSend);
       return bytesSend;
    }
 
@@ -162,23 +192,6 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       throwExceptionForUnregisteredPackets.set(value);
    }
 
-   private void updateDataRateTable(Object object, int bytesSend)
-   {
-      if(dataRateTable != null)
-      {
-         if(startTime == 0)
-         {
-            startTime = System.nanoTime();
-         }
-         
-         TableData tableData = dataCounts.get(object.getClass());
-         double wallTime = (System.nanoTime() - startTime) / 1e9;
-         tableData.addData(bytesSend * 8, wallTime);
-         dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getTotalBits()), tableData.getRow(), 1);
-         dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getBitsPerSecond()), tableData.getRow(), 2);         
-      }
-   }
-   
    protected final void createConnectionListener(EndPoint endPoint)
    {
       Listener listener = new Listener()
@@ -188,30 +201,27 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
          public void received(Connection connection, final Object object)
          {
             final Class<? extends Object> classType = object.getClass();
+            KryoPacketDispatcher dispatcher = KryoObjectCommunicator.this.dispatcher;
+            if (dispatcher != null && dispatcher.canDispatch(classType))
+            {
+               dispatcher.dispatch(object, packetStatistics.get(classType));
+               return;
+            }
+
             ExecutorService executorService = listenerExecutors.get(classType);
             if(executorService != null)
             {
+               final PacketStatistics statistics = packetStatistics.get(classType);
+               final long receiveTime = System.nanoTime();
+               statistics.packetReceived();
                executorService.execute(new Runnable()
                {
                   
                   @Override
                   public void run()
                   {
-                     for(int i = 0; i < globalListeners.size(); i++)
-                     {
-                        globalListeners.get(i).consumeObject(object);
-                     }
-                     
-                     ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(classType);
-                     if (objectListeners != null)
-                     {
-                        for (int i = 0; i < objectListeners.size(); i++)
-                        {
-                           @SuppressWarnings("rawtypes")
-                           ObjectConsumer listener = objectListeners.get(i);
-                           listener.consumeObject(object);
-                        }
-                     }
+                     notifyListeners(object);
+                     statistics.packetDispatched(receiveTime);
                   }
                });
             }
@@ -255,20 +265,45 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       endPoint.addListener(listener);
    }
 
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private void notifyListeners(Object object)
+   {
+      for(int i = 0; i < globalListeners.size(); i++)
+      {
+         globalListeners.get(i).consumeObject(object);
+      }
+      
+      ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(object.getClass());
+      if (objectListeners != null)
+      {
+         for (int i = 0; i < objectListeners.size(); i++)
+         {
+            ObjectConsumer listener = objectListeners.get(i);
+            listener.consumeObject(object);
+         }
+      }
+   }
+
    @Override
    public final void connect() throws IOException
    {
+      startDispatching();
       openConnection();
    }
    
    @Override
-   public final void disconnect()
+   public final synchronized void disconnect()
    {
       closeConnection();
+      isDisconnected = true;
       for(ExecutorService executor : listenerExecutors.values())
       {
          executor.shutdownNow();
       }
+      if (dispatcher != null)
+      {
+         dispatcher.shutdown();
+      }
    }
    
    protected abstract void openConnection() throws IOException;
@@ -285,39 +320,4 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
     */
    @Override
    public abstract void closeConnection();
-
-   private class TableData
-   {
-      private final int row;
-      private long totalBits = 0;
-      private double bitsPerSecond = 0;
-      
-      public TableData(int row)
-      {
-         this.row = row;
-      }
-      
-      public void addData(int bits, double wallTime)
-      {
-         totalBits += bits;
-         bitsPerSecond = totalBits/wallTime;
-      }
-      
-      public long getTotalBits()
-      {
-         return totalBits;
-      }
-      
-      public double getBitsPerSecond()
-      {
-         return bitsPerSecond;
-      }
-      
-      public int getRow()
-      {
-         return row;
-      }
-   
-   }
-
 }
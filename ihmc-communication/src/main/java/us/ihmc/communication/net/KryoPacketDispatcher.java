@@ -0,0 +1,186 @@
+package us.ihmc.communication.net;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import us.ihmc.concurrent.Builder;
+import us.ihmc.concurrent.ConcurrentRingBuffer;
+
+/**
+ * Hands received objects to a small fixed set of event loop threads instead of a thread per packet class.
+ *
+ * Every packet class is assigned to one event loop, so objects of a class are still delivered in order. Each loop
+ * owns a lock-free single producer ring buffer of preallocated entries, so dispatching an object does not allocate.
+ * {@link #dispatch(Object, PacketStatistics)} has to be called from a single thread, which is the case for the update
+ * thread of a kryonet end point. If the ring buffer of a loop is full the object is dropped and counted.
+ */
+public class KryoPacketDispatcher
+{
+   public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+   /** The loops wake up at least this often, in case a wakeup signal got lost */
+   private static final long MAXIMUM_WAIT_TIME = TimeUnit.MILLISECONDS.toNanos(5);
+
+   private final TObjectIntHashMap<Class<?>> eventLoopIndices;
+   private final EventLoop[] eventLoops;
+   private final ObjectConsumer<Object> consumer;
+
+   private volatile boolean running = false;
+
+   /**
+    * @param packetClasses classes that can be dispatched, they are assigned to the event loops round robin
+    * @param numberOfEventLoops number of event loop threads
+    * @param queueCapacity number of objects each event loop can hold before dropping
+    * @param consumer notifies the listeners of an object, called on the event loop threads
+    */
+   public KryoPacketDispatcher(List<Class<?>> packetClasses, int numberOfEventLoops, int queueCapacity, ObjectConsumer<Object> consumer)
+   {
+      if (numberOfEventLoops < 1)
+         throw new IllegalArgumentException("Need at least one event loop, got " + numberOfEventLoops);
+
+      this.consumer = consumer;
+
+      eventLoopIndices = new TObjectIntHashMap<>(packetClasses.size(), 0.5f, -1);
+      for (int i = 0; i < packetClasses.size(); i++)
+         eventLoopIndices.put(packetClasses.get(i), i % numberOfEventLoops);
+
+      eventLoops = new EventLoop[numberOfEventLoops];
+      for (int i = 0; i < numberOfEventLoops; i++)
+         eventLoops[i] = new EventLoop(queueCapacity);
+   }
+
+   public void start()
+   {
+      if (running)
+         return;
+
+      running = true;
+      for (int i = 0; i < eventLoops.length; i++)
+      {
+         Thread thread = new Thread(eventLoops[i], "KryoEventLoop" + i);
+         thread.setDaemon(true);
+         thread.start();
+      }
+   }
+
+   public void shutdown()
+   {
+      running = false;
+      for (int i = 0; i < eventLoops.length; i++)
+         eventLoops[i].wakeup();
+   }
+
+   /**
+    * @return true if the class of the object is handled by this dispatcher
+    */
+   public boolean canDispatch(Class<?> packetClass)
+   {
+      return eventLoopIndices.containsKey(packetClass);
+   }
+
+   /**
+    * Queues the object on the event loop of its class. Does not allocate or block.
+    *
+    * @return false if the object was dropped because the queue is full or its class is not handled
+    */
+   public boolean dispatch(Object object, PacketStatistics statistics)
+   {
+      int eventLoopIndex = eventLoopIndices.get(object.getClass());
+      if (eventLoopIndex < 0)
+         return false;
+
+      statistics.packetReceived();
+
+      EventLoop eventLoop = eventLoops[eventLoopIndex];
+      ReceivedObject receivedObject = eventLoop.queue.next();
+      if (receivedObject == null)
+      {
+         statistics.packetDropped();
+         return false;
+      }
+
+      receivedObject.object = object;
+      receivedObject.statistics = statistics;
+      receivedObject.receiveTime = System.nanoTime();
+      eventLoop.queue.commit();
+      eventLoop.wakeup();
+      return true;
+   }
+
+   private static class ReceivedObject
+   {
+      private Object object;
+      private PacketStatistics statistics;
+      private long receiveTime;
+   }
+
+   private static class ReceivedObjectBuilder implements Builder<ReceivedObject>
+   {
+      @Override
+      public ReceivedObject newInstance()
+      {
+         return new ReceivedObject();
+      }
+   }
+
+   private class EventLoop implements Runnable
+   {
+      private final ConcurrentRingBuffer<ReceivedObject> queue;
+      private volatile Thread waitingThread = null;
+
+      private EventLoop(int queueCapacity)
+      {
+         queue = new ConcurrentRingBuffer<>(new ReceivedObjectBuilder(), queueCapacity);
+      }
+
+      private void wakeup()
+      {
+         Thread thread = waitingThread;
+         if (thread != null)
+            LockSupport.unpark(thread);
+      }
+
+      @Override
+      public void run()
+      {
+         while (running)
+         {
+            if (!queue.poll())
+            {
+               // Announce that this thread is going to sleep and check again, dispatch() might have committed in between
+               waitingThread = Thread.currentThread();
+               if (!queue.poll())
+               {
+                  LockSupport.parkNanos(this, MAXIMUM_WAIT_TIME);
+                  waitingThread = null;
+                  continue;
+               }
+               waitingThread = null;
+            }
+
+            ReceivedObject receivedObject;
+            while ((receivedObject = queue.read()) != null)
+            {
+               Object object = receivedObject.object;
+               PacketStatistics statistics = receivedObject.statistics;
+               long receiveTime = receivedObject.receiveTime;
+               receivedObject.object = null;
+
+               try
+               {
+                  consumer.consumeObject(object);
+               }
+               catch (Throwable e)
+               {
+                  e.printStackTrace();
+               }
+
+               statistics.packetDispatched(receiveTime);
+            }
+            queue.flush();
+         }
+      }
+   }
+}
@@ -0,0 +1,133 @@
+package us.ihmc.communication.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.commons.FormattingTools;
+
+/**
+ * Counters of a single packet class of a {@link KryoObjectCommunicator}.
+ *
+ * Updating the counters does not allocate or lock, so they are always enabled. The latency is the time from receiving
+ * a packet on the network thread till all listeners have been notified.
+ */
+public class PacketStatistics
+{
+   private final Class<?> packetClass;
+
+   private final AtomicLong sentPackets = new AtomicLong();
+   private final AtomicLong sentBits = new AtomicLong();
+   private final AtomicLong receivedPackets = new AtomicLong();
+   private final AtomicLong droppedPackets = new AtomicLong();
+   private final AtomicLong totalLatency = new AtomicLong();
+   private final AtomicLong maximumLatency = new AtomicLong();
+
+   private final long creationTime = System.nanoTime();
+
+   public PacketStatistics(Class<?> packetClass)
+   {
+      this.packetClass = packetClass;
+   }
+
+   void packetSent(int bytesSent)
+   {
+      sentPackets.incrementAndGet();
+      sentBits.addAndGet(8L * bytesSent);
+   }
+
+   void packetReceived()
+   {
+      receivedPackets.incrementAndGet();
+   }
+
+   void packetDropped()
+   {
+      droppedPackets.incrementAndGet();
+   }
+
+   void packetDispatched(long receiveTime)
+   {
+      long latency = System.nanoTime() - receiveTime;
+      totalLatency.addAndGet(latency);
+
+      long maximum = maximumLatency.get();
+      while (latency > maximum && !maximumLatency.compareAndSet(maximum, latency))
+         maximum = maximumLatency.get();
+   }
+
+   public Class<?> getPacketClass()
+   {
+      return packetClass;
+   }
+
+   public long getSentPackets()
+   {
+      return sentPackets.get();
+   }
+
+   public long getSentBits()
+   {
+      return sentBits.get();
+   }
+
+   public long getReceivedPackets()
+   {
+      return receivedPackets.get();
+   }
+
+   /**
+    * @return number of received packets that were not dispatched because the queue of the event loop was full
+    */
+   public long getDroppedPackets()
+   {
+      return droppedPackets.get();
+   }
+
+   /**
+    * @return average number of packets received per second since the communicator was created
+    */
+   public double getReceiveRate()
+   {
+      return getReceivedPackets() / getElapsedTime();
+   }
+
+   /**
+    * @return average number of bits sent per second since the communicator was created
+    */
+   public double getSentBitsPerSecond()
+   {
+      return getSentBits() / getElapsedTime();
+   }
+
+   /**
+    * @return average latency of the dispatched packets in seconds, or NaN if none has been dispatched
+    */
+   public double getAverageLatency()
+   {
+      long dispatchedPackets = getReceivedPackets() - getDroppedPackets();
+      if (dispatchedPackets <= 0)
+         return Double.NaN;
+      return Conversions.nanosecondsToSeconds(totalLatency.get()) / dispatchedPackets;
+   }
+
+   /**
+    * @return maximum latency of the dispatched packets in seconds
+    */
+   public double getMaximumLatency()
+   {
+      return Conversions.nanosecondsToSeconds(maximumLatency.get());
+   }
+
+   private double getElapsedTime()
+   {
+      return Conversions.nanosecondsToSeconds(System.nanoTime() - creationTime);
+   }
+
+   @Override
+   public String toString()
+   {
+      return packetClass.getSimpleName() + ": sent " + getSentPackets() + " (" + FormattingTools.toHumanReadable(getSentBitsPerSecond()) + "bps), received "
+            + getReceivedPackets() + " (" + String.format("%.1f", getReceiveRate()) + "Hz), dropped " + getDroppedPackets() + ", latency "
+            + String.format("%.3f", 1.0e3 * getAverageLatency()) + "ms avg, " + String.format("%.3f", 1.0e3 * getMaximumLatency()) + "ms max";
+   }
+}
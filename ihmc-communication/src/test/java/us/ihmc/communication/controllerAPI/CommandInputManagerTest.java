@@ -0,0 +1,247 @@
+package us.ihmc.communication.controllerAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.communication.controllerAPI.CommandInputManager.CommandPolicy;
+import us.ihmc.communication.controllerAPI.command.Command;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.interfaces.Settable;
+
+@ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class CommandInputManagerTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testQueuePolicy()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+
+      for (int i = 1; i <= 3; i++)
+         commandInputManager.submitMessage(new ValueMessage(i));
+
+      assertTrue(commandInputManager.isNewCommandAvailable(ValueCommand.class));
+      List<ValueCommand> commands = commandInputManager.pollNewCommands(ValueCommand.class);
+      assertEquals(3, commands.size());
+      for (int i = 0; i < 3; i++)
+         assertEquals(i + 1, commands.get(i).value);
+
+      assertFalse(commandInputManager.isNewCommandAvailable(ValueCommand.class));
+      assertEquals(3, commandInputManager.getNumberOfSubmittedCommands(ValueCommand.class));
+      assertEquals(0, commandInputManager.getNumberOfCoalescedCommands(ValueCommand.class));
+      assertEquals(0, commandInputManager.getNumberOfDroppedCommands(ValueCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testLatestOnlyPolicy()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      commandInputManager.setCommandPolicy(ValueCommand.class, CommandPolicy.LATEST_ONLY);
+
+      for (int i = 1; i <= 3; i++)
+         commandInputManager.submitMessage(new ValueMessage(i));
+      assertTrue(commandInputManager.isNewCommandAvailable());
+
+      // Commands read but not yet polled are coalesced with the ones submitted afterwards
+      for (int i = 4; i <= 5; i++)
+         commandInputManager.submitMessage(new ValueMessage(i));
+
+      List<ValueCommand> commands = commandInputManager.pollNewCommands(ValueCommand.class);
+      assertEquals(1, commands.size());
+      assertEquals(5, commands.get(0).value);
+      assertEquals(5, commandInputManager.getNumberOfSubmittedCommands(ValueCommand.class));
+      assertEquals(4, commandInputManager.getNumberOfCoalescedCommands(ValueCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testRateLimitedPolicy()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      commandInputManager.setRateLimitedCommandPolicy(ValueCommand.class, 100.0);
+
+      for (int i = 1; i <= 3; i++)
+         commandInputManager.submitMessage(new ValueMessage(i));
+
+      List<ValueCommand> commands = commandInputManager.pollNewCommands(ValueCommand.class);
+      assertEquals(1, commands.size());
+      assertEquals(1, commands.get(0).value);
+      assertEquals(1, commandInputManager.getNumberOfSubmittedCommands(ValueCommand.class));
+      assertEquals(2, commandInputManager.getNumberOfDroppedCommands(ValueCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPriorityCommandDiscardsOlderCommands()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      commandInputManager.registerPriorityCommand(StopCommand.class, Collections.singletonList(ValueCommand.class));
+
+      // Commands read but not yet polled are discarded too
+      commandInputManager.submitMessage(new ValueMessage(1));
+      assertTrue(commandInputManager.isNewCommandAvailable());
+      commandInputManager.submitMessage(new ValueMessage(2));
+      assertFalse(commandInputManager.isNewPriorityCommandAvailable());
+
+      commandInputManager.submitMessage(new StopMessage());
+      commandInputManager.submitMessage(new ValueMessage(3));
+
+      assertTrue(commandInputManager.isNewPriorityCommandAvailable());
+      assertEquals(1, commandInputManager.pollNewCommands(StopCommand.class).size());
+
+      List<ValueCommand> commands = commandInputManager.pollNewCommands(ValueCommand.class);
+      assertEquals(1, commands.size());
+      assertEquals(3, commands.get(0).value);
+      assertEquals(2, commandInputManager.getNumberOfDroppedCommands(ValueCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPriorityCommandKeepsCommandsItDoesNotCancel()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      commandInputManager.registerPriorityCommand(StopCommand.class, Collections.emptyList());
+
+      commandInputManager.submitMessage(new ValueMessage(1));
+      commandInputManager.submitMessage(new StopMessage());
+      commandInputManager.submitMessage(new ValueMessage(2));
+
+      assertTrue(commandInputManager.isNewPriorityCommandAvailable());
+      assertEquals(1, commandInputManager.pollNewCommands(StopCommand.class).size());
+      assertEquals(2, commandInputManager.pollNewCommands(ValueCommand.class).size());
+      assertEquals(0, commandInputManager.getNumberOfDroppedCommands(ValueCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testFullBufferDropsCommands()
+   {
+      CommandInputManager commandInputManager = new CommandInputManager(null, getSupportedCommands(), 4);
+
+      for (int i = 1; i <= 6; i++)
+         commandInputManager.submitMessage(new ValueMessage(i));
+
+      assertEquals(4, commandInputManager.pollNewCommands(ValueCommand.class).size());
+      assertEquals(2, commandInputManager.getNumberOfDroppedCommands(ValueCommand.class));
+
+      commandInputManager.submitMessage(new ValueMessage(7));
+      commandInputManager.clearAllCommands();
+      assertFalse(commandInputManager.isNewCommandAvailable());
+   }
+
+   private static CommandInputManager createCommandInputManager()
+   {
+      return new CommandInputManager(getSupportedCommands());
+   }
+
+   private static List<Class<? extends Command<?, ?>>> getSupportedCommands()
+   {
+      List<Class<? extends Command<?, ?>>> commands = new ArrayList<>();
+      commands.add(ValueCommand.class);
+      commands.add(StopCommand.class);
+      return commands;
+   }
+
+   public static class ValueMessage implements Settable<ValueMessage>
+   {
+      public int value;
+
+      public ValueMessage()
+      {
+      }
+
+      public ValueMessage(int value)
+      {
+         this.value = value;
+      }
+
+      @Override
+      public void set(ValueMessage other)
+      {
+         value = other.value;
+      }
+   }
+
+   public static class ValueCommand implements Command<ValueCommand, ValueMessage>
+   {
+      private int value;
+
+      @Override
+      public void clear()
+      {
+         value = 0;
+      }
+
+      @Override
+      public void set(ValueCommand other)
+      {
+         value = other.value;
+      }
+
+      @Override
+      public void setFromMessage(ValueMessage message)
+      {
+         value = message.value;
+      }
+
+      @Override
+      public Class<ValueMessage> getMessageClass()
+      {
+         return ValueMessage.class;
+      }
+
+      @Override
+      public boolean isCommandValid()
+      {
+         return true;
+      }
+   }
+
+   public static class StopMessage implements Settable<StopMessage>
+   {
+      @Override
+      public void set(StopMessage other)
+      {
+      }
+   }
+
+   public static class StopCommand implements Command<StopCommand, StopMessage>
+   {
+      @Override
+      public void clear()
+      {
+      }
+
+      @Override
+      public void set(StopCommand other)
+      {
+      }
+
+      @Override
+      public void setFromMessage(StopMessage message)
+      {
+      }
+
+      @Override
+      public Class<StopMessage> getMessageClass()
+      {
+         return StopMessage.class;
+      }
+
+      @Override
+      public boolean isCommandValid()
+      {
+         return true;
+      }
+   }
+}
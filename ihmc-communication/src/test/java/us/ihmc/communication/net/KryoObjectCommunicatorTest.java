@@ -1,5 +1,6 @@
 package us.ihmc.communication.net;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -9,6 +10,8 @@ import java.net.BindException;
 import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import geometry_msgs.msg.dds.PointStamped;
 import geometry_msgs.msg.dds.Vector3Stamped;
@@ -323,6 +326,77 @@ public class KryoObjectCommunicatorTest
       
    }
 
+	@ContinuousIntegrationTest(estimatedDuration = 0.4)
+	@Test(timeout=300000)
+   public void testSendAndReceiveWithEventLoopDispatcher() throws IOException, InterruptedException
+   {
+      int TCP_PORT = 49152 + (int)(Math.random() * (65535 - 49152));
+      Log.set(Log.LEVEL_ERROR);
+      int objectsToSend = 1000;
+      final CountDownLatch latch = new CountDownLatch(objectsToSend * 2);
+
+      NetClassList netClassList = new NetClassList();
+      netClassList.registerPacketClass(TypeA.class);
+      netClassList.registerPacketClass(TypeB.class);
+      netClassList.registerPacketField(Vector3D.class);
+      KryoObjectServer server = new KryoObjectServer(TCP_PORT, netClassList);
+      KryoObjectClient client = new KryoObjectClient("127.0.0.1", TCP_PORT, netClassList);
+      server.useEventLoopDispatcher(2, 4 * objectsToSend);
+
+      boolean connected = false;
+      do
+      {
+	      try
+	      {
+	    	  server.connect();
+	    	  client.connect();
+	    	  connected = true;
+	      }
+	      catch (BindException e)
+	      {
+	    	  TCP_PORT = 49152 + (int)(Math.random() * (65535 - 49152));
+	    	  server = new KryoObjectServer(TCP_PORT, netClassList);
+	    	  server.useEventLoopDispatcher(2, 4 * objectsToSend);
+	    	  client = new KryoObjectClient("127.0.0.1", TCP_PORT, netClassList);
+	      }
+      }while(!connected);
+
+      final TypeA aObjectToSend = new TypeA();
+      aObjectToSend.a = "@!aedsf";
+      aObjectToSend.b = 1;
+      aObjectToSend.c = 0.2;
+      aObjectToSend.testVector = new Vector3D(3.2, 1.1, 2.2);
+
+      final AtomicInteger expectedIndex = new AtomicInteger();
+      final AtomicBoolean inOrder = new AtomicBoolean(true);
+      server.attachListener(TypeA.class, object -> latch.countDown());
+      server.attachListener(TypeB.class, object ->
+      {
+         if (object.b != expectedIndex.getAndIncrement())
+            inOrder.set(false);
+         latch.countDown();
+      });
+
+      for(int i = 0; i < objectsToSend; i++)
+      {
+         TypeB bObjectToSend = new TypeB();
+         bObjectToSend.b = i;
+         client.consumeObject(aObjectToSend);
+         client.consumeObject(bObjectToSend);
+      }
+
+      assertTrue(latch.await(1, TimeUnit.SECONDS));
+      assertTrue(inOrder.get());
+
+      assertEquals(objectsToSend, client.getPacketStatistics(TypeB.class).getSentPackets());
+      assertEquals(objectsToSend, server.getPacketStatistics(TypeB.class).getReceivedPackets());
+      assertEquals(0, server.getPacketStatistics(TypeB.class).getDroppedPackets());
+      assertTrue(server.getPacketStatistics(TypeA.class).getMaximumLatency() > 0.0);
+
+      client.disconnect();
+      server.disconnect();
+   }
+
    // Member classes need to be static in order for deserialization to work
    private static class TypeA extends Packet<TypeA>
    {
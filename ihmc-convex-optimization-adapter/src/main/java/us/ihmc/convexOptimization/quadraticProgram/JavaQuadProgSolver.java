@@ -38,6 +38,10 @@ import us.ihmc.tools.exceptions.NoConvergenceException;
  * s.t.
  *     CE^T x = ce0
  *     CI^T x <= ci0
+ *
+ * The inverse of the Cholesky factor of G is kept between solves and only recomputed when G changes, so a sequence of
+ * problems that only differ in the gradient and the constraints does not factorize G again. Adding and removing
+ * constraints from the active set updates the factors with Givens rotations.
  */
 public class JavaQuadProgSolver extends AbstractSimpleActiveSetQPSolver
 {
@@ -81,6 +85,14 @@ public class JavaQuadProgSolver extends AbstractSimpleActiveSetQPSolver
 
    private final DenseMatrix64F decomposedQuadraticCostQMatrix = new DenseMatrix64F(0, 0);
 
+   /** G used for the last factorization, its trace and the inverse of its upper Cholesky factor */
+   private final DenseMatrix64F factorizedQuadraticCostQMatrix = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F upperCholeskyFactor = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F inverseUpperCholeskyFactor = new DenseMatrix64F(0, 0);
+   private double quadraticCostQMatrixTrace;
+   private double inverseUpperCholeskyFactorTrace;
+   private boolean isFactorizationValid = false;
+
    private final DenseMatrix64F totalLinearInequalityConstraintsCMatrix = new DenseMatrix64F(0, 0);
    private final DenseMatrix64F totalLinearInequalityConstraintsDVector = new DenseMatrix64F(0, 0);
 
@@ -149,6 +161,14 @@ public class JavaQuadProgSolver extends AbstractSimpleActiveSetQPSolver
       variableUpperBounds.reshape(0, 0);
    }
 
+   /**
+    * Forces the factorization of the quadratic cost to be computed again on the next solve.
+    */
+   public void resetFactorization()
+   {
+      isFactorizationValid = false;
+   }
+
    @Override
    public void setLowerBounds(DenseMatrix64F variableLowerBounds)
    {
@@ -403,19 +423,17 @@ public class JavaQuadProgSolver extends AbstractSimpleActiveSetQPSolver
 
       /** Preprocessing phase */
 
-      // compute the trace of the original matrix quadraticCostQMatrix
-      c1 = CommonOps.trace(quadraticCostQMatrix);
+      if (!isFactorizationValid || !isIdentical(quadraticCostQMatrix, factorizedQuadraticCostQMatrix))
+         factorizeQuadraticCost();
 
-      // decompose the matrix quadraticCostQMatrix in the form L^T L
-      decomposedQuadraticCostQMatrix.set(quadraticCostQMatrix);
-      decomposer.decompose(decomposedQuadraticCostQMatrix);
+      // compute the trace of the original matrix quadraticCostQMatrix
+      c1 = quadraticCostQMatrixTrace;
 
       R_norm = 1.0; // this variable will hold the norm of the matrix R
 
-      // compute the inverse of the factorized matrix G^-1, this is the initial value for H //// TODO: 5/14/17 combine this with the decomposition 
-      solver.setA(decomposedQuadraticCostQMatrix);
-      solver.invert(J);
-      c2 = CommonOps.trace(J);
+      // the inverse of the factorized matrix G^-1, this is the initial value for H
+      J.set(inverseUpperCholeskyFactor);
+      c2 = inverseUpperCholeskyFactorTrace;
 
       int numberOfIterations = 0;
 
@@ -657,6 +675,79 @@ public class JavaQuadProgSolver extends AbstractSimpleActiveSetQPSolver
    }
 
 
+   /**
+    * Decomposes G = U^T U and computes J = U^-1, so that J J^T = G^-1.
+    */
+   private void factorizeQuadraticCost()
+   {
+      quadraticCostQMatrixTrace = CommonOps.trace(quadraticCostQMatrix);
+
+      // decompose the matrix quadraticCostQMatrix in the form U^T U
+      decomposedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+      if (!decomposer.decompose(decomposedQuadraticCostQMatrix))
+      { // G is not positive definite, use a general inverse of whatever the decomposition left behind and do not keep it
+         solver.setA(decomposedQuadraticCostQMatrix);
+         inverseUpperCholeskyFactor.reshape(problemSize, problemSize);
+         solver.invert(inverseUpperCholeskyFactor);
+         inverseUpperCholeskyFactorTrace = CommonOps.trace(inverseUpperCholeskyFactor);
+         isFactorizationValid = false;
+         return;
+      }
+
+      upperCholeskyFactor.reshape(problemSize, problemSize);
+      decomposer.getT(upperCholeskyFactor);
+      invertUpperTriangular(upperCholeskyFactor, inverseUpperCholeskyFactor);
+      inverseUpperCholeskyFactorTrace = CommonOps.trace(inverseUpperCholeskyFactor);
+
+      factorizedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+      isFactorizationValid = true;
+   }
+
+   /**
+    * Inverts an upper triangular matrix by back substitution, one column at a time. The inverse is upper triangular too.
+    */
+   private static void invertUpperTriangular(DenseMatrix64F upperTriangular, DenseMatrix64F inverseToPack)
+   {
+      int size = upperTriangular.getNumRows();
+      inverseToPack.reshape(size, size);
+      inverseToPack.zero();
+
+      for (int col = 0; col < size; col++)
+      {
+         inverseToPack.unsafe_set(col, col, 1.0 / upperTriangular.unsafe_get(col, col));
+
+         for (int row = col - 1; row >= 0; row--)
+         {
+            double sum = 0.0;
+            for (int k = row + 1; k <= col; k++)
+               sum += upperTriangular.unsafe_get(row, k) * inverseToPack.unsafe_get(k, col);
+
+            inverseToPack.unsafe_set(row, col, -sum / upperTriangular.unsafe_get(row, row));
+         }
+      }
+   }
+
+   /**
+    * Exact comparison, cheaper than factorizing the matrix again.
+    */
+   private static boolean isIdentical(DenseMatrix64F matrix, DenseMatrix64F other)
+   {
+      if (matrix.getNumRows() != other.getNumRows() || matrix.getNumCols() != other.getNumCols())
+         return false;
+
+      int numberOfElements = matrix.getNumElements();
+      double[] data = matrix.getData();
+      double[] otherData = other.getData();
+
+      for (int i = 0; i < numberOfElements; i++)
+      {
+         if (data[i] != otherData[i])
+            return false;
+      }
+
+      return true;
+   }
+
    private void compute_d()
    {
       // compute d = H^T * np
@@ -0,0 +1,131 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * Reads and writes a set of {@link RecordedQPProblem}s as a gzipped binary file.
+ * <p>
+ * The file starts with a magic number, a version and the number of problems. Each problem is stored as the quadratic
+ * cost scalar followed by its matrices, each written as its number of rows and columns and its elements in row major
+ * order.
+ * </p>
+ */
+public class QPProblemCorpusIO
+{
+   private static final int MAGIC_NUMBER = 0x51504350; // "QPCP"
+   private static final int VERSION = 1;
+
+   public static void write(Path path, List<RecordedQPProblem> problems) throws IOException
+   {
+      try (OutputStream outputStream = Files.newOutputStream(path))
+      {
+         write(outputStream, problems);
+      }
+   }
+
+   public static void write(OutputStream outputStream, List<RecordedQPProblem> problems) throws IOException
+   {
+      GZIPOutputStream gzipOutputStream = new GZIPOutputStream(new BufferedOutputStream(outputStream));
+      DataOutputStream dataOutputStream = new DataOutputStream(gzipOutputStream);
+
+      dataOutputStream.writeInt(MAGIC_NUMBER);
+      dataOutputStream.writeInt(VERSION);
+      dataOutputStream.writeInt(problems.size());
+
+      for (int i = 0; i < problems.size(); i++)
+      {
+         RecordedQPProblem problem = problems.get(i);
+         dataOutputStream.writeDouble(problem.quadraticCostScalar);
+         writeMatrix(dataOutputStream, problem.quadraticCostMatrix);
+         writeMatrix(dataOutputStream, problem.linearCostVector);
+         writeMatrix(dataOutputStream, problem.linearEqualityConstraintsAMatrix);
+         writeMatrix(dataOutputStream, problem.linearEqualityConstraintsBVector);
+         writeMatrix(dataOutputStream, problem.linearInequalityConstraintsCMatrix);
+         writeMatrix(dataOutputStream, problem.linearInequalityConstraintsDVector);
+         writeMatrix(dataOutputStream, problem.variableLowerBounds);
+         writeMatrix(dataOutputStream, problem.variableUpperBounds);
+         writeMatrix(dataOutputStream, problem.activeVariables);
+      }
+
+      dataOutputStream.flush();
+      gzipOutputStream.finish();
+      gzipOutputStream.flush();
+   }
+
+   public static List<RecordedQPProblem> read(Path path) throws IOException
+   {
+      try (InputStream inputStream = Files.newInputStream(path))
+      {
+         return read(inputStream);
+      }
+   }
+
+   public static List<RecordedQPProblem> read(InputStream inputStream) throws IOException
+   {
+      DataInputStream dataInputStream = new DataInputStream(new GZIPInputStream(new BufferedInputStream(inputStream)));
+
+      if (dataInputStream.readInt() != MAGIC_NUMBER)
+         throw new IOException("Not a QP problem corpus.");
+      int version = dataInputStream.readInt();
+      if (version != VERSION)
+         throw new IOException("Unsupported QP problem corpus version: " + version);
+
+      int numberOfProblems = dataInputStream.readInt();
+      List<RecordedQPProblem> problems = new ArrayList<>(numberOfProblems);
+
+      for (int i = 0; i < numberOfProblems; i++)
+      {
+         RecordedQPProblem problem = new RecordedQPProblem();
+         problem.quadraticCostScalar = dataInputStream.readDouble();
+         readMatrix(dataInputStream, problem.quadraticCostMatrix);
+         readMatrix(dataInputStream, problem.linearCostVector);
+         readMatrix(dataInputStream, problem.linearEqualityConstraintsAMatrix);
+         readMatrix(dataInputStream, problem.linearEqualityConstraintsBVector);
+         readMatrix(dataInputStream, problem.linearInequalityConstraintsCMatrix);
+         readMatrix(dataInputStream, problem.linearInequalityConstraintsDVector);
+         readMatrix(dataInputStream, problem.variableLowerBounds);
+         readMatrix(dataInputStream, problem.variableUpperBounds);
+         readMatrix(dataInputStream, problem.activeVariables);
+         problems.add(problem);
+      }
+
+      return problems;
+   }
+
+   private static void writeMatrix(DataOutputStream dataOutputStream, DenseMatrix64F matrix) throws IOException
+   {
+      dataOutputStream.writeInt(matrix.getNumRows());
+      dataOutputStream.writeInt(matrix.getNumCols());
+
+      int numberOfElements = matrix.getNumElements();
+      double[] data = matrix.getData();
+      for (int i = 0; i < numberOfElements; i++)
+         dataOutputStream.writeDouble(data[i]);
+   }
+
+   private static void readMatrix(DataInputStream dataInputStream, DenseMatrix64F matrixToPack) throws IOException
+   {
+      int numRows = dataInputStream.readInt();
+      int numCols = dataInputStream.readInt();
+      matrixToPack.reshape(numRows, numCols);
+
+      int numberOfElements = matrixToPack.getNumElements();
+      double[] data = matrixToPack.getData();
+      for (int i = 0; i < numberOfElements; i++)
+         data[i] = dataInputStream.readDouble();
+   }
+}
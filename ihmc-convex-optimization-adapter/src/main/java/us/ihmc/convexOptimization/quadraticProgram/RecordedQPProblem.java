@@ -0,0 +1,88 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * The inputs of one QP solve, in the standard form used by {@link ActiveSetQPSolver}:
+ *
+ * <pre>
+ * min 0.5 * x^T H x + f^T x
+ * s.t.
+ *     Aeq x = beq
+ *     Ain x <= bin
+ *     lb <= x <= ub
+ * </pre>
+ *
+ * Constraints and bounds that were not set have zero rows. The active variables are only used by solvers implementing
+ * {@link ActiveSetQPSolverWithInactiveVariablesInterface} and are empty when all variables are active.
+ */
+public class RecordedQPProblem
+{
+   public final DenseMatrix64F quadraticCostMatrix = new DenseMatrix64F(0, 0);
+   public final DenseMatrix64F linearCostVector = new DenseMatrix64F(0, 0);
+   public double quadraticCostScalar;
+
+   public final DenseMatrix64F linearEqualityConstraintsAMatrix = new DenseMatrix64F(0, 0);
+   public final DenseMatrix64F linearEqualityConstraintsBVector = new DenseMatrix64F(0, 0);
+   public final DenseMatrix64F linearInequalityConstraintsCMatrix = new DenseMatrix64F(0, 0);
+   public final DenseMatrix64F linearInequalityConstraintsDVector = new DenseMatrix64F(0, 0);
+
+   public final DenseMatrix64F variableLowerBounds = new DenseMatrix64F(0, 0);
+   public final DenseMatrix64F variableUpperBounds = new DenseMatrix64F(0, 0);
+
+   public final DenseMatrix64F activeVariables = new DenseMatrix64F(0, 0);
+
+   public void clear()
+   {
+      quadraticCostMatrix.reshape(0, 0);
+      linearCostVector.reshape(0, 0);
+      quadraticCostScalar = 0.0;
+      linearEqualityConstraintsAMatrix.reshape(0, 0);
+      linearEqualityConstraintsBVector.reshape(0, 0);
+      linearInequalityConstraintsCMatrix.reshape(0, 0);
+      linearInequalityConstraintsDVector.reshape(0, 0);
+      variableLowerBounds.reshape(0, 0);
+      variableUpperBounds.reshape(0, 0);
+      activeVariables.reshape(0, 0);
+   }
+
+   public void set(RecordedQPProblem other)
+   {
+      quadraticCostMatrix.set(other.quadraticCostMatrix);
+      linearCostVector.set(other.linearCostVector);
+      quadraticCostScalar = other.quadraticCostScalar;
+      linearEqualityConstraintsAMatrix.set(other.linearEqualityConstraintsAMatrix);
+      linearEqualityConstraintsBVector.set(other.linearEqualityConstraintsBVector);
+      linearInequalityConstraintsCMatrix.set(other.linearInequalityConstraintsCMatrix);
+      linearInequalityConstraintsDVector.set(other.linearInequalityConstraintsDVector);
+      variableLowerBounds.set(other.variableLowerBounds);
+      variableUpperBounds.set(other.variableUpperBounds);
+      activeVariables.set(other.activeVariables);
+   }
+
+   public int getNumberOfVariables()
+   {
+      return quadraticCostMatrix.getNumRows();
+   }
+
+   /**
+    * Clears the solver and submits this problem to it.
+    */
+   public void setupSolver(ActiveSetQPSolver solver)
+   {
+      solver.clear();
+      solver.setQuadraticCostFunction(quadraticCostMatrix, linearCostVector, quadraticCostScalar);
+
+      if (linearEqualityConstraintsBVector.getNumRows() > 0)
+         solver.setLinearEqualityConstraints(linearEqualityConstraintsAMatrix, linearEqualityConstraintsBVector);
+      if (linearInequalityConstraintsDVector.getNumRows() > 0)
+         solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      if (variableLowerBounds.getNumRows() > 0)
+         solver.setLowerBounds(variableLowerBounds);
+      if (variableUpperBounds.getNumRows() > 0)
+         solver.setUpperBounds(variableUpperBounds);
+
+      if (activeVariables.getNumRows() > 0 && solver instanceof ActiveSetQPSolverWithInactiveVariablesInterface)
+         ((ActiveSetQPSolverWithInactiveVariablesInterface) solver).setActiveVariables(activeVariables);
+   }
+}
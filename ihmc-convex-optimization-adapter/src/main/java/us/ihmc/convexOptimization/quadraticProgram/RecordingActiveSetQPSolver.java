@@ -0,0 +1,265 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+/**
+ * Solver that records the problems it is given and passes them on to another solver.
+ * <p>
+ * The last {@code capacity} problems are kept in preallocated problems, so once these have grown to the problem size
+ * recording does not allocate. This allows wrapping the solver of a running controller, for instance by returning a
+ * {@code RecordingActiveSetQPSolver} from {@code ControllerCoreOptimizationSettings.getActiveSetQPSolver()}, and
+ * exporting the problems with {@link #exportRecordedProblems(Path)} to replay them later.
+ * </p>
+ */
+public class RecordingActiveSetQPSolver implements ActiveSetQPSolverWithInactiveVariablesInterface
+{
+   private final ActiveSetQPSolverWithInactiveVariablesInterface solver;
+
+   private final RecordedQPProblem currentProblem = new RecordedQPProblem();
+   private final RecordedQPProblem[] recordedProblems;
+   private int numberOfRecordedProblems = 0;
+   private int nextProblemIndex = 0;
+   private boolean isRecording = true;
+
+   /**
+    * @param solver the solver that solves the problems
+    * @param capacity number of problems to keep, older problems are overwritten
+    */
+   public RecordingActiveSetQPSolver(ActiveSetQPSolverWithInactiveVariablesInterface solver, int capacity)
+   {
+      this.solver = solver;
+
+      recordedProblems = new RecordedQPProblem[capacity];
+      for (int i = 0; i < capacity; i++)
+         recordedProblems[i] = new RecordedQPProblem();
+   }
+
+   public void setRecording(boolean isRecording)
+   {
+      this.isRecording = isRecording;
+   }
+
+   public void clearRecordedProblems()
+   {
+      numberOfRecordedProblems = 0;
+      nextProblemIndex = 0;
+   }
+
+   public int getNumberOfRecordedProblems()
+   {
+      return numberOfRecordedProblems;
+   }
+
+   /**
+    * @return copies of the recorded problems, oldest first
+    */
+   public List<RecordedQPProblem> getRecordedProblems()
+   {
+      List<RecordedQPProblem> problems = new ArrayList<>(numberOfRecordedProblems);
+      int firstProblemIndex = nextProblemIndex - numberOfRecordedProblems + recordedProblems.length;
+
+      for (int i = 0; i < numberOfRecordedProblems; i++)
+      {
+         RecordedQPProblem problem = new RecordedQPProblem();
+         problem.set(recordedProblems[(firstProblemIndex + i) % recordedProblems.length]);
+         problems.add(problem);
+      }
+
+      return problems;
+   }
+
+   public void exportRecordedProblems(Path path) throws IOException
+   {
+      QPProblemCorpusIO.write(path, getRecordedProblems());
+   }
+
+   private void recordCurrentProblem()
+   {
+      if (!isRecording || recordedProblems.length == 0)
+         return;
+
+      recordedProblems[nextProblemIndex].set(currentProblem);
+      nextProblemIndex = (nextProblemIndex + 1) % recordedProblems.length;
+      numberOfRecordedProblems = Math.min(numberOfRecordedProblems + 1, recordedProblems.length);
+   }
+
+   @Override
+   public void setConvergenceThreshold(double convergenceThreshold)
+   {
+      solver.setConvergenceThreshold(convergenceThreshold);
+   }
+
+   @Override
+   public void setMaxNumberOfIterations(int maxNumberOfIterations)
+   {
+      solver.setMaxNumberOfIterations(maxNumberOfIterations);
+   }
+
+   @Override
+   public void clear()
+   {
+      currentProblem.clear();
+      solver.clear();
+   }
+
+   @Override
+   public void setLowerBounds(DenseMatrix64F variableLowerBounds)
+   {
+      currentProblem.variableLowerBounds.set(variableLowerBounds);
+      solver.setLowerBounds(variableLowerBounds);
+   }
+
+   @Override
+   public void setUpperBounds(DenseMatrix64F variableUpperBounds)
+   {
+      currentProblem.variableUpperBounds.set(variableUpperBounds);
+      solver.setUpperBounds(variableUpperBounds);
+   }
+
+   @Override
+   public void setVariableBounds(DenseMatrix64F variableLowerBounds, DenseMatrix64F variableUpperBounds)
+   {
+      currentProblem.variableLowerBounds.set(variableLowerBounds);
+      currentProblem.variableUpperBounds.set(variableUpperBounds);
+      solver.setVariableBounds(variableLowerBounds, variableUpperBounds);
+   }
+
+   @Override
+   public void setQuadraticCostFunction(DenseMatrix64F costQuadraticMatrix, DenseMatrix64F costLinearVector, double quadraticCostScalar)
+   {
+      currentProblem.quadraticCostMatrix.set(costQuadraticMatrix);
+      currentProblem.linearCostVector.set(costLinearVector);
+      currentProblem.quadraticCostScalar = quadraticCostScalar;
+      currentProblem.activeVariables.reshape(0, 0);
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, quadraticCostScalar);
+   }
+
+   @Override
+   public double getObjectiveCost(DenseMatrix64F x)
+   {
+      return solver.getObjectiveCost(x);
+   }
+
+   @Override
+   public void setLinearEqualityConstraints(DenseMatrix64F linearEqualityConstraintsAMatrix, DenseMatrix64F linearEqualityConstraintsBVector)
+   {
+      currentProblem.linearEqualityConstraintsAMatrix.set(linearEqualityConstraintsAMatrix);
+      currentProblem.linearEqualityConstraintsBVector.set(linearEqualityConstraintsBVector);
+      solver.setLinearEqualityConstraints(linearEqualityConstraintsAMatrix, linearEqualityConstraintsBVector);
+   }
+
+   @Override
+   public void setLinearInequalityConstraints(DenseMatrix64F linearInequalityConstraintCMatrix, DenseMatrix64F linearInequalityConstraintDVector)
+   {
+      currentProblem.linearInequalityConstraintsCMatrix.set(linearInequalityConstraintCMatrix);
+      currentProblem.linearInequalityConstraintsDVector.set(linearInequalityConstraintDVector);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintCMatrix, linearInequalityConstraintDVector);
+   }
+
+   @Override
+   public void setActiveVariables(DenseMatrix64F activeVariables)
+   {
+      currentProblem.activeVariables.set(activeVariables);
+      solver.setActiveVariables(activeVariables);
+   }
+
+   @Override
+   public void setVariableActive(int variableIndex)
+   {
+      setRecordedVariableActive(variableIndex, 1.0);
+      solver.setVariableActive(variableIndex);
+   }
+
+   @Override
+   public void setVariableInactive(int variableIndex)
+   {
+      setRecordedVariableActive(variableIndex, 0.0);
+      solver.setVariableInactive(variableIndex);
+   }
+
+   private void setRecordedVariableActive(int variableIndex, double value)
+   {
+      DenseMatrix64F activeVariables = currentProblem.activeVariables;
+      if (activeVariables.getNumRows() == 0)
+      {
+         activeVariables.reshape(currentProblem.getNumberOfVariables(), 1);
+         CommonOps.fill(activeVariables, 1.0);
+      }
+      activeVariables.set(variableIndex, 0, value);
+   }
+
+   @Override
+   public void setAllVariablesActive()
+   {
+      currentProblem.activeVariables.reshape(0, 0);
+      solver.setAllVariablesActive();
+   }
+
+   @Override
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      solver.setUseWarmStart(useWarmStart);
+   }
+
+   @Override
+   public void resetActiveConstraints()
+   {
+      solver.resetActiveConstraints();
+   }
+
+   @Override
+   public int solve(double[] solutionToPack) throws NoConvergenceException
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack);
+   }
+
+   @Override
+   public int solve(DenseMatrix64F solutionToPack)
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack);
+   }
+
+   @Override
+   public int solve(double[] solutionToPack, double[] lagrangeEqualityConstraintMultipliersToPack, double[] lagrangeInequalityConstraintMultipliersToPack,
+                    double[] lagrangeLowerBoundMultipliersToPack, double[] lagrangeUpperBoundMultipliersToPack)
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                          lagrangeLowerBoundMultipliersToPack, lagrangeUpperBoundMultipliersToPack);
+   }
+
+   @Override
+   public int solve(double[] solutionToPack, double[] lagrangeEqualityConstraintMultipliersToPack, double[] lagrangeInequalityConstraintMultipliersToPack)
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack);
+   }
+
+   @Override
+   public int solve(DenseMatrix64F solutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                    DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack, DenseMatrix64F lagrangeLowerBoundMultipliersToPack,
+                    DenseMatrix64F lagrangeUpperBoundMultipliersToPack)
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                          lagrangeLowerBoundMultipliersToPack, lagrangeUpperBoundMultipliersToPack);
+   }
+
+   @Override
+   public int solve(DenseMatrix64F solutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                    DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack)
+   {
+      recordCurrentProblem();
+      return solver.solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack);
+   }
+}
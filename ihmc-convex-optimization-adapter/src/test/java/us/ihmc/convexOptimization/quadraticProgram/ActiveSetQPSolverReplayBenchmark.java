@@ -0,0 +1,172 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.ejml.data.DenseMatrix64F;
+
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+
+/**
+ * Replays recorded QP problems through the {@link ActiveSetQPSolver} implementations and reports the latency
+ * percentiles and the allocation rate of each solver.
+ * <p>
+ * The problems are read from the corpus given as first argument, as written by
+ * {@link RecordingActiveSetQPSolver#exportRecordedProblems(java.nio.file.Path)}. Without argument the datasets recorded
+ * from Atlas and Kiwi that are used in the solver tests are replayed.
+ * </p>
+ */
+public class ActiveSetQPSolverReplayBenchmark
+{
+   private static final int NUMBER_OF_WARMUP_SOLVES = 20000;
+   private static final int NUMBER_OF_SOLVES = 100000;
+
+   private final List<RecordedQPProblem> problems;
+   private final int maximumNumberOfVariables;
+
+   public ActiveSetQPSolverReplayBenchmark(List<RecordedQPProblem> problems)
+   {
+      this.problems = problems;
+
+      int maximumNumberOfVariables = 0;
+      for (int i = 0; i < problems.size(); i++)
+         maximumNumberOfVariables = Math.max(maximumNumberOfVariables, problems.get(i).getNumberOfVariables());
+      this.maximumNumberOfVariables = maximumNumberOfVariables;
+   }
+
+   public void run()
+   {
+      System.out.println("Replaying " + problems.size() + " problems with up to " + maximumNumberOfVariables + " variables.");
+
+      run("SimpleEfficientActiveSetQPSolver", SimpleEfficientActiveSetQPSolver::new);
+      run("SimpleEfficientActiveSetQPSolverWithInactiveVariables", SimpleEfficientActiveSetQPSolverWithInactiveVariables::new);
+      run("JavaQuadProgSolver", JavaQuadProgSolver::new);
+      run("JavaQuadProgSolverWithInactiveVariables", JavaQuadProgSolverWithInactiveVariables::new);
+
+      // This solver only uses the diagonal of the quadratic cost.
+      if (areAllQuadraticCostsDiagonal())
+         run("SimpleDiagonalActiveSetQPSolver", SimpleDiagonalActiveSetQPSolver::new);
+      else
+         System.out.println("Skipping SimpleDiagonalActiveSetQPSolver, the quadratic costs are not diagonal.");
+   }
+
+   private void run(String solverName, Supplier<? extends SimpleActiveSetQPSolverInterface> solverFactory)
+   {
+      SimpleActiveSetQPSolverInterface solver = solverFactory.get();
+      solver.setUseWarmStart(true);
+      DenseMatrix64F solution = new DenseMatrix64F(maximumNumberOfVariables, 1);
+      long[] solveTimes = new long[NUMBER_OF_SOLVES];
+
+      for (int i = 0; i < NUMBER_OF_WARMUP_SOLVES; i++)
+         solve(solver, problems.get(i % problems.size()), solution);
+
+      int numberOfFailedSolves = 0;
+      long startAllocatedBytes = getCurrentThreadAllocatedBytes();
+      long startTime = System.nanoTime();
+
+      for (int i = 0; i < NUMBER_OF_SOLVES; i++)
+      {
+         long solveStartTime = System.nanoTime();
+         solve(solver, problems.get(i % problems.size()), solution);
+         solveTimes[i] = System.nanoTime() - solveStartTime;
+
+         if (MatrixTools.containsNaN(solution))
+            numberOfFailedSolves++;
+      }
+
+      long totalTime = System.nanoTime() - startTime;
+      long allocatedBytes = getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+
+      Arrays.sort(solveTimes);
+      double p50 = 1.0e-3 * solveTimes[NUMBER_OF_SOLVES / 2];
+      double p99 = 1.0e-3 * solveTimes[(int) (0.99 * (NUMBER_OF_SOLVES - 1))];
+      double max = 1.0e-3 * solveTimes[NUMBER_OF_SOLVES - 1];
+      double bytesPerSolve = (double) allocatedBytes / NUMBER_OF_SOLVES;
+      double megabytesPerSecond = allocatedBytes / 1.0e6 / (1.0e-9 * totalTime);
+
+      System.out.println(String.format("%s: p50 %.2f us, p99 %.2f us, max %.2f us, allocation %.1f B/solve (%.2f MB/s), failed solves %d", solverName, p50,
+                                       p99, max, bytesPerSolve, megabytesPerSecond, numberOfFailedSolves));
+   }
+
+   private static void solve(SimpleActiveSetQPSolverInterface solver, RecordedQPProblem problem, DenseMatrix64F solution)
+   {
+      problem.setupSolver(solver);
+      solver.solve(solution);
+   }
+
+   private boolean areAllQuadraticCostsDiagonal()
+   {
+      for (int i = 0; i < problems.size(); i++)
+      {
+         DenseMatrix64F quadraticCostMatrix = problems.get(i).quadraticCostMatrix;
+         for (int row = 0; row < quadraticCostMatrix.getNumRows(); row++)
+         {
+            for (int col = 0; col < quadraticCostMatrix.getNumCols(); col++)
+            {
+               if (row != col && quadraticCostMatrix.get(row, col) != 0.0)
+                  return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return the number of bytes allocated by this thread, or 0 if the JVM does not support it
+    */
+   private static long getCurrentThreadAllocatedBytes()
+   {
+      java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+         return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+      return 0;
+   }
+
+   private static List<RecordedQPProblem> createProblemsFromDatasets()
+   {
+      List<RecordedQPProblem> problems = new ArrayList<>();
+      ActualDatasetFrom20160319 atlasDataset = new ActualDatasetFrom20160319();
+      problems.add(createProblem(atlasDataset.getCostQuadraticMatrix(), atlasDataset.getCostLinearVector(), atlasDataset.getVariableLowerBounds(),
+                                 atlasDataset.getVariableUpperBounds()));
+      ActualDatasetFromKiwi20170712 kiwiDataset20170712 = new ActualDatasetFromKiwi20170712();
+      problems.add(createProblem(kiwiDataset20170712.getCostQuadraticMatrix(), kiwiDataset20170712.getCostLinearVector(),
+                                 kiwiDataset20170712.getVariableLowerBounds(), kiwiDataset20170712.getVariableUpperBounds()));
+      ActualDatasetFromKiwi20171013 kiwiDataset20171013 = new ActualDatasetFromKiwi20171013();
+      problems.add(createProblem(kiwiDataset20171013.getCostQuadraticMatrix(), kiwiDataset20171013.getCostLinearVector(),
+                                 kiwiDataset20171013.getVariableLowerBounds(), kiwiDataset20171013.getVariableUpperBounds()));
+      ActualDatasetFromKiwi20171015A kiwiDataset20171015A = new ActualDatasetFromKiwi20171015A();
+      problems.add(createProblem(kiwiDataset20171015A.getCostQuadraticMatrix(), kiwiDataset20171015A.getCostLinearVector(),
+                                 kiwiDataset20171015A.getVariableLowerBounds(), kiwiDataset20171015A.getVariableUpperBounds()));
+      ActualDatasetFromKiwi20171015B kiwiDataset20171015B = new ActualDatasetFromKiwi20171015B();
+      problems.add(createProblem(kiwiDataset20171015B.getCostQuadraticMatrix(), kiwiDataset20171015B.getCostLinearVector(),
+                                 kiwiDataset20171015B.getVariableLowerBounds(), kiwiDataset20171015B.getVariableUpperBounds()));
+      return problems;
+   }
+
+   private static RecordedQPProblem createProblem(DenseMatrix64F costQuadraticMatrix, DenseMatrix64F costLinearVector, DenseMatrix64F variableLowerBounds,
+                                                  DenseMatrix64F variableUpperBounds)
+   {
+      RecordedQPProblem problem = new RecordedQPProblem();
+      problem.quadraticCostMatrix.set(costQuadraticMatrix);
+      problem.linearCostVector.set(costLinearVector);
+      problem.variableLowerBounds.set(variableLowerBounds);
+      problem.variableUpperBounds.set(variableUpperBounds);
+      return problem;
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      List<RecordedQPProblem> problems;
+      if (args.length > 0)
+         problems = QPProblemCorpusIO.read(Paths.get(args[0]));
+      else
+         problems = createProblemsFromDatasets();
+
+      new ActiveSetQPSolverReplayBenchmark(problems).run();
+   }
+}
@@ -2,6 +2,7 @@ package us.ihmc.convexOptimization.quadraticProgram;
 
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -15,6 +16,8 @@ import us.ihmc.robotics.testing.JUnitTools;
 import us.ihmc.robotics.time.ExecutionTimer;
 import us.ihmc.tools.exceptions.NoConvergenceException;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 
 @ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
@@ -273,6 +276,54 @@ public class JavaQuadProgSolverTest extends AbstractSimpleActiveSetQPSolverTest
       }
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testReusedFactorizationGivesSameSolutionAsFreshSolver() throws NoConvergenceException
+   {
+      Random random = new Random(1738L);
+      int numberOfVariables = 12;
+      int numberOfEqualityConstraints = 2;
+      int numberOfInequalityConstraints = 6;
+
+      DenseMatrix64F Q = RandomMatrices.createSymmPosDef(numberOfVariables, random);
+      DenseMatrix64F Aeq = RandomMatrices.createRandom(numberOfEqualityConstraints, numberOfVariables, -1.0, 1.0, random);
+      DenseMatrix64F beq = RandomMatrices.createRandom(numberOfEqualityConstraints, 1, -1.0, 1.0, random);
+      DenseMatrix64F Ain = RandomMatrices.createRandom(numberOfInequalityConstraints, numberOfVariables, -1.0, 1.0, random);
+      DenseMatrix64F bin = RandomMatrices.createRandom(numberOfInequalityConstraints, 1, 0.0, 1.0, random);
+      DenseMatrix64F lowerBounds = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F upperBounds = new DenseMatrix64F(numberOfVariables, 1);
+      CommonOps.fill(lowerBounds, -1.0);
+      CommonOps.fill(upperBounds, 1.0);
+
+      JavaQuadProgSolver reusingSolver = new JavaQuadProgSolver();
+      DenseMatrix64F x = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F xExpected = new DenseMatrix64F(numberOfVariables, 1);
+
+      for (int i = 0; i < 100; i++)
+      {
+         // Only the gradient changes, except every 10 solves where the quadratic cost changes as well
+         if (i % 10 == 9)
+            Q = RandomMatrices.createSymmPosDef(numberOfVariables, random);
+         DenseMatrix64F f = RandomMatrices.createRandom(numberOfVariables, 1, -5.0, 5.0, random);
+
+         reusingSolver.clear();
+         reusingSolver.setQuadraticCostFunction(Q, f, 0.0);
+         reusingSolver.setLinearEqualityConstraints(Aeq, beq);
+         reusingSolver.setLinearInequalityConstraints(Ain, bin);
+         reusingSolver.setVariableBounds(lowerBounds, upperBounds);
+         reusingSolver.solve(x);
+
+         JavaQuadProgSolver freshSolver = new JavaQuadProgSolver();
+         freshSolver.setQuadraticCostFunction(Q, f, 0.0);
+         freshSolver.setLinearEqualityConstraints(Aeq, beq);
+         freshSolver.setLinearInequalityConstraints(Ain, bin);
+         freshSolver.setVariableBounds(lowerBounds, upperBounds);
+         freshSolver.solve(xExpected);
+
+         Assert.assertArrayEquals("i = " + i, xExpected.getData(), x.getData(), 1e-10);
+      }
+   }
+
    @Override /** have to override because quad prog uses fewer iterations */
    @ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 30000)
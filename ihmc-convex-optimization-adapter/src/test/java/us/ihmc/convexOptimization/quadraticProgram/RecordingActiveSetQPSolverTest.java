@@ -0,0 +1,84 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.testing.JUnitTools;
+
+public class RecordingActiveSetQPSolverTest
+{
+   private static final double EPSILON = 1.0e-10;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testReplayedProblemsGiveSameSolutions() throws IOException
+   {
+      Random random = new Random(9852L);
+      int numberOfProblems = 20;
+      int capacity = 15;
+      int numberOfVariables = 10;
+
+      RecordingActiveSetQPSolver recordingSolver = new RecordingActiveSetQPSolver(new JavaQuadProgSolverWithInactiveVariables(), capacity);
+      List<DenseMatrix64F> solutions = new ArrayList<>();
+
+      for (int i = 0; i < numberOfProblems; i++)
+      {
+         DenseMatrix64F randomMatrix = RandomMatrices.createRandom(numberOfVariables, numberOfVariables, -1.0, 1.0, random);
+         DenseMatrix64F quadraticCostMatrix = CommonOps.identity(numberOfVariables);
+         CommonOps.multAddTransA(randomMatrix, randomMatrix, quadraticCostMatrix);
+         DenseMatrix64F linearCostVector = RandomMatrices.createRandom(numberOfVariables, 1, -1.0, 1.0, random);
+         DenseMatrix64F equalityAMatrix = RandomMatrices.createRandom(2, numberOfVariables, -1.0, 1.0, random);
+         DenseMatrix64F equalityBVector = RandomMatrices.createRandom(2, 1, -1.0, 1.0, random);
+         DenseMatrix64F inequalityCMatrix = RandomMatrices.createRandom(3, numberOfVariables, -1.0, 1.0, random);
+         DenseMatrix64F inequalityDVector = RandomMatrices.createRandom(3, 1, 0.0, 1.0, random);
+         DenseMatrix64F lowerBounds = new DenseMatrix64F(numberOfVariables, 1);
+         DenseMatrix64F upperBounds = new DenseMatrix64F(numberOfVariables, 1);
+         CommonOps.fill(lowerBounds, -10.0);
+         CommonOps.fill(upperBounds, 10.0);
+         DenseMatrix64F activeVariables = new DenseMatrix64F(numberOfVariables, 1);
+         CommonOps.fill(activeVariables, 1.0);
+         activeVariables.set(random.nextInt(numberOfVariables), 0, 0.0);
+
+         recordingSolver.clear();
+         recordingSolver.setQuadraticCostFunction(quadraticCostMatrix, linearCostVector, 0.0);
+         recordingSolver.setVariableBounds(lowerBounds, upperBounds);
+         recordingSolver.setActiveVariables(activeVariables);
+         recordingSolver.setLinearInequalityConstraints(inequalityCMatrix, inequalityDVector);
+         recordingSolver.setLinearEqualityConstraints(equalityAMatrix, equalityBVector);
+
+         DenseMatrix64F solution = new DenseMatrix64F(numberOfVariables, 1);
+         recordingSolver.solve(solution);
+         solutions.add(solution);
+      }
+
+      assertEquals(capacity, recordingSolver.getNumberOfRecordedProblems());
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      QPProblemCorpusIO.write(outputStream, recordingSolver.getRecordedProblems());
+      List<RecordedQPProblem> problems = QPProblemCorpusIO.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+      assertEquals(capacity, problems.size());
+
+      for (int i = 0; i < capacity; i++)
+      {
+         JavaQuadProgSolverWithInactiveVariables solver = new JavaQuadProgSolverWithInactiveVariables();
+         problems.get(i).setupSolver(solver);
+         DenseMatrix64F solution = new DenseMatrix64F(numberOfVariables, 1);
+         solver.solve(solution);
+
+         JUnitTools.assertMatrixEquals(solutions.get(numberOfProblems - capacity + i), solution, EPSILON);
+      }
+   }
+}
@@ -9,6 +9,12 @@ public class FlatGroundFootstepNodeSnapper extends FootstepNodeSnapper
       super(null);
    }
 
+   @Override
+   public boolean isThreadSafe()
+   {
+      return true;
+   }
+
    @Override
    public FootstepNodeSnapData snapInternal(FootstepNode footstepNode)
    {
@@ -1,11 +1,18 @@
 package us.ihmc.footstepPlanning.graphSearch.footstepSnapping;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.euclid.tuple2D.interfaces.Point2DReadOnly;
 import us.ihmc.footstepPlanning.filters.BodyCollisionRegionFilter;
@@ -15,12 +22,25 @@ import us.ihmc.footstepPlanning.graphSearch.parameters.FootstepPlannerParameters
 import us.ihmc.pathPlanning.visibilityGraphs.tools.PlanarRegionTools;
 import us.ihmc.robotics.geometry.PlanarRegion;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
-
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * Snaps footstep nodes to planar regions and caches the results.
+ *
+ * The caches are thread safe, so nodes can be snapped from several threads if {@link #snapInternal(FootstepNode)} is
+ * thread safe, see {@link #isThreadSafe()}. The snap data of a node does not depend on the order in which nodes are
+ * snapped.
+ */
 public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
 {
    private static final double proximityForPlanarRegionsNearby = 2.0;
+   /** Snap data of nodes closer than this to a changed region is recomputed when the regions are updated, covers the foot and wiggling */
+   private static final double snapInvalidationMargin = 0.5;
 
-   private final HashMap<FootstepNode, FootstepNodeSnapData> snapDataHolder = new HashMap<>();
+   private final TLongObjectHashMap<FootstepNodeSnapData> snapDataHolder = new TLongObjectHashMap<>();
+   /** Keys of the snap data added with {@link #addSnapData(FootstepNode, FootstepNodeSnapData)}, it is not derived from the regions */
+   private final TLongHashSet addedSnapDataKeys = new TLongHashSet();
    protected PlanarRegionsList planarRegionsList;
    private final TIntObjectMap<List<PlanarRegion>> nearbyPlanarRegions = new TIntObjectHashMap<>();
    private final TIntObjectMap<List<PlanarRegion>> bodyCollisionPlanarRegions = new TIntObjectHashMap<>();
@@ -28,6 +48,9 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
 
    protected final FootstepPlannerParameters parameters;
 
+   private SteppableRegionLattice steppableRegionLattice;
+   private double footRadius;
+
    public FootstepNodeSnapper()
    {
       this(null);
@@ -38,14 +61,128 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
       this.parameters = parameters;
    }
 
+   /**
+    * Sets the planar regions to snap to. If the new list shares region objects with the previous list, the snap data of
+    * nodes that are far from all added and removed regions is kept. Region objects must therefore not be modified after
+    * they were passed to the snapper. Passing the same list object again clears all snap data. Snap data added with
+    * {@link #addSnapData(FootstepNode, FootstepNodeSnapData)} is always cleared.
+    * <p>
+    * Enables the spatial index of the list, so the region queries of the snapper and node checkers only check the
+    * regions near the node.
+    * </p>
+    */
    public void setPlanarRegions(PlanarRegionsList planarRegionsList)
    {
+      if (planarRegionsList != null && !planarRegionsList.isSpatialIndexEnabled())
+         planarRegionsList.enableSpatialIndex();
+
+      PlanarRegionsList previousPlanarRegionsList = this.planarRegionsList;
       this.planarRegionsList = planarRegionsList;
 
-      snapDataHolder.clear();
+      synchronized (snapDataHolder)
+      {
+         List<BoundingBox3D> changedRegionBoxes = computeChangedRegionBoundingBoxes(previousPlanarRegionsList, planarRegionsList);
+         if (changedRegionBoxes == null)
+            snapDataHolder.clear();
+         else if (!changedRegionBoxes.isEmpty())
+            snapDataHolder.retainEntries((key, snapData) -> !isNearAnyBox(key, changedRegionBoxes));
+
+         // E.g. the start node of the previous plan, it would otherwise be used for a regular node of the next plan
+         addedSnapDataKeys.forEach(key ->
+         {
+            snapDataHolder.remove(key);
+            return true;
+         });
+         addedSnapDataKeys.clear();
+      }
+
       nearbyPlanarRegions.clear();
       bodyCollisionPlanarRegions.clear();
       nearbyNavigablePlanarRegions.clear();
+
+      if (steppableRegionLattice != null && planarRegionsList != null)
+         steppableRegionLattice.build(getSteppableRegions(planarRegionsList.getPlanarRegionsAsList()), footRadius);
+   }
+
+   /**
+    * Has to be called after a region was added to the list of planar regions that was set. Clears the snap data of the
+    * nodes near the region and the cached nearby regions, and rebuilds the lattice. Snap data added with
+    * {@link #addSnapData(FootstepNode, FootstepNodeSnapData)} is kept.
+    */
+   public void planarRegionAdded(PlanarRegion planarRegion)
+   {
+      List<BoundingBox3D> addedRegionBoxes = Collections.singletonList(planarRegion.getBoundingBox3dInWorld());
+      synchronized (snapDataHolder)
+      {
+         snapDataHolder.retainEntries((key, snapData) -> addedSnapDataKeys.contains(key) || !isNearAnyBox(key, addedRegionBoxes));
+      }
+
+      nearbyPlanarRegions.clear();
+      bodyCollisionPlanarRegions.clear();
+      nearbyNavigablePlanarRegions.clear();
+
+      if (steppableRegionLattice != null && planarRegionsList != null)
+         steppableRegionLattice.build(getSteppableRegions(planarRegionsList.getPlanarRegionsAsList()), footRadius);
+   }
+
+   /**
+    * Builds a {@link SteppableRegionLattice} for the given feet every time the planar regions are set, see
+    * {@link #getSteppableRegionsUnderFoot(FootstepNode)}.
+    */
+   protected void enableSteppableRegionLattice(SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame)
+   {
+      footRadius = 0.0;
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         ConvexPolygon2D footPolygon = footPolygonsInSoleFrame.get(robotSide);
+         for (int i = 0; i < footPolygon.getNumberOfVertices(); i++)
+            footRadius = Math.max(footRadius, footPolygon.getVertex(i).distanceFromOrigin());
+      }
+
+      steppableRegionLattice = new SteppableRegionLattice();
+      if (planarRegionsList != null)
+         steppableRegionLattice.build(getSteppableRegions(planarRegionsList.getPlanarRegionsAsList()), footRadius);
+   }
+
+   /**
+    * @return bounding boxes of the regions that are only in one of the lists, or null if all snap data has to be cleared
+    */
+   private static List<BoundingBox3D> computeChangedRegionBoundingBoxes(PlanarRegionsList previousList, PlanarRegionsList newList)
+   {
+      if (previousList == null || newList == null || previousList == newList)
+         return null;
+
+      Set<PlanarRegion> previousRegions = Collections.newSetFromMap(new IdentityHashMap<>());
+      previousRegions.addAll(previousList.getPlanarRegionsAsList());
+
+      List<BoundingBox3D> changedRegionBoxes = new ArrayList<>();
+      for (PlanarRegion region : newList.getPlanarRegionsAsList())
+      {
+         if (!previousRegions.remove(region))
+            changedRegionBoxes.add(region.getBoundingBox3dInWorld());
+      }
+
+      if (changedRegionBoxes.size() == newList.getNumberOfPlanarRegions())
+         return null;
+
+      for (PlanarRegion removedRegion : previousRegions)
+         changedRegionBoxes.add(removedRegion.getBoundingBox3dInWorld());
+      return changedRegionBoxes;
+   }
+
+   private static boolean isNearAnyBox(long nodeKey, List<BoundingBox3D> boxes)
+   {
+      double x = FootstepNode.gridSizeXY * FootstepNode.getXIndexFromKey(nodeKey);
+      double y = FootstepNode.gridSizeXY * FootstepNode.getYIndexFromKey(nodeKey);
+
+      for (int i = 0; i < boxes.size(); i++)
+      {
+         BoundingBox3D box = boxes.get(i);
+         if (x >= box.getMinX() - snapInvalidationMargin && x <= box.getMaxX() + snapInvalidationMargin && y >= box.getMinY() - snapInvalidationMargin
+               && y <= box.getMaxY() + snapInvalidationMargin)
+            return true;
+      }
+      return false;
    }
 
    public boolean hasPlanarRegions()
@@ -55,9 +192,10 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
 
    public FootstepNodeSnapData snapFootstepNode(FootstepNode footstepNode)
    {
-      if (snapDataHolder.containsKey(footstepNode))
+      FootstepNodeSnapData snapData = getSnapData(footstepNode);
+      if (snapData != null)
       {
-         return snapDataHolder.get(footstepNode);
+         return snapData;
       }
       else if (planarRegionsList == null || planarRegionsList.isEmpty())
       {
@@ -65,8 +203,15 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
       }
       else
       {
-         FootstepNodeSnapData snapData = snapInternal(footstepNode);
-         addSnapData(footstepNode, snapData);
+         snapData = snapInternal(footstepNode);
+         synchronized (snapDataHolder)
+         {
+            // Another thread might have snapped the same node in the meantime, always return the same object
+            FootstepNodeSnapData existingSnapData = snapDataHolder.get(footstepNode.getKey());
+            if (existingSnapData != null)
+               return existingSnapData;
+            snapDataHolder.put(footstepNode.getKey(), snapData);
+         }
          return snapData;
       }
    }
@@ -74,34 +219,57 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
    public List<PlanarRegion> getOrCreateNearbyRegions(double roundedX, double roundedY)
    {
       int hashCode = FootstepNode.computePlanarRegionsHashCode(roundedX, roundedY);
-      if (nearbyPlanarRegions.containsKey(hashCode))
-         return nearbyPlanarRegions.get(hashCode);
+      List<PlanarRegion> nearbyRegions = getCachedRegions(nearbyPlanarRegions, hashCode);
+      if (nearbyRegions != null)
+         return nearbyRegions;
 
       Point2DReadOnly centerPoint = new Point2D(roundedX, roundedY);
-      List<PlanarRegion> nearbyRegions = PlanarRegionTools
+      nearbyRegions = PlanarRegionTools
             .filterPlanarRegionsWithBoundingCircle(centerPoint, proximityForPlanarRegionsNearby, planarRegionsList.getPlanarRegionsAsList());
-      nearbyPlanarRegions.put(hashCode, nearbyRegions);
 
-      return nearbyRegions;
+      return cacheRegions(nearbyPlanarRegions, hashCode, nearbyRegions);
+   }
+
+   /**
+    * Returns the steppable regions to snap the foot at the node to. If the lattice knows that only one region can touch
+    * the foot, that region is returned without searching the nearby regions.
+    */
+   protected List<PlanarRegion> getSteppableRegionsUnderFoot(FootstepNode footstepNode)
+   {
+      if (steppableRegionLattice != null)
+      {
+         List<PlanarRegion> regionsUnderFoot = steppableRegionLattice.getRegionsUnderFoot(footstepNode.getXIndex(), footstepNode.getYIndex());
+         if (regionsUnderFoot != null)
+            return regionsUnderFoot;
+      }
+
+      return getOrCreateSteppableRegions(footstepNode.getRoundedX(), footstepNode.getRoundedY());
    }
 
    public List<PlanarRegion> getOrCreateSteppableRegions(double roundedX, double roundedY)
    {
       int hashcode = FootstepNode.computePlanarRegionsHashCode(roundedX, roundedY);
 
-      if (nearbyNavigablePlanarRegions.containsKey(hashcode))
-         return nearbyNavigablePlanarRegions.get(hashcode);
+      List<PlanarRegion> navigableRegions = getCachedRegions(nearbyNavigablePlanarRegions, hashcode);
+      if (navigableRegions != null)
+         return navigableRegions;
 
       List<PlanarRegion> nearbyRegions = getOrCreateNearbyRegions(roundedX, roundedY);
 
       if (parameters == null)
          return nearbyRegions;
 
-      List<PlanarRegion> navigableRegions = nearbyRegions.stream().filter(region -> parameters.getSteppableRegionFilter().isPlanarRegionSteppable(region))
-                                                         .collect(Collectors.toList());
-      nearbyNavigablePlanarRegions.put(hashcode, navigableRegions);
+      navigableRegions = getSteppableRegions(nearbyRegions);
+
+      return cacheRegions(nearbyNavigablePlanarRegions, hashcode, navigableRegions);
+   }
+
+   private List<PlanarRegion> getSteppableRegions(List<PlanarRegion> regions)
+   {
+      if (parameters == null)
+         return regions;
 
-      return navigableRegions;
+      return regions.stream().filter(region -> parameters.getSteppableRegionFilter().isPlanarRegionSteppable(region)).collect(Collectors.toList());
    }
 
    public List<PlanarRegion> getOrCreateBodyCollisionRegions(double unroundedX, double unroundedY, double groundHeight)
@@ -110,8 +278,9 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
       double roundedY = FootstepNode.round(unroundedY);
       int hashcode = FootstepNode.computePlanarRegionsHashCode(roundedX, roundedY);
 
-      if (bodyCollisionPlanarRegions.containsKey(hashcode))
-         return bodyCollisionPlanarRegions.get(hashcode);
+      List<PlanarRegion> cachedBodyCollisionRegions = getCachedRegions(bodyCollisionPlanarRegions, hashcode);
+      if (cachedBodyCollisionRegions != null)
+         return cachedBodyCollisionRegions;
 
       List<PlanarRegion> nearbyRegions = getOrCreateNearbyRegions(roundedX, roundedY);
 
@@ -133,9 +302,32 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
             region -> parameters.getBodyCollisionRegionFilter().isPlanarRegionCollidable(region, groundHeight, minHeight, maxHeight))
                                                                     .collect(Collectors.toList());
 
-      bodyCollisionPlanarRegions.put(FootstepNode.computePlanarRegionsHashCode(roundedX, roundedY), bodyCollisionRegions);
+      return cacheRegions(bodyCollisionPlanarRegions, hashcode, bodyCollisionRegions);
+   }
+
+   private static List<PlanarRegion> getCachedRegions(TIntObjectMap<List<PlanarRegion>> cache, int hashCode)
+   {
+      synchronized (cache)
+      {
+         return cache.get(hashCode);
+      }
+   }
 
-      return bodyCollisionRegions;
+   /**
+    * Adds the regions to the cache unless another thread added regions for the same hash code first
+    *
+    * @return the regions in the cache
+    */
+   private static List<PlanarRegion> cacheRegions(TIntObjectMap<List<PlanarRegion>> cache, int hashCode, List<PlanarRegion> regions)
+   {
+      synchronized (cache)
+      {
+         List<PlanarRegion> existingRegions = cache.get(hashCode);
+         if (existingRegions != null)
+            return existingRegions;
+         cache.put(hashCode, regions);
+         return regions;
+      }
    }
 
    /**
@@ -143,13 +335,28 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
     */
    public void addSnapData(FootstepNode footstepNode, FootstepNodeSnapData snapData)
    {
-      snapDataHolder.put(footstepNode, snapData);
+      synchronized (snapDataHolder)
+      {
+         snapDataHolder.put(footstepNode.getKey(), snapData);
+         addedSnapDataKeys.add(footstepNode.getKey());
+      }
    }
 
    @Override
    public FootstepNodeSnapData getSnapData(FootstepNode node)
    {
-      return snapDataHolder.get(node);
+      synchronized (snapDataHolder)
+      {
+         return snapDataHolder.get(node.getKey());
+      }
+   }
+
+   /**
+    * @return true if {@link #snapInternal(FootstepNode)} can be called from several threads at the same time
+    */
+   public boolean isThreadSafe()
+   {
+      return false;
    }
 
    protected abstract FootstepNodeSnapData snapInternal(FootstepNode footstepNode);
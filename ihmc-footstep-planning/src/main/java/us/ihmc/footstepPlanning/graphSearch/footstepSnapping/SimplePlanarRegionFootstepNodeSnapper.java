@@ -16,9 +16,6 @@ public class SimplePlanarRegionFootstepNodeSnapper extends FootstepNodeSnapper
 {
    private final SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame;
 
-   private final PlanarRegion planarRegionToPack = new PlanarRegion();
-   private final ConvexPolygon2D footPolygon = new ConvexPolygon2D();
-
    public SimplePlanarRegionFootstepNodeSnapper(SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame)
    {
       this(footPolygonsInSoleFrame, new DefaultFootstepPlanningParameters());
@@ -29,14 +26,23 @@ public class SimplePlanarRegionFootstepNodeSnapper extends FootstepNodeSnapper
       super(parameters);
 
       this.footPolygonsInSoleFrame = footPolygonsInSoleFrame;
+      enableSteppableRegionLattice(footPolygonsInSoleFrame);
+   }
+
+   @Override
+   public boolean isThreadSafe()
+   {
+      return true;
    }
 
    @Override
    public FootstepNodeSnapData snapInternal(FootstepNode footstepNode)
    {
+      PlanarRegion planarRegionToPack = new PlanarRegion();
+      ConvexPolygon2D footPolygon = new ConvexPolygon2D();
       FootstepNodeTools.getFootPolygon(footstepNode, footPolygonsInSoleFrame.get(footstepNode.getRobotSide()), footPolygon);
 
-      List<PlanarRegion> planarRegionsList = getOrCreateSteppableRegions(footstepNode.getRoundedX(), footstepNode.getRoundedY());
+      List<PlanarRegion> planarRegionsList = getSteppableRegionsUnderFoot(footstepNode);
       RigidBodyTransform snapTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygon, planarRegionsList, planarRegionToPack);
 
       if (snapTransform == null)
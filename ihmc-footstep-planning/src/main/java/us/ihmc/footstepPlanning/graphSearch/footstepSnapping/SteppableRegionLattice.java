@@ -0,0 +1,145 @@
+package us.ihmc.footstepPlanning.graphSearch.footstepSnapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
+import us.ihmc.robotics.geometry.PlanarRegion;
+
+/**
+ * Lattice with the resolution of the footstep node grid that stores for every cell the steppable region a foot at that
+ * cell could touch, if there is only one. The cells cover every foot yaw, so the lattice does not depend on the yaw
+ * of a node.
+ *
+ * A foot at such a cell can only snap to that region, so the snapper does not have to search all nearby regions and
+ * gets the same result. Cells that are close to several regions or to none return null and fall back to the search, so
+ * regions that are added to the list after the lattice was built are not missed there.
+ */
+public class SteppableRegionLattice
+{
+   private static final int maximumNumberOfCells = 1 << 22;
+   private static final double margin = 1.0e-3;
+
+   private static final int noRegion = -1;
+   private static final int severalRegions = -2;
+
+   private final List<List<PlanarRegion>> singleRegionLists = new ArrayList<>();
+   private int[] cells = new int[0];
+
+   private int minXIndex;
+   private int minYIndex;
+   private int numberOfXCells;
+   private int numberOfYCells;
+   private boolean isValid = false;
+
+   /**
+    * Rasterizes the XY bounding boxes of the regions, grown by the foot radius. Vertical regions are ignored like in
+    * the snapper.
+    *
+    * @param steppableRegions regions the snapper can step on
+    * @param footRadius distance of the farthest foot vertex from the sole frame origin
+    */
+   public void build(List<PlanarRegion> steppableRegions, double footRadius)
+   {
+      isValid = false;
+      singleRegionLists.clear();
+      numberOfXCells = 0;
+      numberOfYCells = 0;
+
+      double growth = footRadius + margin;
+      minXIndex = Integer.MAX_VALUE;
+      minYIndex = Integer.MAX_VALUE;
+      int maxXIndex = Integer.MIN_VALUE;
+      int maxYIndex = Integer.MIN_VALUE;
+
+      for (int i = 0; i < steppableRegions.size(); i++)
+      {
+         PlanarRegion region = steppableRegions.get(i);
+         if (region.isVertical())
+            continue;
+
+         BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+         minXIndex = Math.min(minXIndex, toLowerIndex(boundingBox.getMinX() - growth));
+         minYIndex = Math.min(minYIndex, toLowerIndex(boundingBox.getMinY() - growth));
+         maxXIndex = Math.max(maxXIndex, toUpperIndex(boundingBox.getMaxX() + growth));
+         maxYIndex = Math.max(maxYIndex, toUpperIndex(boundingBox.getMaxY() + growth));
+      }
+
+      if (minXIndex <= maxXIndex)
+      {
+         long numberOfCells = ((long) maxXIndex - minXIndex + 1) * ((long) maxYIndex - minYIndex + 1);
+         if (numberOfCells > maximumNumberOfCells)
+            return;
+
+         numberOfXCells = maxXIndex - minXIndex + 1;
+         numberOfYCells = maxYIndex - minYIndex + 1;
+         if (cells.length < numberOfCells)
+            cells = new int[(int) numberOfCells];
+         Arrays.fill(cells, 0, (int) numberOfCells, noRegion);
+      }
+
+      for (int i = 0; i < steppableRegions.size(); i++)
+      {
+         PlanarRegion region = steppableRegions.get(i);
+         if (region.isVertical())
+            continue;
+
+         int regionIndex = singleRegionLists.size();
+         singleRegionLists.add(Collections.singletonList(region));
+
+         BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+         int lowerX = toLowerIndex(boundingBox.getMinX() - growth) - minXIndex;
+         int upperX = toUpperIndex(boundingBox.getMaxX() + growth) - minXIndex;
+         int lowerY = toLowerIndex(boundingBox.getMinY() - growth) - minYIndex;
+         int upperY = toUpperIndex(boundingBox.getMaxY() + growth) - minYIndex;
+
+         for (int x = lowerX; x <= upperX; x++)
+         {
+            int offset = x * numberOfYCells;
+            for (int y = lowerY; y <= upperY; y++)
+            {
+               int cell = cells[offset + y];
+               if (cell == noRegion)
+                  cells[offset + y] = regionIndex;
+               else if (cell != regionIndex)
+                  cells[offset + y] = severalRegions;
+            }
+         }
+      }
+
+      isValid = true;
+   }
+
+   /**
+    * @return a list with the only steppable region a foot at the node indices could touch, or null if there might be
+    *         several or none or the lattice was not built
+    */
+   public List<PlanarRegion> getRegionsUnderFoot(int xIndex, int yIndex)
+   {
+      if (!isValid)
+         return null;
+
+      int x = xIndex - minXIndex;
+      int y = yIndex - minYIndex;
+      if (x < 0 || y < 0 || x >= numberOfXCells || y >= numberOfYCells)
+         return null;
+
+      int cell = cells[x * numberOfYCells + y];
+      if (cell == noRegion || cell == severalRegions)
+         return null;
+      return singleRegionLists.get(cell);
+   }
+
+   private static int toLowerIndex(double coordinate)
+   {
+      return (int) Math.floor(coordinate / FootstepNode.gridSizeXY);
+   }
+
+   private static int toUpperIndex(double coordinate)
+   {
+      return (int) Math.ceil(coordinate / FootstepNode.gridSizeXY);
+   }
+}
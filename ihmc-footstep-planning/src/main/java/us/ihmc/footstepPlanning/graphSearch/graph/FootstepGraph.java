@@ -2,10 +2,11 @@ package us.ihmc.footstepPlanning.graphSearch.graph;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 
+import gnu.trove.map.hash.TLongDoubleHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 /**
  * Class that maintains a directed graph of FootstepNodes.
  *
@@ -13,15 +14,21 @@ import java.util.List;
  * edges must start at known nodes. The class is initialized with a start node and maintains
  * shortest paths and costs to reach all nodes in the graph efficiently.
  *
+ * Nodes are stored by their {@link FootstepNode#getKey()} in primitive hash maps, so adding
+ * an edge does not allocate edge objects or boxed costs.
+ *
  * @author Georg
  */
 public class FootstepGraph
 {
-   private final HashMap<FootstepEdge, EdgeCost> edgeCostMap = new HashMap<>();
-   private final HashMap<FootstepNode, NodeCost> nodeCostMap = new HashMap<>();
+   private static final int INITIAL_CAPACITY = 1 << 14;
+
+   private final TLongObjectHashMap<FootstepNode> nodes = new TLongObjectHashMap<>(INITIAL_CAPACITY);
+   private final TLongDoubleHashMap nodeCosts = new TLongDoubleHashMap(INITIAL_CAPACITY);
+   private final TLongObjectHashMap<FootstepNode> bestParents = new TLongObjectHashMap<>(INITIAL_CAPACITY);
 
-   private final HashMap<FootstepNode, HashSet<FootstepEdge>> outgoingEdges = new HashMap<>();
-   private final HashMap<FootstepNode, FootstepEdge> incomingBestEdge = new HashMap<>();
+   /** For every node the keys of the end nodes of its outgoing edges and the cost of the edges */
+   private final TLongObjectHashMap<TLongDoubleHashMap> outgoingEdges = new TLongObjectHashMap<>(INITIAL_CAPACITY);
 
    /**
     * Removes all nodes and edges stored in the graph and
@@ -31,14 +38,13 @@ public class FootstepGraph
     */
    public void initialize(FootstepNode startNode)
    {
-      edgeCostMap.clear();
-      nodeCostMap.clear();
+      nodes.clear();
+      nodeCosts.clear();
+      bestParents.clear();
       outgoingEdges.clear();
-      incomingBestEdge.clear();
 
-      nodeCostMap.put(startNode, new NodeCost(0.0));
-      FootstepEdge edgeToStart = new FootstepEdge(null, startNode);
-      incomingBestEdge.put(startNode, edgeToStart);
+      nodes.put(startNode.getKey(), startNode);
+      nodeCosts.put(startNode.getKey(), 0.0);
    }
 
    /**
@@ -53,31 +59,37 @@ public class FootstepGraph
    {
       checkNodeExists(startNode);
 
-      FootstepEdge edge = new FootstepEdge(startNode, endNode);
-      if (edgeCostMap.containsKey(edge))
-         throw new RuntimeException("Edge exists already.");
+      long startKey = startNode.getKey();
+      long endKey = endNode.getKey();
 
-      if (!outgoingEdges.containsKey(startNode))
-         outgoingEdges.put(startNode, new HashSet<FootstepEdge>());
-      EdgeCost cost = new EdgeCost(transitionCost);
-      edgeCostMap.put(edge, cost);
-      outgoingEdges.get(startNode).add(edge);
+      TLongDoubleHashMap edgesFromStart = outgoingEdges.get(startKey);
+      if (edgesFromStart == null)
+      {
+         edgesFromStart = new TLongDoubleHashMap();
+         outgoingEdges.put(startKey, edgesFromStart);
+      }
+      else if (edgesFromStart.containsKey(endKey))
+      {
+         throw new RuntimeException("Edge exists already.");
+      }
+      edgesFromStart.put(endKey, transitionCost);
 
-      double newNodeCost = nodeCostMap.get(startNode).getNodeCost() + transitionCost;
-      if (nodeCostMap.containsKey(endNode))
+      double newNodeCost = nodeCosts.get(startKey) + transitionCost;
+      if (nodeCosts.containsKey(endKey))
       {
-         double oldNodeCost = nodeCostMap.get(endNode).getNodeCost();
+         double oldNodeCost = nodeCosts.get(endKey);
          if (newNodeCost >= oldNodeCost)
             return;
 
-         nodeCostMap.put(endNode, new NodeCost(newNodeCost));
-         incomingBestEdge.put(endNode, edge);
-         updateChildCostsRecursively(endNode);
+         nodeCosts.put(endKey, newNodeCost);
+         bestParents.put(endKey, nodes.get(startKey));
+         updateChildCostsRecursively(endKey);
       }
       else
       {
-         nodeCostMap.put(endNode, new NodeCost(newNodeCost));
-         incomingBestEdge.put(endNode, edge);
+         nodes.put(endKey, endNode);
+         nodeCosts.put(endKey, newNodeCost);
+         bestParents.put(endKey, nodes.get(startKey));
       }
    }
 
@@ -88,7 +100,7 @@ public class FootstepGraph
    {
       checkNodeExists(node);
 
-      return nodeCostMap.get(node).getNodeCost();
+      return nodeCosts.get(node.getKey());
    }
 
    /**
@@ -102,12 +114,11 @@ public class FootstepGraph
       ArrayList<FootstepNode> path = new ArrayList<>();
       path.add(node);
 
-      FootstepEdge edgeFromParent = incomingBestEdge.get(node);
-      while (edgeFromParent.getStartNode() != null)
+      FootstepNode parentNode = bestParents.get(node.getKey());
+      while (parentNode != null)
       {
-         FootstepNode parentNode = edgeFromParent.getStartNode();
          path.add(parentNode);
-         edgeFromParent = incomingBestEdge.get(parentNode);
+         parentNode = bestParents.get(parentNode.getKey());
       }
 
       Collections.reverse(path);
@@ -120,33 +131,59 @@ public class FootstepGraph
     */
    public boolean doesNodeExist(FootstepNode node)
    {
-      return nodeCostMap.containsKey(node);
+      return nodeCosts.containsKey(node.getKey());
+   }
+
+   /**
+    * Will check if the edge from the start to the end node has been added to the graph.
+    */
+   public boolean doesEdgeExist(FootstepNode startNode, FootstepNode endNode)
+   {
+      TLongDoubleHashMap edgesFromStart = outgoingEdges.get(startNode.getKey());
+      return edgesFromStart != null && edgesFromStart.containsKey(endNode.getKey());
+   }
+
+   /**
+    * @return the node in the graph with the given {@link FootstepNode#getKey()}, or null if there is none
+    */
+   public FootstepNode getNode(long key)
+   {
+      return nodes.get(key);
+   }
+
+   /**
+    * @return number of nodes in the graph, including the start node
+    */
+   public int getNumberOfNodes()
+   {
+      return nodeCosts.size();
    }
 
-   private void updateChildCostsRecursively(FootstepNode node)
+   private void updateChildCostsRecursively(long nodeKey)
    {
-      if (!outgoingEdges.containsKey(node))
+      TLongDoubleHashMap edges = outgoingEdges.get(nodeKey);
+      if (edges == null)
          return;
 
-      double parentNodeCost = nodeCostMap.get(node).getNodeCost();
-      for (FootstepEdge outgoingEdge : outgoingEdges.get(node))
+      double parentNodeCost = nodeCosts.get(nodeKey);
+      FootstepNode parentNode = nodes.get(nodeKey);
+      for (long childKey : edges.keys())
       {
-         double newCost = parentNodeCost + edgeCostMap.get(outgoingEdge).getEdgeCost();
-         FootstepNode childNode = outgoingEdge.getEndNode();
+         double newCost = parentNodeCost + edges.get(childKey);
 
-         double oldCost = nodeCostMap.get(childNode).getNodeCost();
+         double oldCost = nodeCosts.get(childKey);
          if (oldCost <= newCost)
             continue;
 
-         nodeCostMap.put(childNode, new NodeCost(newCost));
-         incomingBestEdge.put(childNode, outgoingEdge);
-         updateChildCostsRecursively(childNode);
+         nodeCosts.put(childKey, newCost);
+         bestParents.put(childKey, parentNode);
+         updateChildCostsRecursively(childKey);
       }
    }
 
    private void checkNodeExists(FootstepNode node)
    {
-      if (!nodeCostMap.containsKey(node))
+      if (!nodeCosts.containsKey(node.getKey()))
          throw new RuntimeException("Node has not been added to graph yet.");
    }
 }
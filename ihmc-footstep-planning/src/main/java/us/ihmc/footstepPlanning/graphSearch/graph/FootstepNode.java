@@ -16,6 +16,12 @@ public class FootstepNode
    public static final double PRECISION     = 0.05;
    public static final double INV_PRECISION = 1.0 / PRECISION;
 
+   private static final int KEY_BITS_XY = 28;
+   private static final int KEY_BITS_YAW = 6;
+   private static final int KEY_BITS_SIDE = 2;
+   private static final long KEY_MASK_XY = (1L << KEY_BITS_XY) - 1;
+   private static final long KEY_MASK_YAW = (1L << KEY_BITS_YAW) - 1;
+
    private final int xIndex;
    private final int yIndex;
    private final int yawIndex;
@@ -23,6 +29,7 @@ public class FootstepNode
 
    private Point2D midFootPoint;
 
+   private final long key;
    private final int hashCode;
    private final int planarRegionsHashCode;
 
@@ -38,6 +45,7 @@ public class FootstepNode
       yawIndex = (int) Math.round(AngleTools.trimAngleMinusPiToPi(yaw) / gridSizeYaw);
       this.robotSide = robotSide;
 
+      key = computeKey(xIndex, yIndex, yawIndex, robotSide);
       hashCode = computeHashCode(this);
       planarRegionsHashCode = computePlanarRegionsHashCode(this);
    }
@@ -113,6 +121,50 @@ public class FootstepNode
       return hashCode;
    }
 
+   /**
+    * Unique key of the lattice point of this node. Two nodes are equal if and only if their keys are equal, so the key can
+    * be used in primitive collections instead of the node.
+    */
+   public long getKey()
+   {
+      return key;
+   }
+
+   /**
+    * Packs the lattice indices and side into a long: 28 bits for the x and y index (+-6700km), 6 bits for the yaw index
+    * and two bits for the side, which can be null.
+    */
+   public static long computeKey(int xIndex, int yIndex, int yawIndex, RobotSide robotSide)
+   {
+      long key = xIndex & KEY_MASK_XY;
+      key = (key << KEY_BITS_XY) | (yIndex & KEY_MASK_XY);
+      key = (key << KEY_BITS_YAW) | (yawIndex & KEY_MASK_YAW);
+      key = (key << KEY_BITS_SIDE) | (robotSide == null ? 0 : robotSide.ordinal() + 1);
+      return key;
+   }
+
+   /**
+    * Inverse of {@link #computeKey(int, int, int, RobotSide)} for the x index
+    */
+   public static int getXIndexFromKey(long key)
+   {
+      return decodeSignedIndex(key >>> (KEY_BITS_XY + KEY_BITS_YAW + KEY_BITS_SIDE), KEY_BITS_XY);
+   }
+
+   /**
+    * Inverse of {@link #computeKey(int, int, int, RobotSide)} for the y index
+    */
+   public static int getYIndexFromKey(long key)
+   {
+      return decodeSignedIndex(key >>> (KEY_BITS_YAW + KEY_BITS_SIDE), KEY_BITS_XY);
+   }
+
+   private static int decodeSignedIndex(long bits, int numberOfBits)
+   {
+      int shift = Integer.SIZE - numberOfBits;
+      return ((int) (bits & ((1L << numberOfBits) - 1)) << shift) >> shift;
+   }
+
    public int getPlanarRegionsHashCode()
    {
       return planarRegionsHashCode;
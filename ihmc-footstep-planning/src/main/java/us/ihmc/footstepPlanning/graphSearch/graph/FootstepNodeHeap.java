@@ -0,0 +1,200 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/**
+ * Binary min heap of FootstepNodes with a fixed cost per node that supports decreasing the cost of a node in the heap.
+ *
+ * Every node is at most once in the heap. The position of a node in the heap is kept in a primitive map by
+ * {@link FootstepNode#getKey()}, so updating a node does not require a linear search or duplicate entries.
+ * Nodes with equal cost are returned in the order they were added.
+ */
+public class FootstepNodeHeap
+{
+   private static final int INITIAL_CAPACITY = 1 << 12;
+   private static final int NOT_IN_HEAP = -1;
+
+   private final TLongIntHashMap positions = new TLongIntHashMap(INITIAL_CAPACITY, 0.5f, 0L, NOT_IN_HEAP);
+
+   private FootstepNode[] nodes = new FootstepNode[INITIAL_CAPACITY];
+   private double[] costs = new double[INITIAL_CAPACITY];
+   private long[] order = new long[INITIAL_CAPACITY];
+
+   private int size = 0;
+   private long insertionCounter = 0;
+
+   /**
+    * Adds the node to the heap, or lowers its cost if it is already in the heap with a higher cost.
+    *
+    * @return true if the node was added or its cost was lowered
+    */
+   public boolean addOrDecrease(FootstepNode node, double cost)
+   {
+      int position = positions.get(node.getKey());
+      if (position != NOT_IN_HEAP)
+      {
+         if (cost >= costs[position])
+            return false;
+
+         costs[position] = cost;
+         siftUp(position);
+         return true;
+      }
+
+      if (size == nodes.length)
+      {
+         int capacity = 2 * size;
+         nodes = Arrays.copyOf(nodes, capacity);
+         costs = Arrays.copyOf(costs, capacity);
+         order = Arrays.copyOf(order, capacity);
+      }
+
+      nodes[size] = node;
+      costs[size] = cost;
+      order[size] = insertionCounter++;
+      positions.put(node.getKey(), size);
+      size++;
+      siftUp(size - 1);
+      return true;
+   }
+
+   /**
+    * Removes and returns the node with the lowest cost, or null if the heap is empty.
+    */
+   public FootstepNode poll()
+   {
+      if (size == 0)
+         return null;
+
+      FootstepNode first = nodes[0];
+      positions.remove(first.getKey());
+      size--;
+
+      if (size > 0)
+      {
+         move(size, 0);
+         siftDown(0);
+      }
+      nodes[size] = null;
+
+      return first;
+   }
+
+   public FootstepNode peek()
+   {
+      return size == 0 ? null : nodes[0];
+   }
+
+   /**
+    * @return cost of the node with the lowest cost, or positive infinity if the heap is empty
+    */
+   public double peekCost()
+   {
+      return size == 0 ? Double.POSITIVE_INFINITY : costs[0];
+   }
+
+   public boolean contains(FootstepNode node)
+   {
+      return positions.containsKey(node.getKey());
+   }
+
+   /**
+    * @return cost of the node in the heap, or NaN if the node is not in the heap
+    */
+   public double getCost(FootstepNode node)
+   {
+      int position = positions.get(node.getKey());
+      return position == NOT_IN_HEAP ? Double.NaN : costs[position];
+   }
+
+   /**
+    * Recomputes the cost of all nodes in the heap and restores the heap order, e.g. after the heuristic changed.
+    */
+   public void updateCosts(ToDoubleFunction<FootstepNode> costFunction)
+   {
+      for (int i = 0; i < size; i++)
+         costs[i] = costFunction.applyAsDouble(nodes[i]);
+
+      for (int i = (size >> 1) - 1; i >= 0; i--)
+         siftDown(i);
+   }
+
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public void clear()
+   {
+      Arrays.fill(nodes, 0, size, null);
+      positions.clear();
+      size = 0;
+      insertionCounter = 0;
+   }
+
+   private boolean isLess(int a, int b)
+   {
+      return costs[a] < costs[b] || (costs[a] == costs[b] && order[a] < order[b]);
+   }
+
+   private void siftUp(int position)
+   {
+      while (position > 0)
+      {
+         int parent = (position - 1) >> 1;
+         if (!isLess(position, parent))
+            break;
+         swap(position, parent);
+         position = parent;
+      }
+   }
+
+   private void siftDown(int position)
+   {
+      while (true)
+      {
+         int child = 2 * position + 1;
+         if (child >= size)
+            break;
+         if (child + 1 < size && isLess(child + 1, child))
+            child++;
+         if (!isLess(child, position))
+            break;
+         swap(position, child);
+         position = child;
+      }
+   }
+
+   private void swap(int a, int b)
+   {
+      FootstepNode node = nodes[a];
+      double cost = costs[a];
+      long nodeOrder = order[a];
+
+      nodes[a] = nodes[b];
+      costs[a] = costs[b];
+      order[a] = order[b];
+      positions.put(nodes[a].getKey(), a);
+
+      nodes[b] = node;
+      costs[b] = cost;
+      order[b] = nodeOrder;
+      positions.put(node.getKey(), b);
+   }
+
+   private void move(int from, int to)
+   {
+      nodes[to] = nodes[from];
+      costs[to] = costs[from];
+      order[to] = order[from];
+      positions.put(nodes[to].getKey(), to);
+   }
+}
@@ -1,16 +0,0 @@
-package us.ihmc.footstepPlanning.graphSearch.graph;
-
-public class NodeCost
-{
-   private final double cost;
-
-   public NodeCost(double cost)
-   {
-      this.cost = cost;
-   }
-
-   public double getNodeCost()
-   {
-      return cost;
-   }
-}
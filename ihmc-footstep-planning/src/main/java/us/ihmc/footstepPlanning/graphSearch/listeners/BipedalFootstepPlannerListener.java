@@ -1,5 +1,6 @@
 package us.ihmc.footstepPlanning.graphSearch.listeners;
 
+import us.ihmc.footstepPlanning.FootstepPlan;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
 import us.ihmc.footstepPlanning.graphSearch.graph.visualization.BipedalFootstepPlannerNodeRejectionReason;
 
@@ -16,4 +17,15 @@ public interface BipedalFootstepPlannerListener
    void reportLowestCostNodeList(List<FootstepNode> plan);
 
    void tickAndUpdate();
+
+   /**
+    * Called by anytime planners every time a better plan to the goal was found while the planner keeps improving it.
+    *
+    * @param plan the new plan
+    * @param heuristicInflation inflation of the heuristic the plan was found with, the plan cost is at most this factor
+    *           times the cost of the plan found without inflation
+    */
+   default void improvedPlanFound(FootstepPlan plan, double heuristicInflation)
+   {
+   }
 }
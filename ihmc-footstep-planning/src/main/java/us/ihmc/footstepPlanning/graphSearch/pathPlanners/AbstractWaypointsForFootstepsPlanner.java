@@ -77,6 +77,9 @@ public abstract class AbstractWaypointsForFootstepsPlanner implements WaypointsF
 
    public void setPlanarRegionsList(PlanarRegionsList planarRegionsList)
    {
+      // The waypoints are projected onto the regions through the spatial index
+      if (planarRegionsList != null && !planarRegionsList.isSpatialIndexEnabled())
+         planarRegionsList.enableSpatialIndex();
       this.planarRegionsList = planarRegionsList;
    }
 
@@ -138,5 +138,6 @@ public class VisibilityGraphPathPlanner extends AbstractWaypointsForFootstepsPla
       statistics.setGoalVisibilityMapInWorld(goalMap.getMapId(), goalMap.getVisibilityMapInWorld());
       statistics.setInterRegionsVisibilityMapInWorld(interRegionsMap.getMapId(), interRegionsMap.getVisibilityMapInWorld());
       statistics.addNavigableRegions(navigableRegions);
+      navigableRegionsManager.packTimingStatistics(statistics);
    }
 }
@@ -1,5 +1,8 @@
 package us.ihmc.footstepPlanning.graphSearch.planners;
 
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongDoubleHashMap;
+import gnu.trove.set.hash.TLongHashSet;
 import org.apache.commons.math3.util.Precision;
 import us.ihmc.commons.Conversions;
 import us.ihmc.commons.PrintTools;
@@ -15,9 +18,9 @@ import us.ihmc.footstepPlanning.*;
 import us.ihmc.footstepPlanning.graphSearch.footstepSnapping.*;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepGraph;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
+import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNodeHeap;
 import us.ihmc.footstepPlanning.graphSearch.heuristics.CostToGoHeuristics;
 import us.ihmc.footstepPlanning.graphSearch.heuristics.DistanceAndYawBasedHeuristics;
-import us.ihmc.footstepPlanning.graphSearch.heuristics.NodeComparator;
 import us.ihmc.footstepPlanning.graphSearch.listeners.*;
 import us.ihmc.footstepPlanning.graphSearch.nodeChecking.*;
 import us.ihmc.footstepPlanning.graphSearch.nodeExpansion.FootstepNodeExpansion;
@@ -36,11 +39,13 @@ import us.ihmc.yoVariables.variable.YoDouble;
 import us.ihmc.yoVariables.variable.YoLong;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 {
    private static final boolean debug = false;
    private static final RobotSide defaultStartNodeSide = RobotSide.LEFT;
+   private static final double unchangedRegionEpsilon = 1.0e-7;
 
    private final String name = getClass().getSimpleName();
    private final YoVariableRegistry registry = new YoVariableRegistry(name);
@@ -48,10 +53,15 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
    private final FootstepPlannerParameters parameters;
 
    private SideDependentList<FootstepNode> goalNodes;
-   private HashSet<FootstepNode> expandedNodes;
-   private PriorityQueue<FootstepNode> stack;
+   /** Nodes expanded with the current heuristic inflation */
+   private final TLongHashSet expandedNodes = new TLongHashSet();
+   /** Cost from the start of all expanded nodes when they were last expanded */
+   private final TLongDoubleHashMap expansionCosts = new TLongDoubleHashMap();
+   private final TLongArrayList inconsistentNodes = new TLongArrayList();
+   private final FootstepNodeHeap stack = new FootstepNodeHeap();
    private FootstepNode startNode;
    private FootstepNode endNode;
+   private boolean reachedGoal;
 
    private PlanarRegionsList planarRegionsList;
 
@@ -67,16 +77,27 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 
    private final ArrayList<StartAndGoalListener> startAndGoalListeners = new ArrayList<>();
 
+   private FootstepNodeSnapper expansionSnapper;
+   private ForkJoinPool expansionPool = ForkJoinPool.commonPool();
+   private final ArrayList<FootstepNode> nodesToSnap = new ArrayList<>();
+
    private final YoDouble timeout = new YoDouble("footstepPlannerTimeout", registry);
    private final YoDouble planningTime = new YoDouble("PlanningTime", registry);
    private final YoLong numberOfExpandedNodes = new YoLong("NumberOfExpandedNodes", registry);
    private final YoDouble percentRejectedNodes = new YoDouble("PercentRejectedNodes", registry);
    private final YoLong itarationCount = new YoLong("ItarationCount", registry);
+   private final YoDouble nodesExpandedPerSecond = new YoDouble("NodesExpandedPerSecond", registry);
 
    private final YoBoolean initialize = new YoBoolean("initialize", registry);
 
    private final YoBoolean validGoalNode = new YoBoolean("validGoalNode", registry);
    private final YoBoolean abortPlanning = new YoBoolean("abortPlanning", registry);
+   private final YoBoolean parallelExpansion = new YoBoolean("parallelExpansion", registry);
+
+   private final YoDouble initialHeuristicInflation = new YoDouble("initialHeuristicInflation", registry);
+   private final YoDouble heuristicInflationDecrement = new YoDouble("heuristicInflationDecrement", registry);
+   private final YoDouble heuristicInflation = new YoDouble("heuristicInflation", registry);
+   private final YoDouble solutionHeuristicInflation = new YoDouble("solutionHeuristicInflation", registry);
 
    public AStarFootstepPlanner(FootstepPlannerParameters parameters, FootstepNodeChecker nodeChecker, CostToGoHeuristics heuristics,
                                FootstepNodeExpansion expansion, FootstepCost stepCostCalculator, FootstepNodeSnapper snapper, YoVariableRegistry parentRegistry)
@@ -98,6 +119,8 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       this.graph = new FootstepGraph();
       timeout.set(Double.POSITIVE_INFINITY);
       this.initialize.set(true);
+      initialHeuristicInflation.set(1.0);
+      heuristicInflationDecrement.set(0.5);
 
       parentRegistry.addChild(registry);
    }
@@ -107,6 +130,45 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       startAndGoalListeners.add(startAndGoalListener);
    }
 
+   /**
+    * Sets the snapper used by the node checkers. When parallel expansion is enabled the neighbors of every expanded node
+    * are snapped with this snapper in parallel before they are checked. The snapper caches the results, so the
+    * checkers find the snap data in the cache and the plan is identical to the one of the serial planner.
+    * Parallel expansion is only used if the snapper is thread safe.
+    */
+   public void setExpansionSnapper(FootstepNodeSnapper expansionSnapper)
+   {
+      this.expansionSnapper = expansionSnapper;
+   }
+
+   public void setParallelExpansion(boolean parallelExpansion)
+   {
+      this.parallelExpansion.set(parallelExpansion);
+   }
+
+   /**
+    * Sets the pool to snap the neighbors of a node in parallel, the common pool by default
+    */
+   public void setExpansionPool(ForkJoinPool expansionPool)
+   {
+      this.expansionPool = expansionPool;
+   }
+
+   /**
+    * Enables the anytime mode of the planner (ARA*) if the initial inflation is larger than one. The heuristic is then
+    * multiplied with the inflation, which gives a first plan quickly. After each plan the inflation is lowered by the
+    * decrement and the search continues, reusing the nodes it already expanded, until the inflation is one or the
+    * planner times out. Every improved plan is reported to the listener.
+    */
+   public void setAnytimeHeuristicInflation(double initialInflation, double inflationDecrement)
+   {
+      if (initialInflation < 1.0 || inflationDecrement <= 0.0)
+         throw new IllegalArgumentException("Heuristic inflation has to be at least one and decrease, got " + initialInflation + " and " + inflationDecrement);
+
+      initialHeuristicInflation.set(initialInflation);
+      heuristicInflationDecrement.set(inflationDecrement);
+   }
+
    @Override
    public void setTimeout(double timeoutInSeconds)
    {
@@ -175,14 +237,49 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       startAndGoalListeners.parallelStream().forEach(listener -> listener.setGoalPose(goalPoseInWorld));
    }
 
+   /**
+    * Regions that did not change since the last call are replaced by the previous region objects, so the snappers keep
+    * the snap data of nodes that are not close to a changed region.
+    */
    @Override
    public void setPlanarRegions(PlanarRegionsList planarRegionsList)
    {
+      if (planarRegionsList != null && this.planarRegionsList != null && planarRegionsList != this.planarRegionsList)
+         planarRegionsList = reuseUnchangedRegions(this.planarRegionsList, planarRegionsList);
+
       nodeChecker.setPlanarRegions(planarRegionsList);
       snapper.setPlanarRegions(planarRegionsList);
       this.planarRegionsList = planarRegionsList;
    }
 
+   private static PlanarRegionsList reuseUnchangedRegions(PlanarRegionsList previousList, PlanarRegionsList newList)
+   {
+      Map<Integer, List<PlanarRegion>> previousRegionsById = new HashMap<>();
+      for (PlanarRegion region : previousList.getPlanarRegionsAsList())
+         previousRegionsById.computeIfAbsent(region.getRegionId(), id -> new ArrayList<>()).add(region);
+
+      List<PlanarRegion> regions = new ArrayList<>(newList.getNumberOfPlanarRegions());
+      for (PlanarRegion region : newList.getPlanarRegionsAsList())
+      {
+         PlanarRegion regionToAdd = region;
+         List<PlanarRegion> candidates = previousRegionsById.get(region.getRegionId());
+         if (candidates != null)
+         {
+            for (int i = 0; i < candidates.size(); i++)
+            {
+               if (candidates.get(i).epsilonEquals(region, unchangedRegionEpsilon))
+               {
+                  regionToAdd = candidates.remove(i);
+                  break;
+               }
+            }
+         }
+         regions.add(regionToAdd);
+      }
+
+      return new PlanarRegionsList(regions);
+   }
+
    @Override
    public FootstepPlanningResult plan()
    {
@@ -211,6 +308,7 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
          System.out.println("   Finished planning after " + Precision.round(planningTime.getDoubleValue(), 2) + " seconds.");
          System.out.println("   Expanded each node to an average of " + numberOfExpandedNodes.getLongValue() + " children nodes.");
          System.out.println("   Planning took a total of " + itarationCount.getLongValue() + " iterations.");
+         System.out.println("   Expanded " + Precision.round(nodesExpandedPerSecond.getDoubleValue(), 0) + " nodes per second.");
          System.out.println("   During the planning " + percentRejectedNodes.getDoubleValue() + "% of nodes were rejected as invalid.");
          System.out.println("   Goal was : " + goalPoseInWorld);
       }
@@ -275,8 +373,7 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
          checkStartHasPlanarRegion();
 
       graph.initialize(startNode);
-      NodeComparator nodeComparator = new NodeComparator(graph, goalNodes, heuristics);
-      stack = new PriorityQueue<>(nodeComparator);
+      stack.clear();
 
       validGoalNode.set(true);
       for (RobotSide robotSide : RobotSide.values)
@@ -293,9 +390,13 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
          this.validGoalNode.set(validGoalNode && this.validGoalNode.getBooleanValue());
       }
 
-      stack.add(startNode);
-      expandedNodes = new HashSet<>();
+      heuristicInflation.set(initialHeuristicInflation.getDoubleValue());
+      solutionHeuristicInflation.set(initialHeuristicInflation.getDoubleValue());
+      stack.addOrDecrease(startNode, computeNodeCost(startNode));
+      expandedNodes.clear();
+      expansionCosts.clear();
       endNode = null;
+      reachedGoal = false;
 
       if (listener != null)
       {
@@ -331,6 +432,10 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 
       PlanarRegion planarRegion = new PlanarRegion(new RigidBodyTransform(new AxisAngle(), new Vector3D(xLocation, yLocation, 0.0)), polygon);
       planarRegionsList.addPlanarRegion(planarRegion);
+
+      snapper.planarRegionAdded(planarRegion);
+      if (expansionSnapper != null && expansionSnapper != snapper)
+         expansionSnapper.planarRegionAdded(planarRegion);
    }
 
    @Override
@@ -352,65 +457,105 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 
       long rejectedNodesCount = 0;
       long expandedNodesCount = 0;
+      long closedNodesCount = 0;
       long iterations = 0;
+      boolean stopPlanning = false;
 
-      while (!stack.isEmpty())
+      while (!stopPlanning)
       {
-         if (initialize.getBooleanValue())
+         while (!stack.isEmpty())
          {
-            boolean success = initialize();
-            rejectedNodesCount = 0;
-            expandedNodesCount = 0;
-            iterations = 0;
-            initialize.set(false);
-            if (!success)
-               return false;
-         }
+            if (initialize.getBooleanValue())
+            {
+               boolean success = initialize();
+               rejectedNodesCount = 0;
+               expandedNodesCount = 0;
+               closedNodesCount = 0;
+               iterations = 0;
+               initialize.set(false);
+               if (!success)
+                  return false;
+            }
 
-         iterations++;
+            // No node left that could improve the plan found with this inflation
+            if (reachedGoal && stack.peekCost() >= graph.getCostFromStart(endNode))
+               break;
 
-         FootstepNode nodeToExpand = stack.poll();
-         if (expandedNodes.contains(nodeToExpand))
-            continue;
-         expandedNodes.add(nodeToExpand);
+            iterations++;
 
-         if (checkAndHandleNodeAtGoal(nodeToExpand))
-            break;
+            FootstepNode nodeToExpand = stack.poll();
+            if (!expandedNodes.add(nodeToExpand.getKey()))
+               continue;
+            expansionCosts.put(nodeToExpand.getKey(), graph.getCostFromStart(nodeToExpand));
+            closedNodesCount++;
 
-         checkAndHandleBestEffortNode(nodeToExpand);
+            if (checkAndHandleNodeAtGoal(nodeToExpand))
+               break;
 
-         HashSet<FootstepNode> neighbors = nodeExpansion.expandNode(nodeToExpand);
-         expandedNodesCount += neighbors.size();
-         for (FootstepNode neighbor : neighbors)
-         {
-            if (listener != null)
-               listener.addNode(neighbor, nodeToExpand);
+            checkAndHandleBestEffortNode(nodeToExpand);
 
-            // Checks if the footstep (center of the foot) is on a planar region
-            if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
+            HashSet<FootstepNode> neighbors = nodeExpansion.expandNode(nodeToExpand);
+            expandedNodesCount += neighbors.size();
+            if (isParallelExpansionEnabled())
+               snapInParallel(neighbors);
+            for (FootstepNode neighbor : neighbors)
             {
-               rejectedNodesCount++;
-               continue;
+               // Nodes are expanded again in anytime mode, the edges found before are still valid
+               if (!graph.doesEdgeExist(nodeToExpand, neighbor))
+               {
+                  if (listener != null)
+                     listener.addNode(neighbor, nodeToExpand);
+
+                  // Checks if the footstep (center of the foot) is on a planar region
+                  if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
+                  {
+                     rejectedNodesCount++;
+                     continue;
+                  }
+
+                  double cost = stepCostCalculator.compute(nodeToExpand, neighbor);
+                  graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
+               }
+
+               // Nodes expanded with this inflation are expanded again with the next lower inflation if they got cheaper
+               if (expandedNodes.contains(neighbor.getKey()))
+                  continue;
+               if (expansionCosts.containsKey(neighbor.getKey()) && graph.getCostFromStart(neighbor) >= expansionCosts.get(neighbor.getKey()))
+                  continue;
+
+               double nodeCost = computeNodeCost(neighbor);
+               if (!parameters.getReturnBestEffortPlan() || endNode == null || nodeCost < computeNodeCost(endNode))
+                  stack.addOrDecrease(neighbor, nodeCost);
             }
 
-            double cost = stepCostCalculator.compute(nodeToExpand, neighbor);
-            graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
+            if (listener != null)
+               listener.tickAndUpdate();
 
-            if (!parameters.getReturnBestEffortPlan() || endNode == null || stack.comparator().compare(neighbor, endNode) < 0)
-               stack.add(neighbor);
+            long timeInNano = System.nanoTime();
+            if (Conversions.nanosecondsToSeconds(timeInNano - planningStartTime) > timeout.getDoubleValue() || abortPlanning.getBooleanValue())
+            {
+               if (abortPlanning.getBooleanValue())
+                  PrintTools.info("Abort planning requested.");
+               abortPlanning.set(false);
+               stopPlanning = true;
+               break;
+            }
          }
 
-         if (listener != null)
-            listener.tickAndUpdate();
+         if (stopPlanning || !reachedGoal)
+            break;
 
-         long timeInNano = System.nanoTime();
-         if (Conversions.nanosecondsToSeconds(timeInNano - planningStartTime) > timeout.getDoubleValue() || abortPlanning.getBooleanValue())
+         solutionHeuristicInflation.set(heuristicInflation.getDoubleValue());
+         if (initialHeuristicInflation.getDoubleValue() > 1.0 && listener != null)
          {
-            if (abortPlanning.getBooleanValue())
-               PrintTools.info("Abort planning requested.");
-            abortPlanning.set(false);
-            break;
+            listener.reportLowestCostNodeList(graph.getPathFromStart(endNode));
+            listener.improvedPlanFound(getPlan(), solutionHeuristicInflation.getDoubleValue());
          }
+
+         if (heuristicInflation.getDoubleValue() <= 1.0)
+            break;
+
+         decreaseHeuristicInflation();
       }
 
       long timeInNano = System.nanoTime();
@@ -418,10 +563,67 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       percentRejectedNodes.set(100.0 * rejectedNodesCount / expandedNodesCount);
       itarationCount.set(iterations);
       numberOfExpandedNodes.set(expandedNodesCount / Math.max(iterations, 1));
+      nodesExpandedPerSecond.set(closedNodesCount / Math.max(planningTime.getDoubleValue(), 1.0e-9));
 
       return true;
    }
 
+   /**
+    * Lowers the heuristic inflation and prepares the stack for the next search: nodes that got cheaper after they were
+    * expanded are added back and all node costs are recomputed with the new inflation.
+    */
+   private void decreaseHeuristicInflation()
+   {
+      heuristicInflation.set(Math.max(heuristicInflation.getDoubleValue() - heuristicInflationDecrement.getDoubleValue(), 1.0));
+
+      inconsistentNodes.resetQuick();
+      expansionCosts.forEachEntry((key, costWhenExpanded) ->
+      {
+         if (graph.getCostFromStart(graph.getNode(key)) < costWhenExpanded)
+            inconsistentNodes.add(key);
+         return true;
+      });
+      expandedNodes.clear();
+
+      stack.updateCosts(this::computeNodeCost);
+      for (int i = 0; i < inconsistentNodes.size(); i++)
+      {
+         FootstepNode node = graph.getNode(inconsistentNodes.get(i));
+         stack.addOrDecrease(node, computeNodeCost(node));
+      }
+   }
+
+   private boolean isParallelExpansionEnabled()
+   {
+      return parallelExpansion.getBooleanValue() && expansionSnapper != null && expansionSnapper.isThreadSafe();
+   }
+
+   /**
+    * Fills the snap cache for all nodes that are not snapped yet, the nodes are checked afterwards in the usual order
+    */
+   private void snapInParallel(HashSet<FootstepNode> neighbors)
+   {
+      nodesToSnap.clear();
+      for (FootstepNode neighbor : neighbors)
+      {
+         if (expansionSnapper.getSnapData(neighbor) == null)
+            nodesToSnap.add(neighbor);
+      }
+
+      if (nodesToSnap.size() < 2)
+         return;
+
+      expansionPool.submit(() -> nodesToSnap.parallelStream().forEach(expansionSnapper::snapFootstepNode)).join();
+   }
+
+   /**
+    * Cost from the start to the node plus the inflated estimated cost to the goal, used to order the nodes in the stack
+    */
+   private double computeNodeCost(FootstepNode node)
+   {
+      return graph.getCostFromStart(node) + heuristicInflation.getDoubleValue() * heuristics.compute(node, goalNodes.get(node.getRobotSide()));
+   }
+
    private boolean checkAndHandleNodeAtGoal(FootstepNode nodeToExpand)
    {
       if (!validGoalNode.getBooleanValue())
@@ -431,7 +633,9 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       if (goalNodes.get(nodeSide).equals(nodeToExpand))
       {
          endNode = goalNodes.get(nodeSide.getOppositeSide());
-         graph.checkAndSetEdge(nodeToExpand, endNode, 0.0);
+         if (!graph.doesEdgeExist(nodeToExpand, endNode))
+            graph.checkAndSetEdge(nodeToExpand, endNode, 0.0);
+         reachedGoal = true;
          return true;
       }
 
@@ -440,7 +644,7 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 
    private void checkAndHandleBestEffortNode(FootstepNode nodeToExpand)
    {
-      if (!parameters.getReturnBestEffortPlan())
+      if (!parameters.getReturnBestEffortPlan() || reachedGoal)
          return;
 
       if (graph.getPathFromStart(nodeToExpand).size() - 1 < parameters.getMinimumStepsForBestEffortPlan())
@@ -462,7 +666,7 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
       if (!graph.doesNodeExist(endNode))
          return FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION;
 
-      if (heuristics.getWeight() <= 1.0)
+      if (heuristics.getWeight() <= 1.0 && solutionHeuristicInflation.getDoubleValue() <= 1.0)
          return FootstepPlanningResult.OPTIMAL_SOLUTION;
 
       return FootstepPlanningResult.SUB_OPTIMAL_SOLUTION;
@@ -510,6 +714,7 @@ public class AStarFootstepPlanner implements BodyPathAndFootstepPlanner
 
       AStarFootstepPlanner planner = new AStarFootstepPlanner(parameters, nodeChecker, heuristics, expansion, footstepCost, postProcessingSnapper, listener,
                                                               registry);
+      planner.setExpansionSnapper(snapper);
 
       if (policyDefinitions != null)
       {
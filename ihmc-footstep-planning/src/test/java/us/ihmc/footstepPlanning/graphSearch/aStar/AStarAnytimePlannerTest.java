@@ -0,0 +1,304 @@
+package us.ihmc.footstepPlanning.graphSearch.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.referenceFrame.FramePose3D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.referenceFrame.tools.ReferenceFrameTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.SimpleFootstep;
+import us.ihmc.footstepPlanning.graphSearch.footstepSnapping.FootstepNodeSnapData;
+import us.ihmc.footstepPlanning.graphSearch.footstepSnapping.SimplePlanarRegionFootstepNodeSnapper;
+import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
+import us.ihmc.footstepPlanning.graphSearch.graph.visualization.BipedalFootstepPlannerNodeRejectionReason;
+import us.ihmc.footstepPlanning.graphSearch.heuristics.CostToGoHeuristics;
+import us.ihmc.footstepPlanning.graphSearch.listeners.BipedalFootstepPlannerListener;
+import us.ihmc.footstepPlanning.graphSearch.nodeChecking.SnapBasedNodeChecker;
+import us.ihmc.footstepPlanning.graphSearch.nodeExpansion.ParameterBasedNodeExpansion;
+import us.ihmc.footstepPlanning.graphSearch.parameters.DefaultFootstepPlanningParameters;
+import us.ihmc.footstepPlanning.graphSearch.parameters.FootstepPlannerCostParameters;
+import us.ihmc.footstepPlanning.graphSearch.parameters.FootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.planners.AStarFootstepPlanner;
+import us.ihmc.footstepPlanning.graphSearch.stepCost.EuclideanDistanceAndYawBasedCost;
+import us.ihmc.footstepPlanning.graphSearch.stepCost.FootstepCost;
+import us.ihmc.robotics.geometry.AngleTools;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.footstepPlanning.tools.PlannerTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class AStarAnytimePlannerTest
+{
+   @After
+   public void tearDown()
+   {
+      ReferenceFrameTools.clearWorldFrameTree();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 60000)
+   public void testInflationDecreasesUntilOne()
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters();
+      SideDependentList<ConvexPolygon2D> footPolygons = PlannerTools.createDefaultFootPolygons();
+      ImprovedPlanRecorder recorder = new ImprovedPlanRecorder();
+      AStarFootstepPlanner planner = AStarFootstepPlanner.createPlanner(parameters, recorder, footPolygons, new ParameterBasedNodeExpansion(parameters),
+                                                                        new YoVariableRegistry("testRegistry"));
+      planner.setTimeout(Double.POSITIVE_INFINITY);
+      planner.setAnytimeHeuristicInflation(3.0, 1.0);
+
+      FramePose3D start = new FramePose3D(ReferenceFrame.getWorldFrame());
+      FramePose3D goal = new FramePose3D(ReferenceFrame.getWorldFrame());
+      goal.setPosition(3.0, 0.5, 0.0);
+
+      FootstepPlan plan = PlannerTools.runPlanner(planner, start, RobotSide.LEFT, goal, createBlocksOnGround(), true);
+      assertNotNull(plan);
+
+      assertEquals(3, recorder.inflations.size());
+      for (int i = 0; i < recorder.inflations.size(); i++)
+      {
+         assertEquals(3.0 - i, recorder.inflations.get(i), 0.0);
+         assertTrue(recorder.plans.get(i).getNumberOfSteps() > 0);
+      }
+      assertEquals(plan.getNumberOfSteps(), recorder.plans.get(recorder.plans.size() - 1).getNumberOfSteps());
+
+      // Planning again on an unchanged map gives the same plan
+      FootstepPlan replan = PlannerTools.runPlanner(planner, start, RobotSide.LEFT, goal, createBlocksOnGround(), true);
+      assertEquals(plan.getNumberOfSteps(), replan.getNumberOfSteps());
+      for (int step = 0; step < plan.getNumberOfSteps(); step++)
+         assertTrue(plan.getFootstep(step).epsilonEquals(replan.getFootstep(step), 1.0e-10));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 60000)
+   public void testFinalPlanHasSameCostAsPlainAStar()
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters();
+      SideDependentList<ConvexPolygon2D> footPolygons = PlannerTools.createDefaultFootPolygons();
+      FootstepCost stepCost = new EuclideanDistanceAndYawBasedCost(parameters);
+
+      FramePose3D start = new FramePose3D(ReferenceFrame.getWorldFrame());
+      FramePose3D goal = new FramePose3D(ReferenceFrame.getWorldFrame());
+      goal.setPosition(3.0, 0.5, 0.0);
+      FootstepNode startNode = new FootstepNode(start.getX(), start.getY(), start.getYaw(), RobotSide.LEFT);
+
+      AStarFootstepPlanner plainPlanner = createPlannerWithConsistentHeuristics(parameters, footPolygons, null, "plain");
+      FootstepPlan plainPlan = PlannerTools.runPlanner(plainPlanner, start, RobotSide.LEFT, goal, createBlocksOnGround(), true);
+
+      ImprovedPlanRecorder recorder = new ImprovedPlanRecorder();
+      AStarFootstepPlanner anytimePlanner = createPlannerWithConsistentHeuristics(parameters, footPolygons, recorder, "anytime");
+      anytimePlanner.setAnytimeHeuristicInflation(3.0, 1.0);
+      FootstepPlan anytimePlan = PlannerTools.runPlanner(anytimePlanner, start, RobotSide.LEFT, goal, createBlocksOnGround(), true);
+
+      assertEquals(1.0, recorder.inflations.get(recorder.inflations.size() - 1), 0.0);
+      double plainCost = computePlanCost(plainPlan, startNode, stepCost);
+      assertEquals(plainCost, computePlanCost(anytimePlan, startNode, stepCost), 1.0e-8);
+      for (int i = 0; i < recorder.plans.size() - 1; i++)
+         assertTrue(computePlanCost(recorder.plans.get(i), startNode, stepCost) >= plainCost - 1.0e-8);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 60000)
+   public void testChangedRegionsInvalidateSnapData()
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters();
+      SideDependentList<ConvexPolygon2D> footPolygons = PlannerTools.createDefaultFootPolygons();
+      AStarFootstepPlanner planner = AStarFootstepPlanner.createPlanner(parameters, null, footPolygons, new ParameterBasedNodeExpansion(parameters),
+                                                                        new YoVariableRegistry("testRegistry"));
+      planner.setAnytimeHeuristicInflation(3.0, 1.0);
+
+      FramePose3D start = new FramePose3D(ReferenceFrame.getWorldFrame());
+      FramePose3D goal = new FramePose3D(ReferenceFrame.getWorldFrame());
+      goal.setPosition(3.0, 0.5, 0.0);
+      PlannerTools.runPlanner(planner, start, RobotSide.LEFT, goal, createBlocksOnGround(), true);
+
+      // A platform under the goal, the steps near it have to be snapped again
+      FootstepPlan plan = PlannerTools.runPlanner(planner, start, RobotSide.LEFT, goal, createBlocksOnGroundWithPlatform(), true);
+      SimpleFootstep lastStep = plan.getFootstep(plan.getNumberOfSteps() - 1);
+      FramePose3D lastStepPose = new FramePose3D();
+      lastStep.getSoleFramePose(lastStepPose);
+      assertEquals(0.1, lastStepPose.getZ(), 1.0e-5);
+
+      // Same plan as a planner that never saw the old regions
+      AStarFootstepPlanner newPlanner = AStarFootstepPlanner.createPlanner(parameters, null, footPolygons, new ParameterBasedNodeExpansion(parameters),
+                                                                           new YoVariableRegistry("newRegistry"));
+      newPlanner.setAnytimeHeuristicInflation(3.0, 1.0);
+      FootstepPlan expectedPlan = PlannerTools.runPlanner(newPlanner, start, RobotSide.LEFT, goal, createBlocksOnGroundWithPlatform(), true);
+      assertEquals(expectedPlan.getNumberOfSteps(), plan.getNumberOfSteps());
+      for (int step = 0; step < plan.getNumberOfSteps(); step++)
+         assertTrue(expectedPlan.getFootstep(step).epsilonEquals(plan.getFootstep(step), 1.0e-10));
+
+      // Snap data far from the change is kept, snap data added for a start node is not
+      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons, parameters);
+      PlanarRegionsList regions = createBlocksOnGround();
+      snapper.setPlanarRegions(regions);
+
+      FootstepNode oldStartNode = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      RigidBodyTransform standingOnSomething = new RigidBodyTransform();
+      standingOnSomething.setTranslationZ(0.3);
+      snapper.addSnapData(oldStartNode, new FootstepNodeSnapData(standingOnSomething));
+      FootstepNode farNode = new FootstepNode(0.3, -0.5, 0.0, RobotSide.RIGHT);
+      FootstepNodeSnapData farSnapData = snapper.snapFootstepNode(farNode);
+      FootstepNode nearNode = new FootstepNode(2.9, 0.4, 0.0, RobotSide.RIGHT);
+      snapper.snapFootstepNode(nearNode);
+
+      List<PlanarRegion> changedRegions = new ArrayList<>(regions.getPlanarRegionsAsList());
+      changedRegions.add(createPlatform());
+      snapper.setPlanarRegions(new PlanarRegionsList(changedRegions));
+
+      assertNull(snapper.getSnapData(oldStartNode));
+      assertSame(farSnapData, snapper.getSnapData(farNode));
+      assertNull(snapper.getSnapData(nearNode));
+      assertEquals(0.1, snapper.snapFootstepNode(nearNode).getSnapTransform().getTranslationZ(), 1.0e-5);
+   }
+
+   private static double computePlanCost(FootstepPlan plan, FootstepNode startNode, FootstepCost stepCost)
+   {
+      double cost = 0.0;
+      FootstepNode previousNode = startNode;
+      FramePose3D footstepPose = new FramePose3D();
+      for (int i = 0; i < plan.getNumberOfSteps(); i++)
+      {
+         plan.getFootstep(i).getSoleFramePose(footstepPose);
+         FootstepNode node = new FootstepNode(footstepPose.getX(), footstepPose.getY(), footstepPose.getYaw(), plan.getFootstep(i).getRobotSide());
+         cost += stepCost.compute(previousNode, node);
+         previousNode = node;
+      }
+      return cost;
+   }
+
+   /**
+    * Plans with {@link EuclideanDistanceAndYawBasedCost} and a consistent heuristic, so that both A* and the last
+    * search of ARA* find a plan with the lowest cost. The steps are not wiggled so they can be converted back to nodes.
+    */
+   private static AStarFootstepPlanner createPlannerWithConsistentHeuristics(FootstepPlannerParameters parameters,
+                                                                             SideDependentList<ConvexPolygon2D> footPolygons,
+                                                                             BipedalFootstepPlannerListener listener, String name)
+   {
+      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons, parameters);
+      SimplePlanarRegionFootstepNodeSnapper postProcessingSnapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons, parameters);
+      SnapBasedNodeChecker nodeChecker = new SnapBasedNodeChecker(parameters, footPolygons, snapper);
+      return new AStarFootstepPlanner(parameters, nodeChecker, new ConsistentHeuristics(parameters), new ParameterBasedNodeExpansion(parameters),
+                                      new EuclideanDistanceAndYawBasedCost(parameters), postProcessingSnapper, listener, new YoVariableRegistry(name));
+   }
+
+   /**
+    * Lower bound of the {@link EuclideanDistanceAndYawBasedCost} to the goal, the triangle inequality makes it consistent
+    */
+   private static class ConsistentHeuristics extends CostToGoHeuristics
+   {
+      private final FootstepPlannerParameters parameters;
+
+      ConsistentHeuristics(FootstepPlannerParameters parameters)
+      {
+         super(() -> 1.0);
+         this.parameters = parameters;
+      }
+
+      @Override
+      protected double computeHeuristics(FootstepNode node, FootstepNode goalNode)
+      {
+         FootstepPlannerCostParameters costParameters = parameters.getCostParameters();
+         Point2D goalPoint = goalNode.getOrComputeMidFootPoint(parameters.getIdealFootstepWidth());
+         Point2D nodeMidFootPoint = node.getOrComputeMidFootPoint(parameters.getIdealFootstepWidth());
+         double distanceCost = 0.5 * (costParameters.getForwardWeight() + costParameters.getLateralWeight());
+         double yaw = AngleTools.computeAngleDifferenceMinusPiToPi(node.getYaw(), goalNode.getYaw());
+         return distanceCost * nodeMidFootPoint.distance(goalPoint) + costParameters.getYawWeight() * Math.abs(yaw);
+      }
+   }
+
+   private static PlanarRegionsList createBlocksOnGroundWithPlatform()
+   {
+      PlanarRegionsList planarRegionsList = createBlocksOnGround();
+      planarRegionsList.addPlanarRegion(createPlatform());
+      return planarRegionsList;
+   }
+
+   private static PlanarRegion createPlatform()
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.translate(3.0, 0.3, 0.0);
+      generator.addCubeReferencedAtBottomMiddle(1.0, 1.2, 0.1);
+      PlanarRegionsList cube = generator.getPlanarRegionsList();
+
+      // Only the top of the cube
+      PlanarRegion top = null;
+      for (PlanarRegion region : cube.getPlanarRegionsAsList())
+      {
+         if (top == null || region.getBoundingBox3dInWorld().getMinZ() > top.getBoundingBox3dInWorld().getMinZ())
+            top = region;
+      }
+      return top;
+   }
+
+   private static PlanarRegionsList createBlocksOnGround()
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.translate(1.5, 0.0, 0.0);
+      generator.addRectangle(5.0, 2.0);
+
+      for (int i = 0; i < 4; i++)
+      {
+         generator.identity();
+         generator.translate(0.6 + 0.6 * i, 0.4 * (i % 2) - 0.2, 0.0);
+         generator.addCubeReferencedAtBottomMiddle(0.4, 0.4, 0.1);
+      }
+
+      return generator.getPlanarRegionsList();
+   }
+
+   private static class ImprovedPlanRecorder implements BipedalFootstepPlannerListener
+   {
+      private final List<FootstepPlan> plans = new ArrayList<>();
+      private final List<Double> inflations = new ArrayList<>();
+
+      @Override
+      public void improvedPlanFound(FootstepPlan plan, double heuristicInflation)
+      {
+         plans.add(plan);
+         inflations.add(heuristicInflation);
+      }
+
+      @Override
+      public void addNode(FootstepNode node, FootstepNode previousNode)
+      {
+      }
+
+      @Override
+      public void rejectNode(FootstepNode rejectedNode, FootstepNode parentNode, BipedalFootstepPlannerNodeRejectionReason reason)
+      {
+      }
+
+      @Override
+      public void plannerFinished(List<FootstepNode> plan)
+      {
+      }
+
+      @Override
+      public void reportLowestCostNodeList(List<FootstepNode> plan)
+      {
+      }
+
+      @Override
+      public void tickAndUpdate()
+      {
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package us.ihmc.footstepPlanning.graphSearch.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.referenceFrame.FramePose3D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.referenceFrame.tools.ReferenceFrameTools;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.SimpleFootstep;
+import us.ihmc.footstepPlanning.graphSearch.nodeExpansion.ParameterBasedNodeExpansion;
+import us.ihmc.footstepPlanning.graphSearch.parameters.DefaultFootstepPlanningParameters;
+import us.ihmc.footstepPlanning.graphSearch.parameters.FootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.planners.AStarFootstepPlanner;
+import us.ihmc.footstepPlanning.tools.PlannerTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class AStarParallelExpansionTest
+{
+   @After
+   public void tearDown()
+   {
+      ReferenceFrameTools.clearWorldFrameTree();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 60000)
+   public void testParallelExpansionGivesSamePlan()
+   {
+      Random random = new Random(4563L);
+      ForkJoinPool pool = new ForkJoinPool(4);
+
+      for (int i = 0; i < 3; i++)
+      {
+         PlanarRegionsList planarRegionsList = createBlocksOnGround(random);
+
+         FramePose3D start = new FramePose3D(ReferenceFrame.getWorldFrame());
+         FramePose3D goal = new FramePose3D(ReferenceFrame.getWorldFrame());
+         goal.setPosition(3.0, 0.0, 0.0);
+
+         FootstepPlan serialPlan = plan(planarRegionsList.copy(), start, goal, false, pool);
+         FootstepPlan parallelPlan = plan(planarRegionsList.copy(), start, goal, true, pool);
+
+         assertNotNull(serialPlan);
+         assertNotNull(parallelPlan);
+         assertEquals(serialPlan.getNumberOfSteps(), parallelPlan.getNumberOfSteps());
+         for (int step = 0; step < serialPlan.getNumberOfSteps(); step++)
+         {
+            SimpleFootstep serialStep = serialPlan.getFootstep(step);
+            SimpleFootstep parallelStep = parallelPlan.getFootstep(step);
+            assertTrue("Step " + step + " is different: " + serialStep + " and " + parallelStep, serialStep.epsilonEquals(parallelStep, 0.0));
+         }
+      }
+
+      pool.shutdown();
+   }
+
+   private static FootstepPlan plan(PlanarRegionsList planarRegionsList, FramePose3D start, FramePose3D goal, boolean parallel, ForkJoinPool pool)
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters();
+      SideDependentList<ConvexPolygon2D> footPolygons = PlannerTools.createDefaultFootPolygons();
+      ParameterBasedNodeExpansion expansion = new ParameterBasedNodeExpansion(parameters);
+      AStarFootstepPlanner planner = AStarFootstepPlanner.createPlanner(parameters, null, footPolygons, expansion, new YoVariableRegistry("testRegistry"));
+      planner.setTimeout(Double.POSITIVE_INFINITY);
+      planner.setParallelExpansion(parallel);
+      planner.setExpansionPool(pool);
+
+      return PlannerTools.runPlanner(planner, start, RobotSide.LEFT, goal, planarRegionsList, true);
+   }
+
+   private static PlanarRegionsList createBlocksOnGround(Random random)
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.translate(1.5, 0.0, 0.0);
+      generator.addRectangle(5.0, 2.0);
+
+      for (int i = 0; i < 25; i++)
+      {
+         generator.identity();
+         generator.translate(0.2 + 2.6 * random.nextDouble(), 1.6 * (random.nextDouble() - 0.5), 0.0);
+         generator.addCubeReferencedAtBottomMiddle(0.3 + 0.3 * random.nextDouble(), 0.3 + 0.3 * random.nextDouble(), 0.05 + 0.1 * random.nextDouble());
+      }
+
+      return generator.getPlanarRegionsList();
+   }
+}
@@ -1,5 +1,7 @@
 package us.ihmc.footstepPlanning.graphSearch.aStar;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -52,6 +54,26 @@ public class AStarStartNodeInAVoidTest
    @ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 30000)
    public void testStartNodeInAVoid()
+   {
+      runPlannerFromStartInAVoid(new Point2D(-1.2, 0.0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testStartNodeFartherFromTheGround()
+   {
+      // The first steps have to be on the region the planner adds under the start
+      FootstepPlan footstepPlan = runPlannerFromStartInAVoid(new Point2D(-1.3, 0.0));
+
+      for (int i = 0; i < footstepPlan.getNumberOfSteps(); i++)
+      {
+         FramePose3D soleFramePose = new FramePose3D();
+         footstepPlan.getFootstep(i).getSoleFramePose(soleFramePose);
+         assertEquals(0.0, soleFramePose.getZ(), 1.0e-5);
+      }
+   }
+
+   private FootstepPlan runPlannerFromStartInAVoid(Point2D startPosition)
    {
       ConvexPolygon2D groundPlane = new ConvexPolygon2D();
       groundPlane.addVertex(-1.0, -1.0);
@@ -66,7 +88,7 @@ public class AStarStartNodeInAVoidTest
       Point2D goalPosition = new Point2D(0.5, 0.0);
       FramePose2D goalPose = new FramePose2D(ReferenceFrame.getWorldFrame(), goalPosition, 0.0);
 
-      FramePose2D initialStanceFootPose = new FramePose2D(ReferenceFrame.getWorldFrame(), new Point2D(-1.2, 0.0), 0.0);
+      FramePose2D initialStanceFootPose = new FramePose2D(ReferenceFrame.getWorldFrame(), startPosition, 0.0);
       RobotSide initialStanceFootSide = RobotSide.LEFT;
 
       FramePose3D initialStanceFootPose3d = FlatGroundPlanningUtils.poseFormPose2d(initialStanceFootPose);
@@ -76,5 +98,7 @@ public class AStarStartNodeInAVoidTest
 
       if (visualize)
          PlanningTestTools.visualizeAndSleep(planarRegionsList, footstepPlan, goalPose3d);
+
+      return footstepPlan;
    }
 }
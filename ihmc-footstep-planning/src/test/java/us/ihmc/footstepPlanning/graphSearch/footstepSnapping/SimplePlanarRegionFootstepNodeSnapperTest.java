@@ -18,6 +18,7 @@ import us.ihmc.footstepPlanning.tools.PlannerTools;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNodeTools;
 import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionPolygonSnapperTest;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListPolygonSnapper;
 import us.ihmc.footstepPlanning.polygonSnapping.PolygonSnapperVisualizer;
 import us.ihmc.graphicsDescription.appearance.YoAppearance;
 import us.ihmc.robotics.geometry.PlanarRegion;
@@ -25,10 +26,13 @@ import us.ihmc.robotics.geometry.PlanarRegionsList;
 import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.robotSide.SideDependentList;
 import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.simulationConstructionSetTools.util.planarRegions.PlanarRegionsListExamples;
 
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
 public class SimplePlanarRegionFootstepNodeSnapperTest
@@ -169,6 +173,73 @@ public class SimplePlanarRegionFootstepNodeSnapperTest
       }
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSteppableRegionLatticeGivesSameSnap()
+   {
+      PlanarRegionsList planarRegionsList = PlanarRegionsListExamples.generateRandomObjects(random, 50, 2.0, 1.0, 0.5);
+      snapper.setPlanarRegions(planarRegionsList);
+
+      for (int i = 0; i < 2000; i++)
+      {
+         double x = EuclidCoreRandomTools.nextDouble(random, 2.5);
+         double y = EuclidCoreRandomTools.nextDouble(random, 1.5);
+         double yaw = EuclidCoreRandomTools.nextDouble(random, Math.PI);
+         FootstepNode node = new FootstepNode(x, y, yaw, RobotSide.generateRandomRobotSide(random));
+
+         ConvexPolygon2D footPolygon = new ConvexPolygon2D();
+         FootstepNodeTools.getFootPolygon(node, footPolygons.get(node.getRobotSide()), footPolygon);
+         List<PlanarRegion> nearbyRegions = snapper.getOrCreateSteppableRegions(node.getRoundedX(), node.getRoundedY());
+         RigidBodyTransform expectedTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygon, nearbyRegions, null);
+
+         FootstepNodeSnapData snapData = snapper.snapFootstepNode(node);
+         if (expectedTransform == null)
+            assertTrue(snapData.getSnapTransform().containsNaN());
+         else if (!snapData.getSnapTransform().containsNaN()) // Also empty if the foothold is empty
+            assertTrue(expectedTransform.epsilonEquals(snapData.getSnapTransform(), 0.0));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSnapToRegionAddedAfterSettingTheRegions()
+   {
+      PlanarRegionsList planarRegionsList = new PlanarRegionsList(createPlanarRegion(new RigidBodyTransform(), createUnitSquare(2.0, 0.0)));
+      snapper.setPlanarRegions(planarRegionsList);
+
+      // Outside of the lattice and no regions under the foot
+      FootstepNode node = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      assertTrue(snapper.snapFootstepNode(node).getSnapTransform().containsNaN());
+
+      RigidBodyTransform regionTransform = new RigidBodyTransform();
+      regionTransform.setTranslationZ(0.2);
+      PlanarRegion startRegion = createPlanarRegion(regionTransform, createUnitSquare(0.0, 0.0));
+      planarRegionsList.addPlanarRegion(startRegion);
+      snapper.planarRegionAdded(startRegion);
+
+      assertEquals(0.2, snapper.snapFootstepNode(node).getSnapTransform().getTranslationZ(), epsilon);
+
+      // Next to the ground, where the lattice only knew about the ground before the region was added
+      FootstepNode nodeNearGround = new FootstepNode(1.45, 0.0, 0.0, RobotSide.RIGHT);
+      assertEquals(0.0, snapper.snapFootstepNode(nodeNearGround).getSnapTransform().getTranslationZ(), epsilon);
+
+      PlanarRegion regionNearGround = createPlanarRegion(regionTransform, createUnitSquare(1.0, 0.0));
+      planarRegionsList.addPlanarRegion(regionNearGround);
+      snapper.planarRegionAdded(regionNearGround);
+
+      assertEquals(0.2, snapper.snapFootstepNode(nodeNearGround).getSnapTransform().getTranslationZ(), epsilon);
+      assertEquals(0.2, snapper.snapFootstepNode(node).getSnapTransform().getTranslationZ(), epsilon);
+   }
+
+   private ConvexPolygon2D createUnitSquare(double centerX, double centerY)
+   {
+      ConvexPolygon2D square = new ConvexPolygon2D();
+      for (int i = 0; i < unitSquare.getNumberOfVertices(); i++)
+         square.addVertex(unitSquare.getVertex(i).getX() + centerX, unitSquare.getVertex(i).getY() + centerY);
+      square.update();
+      return square;
+   }
+
    private void doAFullFootholdTest(RigidBodyTransform regionToWorldFrameTransform, FootstepNode nodeToSnap)
    {
       RigidBodyTransform nodeTransform = new RigidBodyTransform();
@@ -0,0 +1,89 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import org.junit.Test;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class FootstepNodeHeapTest
+{
+   private final Random random = new Random(7432L);
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testNodeKeysAreUnique()
+   {
+      HashMap<Long, FootstepNode> nodesByKey = new HashMap<>();
+      for (int i = 0; i < 100000; i++)
+      {
+         FootstepNode node = new FootstepNode((random.nextInt(2000) - 1000) * FootstepNode.gridSizeXY, (random.nextInt(2000) - 1000) * FootstepNode.gridSizeXY,
+                                              (random.nextInt(36) - 18) * FootstepNode.gridSizeYaw, RobotSide.generateRandomRobotSide(random));
+         FootstepNode other = nodesByKey.put(node.getKey(), node);
+         if (other != null)
+            assertEquals(other, node);
+      }
+   }
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testAgainstReference()
+   {
+      FootstepNodeHeap heap = new FootstepNodeHeap();
+      HashMap<FootstepNode, Double> costs = new HashMap<>();
+
+      for (int i = 0; i < 50000; i++)
+      {
+         if (costs.isEmpty() || random.nextInt(3) > 0)
+         {
+            FootstepNode node = new FootstepNode(random.nextInt(30) * FootstepNode.gridSizeXY, random.nextInt(30) * FootstepNode.gridSizeXY);
+            double cost = random.nextInt(1000);
+            Double previousCost = costs.get(node);
+
+            boolean expectChange = previousCost == null || cost < previousCost;
+            assertEquals(expectChange, heap.addOrDecrease(node, cost));
+            if (expectChange)
+               costs.put(node, cost);
+         }
+         else
+         {
+            double lowestCost = Collections.min(costs.values());
+            assertEquals(lowestCost, heap.peekCost(), 0.0);
+            FootstepNode node = heap.poll();
+            assertEquals(lowestCost, costs.remove(node), 0.0);
+            assertFalse(heap.contains(node));
+         }
+
+         assertEquals(costs.size(), heap.size());
+      }
+
+      heap.clear();
+      assertTrue(heap.isEmpty());
+      assertNull(heap.poll());
+   }
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testEqualCostsInInsertionOrder()
+   {
+      FootstepNodeHeap heap = new FootstepNodeHeap();
+      for (int i = 0; i < 100; i++)
+      {
+         heap.addOrDecrease(new FootstepNode(i * FootstepNode.gridSizeXY, 0.0), 1.0);
+      }
+
+      for (int i = 0; i < 100; i++)
+      {
+         assertEquals(new FootstepNode(i * FootstepNode.gridSizeXY, 0.0), heap.poll());
+      }
+   }
+}
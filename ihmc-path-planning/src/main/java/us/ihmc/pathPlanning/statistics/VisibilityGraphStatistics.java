@@ -18,6 +18,12 @@ public class VisibilityGraphStatistics implements PlannerStatistics<VisibilityGr
 
    private final List<NavigableRegion> navigableRegions = new ArrayList<>();
 
+   private double navigableRegionsTime = Double.NaN;
+   private double interRegionsMapTime = Double.NaN;
+   private double startAndGoalMapsTime = Double.NaN;
+   private double pathSearchTime = Double.NaN;
+   private int numberOfReusedNavigableRegions = 0;
+
    @Override
    public StatisticsType getStatisticsType()
    {
@@ -31,6 +37,24 @@ public class VisibilityGraphStatistics implements PlannerStatistics<VisibilityGr
       setGoalVisibilityMapInWorld(other.goalMapId, other.goalMap);
       setInterRegionsVisibilityMapInWorld(other.interRegionsMapId, other.interRegionsMap);
       setNavigableRegions(other.navigableRegions);
+      setTimings(other.navigableRegionsTime, other.interRegionsMapTime, other.startAndGoalMapsTime, other.pathSearchTime);
+      setNumberOfReusedNavigableRegions(other.numberOfReusedNavigableRegions);
+   }
+
+   /**
+    * Sets the time in seconds spent in each phase of the last body path computation.
+    */
+   public void setTimings(double navigableRegionsTime, double interRegionsMapTime, double startAndGoalMapsTime, double pathSearchTime)
+   {
+      this.navigableRegionsTime = navigableRegionsTime;
+      this.interRegionsMapTime = interRegionsMapTime;
+      this.startAndGoalMapsTime = startAndGoalMapsTime;
+      this.pathSearchTime = pathSearchTime;
+   }
+
+   public void setNumberOfReusedNavigableRegions(int numberOfReusedNavigableRegions)
+   {
+      this.numberOfReusedNavigableRegions = numberOfReusedNavigableRegions;
    }
 
    public void setStartMapId(int mapId)
@@ -117,4 +141,29 @@ public class VisibilityGraphStatistics implements PlannerStatistics<VisibilityGr
    {
       return navigableRegions.get(regionNumber);
    }
+
+   public double getNavigableRegionsTime()
+   {
+      return navigableRegionsTime;
+   }
+
+   public double getInterRegionsMapTime()
+   {
+      return interRegionsMapTime;
+   }
+
+   public double getStartAndGoalMapsTime()
+   {
+      return startAndGoalMapsTime;
+   }
+
+   public double getPathSearchTime()
+   {
+      return pathSearchTime;
+   }
+
+   public int getNumberOfReusedNavigableRegions()
+   {
+      return numberOfReusedNavigableRegions;
+   }
 }
@@ -0,0 +1,202 @@
+package us.ihmc.pathPlanning.visibilityGraphs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple2D.interfaces.Point2DReadOnly;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphsParameters;
+import us.ihmc.robotics.geometry.PlanarRegion;
+
+/**
+ * Keeps the navigable regions of the last update so that regions whose surroundings did not change are not built again.
+ *
+ * A navigable region only depends on its home region, the obstacle regions of the home region and the parameters. The
+ * regions are therefore keyed on the home region id, the geometry of these regions and the parameters.
+ * Regions that are not used during an update are dropped.
+ */
+public class NavigableRegionCache
+{
+   private Map<Key, NavigableRegion> previousRegions = new HashMap<>();
+   private final Map<Key, NavigableRegion> currentRegions = new ConcurrentHashMap<>();
+   private final AtomicInteger numberOfReusedRegions = new AtomicInteger();
+
+   /**
+    * Has to be called before the navigable regions of a new set of planar regions are requested.
+    */
+   public void startUpdate()
+   {
+      currentRegions.clear();
+      numberOfReusedRegions.set(0);
+   }
+
+   /**
+    * Drops all navigable regions that have not been requested since {@link #startUpdate()}.
+    */
+   public void finishUpdate()
+   {
+      previousRegions = new HashMap<>(currentRegions);
+      currentRegions.clear();
+   }
+
+   public void clear()
+   {
+      previousRegions.clear();
+      currentRegions.clear();
+   }
+
+   /**
+    * Returns the navigable region built in the last update for the same home region, obstacle regions and parameters,
+    * or null if there is none. Can be called from several threads during an update.
+    */
+   public NavigableRegion get(Key key)
+   {
+      NavigableRegion navigableRegion = previousRegions.get(key);
+      if (navigableRegion != null)
+      {
+         currentRegions.put(key, navigableRegion);
+         numberOfReusedRegions.incrementAndGet();
+      }
+      return navigableRegion;
+   }
+
+   public void put(Key key, NavigableRegion navigableRegion)
+   {
+      currentRegions.put(key, navigableRegion);
+   }
+
+   /**
+    * @return the number of navigable regions that were reused since the last {@link #startUpdate()}
+    */
+   public int getNumberOfReusedRegions()
+   {
+      return numberOfReusedRegions.get();
+   }
+
+   public static Key computeKey(PlanarRegion homeRegion, List<PlanarRegion> obstacleRegions, ParametersKey parametersKey)
+   {
+      TDoubleArrayList geometry = new TDoubleArrayList();
+      addGeometry(homeRegion, geometry);
+      for (int i = 0; i < obstacleRegions.size(); i++)
+         addGeometry(obstacleRegions.get(i), geometry);
+      return new Key(homeRegion.getRegionId(), geometry.toArray(), parametersKey);
+   }
+
+   /**
+    * The filters and extrusion calculators are usually created by the parameters on every call, so they are compared by
+    * their class. Together with the parameters object and the parameter values that decides how they behave.
+    */
+   public static ParametersKey computeParametersKey(VisibilityGraphsParameters parameters)
+   {
+      double[] values = {parameters.getNormalZThresholdForAccessibleRegions(), parameters.getExtrusionDistance(),
+            parameters.getExtrusionDistanceIfNotTooHighToStep(), parameters.getTooHighToStepDistance(), parameters.getClusterResolution(),
+            parameters.getPlanarRegionMinArea(), parameters.getPlanarRegionMinSize(), parameters.getRegionOrthogonalAngle()};
+      Class<?>[] classes = {parameters.getNavigableRegionFilter().getClass(), parameters.getObstacleRegionFilter().getClass(),
+            parameters.getPlanarRegionFilter().getClass(), parameters.getNavigableExtrusionDistanceCalculator().getClass(),
+            parameters.getObstacleExtrusionDistanceCalculator().getClass()};
+      return new ParametersKey(parameters, values, classes);
+   }
+
+   private static void addGeometry(PlanarRegion region, TDoubleArrayList geometry)
+   {
+      RigidBodyTransform transformToWorld = new RigidBodyTransform();
+      region.getTransformToWorld(transformToWorld);
+
+      geometry.add(region.getRegionId());
+      for (int row = 0; row < 3; row++)
+      {
+         for (int column = 0; column < 4; column++)
+            geometry.add(transformToWorld.getElement(row, column));
+      }
+
+      geometry.add(region.getConcaveHullSize());
+      for (int i = 0; i < region.getConcaveHullSize(); i++)
+         addPoint(region.getConcaveHullVertex(i), geometry);
+
+      geometry.add(region.getNumberOfConvexPolygons());
+      for (int i = 0; i < region.getNumberOfConvexPolygons(); i++)
+      {
+         ConvexPolygon2D convexPolygon = region.getConvexPolygon(i);
+         geometry.add(convexPolygon.getNumberOfVertices());
+         for (int j = 0; j < convexPolygon.getNumberOfVertices(); j++)
+            addPoint(convexPolygon.getVertex(j), geometry);
+      }
+   }
+
+   private static void addPoint(Point2DReadOnly point, TDoubleArrayList geometry)
+   {
+      geometry.add(point.getX());
+      geometry.add(point.getY());
+   }
+
+   public static class ParametersKey
+   {
+      private final VisibilityGraphsParameters parameters;
+      private final double[] values;
+      private final Class<?>[] classes;
+      private final int hashCode;
+
+      private ParametersKey(VisibilityGraphsParameters parameters, double[] values, Class<?>[] classes)
+      {
+         this.parameters = parameters;
+         this.values = values;
+         this.classes = classes;
+         hashCode = 31 * (31 * System.identityHashCode(parameters) + Arrays.hashCode(values)) + Arrays.hashCode(classes);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+         if (!(object instanceof ParametersKey))
+            return false;
+
+         ParametersKey other = (ParametersKey) object;
+         return parameters == other.parameters && Arrays.equals(values, other.values) && Arrays.equals(classes, other.classes);
+      }
+   }
+
+   public static class Key
+   {
+      private final int regionId;
+      private final double[] geometry;
+      private final ParametersKey parametersKey;
+      private final int hashCode;
+
+      private Key(int regionId, double[] geometry, ParametersKey parametersKey)
+      {
+         this.regionId = regionId;
+         this.geometry = geometry;
+         this.parametersKey = parametersKey;
+         hashCode = 31 * (31 * regionId + Arrays.hashCode(geometry)) + parametersKey.hashCode();
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+         if (!(object instanceof Key))
+            return false;
+
+         Key other = (Key) object;
+         return regionId == other.regionId && hashCode == other.hashCode && Arrays.equals(geometry, other.geometry) && parametersKey.equals(other.parametersKey);
+      }
+   }
+}
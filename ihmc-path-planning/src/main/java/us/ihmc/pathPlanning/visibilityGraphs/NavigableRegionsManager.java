@@ -6,15 +6,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import us.ihmc.commons.Conversions;
 import us.ihmc.commons.PrintTools;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.pathPlanning.statistics.VisibilityGraphStatistics;
 import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.Connection;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.InterRegionVisibilityMap;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.SingleSourceVisibilityMap;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphPathPlanner;
 import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphsParameters;
 import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
 import us.ihmc.pathPlanning.visibilityGraphs.tools.ClusterTools;
@@ -34,9 +37,17 @@ public class NavigableRegionsManager
    private List<NavigableRegion> navigableRegions;
 
    private final VisibilityGraphsParameters parameters;
+   private final VisibilityGraphPathPlanner pathPlanner;
 
    private InterRegionVisibilityMap interRegionVisibilityMap;
 
+   private final NavigableRegionCache navigableRegionCache = new NavigableRegionCache();
+
+   private double navigableRegionsTime = Double.NaN;
+   private double interRegionsMapTime = Double.NaN;
+   private double startAndGoalMapsTime = Double.NaN;
+   private double pathSearchTime = Double.NaN;
+
    public NavigableRegionsManager()
    {
       this(null, null);
@@ -55,6 +66,7 @@ public class NavigableRegionsManager
    public NavigableRegionsManager(VisibilityGraphsParameters parameters, List<PlanarRegion> regions)
    {
       this.parameters = parameters == null ? new DefaultVisibilityGraphParameters() : parameters;
+      pathPlanner = this.parameters.getPathPlanner();
       setPlanarRegions(regions);
    }
 
@@ -89,9 +101,20 @@ public class NavigableRegionsManager
       regions = PlanarRegionTools.filterPlanarRegionsWithBoundingCapsule(start, goal, parameters.getExplorationDistanceFromStartGoal(), regions);
 
       long startBodyPathComputation = System.currentTimeMillis();
+      navigableRegionsTime = Double.NaN;
+      interRegionsMapTime = Double.NaN;
+      startAndGoalMapsTime = Double.NaN;
+      pathSearchTime = Double.NaN;
 
-      navigableRegions = VisibilityGraphsFactory.createNavigableRegions(regions, parameters);
+      long startTime = System.nanoTime();
+      navigableRegions = VisibilityGraphsFactory.createNavigableRegions(regions, parameters, navigableRegionCache);
+      navigableRegionsTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
+
+      startTime = System.nanoTime();
       interRegionVisibilityMap = VisibilityGraphsFactory.createInterRegionVisibilityMap(navigableRegions, parameters.getInterRegionConnectionFilter());
+      interRegionsMapTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
+
+      startTime = System.nanoTime();
       double searchHostEpsilon = parameters.getSearchHostRegionEpsilon();
       startMap = VisibilityGraphsFactory.createSingleSourceVisibilityMap(start, navigableRegions, searchHostEpsilon,
                                                                          interRegionVisibilityMap.getVisibilityMapInLocal());
@@ -121,6 +144,8 @@ public class NavigableRegionsManager
             startMap = VisibilityGraphsFactory.connectToClosestPoints(new ConnectionPoint3D(start, START_GOAL_ID), 1, navigableRegions, START_GOAL_ID);
       }
 
+      startAndGoalMapsTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
+
       if (startMap == null)
          return null;
 
@@ -133,7 +158,9 @@ public class NavigableRegionsManager
       ConnectionPoint3D startConnection = new ConnectionPoint3D(start, START_GOAL_ID);
       ConnectionPoint3D goalConnection = new ConnectionPoint3D(goal, START_GOAL_ID);
 
-      List<Point3DReadOnly> path = parameters.getPathPlanner().calculatePath(startConnection, goalConnection, visibilityMapHolders);
+      startTime = System.nanoTime();
+      List<Point3DReadOnly> path = pathPlanner.calculatePath(startConnection, goalConnection, visibilityMapHolders);
+      pathSearchTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
 
       if (debug)
       {
@@ -210,6 +237,16 @@ public class NavigableRegionsManager
       return allNavigableExtrusions;
    }
 
+   /**
+    * Packs the time spent in each phase of the last call to {@link #calculateBodyPath(Point3DReadOnly, Point3DReadOnly)}
+    * and the number of navigable regions that were taken from the cache.
+    */
+   public void packTimingStatistics(VisibilityGraphStatistics statistics)
+   {
+      statistics.setTimings(navigableRegionsTime, interRegionsMapTime, startAndGoalMapsTime, pathSearchTime);
+      statistics.setNumberOfReusedNavigableRegions(navigableRegionCache.getNumberOfReusedRegions());
+   }
+
    public VisibilityMapHolder getStartMap()
    {
       return startMap;
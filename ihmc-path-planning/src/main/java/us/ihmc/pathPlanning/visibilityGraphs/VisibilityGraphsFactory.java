@@ -5,8 +5,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
@@ -59,6 +61,51 @@ public class VisibilityGraphsFactory
       return navigableRegions;
    }
 
+   /**
+    * Same as {@link #createNavigableRegions(List, VisibilityGraphsParameters)}, but the navigable regions are built in
+    * parallel and regions whose home and obstacle regions did not change since the last call are taken from the cache.
+    */
+   public static List<NavigableRegion> createNavigableRegions(List<PlanarRegion> allRegions, VisibilityGraphsParameters parameters,
+                                                              NavigableRegionCache cache)
+   {
+      if (allRegions.isEmpty())
+         return null;
+
+      NavigableRegionFilter navigableRegionFilter = parameters.getNavigableRegionFilter();
+      ObstacleRegionFilter obstacleRegionFilter = parameters.getObstacleRegionFilter();
+      NavigableRegionCache.ParametersKey parametersKey = NavigableRegionCache.computeParametersKey(parameters);
+
+      cache.startUpdate();
+
+      List<NavigableRegion> navigableRegions = IntStream.range(0, allRegions.size()).parallel().mapToObj(candidateIndex ->
+      {
+         PlanarRegion candidate = allRegions.get(candidateIndex);
+
+         List<PlanarRegion> otherRegions = new ArrayList<>(allRegions);
+         Collections.swap(otherRegions, candidateIndex, otherRegions.size() - 1);
+         otherRegions.remove(otherRegions.size() - 1);
+
+         if (!navigableRegionFilter.isPlanarRegionNavigable(candidate, otherRegions))
+            return null;
+
+         List<PlanarRegion> obstacleRegions = otherRegions.stream().filter(other -> obstacleRegionFilter.isRegionValidObstacle(other, candidate))
+                                                          .collect(Collectors.toList());
+         NavigableRegionCache.Key key = NavigableRegionCache.computeKey(candidate, obstacleRegions, parametersKey);
+
+         NavigableRegion navigableRegion = cache.get(key);
+         if (navigableRegion == null)
+         {
+            navigableRegion = createNavigableRegion(candidate, otherRegions, parameters);
+            cache.put(key, navigableRegion);
+         }
+         return navigableRegion;
+      }).filter(Objects::nonNull).collect(Collectors.toList());
+
+      cache.finishUpdate();
+
+      return navigableRegions;
+   }
+
    public static NavigableRegion createNavigableRegion(PlanarRegion region, List<PlanarRegion> otherRegions, VisibilityGraphsParameters parameters)
    {
       PlanarRegionFilter planarRegionFilter = parameters.getPlanarRegionFilter();
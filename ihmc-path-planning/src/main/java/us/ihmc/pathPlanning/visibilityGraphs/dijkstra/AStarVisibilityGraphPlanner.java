@@ -0,0 +1,212 @@
+package us.ihmc.pathPlanning.visibilityGraphs.dijkstra;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphPathPlanner;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
+
+/**
+ * A* search with a Euclidean heuristic over a {@link CompactVisibilityGraph}.
+ *
+ * Costs, parents and the open set are primitive arrays indexed by vertex id that are kept between queries. Like the
+ * {@link DijkstraVisibilityGraphPlanner}, a path to the expanded point closest to the goal is returned if the goal
+ * cannot be reached.
+ */
+public class AStarVisibilityGraphPlanner implements VisibilityGraphPathPlanner
+{
+   private static final int NO_VERTEX = -1;
+   private static final int INITIAL_CAPACITY = 1 << 10;
+
+   private final CompactVisibilityGraph graph = new CompactVisibilityGraph();
+
+   private double[] costsFromStart = new double[INITIAL_CAPACITY];
+   private int[] parents = new int[INITIAL_CAPACITY];
+
+   /** Binary min heap of vertex ids ordered by cost from start plus heuristic */
+   private int[] heap = new int[INITIAL_CAPACITY];
+   private double[] heapCosts = new double[INITIAL_CAPACITY];
+   private int[] heapPositions = new int[INITIAL_CAPACITY];
+   private int heapSize = 0;
+
+   @Override
+   public List<Point3DReadOnly> calculatePath(ConnectionPoint3D startPoint, ConnectionPoint3D goalPoint, Collection<VisibilityMapHolder> visibilityMapHolders)
+   {
+      graph.build(visibilityMapHolders);
+
+      int start = graph.getVertexId(startPoint);
+      if (start == NO_VERTEX)
+         return Collections.singletonList(startPoint);
+
+      int goal = graph.getVertexId(goalPoint);
+      initialize(graph.getNumberOfVertices());
+
+      double heuristicScale = graph.getMinimumWeightToLengthRatio();
+      int closestVertexToGoal = start;
+      double closestDistanceToGoalSquared = startPoint.distanceSquared(goalPoint);
+
+      costsFromStart[start] = 0.0;
+      push(start, heuristicScale * startPoint.distance(goalPoint));
+
+      while (heapSize > 0)
+      {
+         int vertex = poll();
+         if (vertex == goal)
+            break;
+
+         ConnectionPoint3D point = graph.getVertex(vertex);
+         double distanceToGoalSquared = point.distanceSquared(goalPoint);
+         if (distanceToGoalSquared < closestDistanceToGoalSquared)
+         {
+            closestVertexToGoal = vertex;
+            closestDistanceToGoalSquared = distanceToGoalSquared;
+         }
+
+         double costFromStart = costsFromStart[vertex];
+         int lastEdge = graph.getFirstEdge(vertex + 1);
+         for (int edge = graph.getFirstEdge(vertex); edge < lastEdge; edge++)
+         {
+            int neighbor = graph.getEdgeTarget(edge);
+            double neighborCost = costFromStart + graph.getEdgeWeight(edge);
+            if (neighborCost >= costsFromStart[neighbor])
+               continue;
+
+            costsFromStart[neighbor] = neighborCost;
+            parents[neighbor] = vertex;
+            push(neighbor, neighborCost + heuristicScale * graph.getVertex(neighbor).distance(goalPoint));
+         }
+      }
+
+      if (goal != NO_VERTEX && costsFromStart[goal] < Double.POSITIVE_INFINITY)
+         return getPathToVertex(goal);
+      else
+         return getPathToVertex(closestVertexToGoal);
+   }
+
+   /**
+    * @return the graph of the last query
+    */
+   public CompactVisibilityGraph getGraph()
+   {
+      return graph;
+   }
+
+   private void initialize(int numberOfVertices)
+   {
+      if (costsFromStart.length < numberOfVertices)
+      {
+         int capacity = 2 * numberOfVertices;
+         costsFromStart = new double[capacity];
+         parents = new int[capacity];
+         heap = new int[capacity];
+         heapCosts = new double[capacity];
+         heapPositions = new int[capacity];
+      }
+
+      Arrays.fill(costsFromStart, 0, numberOfVertices, Double.POSITIVE_INFINITY);
+      Arrays.fill(parents, 0, numberOfVertices, NO_VERTEX);
+      Arrays.fill(heapPositions, 0, numberOfVertices, NO_VERTEX);
+      heapSize = 0;
+   }
+
+   private List<Point3DReadOnly> getPathToVertex(int vertex)
+   {
+      List<Point3DReadOnly> path = new ArrayList<>();
+      for (int current = vertex; current != NO_VERTEX; current = parents[current])
+         path.add(graph.getVertex(current));
+
+      Collections.reverse(path);
+      return path;
+   }
+
+   /**
+    * Adds the vertex to the heap or lowers its cost if it is already in there. A vertex that has been polled before is
+    * added again, which only happens if the heuristic is not consistent.
+    */
+   private void push(int vertex, double cost)
+   {
+      int position = heapPositions[vertex];
+      if (position == NO_VERTEX)
+      {
+         position = heapSize++;
+         heap[position] = vertex;
+         heapPositions[vertex] = position;
+      }
+      else if (cost >= heapCosts[position])
+      {
+         return;
+      }
+
+      heapCosts[position] = cost;
+      siftUp(position);
+   }
+
+   private int poll()
+   {
+      int first = heap[0];
+      heapPositions[first] = NO_VERTEX;
+      heapSize--;
+
+      if (heapSize > 0)
+      {
+         heap[0] = heap[heapSize];
+         heapCosts[0] = heapCosts[heapSize];
+         heapPositions[heap[0]] = 0;
+         siftDown(0);
+      }
+
+      return first;
+   }
+
+   private void siftUp(int position)
+   {
+      int vertex = heap[position];
+      double cost = heapCosts[position];
+
+      while (position > 0)
+      {
+         int parent = (position - 1) >> 1;
+         if (heapCosts[parent] <= cost)
+            break;
+
+         set(position, heap[parent], heapCosts[parent]);
+         position = parent;
+      }
+
+      set(position, vertex, cost);
+   }
+
+   private void siftDown(int position)
+   {
+      int vertex = heap[position];
+      double cost = heapCosts[position];
+
+      while (true)
+      {
+         int child = 2 * position + 1;
+         if (child >= heapSize)
+            break;
+         if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child])
+            child++;
+         if (heapCosts[child] >= cost)
+            break;
+
+         set(position, heap[child], heapCosts[child]);
+         position = child;
+      }
+
+      set(position, vertex, cost);
+   }
+
+   private void set(int position, int vertex, double cost)
+   {
+      heap[position] = vertex;
+      heapCosts[position] = cost;
+      heapPositions[vertex] = position;
+   }
+}
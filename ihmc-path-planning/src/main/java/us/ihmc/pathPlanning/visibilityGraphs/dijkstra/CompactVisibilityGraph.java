@@ -0,0 +1,190 @@
+package us.ihmc.pathPlanning.visibilityGraphs.dijkstra;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.Connection;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.VisibilityMap;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
+
+/**
+ * Undirected weighted graph of the connections of a set of visibility maps in compressed sparse row form.
+ *
+ * Vertices are numbered in the order they are first seen and the edges leaving vertex {@code i} are stored at the indices
+ * {@code [getFirstEdge(i), getFirstEdge(i + 1))} of the edge arrays. All arrays are kept between calls to
+ * {@link #build(Collection)}, so rebuilding the graph for a new query only allocates when it grows.
+ */
+public class CompactVisibilityGraph
+{
+   private static final int NO_VERTEX = -1;
+   private static final int INITIAL_CAPACITY = 1 << 10;
+
+   private final TObjectIntHashMap<ConnectionPoint3D> vertexIds = new TObjectIntHashMap<>(INITIAL_CAPACITY, 0.5f, NO_VERTEX);
+   private final List<ConnectionPoint3D> vertices = new ArrayList<>();
+
+   private int numberOfConnections = 0;
+   private int[] connectionSources = new int[INITIAL_CAPACITY];
+   private int[] connectionTargets = new int[INITIAL_CAPACITY];
+   private double[] connectionWeights = new double[INITIAL_CAPACITY];
+
+   private int[] firstEdges = new int[INITIAL_CAPACITY + 1];
+   private int[] edgeTargets = new int[2 * INITIAL_CAPACITY];
+   private double[] edgeWeights = new double[2 * INITIAL_CAPACITY];
+
+   private double minimumWeightToLengthRatio = 1.0;
+
+   /**
+    * Clears the graph and adds the connections of all the maps in world, weighted by {@link VisibilityMapHolder#getConnectionWeight(Connection)}.
+    */
+   public void build(Collection<VisibilityMapHolder> visibilityMapHolders)
+   {
+      vertexIds.clear();
+      vertices.clear();
+      numberOfConnections = 0;
+      minimumWeightToLengthRatio = 1.0;
+
+      for (VisibilityMapHolder visibilityMapHolder : visibilityMapHolders)
+      {
+         VisibilityMap visibilityMap = visibilityMapHolder.getVisibilityMapInWorld();
+         for (Connection connection : visibilityMap)
+         {
+            int source = getOrAddVertex(connection.getSourcePoint());
+            int target = getOrAddVertex(connection.getTargetPoint());
+            if (source == target)
+               continue;
+
+            double weight = visibilityMapHolder.getConnectionWeight(connection);
+            double length = connection.length();
+            if (length > 0.0)
+               minimumWeightToLengthRatio = Math.min(minimumWeightToLengthRatio, weight / length);
+
+            addConnection(source, target, weight);
+         }
+      }
+
+      packEdges();
+   }
+
+   private int getOrAddVertex(ConnectionPoint3D point)
+   {
+      int id = vertexIds.get(point);
+      if (id == NO_VERTEX)
+      {
+         id = vertices.size();
+         vertexIds.put(point, id);
+         vertices.add(point);
+      }
+      return id;
+   }
+
+   private void addConnection(int source, int target, double weight)
+   {
+      if (numberOfConnections == connectionSources.length)
+      {
+         int capacity = 2 * numberOfConnections;
+         connectionSources = Arrays.copyOf(connectionSources, capacity);
+         connectionTargets = Arrays.copyOf(connectionTargets, capacity);
+         connectionWeights = Arrays.copyOf(connectionWeights, capacity);
+      }
+
+      connectionSources[numberOfConnections] = source;
+      connectionTargets[numberOfConnections] = target;
+      connectionWeights[numberOfConnections] = weight;
+      numberOfConnections++;
+   }
+
+   private void packEdges()
+   {
+      int numberOfVertices = vertices.size();
+      if (firstEdges.length < numberOfVertices + 1)
+         firstEdges = new int[2 * numberOfVertices + 1];
+      if (edgeTargets.length < 2 * numberOfConnections)
+      {
+         edgeTargets = new int[4 * numberOfConnections];
+         edgeWeights = new double[4 * numberOfConnections];
+      }
+
+      // Count the degree of every vertex, shifted by one so the prefix sum gives the first edge of each vertex
+      Arrays.fill(firstEdges, 0, numberOfVertices + 1, 0);
+      for (int i = 0; i < numberOfConnections; i++)
+      {
+         firstEdges[connectionSources[i] + 1]++;
+         firstEdges[connectionTargets[i] + 1]++;
+      }
+      for (int i = 0; i < numberOfVertices; i++)
+         firstEdges[i + 1] += firstEdges[i];
+
+      // Fill the edges using the first edge of every vertex as insertion cursor, then shift the cursors back
+      for (int i = 0; i < numberOfConnections; i++)
+      {
+         int source = connectionSources[i];
+         int target = connectionTargets[i];
+         double weight = connectionWeights[i];
+
+         int sourceEdge = firstEdges[source]++;
+         edgeTargets[sourceEdge] = target;
+         edgeWeights[sourceEdge] = weight;
+
+         int targetEdge = firstEdges[target]++;
+         edgeTargets[targetEdge] = source;
+         edgeWeights[targetEdge] = weight;
+      }
+      for (int i = numberOfVertices; i > 0; i--)
+         firstEdges[i] = firstEdges[i - 1];
+      firstEdges[0] = 0;
+   }
+
+   public int getNumberOfVertices()
+   {
+      return vertices.size();
+   }
+
+   public int getNumberOfEdges()
+   {
+      return 2 * numberOfConnections;
+   }
+
+   /**
+    * @return the id of the vertex at the given point, or -1 if the point is not in the graph
+    */
+   public int getVertexId(ConnectionPoint3D point)
+   {
+      return vertexIds.get(point);
+   }
+
+   public ConnectionPoint3D getVertex(int vertexId)
+   {
+      return vertices.get(vertexId);
+   }
+
+   /**
+    * @return index of the first edge leaving the vertex, the edges of vertex {@code i} end at {@code getFirstEdge(i + 1)}
+    */
+   public int getFirstEdge(int vertexId)
+   {
+      return firstEdges[vertexId];
+   }
+
+   public int getEdgeTarget(int edgeIndex)
+   {
+      return edgeTargets[edgeIndex];
+   }
+
+   public double getEdgeWeight(int edgeIndex)
+   {
+      return edgeWeights[edgeIndex];
+   }
+
+   /**
+    * Smallest ratio of edge weight to edge length, at most one. Scaling the Euclidean distance by this ratio gives a
+    * consistent heuristic for any connection weights.
+    */
+   public double getMinimumWeightToLengthRatio()
+   {
+      return minimumWeightToLengthRatio;
+   }
+}
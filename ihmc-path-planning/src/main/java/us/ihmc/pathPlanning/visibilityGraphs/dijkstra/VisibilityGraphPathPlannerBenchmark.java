@@ -0,0 +1,117 @@
+package us.ihmc.pathPlanning.visibilityGraphs.dijkstra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.euclid.Axis;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.pathPlanning.visibilityGraphs.NavigableRegionsManager;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphPathPlanner;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+
+/**
+ * Compares the search time of the {@link DijkstraVisibilityGraphPlanner} and the {@link AStarVisibilityGraphPlanner}
+ * on the visibility maps of fields of boxes of growing size. The maps are computed once per field, only the search is
+ * timed.
+ */
+public class VisibilityGraphPathPlannerBenchmark
+{
+   private static final int START_GOAL_ID = 0;
+   private static final int WARMUP_ITERATIONS = 50;
+   private static final int ITERATIONS = 200;
+   private static final int[] NUMBER_OF_BOXES = {5, 20, 50, 100};
+
+   public static void main(String[] args)
+   {
+      AStarVisibilityGraphPlanner aStarPlanner = new AStarVisibilityGraphPlanner();
+
+      double totalDijkstraTime = 0.0;
+      double totalAStarTime = 0.0;
+
+      for (int numberOfBoxes : NUMBER_OF_BOXES)
+      {
+         // Keep the density of the boxes constant
+         double fieldLength = 2.0 * Math.sqrt(numberOfBoxes);
+         Point3D startPoint = new Point3D(-0.5 * fieldLength - 0.5, 0.0, 0.0);
+         Point3D goalPoint = new Point3D(0.5 * fieldLength + 0.5, 0.0, 0.0);
+         String fieldName = numberOfBoxes + " boxes";
+
+         NavigableRegionsManager manager = new NavigableRegionsManager(createBoxField(new Random(1776L), numberOfBoxes, fieldLength).getPlanarRegionsAsList());
+         if (manager.calculateBodyPath(startPoint, goalPoint) == null)
+         {
+            System.out.println(fieldName + ": no body path, skipping");
+            continue;
+         }
+
+         List<VisibilityMapHolder> visibilityMapHolders = new ArrayList<>();
+         visibilityMapHolders.addAll(manager.getNavigableRegions());
+         visibilityMapHolders.add(manager.getStartMap());
+         visibilityMapHolders.add(manager.getGoalMap());
+         visibilityMapHolders.add(manager.getInterRegionConnections());
+
+         ConnectionPoint3D start = new ConnectionPoint3D(startPoint, START_GOAL_ID);
+         ConnectionPoint3D goal = new ConnectionPoint3D(goalPoint, START_GOAL_ID);
+
+         // A new Dijkstra planner per query, like the manager did before
+         double dijkstraTime = timeQueries(() -> new DijkstraVisibilityGraphPlanner(), start, goal, visibilityMapHolders);
+         double aStarTime = timeQueries(() -> aStarPlanner, start, goal, visibilityMapHolders);
+         totalDijkstraTime += dijkstraTime;
+         totalAStarTime += aStarTime;
+
+         List<Point3DReadOnly> dijkstraPath = new DijkstraVisibilityGraphPlanner().calculatePath(start, goal, visibilityMapHolders);
+         List<Point3DReadOnly> aStarPath = aStarPlanner.calculatePath(start, goal, visibilityMapHolders);
+
+         System.out.println(String.format("%s: %d vertices, %d edges, dijkstra %.3f ms (length %.3f), A* %.3f ms (length %.3f)", fieldName,
+                                          aStarPlanner.getGraph().getNumberOfVertices(), aStarPlanner.getGraph().getNumberOfEdges(), 1.0e3 * dijkstraTime,
+                                          computePathLength(dijkstraPath), 1.0e3 * aStarTime, computePathLength(aStarPath)));
+      }
+
+      System.out.println(String.format("Total: dijkstra %.3f ms, A* %.3f ms", 1.0e3 * totalDijkstraTime, 1.0e3 * totalAStarTime));
+   }
+
+   private static PlanarRegionsList createBoxField(Random random, int numberOfBoxes, double fieldLength)
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.addRectangle(fieldLength + 2.0, fieldLength + 2.0);
+
+      for (int i = 0; i < numberOfBoxes; i++)
+      {
+         generator.identity();
+         generator.translate(fieldLength * (random.nextDouble() - 0.5), fieldLength * (random.nextDouble() - 0.5), 0.0);
+         generator.rotate(Math.PI * random.nextDouble(), Axis.Z);
+         generator.addCubeReferencedAtBottomMiddle(0.3 + 0.4 * random.nextDouble(), 0.3 + 0.4 * random.nextDouble(), 0.5 + random.nextDouble());
+      }
+
+      PlanarRegionsList planarRegionsList = generator.getPlanarRegionsList();
+      for (int i = 0; i < planarRegionsList.getNumberOfPlanarRegions(); i++)
+         planarRegionsList.getPlanarRegion(i).setRegionId(i + 1);
+      return planarRegionsList;
+   }
+
+   private static double timeQueries(Supplier<VisibilityGraphPathPlanner> plannerSupplier, ConnectionPoint3D start, ConnectionPoint3D goal,
+                                     List<VisibilityMapHolder> visibilityMapHolders)
+   {
+      for (int i = 0; i < WARMUP_ITERATIONS; i++)
+         plannerSupplier.get().calculatePath(start, goal, visibilityMapHolders);
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++)
+         plannerSupplier.get().calculatePath(start, goal, visibilityMapHolders);
+      return Conversions.nanosecondsToSeconds(System.nanoTime() - startTime) / ITERATIONS;
+   }
+
+   private static double computePathLength(List<Point3DReadOnly> path)
+   {
+      double length = 0.0;
+      for (int i = 1; i < path.size(); i++)
+         length += path.get(i - 1).distance(path.get(i));
+      return length;
+   }
+}
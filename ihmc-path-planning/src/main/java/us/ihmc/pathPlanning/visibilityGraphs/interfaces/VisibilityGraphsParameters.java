@@ -4,7 +4,7 @@ import java.util.List;
 
 import us.ihmc.commons.MathTools;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
-import us.ihmc.pathPlanning.visibilityGraphs.dijkstra.DijkstraVisibilityGraphPlanner;
+import us.ihmc.pathPlanning.visibilityGraphs.dijkstra.AStarVisibilityGraphPlanner;
 import us.ihmc.pathPlanning.visibilityGraphs.tools.JGraphTools;
 import us.ihmc.pathPlanning.visibilityGraphs.tools.PlanarRegionTools;
 import us.ihmc.robotics.geometry.PlanarRegion;
@@ -178,7 +178,7 @@ public interface VisibilityGraphsParameters
 
    default VisibilityGraphPathPlanner getPathPlanner()
    {
-      return new DijkstraVisibilityGraphPlanner();
+      return new AStarVisibilityGraphPlanner();
 //      return JGraphTools.getJGraphPlanner();
    }
 }
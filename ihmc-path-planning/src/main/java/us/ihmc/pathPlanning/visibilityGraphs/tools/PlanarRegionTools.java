@@ -12,6 +12,7 @@ import us.ihmc.euclid.geometry.BoundingBox2D;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.geometry.Line3D;
 import us.ihmc.euclid.geometry.LineSegment3D;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox2DReadOnly;
 import us.ihmc.euclid.geometry.interfaces.ConvexPolygon2DReadOnly;
 import us.ihmc.euclid.geometry.tools.EuclidGeometryPolygonTools;
 import us.ihmc.euclid.geometry.tools.EuclidGeometryRandomTools;
@@ -110,7 +111,12 @@ public class PlanarRegionTools
     */
    public static Point3DReadOnly projectPointToPlanesVertically(Point3DReadOnly pointInWorld, PlanarRegionsList regions)
    {
-      return projectPointToPlanesVertically(pointInWorld, regions.getPlanarRegionsAsList());
+      if (!regions.isSpatialIndexEnabled())
+         return projectPointToPlanesVertically(pointInWorld, regions.getPlanarRegionsAsList());
+
+      List<PlanarRegion> candidateRegions = new ArrayList<>();
+      regions.findPlanarRegionCandidatesOverlappingXYBox(pointInWorld.getX(), pointInWorld.getY(), pointInWorld.getX(), pointInWorld.getY(), candidateRegions);
+      return projectPointToPlanesVertically(pointInWorld, candidateRegions);
    }
 
    /**
@@ -438,7 +444,14 @@ public class PlanarRegionTools
     */
    public static List<PlanarRegion> findPlanarRegionsIntersectingPolygon(ConvexPolygon2DReadOnly convexPolygon, PlanarRegionsList regions)
    {
-      return findPlanarRegionsIntersectingPolygon(convexPolygon, regions.getPlanarRegionsAsList());
+      if (!regions.isSpatialIndexEnabled())
+         return findPlanarRegionsIntersectingPolygon(convexPolygon, regions.getPlanarRegionsAsList());
+
+      BoundingBox2DReadOnly boundingBox = convexPolygon.getBoundingBox();
+      List<PlanarRegion> candidateRegions = new ArrayList<>();
+      regions.findPlanarRegionCandidatesOverlappingXYBox(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMaxX(), boundingBox.getMaxY(),
+                                                         candidateRegions);
+      return findPlanarRegionsIntersectingPolygon(convexPolygon, candidateRegions);
    }
 
    /**
@@ -0,0 +1,119 @@
+package us.ihmc.pathPlanning.visibilityGraphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.pathPlanning.statistics.VisibilityGraphStatistics;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphsParameters;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+
+public class NavigableRegionsManagerTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testCachedNavigableRegionsGiveSamePath()
+   {
+      Point3D start = new Point3D(-1.0, 0.0, 0.0);
+      Point3D goal = new Point3D(3.0, 0.5, 0.0);
+
+      NavigableRegionsManager cachingManager = new NavigableRegionsManager();
+      VisibilityGraphStatistics statistics = new VisibilityGraphStatistics();
+
+      cachingManager.setPlanarRegions(createEnvironment(0.0).getPlanarRegionsAsList());
+      List<Point3DReadOnly> firstPath = cachingManager.calculateBodyPath(start, goal);
+      assertNotNull(firstPath);
+      cachingManager.packTimingStatistics(statistics);
+      assertEquals(0, statistics.getNumberOfReusedNavigableRegions());
+
+      // Same regions again, all navigable regions are reused
+      cachingManager.setPlanarRegions(createEnvironment(0.0).getPlanarRegionsAsList());
+      assertPathsEqual(firstPath, cachingManager.calculateBodyPath(start, goal));
+      cachingManager.packTimingStatistics(statistics);
+      assertEquals(cachingManager.getNavigableRegions().size(), statistics.getNumberOfReusedNavigableRegions());
+      assertTrue(statistics.getNavigableRegionsTime() >= 0.0);
+      assertTrue(statistics.getPathSearchTime() >= 0.0);
+
+      // Moving one box only rebuilds the regions around it
+      List<PlanarRegion> movedEnvironment = createEnvironment(0.3).getPlanarRegionsAsList();
+      cachingManager.setPlanarRegions(movedEnvironment);
+      List<Point3DReadOnly> pathAfterMove = cachingManager.calculateBodyPath(start, goal);
+      cachingManager.packTimingStatistics(statistics);
+      assertTrue(statistics.getNumberOfReusedNavigableRegions() < cachingManager.getNavigableRegions().size());
+
+      NavigableRegionsManager freshManager = new NavigableRegionsManager(createEnvironment(0.3).getPlanarRegionsAsList());
+      assertPathsEqual(freshManager.calculateBodyPath(start, goal), pathAfterMove);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCacheKeys()
+   {
+      List<PlanarRegion> regions = createEnvironment(0.0).getPlanarRegionsAsList();
+      List<PlanarRegion> movedRegions = createEnvironment(0.3).getPlanarRegionsAsList();
+      PlanarRegion homeRegion = regions.get(0);
+      List<PlanarRegion> obstacleRegions = regions.subList(1, regions.size());
+
+      VisibilityGraphsParameters parameters = new DefaultVisibilityGraphParameters();
+      NavigableRegionCache.ParametersKey parametersKey = NavigableRegionCache.computeParametersKey(parameters);
+      NavigableRegionCache.Key key = NavigableRegionCache.computeKey(homeRegion, obstacleRegions, parametersKey);
+
+      assertEquals(key, NavigableRegionCache.computeKey(createEnvironment(0.0).getPlanarRegion(0), obstacleRegions,
+                                                        NavigableRegionCache.computeParametersKey(parameters)));
+      assertNotEquals(key, NavigableRegionCache.computeKey(homeRegion, movedRegions.subList(1, movedRegions.size()), parametersKey));
+      assertNotEquals(key, NavigableRegionCache.computeKey(homeRegion, obstacleRegions.subList(1, obstacleRegions.size()), parametersKey));
+
+      // Other parameters object or other values
+      assertNotEquals(key, NavigableRegionCache.computeKey(homeRegion, obstacleRegions,
+                                                           NavigableRegionCache.computeParametersKey(new DefaultVisibilityGraphParameters())));
+      VisibilityGraphsParameters otherExtrusion = new DefaultVisibilityGraphParameters()
+      {
+         @Override
+         public double getExtrusionDistance()
+         {
+            return super.getExtrusionDistance() + 0.1;
+         }
+      };
+      NavigableRegionCache.ParametersKey otherExtrusionKey = NavigableRegionCache.computeParametersKey(otherExtrusion);
+      assertNotEquals(parametersKey, otherExtrusionKey);
+      assertEquals(otherExtrusionKey, NavigableRegionCache.computeParametersKey(otherExtrusion));
+   }
+
+   private static void assertPathsEqual(List<Point3DReadOnly> expected, List<Point3DReadOnly> actual)
+   {
+      assertNotNull(actual);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+         assertTrue(expected.get(i).epsilonEquals(actual.get(i), 1.0e-10));
+   }
+
+   private static PlanarRegionsList createEnvironment(double boxOffset)
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.translate(1.0, 0.0, 0.0);
+      generator.addRectangle(6.0, 4.0);
+
+      generator.identity();
+      generator.translate(1.0, boxOffset, 0.0);
+      generator.addCubeReferencedAtBottomMiddle(0.5, 1.0, 0.8);
+
+      generator.identity();
+      generator.translate(2.0, 1.2, 0.0);
+      generator.addCubeReferencedAtBottomMiddle(0.6, 0.6, 0.8);
+
+      PlanarRegionsList planarRegionsList = generator.getPlanarRegionsList();
+      for (int i = 0; i < planarRegionsList.getNumberOfPlanarRegions(); i++)
+         planarRegionsList.getPlanarRegion(i).setRegionId(i + 1);
+      return planarRegionsList;
+   }
+}
@@ -0,0 +1,139 @@
+package us.ihmc.pathPlanning.visibilityGraphs.dijkstra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.Connection;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.VisibilityMap;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
+import us.ihmc.pathPlanning.visibilityGraphs.tools.JGraphTools;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class AStarVisibilityGraphPlannerTest
+{
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSimplePlanarGraph()
+   {
+      AStarVisibilityGraphPlanner planner = new AStarVisibilityGraphPlanner();
+
+      ConnectionPoint3D p1 = new ConnectionPoint3D(0.0, 0.0, 0.0, 0);
+      ConnectionPoint3D p2 = new ConnectionPoint3D(0.5, 0.0, 0.0, 0);
+      ConnectionPoint3D p3 = new ConnectionPoint3D(0.25, 0.25, 0.0, 1);
+      ConnectionPoint3D p4 = new ConnectionPoint3D(0.5, 0.5, 0.0, 0);
+      ConnectionPoint3D p5 = new ConnectionPoint3D(1.0, 0.0, 0.0, 1);
+
+      VisibilityMap visibilityMap = new VisibilityMap();
+      visibilityMap.addConnection(new Connection(p1, p2));
+      visibilityMap.addConnection(new Connection(p1, p3));
+      visibilityMap.addConnection(new Connection(p2, p4));
+      visibilityMap.addConnection(new Connection(p3, p4));
+      visibilityMap.addConnection(new Connection(p4, p5));
+
+      List<Point3DReadOnly> path = planner.calculatePath(p1, p5, Collections.singletonList(createHolder(visibilityMap)));
+
+      assertEquals(4, path.size());
+      assertTrue(path.get(0).equals(p1));
+      assertTrue(path.get(1).equals(p3));
+      assertTrue(path.get(2).equals(p4));
+      assertTrue(path.get(3).equals(p5));
+
+      // Without the last connection the path goes to the point closest to the goal
+      visibilityMap.getConnections().removeIf(connection -> connection.getTargetPoint().equals(p5) || connection.getSourcePoint().equals(p5));
+      path = planner.calculatePath(p1, p5, Collections.singletonList(createHolder(visibilityMap)));
+      assertTrue(path.get(path.size() - 1).equals(p2));
+   }
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testCostMatchesDijkstraOnRandomGraphs()
+   {
+      Random random = new Random(4932L);
+      AStarVisibilityGraphPlanner planner = new AStarVisibilityGraphPlanner();
+
+      for (int iteration = 0; iteration < 200; iteration++)
+      {
+         List<ConnectionPoint3D> points = new ArrayList<>();
+         int numberOfPoints = 2 + random.nextInt(60);
+         for (int i = 0; i < numberOfPoints; i++)
+            points.add(new ConnectionPoint3D(0.1 * random.nextInt(50), 0.1 * random.nextInt(50), 0.1 * random.nextInt(5), 0));
+
+         VisibilityMap visibilityMap = new VisibilityMap();
+         int numberOfConnections = random.nextInt(4 * numberOfPoints);
+         for (int i = 0; i < numberOfConnections; i++)
+         {
+            ConnectionPoint3D source = points.get(random.nextInt(numberOfPoints));
+            ConnectionPoint3D target = points.get(random.nextInt(numberOfPoints));
+            if (!source.epsilonEquals(target, 1.0e-3))
+               visibilityMap.addConnection(new Connection(source, target));
+         }
+
+         List<VisibilityMapHolder> visibilityMapHolders = Collections.singletonList(createHolder(visibilityMap));
+         ConnectionPoint3D start = visibilityMap.getConnections().isEmpty() ? points.get(0) : visibilityMap.getConnections().iterator().next().getSourcePoint();
+         ConnectionPoint3D goal = points.get(random.nextInt(numberOfPoints));
+
+         List<Point3DReadOnly> path = planner.calculatePath(start, goal, visibilityMapHolders);
+         assertTrue(path.get(0).equals(start));
+
+         SimpleWeightedGraph<ConnectionPoint3D, DefaultWeightedEdge> graph = JGraphTools.createGlobalVisibilityGraph(visibilityMapHolders);
+         if (!graph.containsVertex(start) || !graph.containsVertex(goal))
+            continue;
+
+         DijkstraShortestPath<ConnectionPoint3D, DefaultWeightedEdge> dijkstra = new DijkstraShortestPath<>(graph, start, goal);
+         if (dijkstra.getPath() == null)
+         {
+            assertTrue(!path.get(path.size() - 1).equals(goal) || start.equals(goal));
+            continue;
+         }
+
+         assertTrue(path.get(path.size() - 1).equals(goal));
+         assertEquals(dijkstra.getPathLength(), computePathLength(path), 1.0e-9);
+      }
+   }
+
+   private static double computePathLength(List<Point3DReadOnly> path)
+   {
+      double length = 0.0;
+      for (int i = 1; i < path.size(); i++)
+         length += path.get(i - 1).distance(path.get(i));
+      return length;
+   }
+
+   private static VisibilityMapHolder createHolder(VisibilityMap visibilityMap)
+   {
+      return new VisibilityMapHolder()
+      {
+         @Override
+         public int getMapId()
+         {
+            return 0;
+         }
+
+         @Override
+         public VisibilityMap getVisibilityMapInLocal()
+         {
+            return null;
+         }
+
+         @Override
+         public VisibilityMap getVisibilityMapInWorld()
+         {
+            return visibilityMap;
+         }
+      };
+   }
+}
@@ -0,0 +1,28 @@
+package us.ihmc.robotDataLogger;
+
+/**
+* 
+* Definition of the enum "LogCodec" defined in LogProperties.idl. 
+*
+* This file was automatically generated from LogProperties.idl by us.ihmc.idl.generator.IDLGenerator. 
+* Do not update this file directly, edit LogProperties.idl instead.
+*
+*/
+import us.ihmc.idl.IDLTools;
+
+public enum LogCodec
+{
+         SNAPPY,
+      
+         DELTA_SNAPPY,
+      
+         DELTA_LZ4_HIGH,
+      
+   ;
+   public static LogCodec[] values = values();
+
+   public boolean epsilonEquals(LogCodec other, double epsilon)
+   {
+      return IDLTools.epsilonEqualsEnum(this, other, epsilon);
+   }
+}
\ No newline at end of file
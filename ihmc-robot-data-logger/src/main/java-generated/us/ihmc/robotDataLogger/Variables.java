@@ -20,6 +20,16 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
    public boolean timestamped_;
    // Does the index contain timestamps
    public boolean compressed_;
+   // Is the data compressed
+   public java.lang.StringBuilder columnData_;
+   // Columnar data file, empty if not written
+   public java.lang.StringBuilder columnIndex_;
+   // Chunk directory for the columnar data file
+   public us.ihmc.robotDataLogger.LogCodec codec_;
+   // Codec used for the data file
+   public int keyframeInterval_;
+   // Number of log lines between lines that are not delta encoded
+   public java.lang.StringBuilder pyramid_;
 
    public Variables()
    {
@@ -27,6 +37,9 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
       data_ = new java.lang.StringBuilder(255);
       summary_ = new java.lang.StringBuilder(255);
       index_ = new java.lang.StringBuilder(255);
+      columnData_ = new java.lang.StringBuilder(255);
+      columnIndex_ = new java.lang.StringBuilder(255);
+      pyramid_ = new java.lang.StringBuilder(255);
    }
 
    public Variables(Variables other)
@@ -55,6 +68,19 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
 
       compressed_ = other.compressed_;
 
+      columnData_.setLength(0);
+      columnData_.append(other.columnData_);
+
+      columnIndex_.setLength(0);
+      columnIndex_.append(other.columnIndex_);
+
+      codec_ = other.codec_;
+
+      keyframeInterval_ = other.keyframeInterval_;
+
+      pyramid_.setLength(0);
+      pyramid_.append(other.pyramid_);
+
    }
 
    public void setHandshakeFileType(us.ihmc.robotDataLogger.HandshakeFileType handshakeFileType)
@@ -157,6 +183,82 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
       return compressed_;
    }
 
+   // Is the data compressed
+   public void setColumnData(java.lang.String columnData)
+   {
+      columnData_.setLength(0);
+      columnData_.append(columnData);
+   }
+
+   // Is the data compressed
+   public java.lang.String getColumnDataAsString()
+   {
+      return getColumnData().toString();
+   }
+   // Is the data compressed
+   public java.lang.StringBuilder getColumnData()
+   {
+      return columnData_;
+   }
+
+   // Columnar data file, empty if not written
+   public void setColumnIndex(java.lang.String columnIndex)
+   {
+      columnIndex_.setLength(0);
+      columnIndex_.append(columnIndex);
+   }
+
+   // Columnar data file, empty if not written
+   public java.lang.String getColumnIndexAsString()
+   {
+      return getColumnIndex().toString();
+   }
+   // Columnar data file, empty if not written
+   public java.lang.StringBuilder getColumnIndex()
+   {
+      return columnIndex_;
+   }
+
+   // Chunk directory for the columnar data file
+   public void setCodec(us.ihmc.robotDataLogger.LogCodec codec)
+   {
+      codec_ = codec;
+   }
+   // Chunk directory for the columnar data file
+   public us.ihmc.robotDataLogger.LogCodec getCodec()
+   {
+      return codec_;
+   }
+
+   // Codec used for the data file
+   public void setKeyframeInterval(int keyframeInterval)
+   {
+      keyframeInterval_ = keyframeInterval;
+   }
+   // Codec used for the data file
+   public int getKeyframeInterval()
+   {
+      return keyframeInterval_;
+   }
+
+   // Number of log lines between lines that are not delta encoded
+   public void setPyramid(java.lang.String pyramid)
+   {
+      pyramid_.setLength(0);
+      pyramid_.append(pyramid);
+   }
+
+   // Number of log lines between lines that are not delta encoded
+   public java.lang.String getPyramidAsString()
+   {
+      return getPyramid().toString();
+   }
+   // Number of log lines between lines that are not delta encoded
+   public java.lang.StringBuilder getPyramid()
+   {
+      return pyramid_;
+   }
+
 
    public static Supplier<VariablesPubSubType> getPubSubType()
    {
@@ -189,6 +291,16 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
 
       if (!us.ihmc.idl.IDLTools.epsilonEqualsBoolean(this.compressed_, other.compressed_, epsilon)) return false;
 
+      if (!us.ihmc.idl.IDLTools.epsilonEqualsStringBuilder(this.columnData_, other.columnData_, epsilon)) return false;
+
+      if (!us.ihmc.idl.IDLTools.epsilonEqualsStringBuilder(this.columnIndex_, other.columnIndex_, epsilon)) return false;
+
+      if (!us.ihmc.idl.IDLTools.epsilonEqualsEnum(this.codec_, other.codec_, epsilon)) return false;
+
+      if (!us.ihmc.idl.IDLTools.epsilonEqualsPrimitive(this.keyframeInterval_, other.keyframeInterval_, epsilon)) return false;
+
+      if (!us.ihmc.idl.IDLTools.epsilonEqualsStringBuilder(this.pyramid_, other.pyramid_, epsilon)) return false;
+
 
       return true;
    }
@@ -216,6 +328,16 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
 
       if(this.compressed_ != otherMyClass.compressed_) return false;
 
+      if (!us.ihmc.idl.IDLTools.equals(this.columnData_, otherMyClass.columnData_)) return false;
+
+      if (!us.ihmc.idl.IDLTools.equals(this.columnIndex_, otherMyClass.columnIndex_)) return false;
+
+      if(this.codec_ != otherMyClass.codec_) return false;
+
+      if(this.keyframeInterval_ != otherMyClass.keyframeInterval_) return false;
+
+      if (!us.ihmc.idl.IDLTools.equals(this.pyramid_, otherMyClass.pyramid_)) return false;
+
 
       return true;
    }
@@ -239,7 +361,17 @@ public class Variables extends Packet<Variables> implements Settable<Variables>,
       builder.append("timestamped=");
       builder.append(this.timestamped_);      builder.append(", ");
       builder.append("compressed=");
-      builder.append(this.compressed_);
+      builder.append(this.compressed_);      builder.append(", ");
+      builder.append("columnData=");
+      builder.append(this.columnData_);      builder.append(", ");
+      builder.append("columnIndex=");
+      builder.append(this.columnIndex_);      builder.append(", ");
+      builder.append("codec=");
+      builder.append(this.codec_);      builder.append(", ");
+      builder.append("keyframeInterval=");
+      builder.append(this.keyframeInterval_);      builder.append(", ");
+      builder.append("pyramid=");
+      builder.append(this.pyramid_);
       builder.append("}");
       return builder.toString();
    }
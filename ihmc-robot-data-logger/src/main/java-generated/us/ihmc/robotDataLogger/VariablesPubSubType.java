@@ -50,6 +50,13 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
 
       current_alignment += 1 + us.ihmc.idl.CDR.alignment(current_alignment, 1);
 
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + 255 + 1;
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + 255 + 1;
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4);
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4);
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + 255 + 1;
 
       return current_alignment - initial_alignment;
    }
@@ -80,6 +87,18 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
       current_alignment += 1 + us.ihmc.idl.CDR.alignment(current_alignment, 1);
 
 
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + data.getColumnData().length() + 1;
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + data.getColumnIndex().length() + 1;
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4);
+
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4);
+
+
+      current_alignment += 4 + us.ihmc.idl.CDR.alignment(current_alignment, 4) + data.getPyramid().length() + 1;
+
 
       return current_alignment - initial_alignment;
    }
@@ -109,6 +128,23 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
 
       cdr.write_type_7(data.getCompressed());
 
+      if(data.getColumnData().length() <= 255)
+      cdr.write_type_d(data.getColumnData());else
+          throw new RuntimeException("columnData field exceeds the maximum length");
+
+      if(data.getColumnIndex().length() <= 255)
+      cdr.write_type_d(data.getColumnIndex());else
+          throw new RuntimeException("columnIndex field exceeds the maximum length");
+
+      cdr.write_type_c(data.getCodec().ordinal());
+
+
+      cdr.write_type_2(data.getKeyframeInterval());
+
+      if(data.getPyramid().length() <= 255)
+      cdr.write_type_d(data.getPyramid());else
+          throw new RuntimeException("pyramid field exceeds the maximum length");
+
    }
 
    public static void read(us.ihmc.robotDataLogger.Variables data, us.ihmc.idl.CDR cdr)
@@ -123,6 +159,13 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
       	
       data.setCompressed(cdr.read_type_7());
       	
+      cdr.read_type_d(data.getColumnData());	
+      cdr.read_type_d(data.getColumnIndex());	
+      data.setCodec(us.ihmc.robotDataLogger.LogCodec.values[cdr.read_type_c()]);
+      	
+      data.setKeyframeInterval(cdr.read_type_2());
+      	
+      cdr.read_type_d(data.getPyramid());	
 
    }
 
@@ -136,6 +179,11 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
       ser.write_type_d("index", data.getIndex());
       ser.write_type_7("timestamped", data.getTimestamped());
       ser.write_type_7("compressed", data.getCompressed());
+      ser.write_type_d("columnData", data.getColumnData());
+      ser.write_type_d("columnIndex", data.getColumnIndex());
+      ser.write_type_c("codec", data.getCodec());
+      ser.write_type_2("keyframeInterval", data.getKeyframeInterval());
+      ser.write_type_d("pyramid", data.getPyramid());
    }
 
    @Override
@@ -149,6 +197,12 @@ public class VariablesPubSubType implements us.ihmc.pubsub.TopicDataType<us.ihmc
       ser.read_type_d("index", data.getIndex());
       data.setTimestamped(ser.read_type_7("timestamped"));
       data.setCompressed(ser.read_type_7("compressed"));
+      ser.read_type_d("columnData", data.getColumnData());
+      ser.read_type_d("columnIndex", data.getColumnIndex());
+      data.setCodec((us.ihmc.robotDataLogger.LogCodec)ser.read_type_c("codec", us.ihmc.robotDataLogger.LogCodec.class));
+      
+      data.setKeyframeInterval(ser.read_type_2("keyframeInterval"));
+      ser.read_type_d("pyramid", data.getPyramid());
    }
 
    public static void staticCopy(us.ihmc.robotDataLogger.Variables src, us.ihmc.robotDataLogger.Variables dest)
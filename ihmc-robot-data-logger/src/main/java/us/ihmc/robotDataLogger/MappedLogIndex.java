@@ -0,0 +1,123 @@
+package us.ihmc.robotDataLogger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Memory mapped alternative to LogIndex.
+ *
+ * The index file is mapped read-only instead of being copied to the heap, so opening a log takes constant time
+ * and memory independent of the length of the log. Timestamps and data offsets are read directly from the mapping,
+ * compressed sizes are calculated on demand from the offsets of consecutive entries.
+ *
+ * Index files larger than 2GB are mapped in multiple segments. All accessors are thread safe.
+ */
+public class MappedLogIndex
+{
+   private static final int ENTRY_SIZE = 16;
+   private static final int ENTRIES_PER_SEGMENT_SHIFT = 26;
+   private static final int ENTRIES_PER_SEGMENT = 1 << ENTRIES_PER_SEGMENT_SHIFT;
+   private static final int ENTRIES_PER_SEGMENT_MASK = ENTRIES_PER_SEGMENT - 1;
+
+   private final MappedByteBuffer[] segments;
+   private final long dataSize;
+   private final int numberOfEntries;
+
+   /**
+    * Map an index file
+    *
+    * @param indexData index file
+    * @param channelSize size of the compressed data file, used to calculate the size of the last entry
+    * @throws IOException
+    */
+   public MappedLogIndex(File indexData, long channelSize) throws IOException
+   {
+      this.dataSize = channelSize;
+
+      try (FileInputStream indexStream = new FileInputStream(indexData); FileChannel indexChannel = indexStream.getChannel())
+      {
+         long entries = indexChannel.size() / ENTRY_SIZE;
+         if (entries > Integer.MAX_VALUE)
+         {
+            throw new IOException("Index file " + indexData + " contains more than " + Integer.MAX_VALUE + " entries");
+         }
+         numberOfEntries = (int) entries;
+
+         int numberOfSegments = (numberOfEntries + ENTRIES_PER_SEGMENT - 1) >>> ENTRIES_PER_SEGMENT_SHIFT;
+         segments = new MappedByteBuffer[numberOfSegments];
+         for (int i = 0; i < numberOfSegments; i++)
+         {
+            long firstEntry = ((long) i) << ENTRIES_PER_SEGMENT_SHIFT;
+            long entriesInSegment = Math.min(ENTRIES_PER_SEGMENT, entries - firstEntry);
+            segments[i] = indexChannel.map(MapMode.READ_ONLY, firstEntry * ENTRY_SIZE, entriesInSegment * ENTRY_SIZE);
+         }
+      }
+   }
+
+   private long getLong(int entry, int offset)
+   {
+      return segments[entry >>> ENTRIES_PER_SEGMENT_SHIFT].getLong((entry & ENTRIES_PER_SEGMENT_MASK) * ENTRY_SIZE + offset);
+   }
+
+   public long getTimestamp(int entry)
+   {
+      return getLong(entry, 0);
+   }
+
+   public long getDataOffset(int entry)
+   {
+      return getLong(entry, 8);
+   }
+
+   public int getCompressedSize(int entry)
+   {
+      long end = entry == numberOfEntries - 1 ? dataSize : getDataOffset(entry + 1);
+      return (int) (end - getDataOffset(entry));
+   }
+
+   /**
+    * Binary search for the first entry with a timestamp equal or larger than inStamp.
+    *
+    * @param inStamp timestamp to search for
+    * @return index of the entry, clamped to the last entry. -1 if the index is empty
+    */
+   public int seek(long inStamp)
+   {
+      int head = 0;
+      int tail = numberOfEntries;
+
+      while (head < tail)
+      {
+         int position = head + (tail - head) / 2;
+
+         if (getTimestamp(position) < inStamp)
+         {
+            head = position + 1;
+         }
+         else
+         {
+            tail = position;
+         }
+      }
+      return Math.min(head, numberOfEntries - 1);
+   }
+
+   public int getNumberOfEntries()
+   {
+      return numberOfEntries;
+   }
+
+   public long getInitialTimestamp()
+   {
+      return getTimestamp(0);
+   }
+
+   public long getFinalTimestamp()
+   {
+      return getTimestamp(numberOfEntries - 1);
+   }
+}
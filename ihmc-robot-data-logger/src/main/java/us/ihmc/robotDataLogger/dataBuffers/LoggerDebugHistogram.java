@@ -0,0 +1,75 @@
+package us.ihmc.robotDataLogger.dataBuffers;
+
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoLong;
+
+/**
+ * Histogram with logarithmic buckets backed by YoVariables, so it shows up in the logs and the remote visualizer.
+ *
+ * Bucket 0 counts values below firstBound, bucket i counts values below firstBound * 2^i and the last bucket counts
+ * everything larger. Adding a value does not allocate and is safe to call from a realtime thread.
+ */
+public class LoggerDebugHistogram
+{
+   private final long firstBound;
+   private final YoLong[] buckets;
+   private final YoLong last;
+   private final YoLong maximum;
+
+   /**
+    * @param name prefix for the variables of this histogram
+    * @param firstBound upper bound of the first bucket
+    * @param numberOfBuckets number of bounded buckets. An additional bucket counts all values above the last bound.
+    * @param registry registry to add the variables to
+    */
+   public LoggerDebugHistogram(String name, long firstBound, int numberOfBuckets, YoVariableRegistry registry)
+   {
+      if (firstBound <= 0)
+      {
+         throw new IllegalArgumentException("First bound has to be positive");
+      }
+
+      this.firstBound = firstBound;
+      this.buckets = new YoLong[numberOfBuckets + 1];
+      for (int i = 0; i < numberOfBuckets; i++)
+      {
+         buckets[i] = new YoLong(name + "Below" + (firstBound << i), registry);
+      }
+      buckets[numberOfBuckets] = new YoLong(name + "Above" + (firstBound << (numberOfBuckets - 1)), registry);
+
+      this.last = new YoLong(name + "Last", registry);
+      this.maximum = new YoLong(name + "Max", registry);
+   }
+
+   public void add(long value)
+   {
+      last.set(value);
+      if (value > maximum.getLongValue())
+      {
+         maximum.set(value);
+      }
+
+      YoLong bucket = buckets[getBucket(value)];
+      bucket.set(bucket.getLongValue() + 1);
+   }
+
+   int getBucket(long value)
+   {
+      if (value < firstBound)
+      {
+         return 0;
+      }
+      int bucket = 64 - Long.numberOfLeadingZeros(value / firstBound);
+      return Math.min(bucket, buckets.length - 1);
+   }
+
+   public long getCount(int bucket)
+   {
+      return buckets[bucket].getLongValue();
+   }
+
+   public int getNumberOfBuckets()
+   {
+      return buckets.length;
+   }
+}
@@ -9,6 +9,13 @@ public class LoggerDebugRegistry
    private final YoInteger fullCircularBufferCounter = new YoInteger("FullCircularBuffer", registry);
    private final YoInteger lostTickInCircularBuffer = new YoInteger("lostTickInCircularBuffer", registry);
    
+   // Time to copy the variables into the send buffers on the controller thread, 1us to 2ms
+   private final LoggerDebugHistogram copyTime = new LoggerDebugHistogram("copyTimeInNs", 1000, 12, registry);
+   // Number of buffers the publisher thread found in the ring buffer when it woke up
+   private final LoggerDebugHistogram queueDepth = new LoggerDebugHistogram("queueDepth", 1, 10, registry);
+   // Time between copying a buffer and handing it to the publisher, 10us to 80ms
+   private final LoggerDebugHistogram publishLatency = new LoggerDebugHistogram("publishLatencyInNs", 10000, 14, registry);
+   
    public LoggerDebugRegistry(YoVariableRegistry parentRegistry)
    {
       parentRegistry.addChild(registry);
@@ -23,5 +30,20 @@ public class LoggerDebugRegistry
    {
       lostTickInCircularBuffer.increment();
    }
+
+   public void updateCopyTime(long nanoseconds)
+   {
+      copyTime.add(nanoseconds);
+   }
+
+   public void updateQueueDepth(int depth)
+   {
+      queueDepth.add(depth);
+   }
+
+   public void updatePublishLatency(long nanoseconds)
+   {
+      publishLatency.add(nanoseconds);
+   }
    
 }
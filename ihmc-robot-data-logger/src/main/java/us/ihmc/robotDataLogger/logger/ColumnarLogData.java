@@ -0,0 +1,56 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.util.Arrays;
+
+/**
+ * Result of a ColumnarLogReader query. Values are stored as the raw long bits of the YoVariables,
+ * use YoVariable.setValueFromLongBits or Double.longBitsToDouble to convert.
+ */
+public class ColumnarLogData
+{
+   private final int numberOfElements;
+   private final long[] timestamps;
+   private final long[][] data;
+
+   ColumnarLogData(int numberOfElements, long[] timestamps, long[][] data)
+   {
+      this.numberOfElements = numberOfElements;
+      this.timestamps = timestamps;
+      this.data = data;
+   }
+
+   public int getNumberOfElements()
+   {
+      return numberOfElements;
+   }
+
+   public int getNumberOfColumns()
+   {
+      return data.length;
+   }
+
+   public long[] getTimestamps()
+   {
+      return Arrays.copyOf(timestamps, numberOfElements);
+   }
+
+   public long getTimestamp(int element)
+   {
+      return timestamps[element];
+   }
+
+   /**
+    * @param column index in the list of requested columns
+    * @param element index of the tick
+    * @return raw long bits of the variable
+    */
+   public long getLongBits(int column, int element)
+   {
+      return data[column][element];
+   }
+
+   public double getDouble(int column, int element)
+   {
+      return Double.longBitsToDouble(data[column][element]);
+   }
+}
@@ -0,0 +1,271 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Random access reader for logs written by the ColumnarLogWriter.
+ *
+ * Only the timestamps of each chunk are kept in memory. Column offsets are read from the chunk directory on demand,
+ * and only the requested columns are decompressed.
+ */
+public class ColumnarLogReader
+{
+   private final FileInputStream dataStream;
+   private final FileChannel dataChannel;
+   private final FileInputStream directoryStream;
+   private final FileChannel directoryChannel;
+
+   private final int ticksPerChunk;
+   private final int numberOfColumns;
+   private final int recordSize;
+   private final int numberOfChunks;
+
+   private final long[] firstTimestamps;
+   private final long[] lastTimestamps;
+   private final int[] ticksInChunk;
+
+   private final ByteBuffer recordBuffer = ByteBuffer.allocate(ColumnarLogWriter.RECORD_HEADER_SIZE);
+   private final ByteBuffer offsetBuffer = ByteBuffer.allocate(16);
+   private final ByteBuffer compressedBuffer;
+   private final ByteBuffer columnBuffer;
+
+   /**
+    * Open the columnar data of a log directory
+    *
+    * @param logDirectory Directory containing the log
+    * @param logProperties Properties of the log
+    * @return reader or null if the log does not contain columnar data
+    * @throws IOException
+    */
+   public static ColumnarLogReader open(File logDirectory, LogProperties logProperties) throws IOException
+   {
+      if (logProperties.getVariables().getColumnDataAsString().isEmpty() || logProperties.getVariables().getColumnIndexAsString().isEmpty())
+      {
+         return null;
+      }
+
+      File data = new File(logDirectory, logProperties.getVariables().getColumnDataAsString());
+      File directory = new File(logDirectory, logProperties.getVariables().getColumnIndexAsString());
+      if (!data.exists() || !directory.exists())
+      {
+         return null;
+      }
+
+      return new ColumnarLogReader(data, directory);
+   }
+
+   public ColumnarLogReader(File dataFile, File directoryFile) throws IOException
+   {
+      dataStream = new FileInputStream(dataFile);
+      dataChannel = dataStream.getChannel();
+      directoryStream = new FileInputStream(directoryFile);
+      directoryChannel = directoryStream.getChannel();
+
+      ByteBuffer header = ByteBuffer.allocate(ColumnarLogWriter.HEADER_SIZE);
+      readFully(directoryChannel, header, 0);
+      ticksPerChunk = header.getInt(0);
+      numberOfColumns = header.getInt(4);
+      recordSize = ColumnarLogWriter.getRecordSize(numberOfColumns);
+      numberOfChunks = (int) ((directoryChannel.size() - ColumnarLogWriter.HEADER_SIZE) / recordSize);
+
+      firstTimestamps = new long[numberOfChunks];
+      lastTimestamps = new long[numberOfChunks];
+      ticksInChunk = new int[numberOfChunks];
+      for (int chunk = 0; chunk < numberOfChunks; chunk++)
+      {
+         readFully(directoryChannel, recordBuffer, getRecordOffset(chunk));
+         firstTimestamps[chunk] = recordBuffer.getLong(0);
+         lastTimestamps[chunk] = recordBuffer.getLong(8);
+         ticksInChunk[chunk] = recordBuffer.getInt(16);
+      }
+
+      compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(ticksPerChunk * 8));
+      columnBuffer = ByteBuffer.allocate(ticksPerChunk * 8);
+   }
+
+   private long getRecordOffset(int chunk)
+   {
+      return ColumnarLogWriter.HEADER_SIZE + ((long) chunk) * recordSize;
+   }
+
+   /**
+    * Read from position till the limit of the buffer is reached
+    */
+   private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+   {
+      buffer.position(0);
+      while (buffer.hasRemaining())
+      {
+         int read = channel.read(buffer, position + buffer.position());
+         if (read < 0)
+         {
+            throw new IOException("Unexpected end of file at position " + (position + buffer.position()));
+         }
+      }
+      buffer.flip();
+   }
+
+   public int getNumberOfColumns()
+   {
+      return numberOfColumns;
+   }
+
+   public int getNumberOfChunks()
+   {
+      return numberOfChunks;
+   }
+
+   public int getTicksPerChunk()
+   {
+      return ticksPerChunk;
+   }
+
+   /**
+    * Find the first chunk that contains data at or after timestamp
+    */
+   private int findChunk(long timestamp)
+   {
+      int head = 0;
+      int tail = numberOfChunks;
+      while (head < tail)
+      {
+         int position = head + (tail - head) / 2;
+         if (lastTimestamps[position] < timestamp)
+         {
+            head = position + 1;
+         }
+         else
+         {
+            tail = position;
+         }
+      }
+      return head;
+   }
+
+   /**
+    * Decompress a single column of a chunk into columnBuffer
+    */
+   private void readColumn(int chunk, int column) throws IOException
+   {
+      offsetBuffer.clear();
+      readFully(directoryChannel, offsetBuffer, getRecordOffset(chunk) + ColumnarLogWriter.RECORD_HEADER_SIZE + column * 8L);
+      long start = offsetBuffer.getLong(0);
+      long end = offsetBuffer.getLong(8);
+
+      compressedBuffer.clear();
+      compressedBuffer.limit((int) (end - start));
+      readFully(dataChannel, compressedBuffer, start);
+
+      columnBuffer.clear();
+      SnappyUtils.uncompress(compressedBuffer, columnBuffer);
+      columnBuffer.flip();
+   }
+
+   /**
+    * Read a set of columns between two timestamps (inclusive).
+    *
+    * Column 0 is the timestamp, column 1 to n are the YoVariables in the order of the handshake, followed by the joint states.
+    *
+    * @param startTimestamp first timestamp to read
+    * @param endTimestamp last timestamp to read
+    * @param columns columns to read
+    * @return data for the requested columns
+    * @throws IOException
+    */
+   public ColumnarLogData read(long startTimestamp, long endTimestamp, int... columns) throws IOException
+   {
+      for (int column : columns)
+      {
+         if (column < 0 || column >= numberOfColumns)
+         {
+            throw new IllegalArgumentException("Column " + column + " is out of range [0, " + numberOfColumns + ")");
+         }
+      }
+
+      int firstChunk = findChunk(startTimestamp);
+      int lastChunk = firstChunk;
+      int maximumElements = 0;
+      while (lastChunk < numberOfChunks && firstTimestamps[lastChunk] <= endTimestamp)
+      {
+         maximumElements += ticksInChunk[lastChunk];
+         lastChunk++;
+      }
+
+      long[] timestamps = new long[maximumElements];
+      long[][] data = new long[columns.length][maximumElements];
+
+      int elements = 0;
+      for (int chunk = firstChunk; chunk < lastChunk; chunk++)
+      {
+         readColumn(chunk, 0);
+         int first = -1;
+         int count = 0;
+         for (int tick = 0; tick < ticksInChunk[chunk]; tick++)
+         {
+            long timestamp = columnBuffer.getLong(tick * 8);
+            if (timestamp >= startTimestamp && timestamp <= endTimestamp)
+            {
+               if (first == -1)
+               {
+                  first = tick;
+               }
+               timestamps[elements + count] = timestamp;
+               count++;
+            }
+         }
+
+         if (count == 0)
+         {
+            continue;
+         }
+
+         for (int i = 0; i < columns.length; i++)
+         {
+            readColumn(chunk, columns[i]);
+            for (int tick = 0; tick < count; tick++)
+            {
+               data[i][elements + tick] = columnBuffer.getLong((first + tick) * 8);
+            }
+         }
+
+         elements += count;
+      }
+
+      return new ColumnarLogData(elements, timestamps, data);
+   }
+
+   /**
+    * Read a set of columns for all ticks in a single chunk. Used to stream through a log without keeping it in memory.
+    *
+    * @param chunk index of the chunk, between 0 and getNumberOfChunks()
+    * @param columns columns to read
+    * @return data for the requested columns
+    * @throws IOException
+    */
+   public ColumnarLogData readChunk(int chunk, int... columns) throws IOException
+   {
+      return read(firstTimestamps[chunk], lastTimestamps[chunk], columns);
+   }
+
+   public void close()
+   {
+      try
+      {
+         dataChannel.close();
+         dataStream.close();
+         directoryChannel.close();
+         directoryStream.close();
+      }
+      catch (IOException e)
+      {
+         // Nothing to do here
+      }
+   }
+}
@@ -0,0 +1,182 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Writes log lines in a columnar layout.
+ *
+ * Blocks of ticksPerChunk log lines are transposed into one column per long in the log line
+ * (timestamp, YoVariables and joint states). Every column of a chunk is Snappy compressed on its own,
+ * so a reader only has to decompress the columns it is interested in.
+ *
+ * The chunk directory starts with a header containing the number of ticks per chunk and the number
+ * of columns, followed by one fixed size record per chunk:
+ *
+ * <pre>
+ * long firstTimestamp
+ * long lastTimestamp
+ * int numberOfTicks
+ * int reserved
+ * long[numberOfColumns + 1] column offsets in the data file, the last element is the end of the chunk
+ * </pre>
+ */
+public class ColumnarLogWriter implements LogLineWriter
+{
+   public static final int DEFAULT_TICKS_PER_CHUNK = 128;
+
+   public static final int HEADER_SIZE = 8;
+   public static final int RECORD_HEADER_SIZE = 24;
+
+   private final int numberOfColumns;
+   private final int ticksPerChunk;
+
+   private final FileChannel dataChannel;
+   private final FileChannel directoryChannel;
+
+   private final ByteBuffer block;
+   private final ByteBuffer compressedBuffer;
+   private final ByteBuffer directoryRecord;
+
+   private int ticksInChunk = 0;
+   private long firstTimestamp;
+   private long lastTimestamp;
+
+   @SuppressWarnings("resource")
+   public ColumnarLogWriter(File dataFile, File directoryFile, int numberOfColumns, int ticksPerChunk) throws IOException
+   {
+      if (ticksPerChunk < 1)
+      {
+         throw new IllegalArgumentException("ticksPerChunk has to be larger than zero");
+      }
+
+      this.numberOfColumns = numberOfColumns;
+      this.ticksPerChunk = ticksPerChunk;
+
+      dataChannel = new FileOutputStream(dataFile, false).getChannel();
+      directoryChannel = new FileOutputStream(directoryFile, false).getChannel();
+
+      block = ByteBuffer.allocate(numberOfColumns * ticksPerChunk * 8);
+      compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(ticksPerChunk * 8));
+      directoryRecord = ByteBuffer.allocate(getRecordSize(numberOfColumns));
+
+      writeHeader();
+   }
+
+   public static int getRecordSize(int numberOfColumns)
+   {
+      return RECORD_HEADER_SIZE + (numberOfColumns + 1) * 8;
+   }
+
+   private void writeHeader() throws IOException
+   {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(ticksPerChunk);
+      header.putInt(numberOfColumns);
+      header.flip();
+      directoryChannel.write(header);
+   }
+
+   /**
+    * Add a log line to the current chunk. The chunk gets written to disk when it is full.
+    *
+    * @param logLine uncompressed log line, starting with the timestamp. The position of the buffer is not changed.
+    * @throws IOException
+    */
+   public void write(ByteBuffer logLine) throws IOException
+   {
+      long timestamp = logLine.getLong(0);
+      if (ticksInChunk == 0)
+      {
+         firstTimestamp = timestamp;
+      }
+      lastTimestamp = timestamp;
+
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         block.putLong((column * ticksPerChunk + ticksInChunk) * 8, logLine.getLong(column * 8));
+      }
+
+      if (++ticksInChunk == ticksPerChunk)
+      {
+         writeChunk();
+      }
+   }
+
+   private void writeChunk() throws IOException
+   {
+      if (ticksInChunk == 0)
+      {
+         return;
+      }
+
+      directoryRecord.clear();
+      directoryRecord.putLong(firstTimestamp);
+      directoryRecord.putLong(lastTimestamp);
+      directoryRecord.putInt(ticksInChunk);
+      directoryRecord.putInt(0);
+
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         directoryRecord.putLong(dataChannel.position());
+
+         int start = column * ticksPerChunk * 8;
+         block.limit(start + ticksInChunk * 8);
+         block.position(start);
+
+         compressedBuffer.clear();
+         SnappyUtils.compress(block, compressedBuffer);
+         compressedBuffer.flip();
+         dataChannel.write(compressedBuffer);
+      }
+      directoryRecord.putLong(dataChannel.position());
+      directoryRecord.flip();
+      directoryChannel.write(directoryRecord);
+
+      block.clear();
+      ticksInChunk = 0;
+   }
+
+   /**
+    * Force the data written so far to the storage device. Partial chunks are kept in memory.
+    *
+    * @throws IOException
+    */
+   public void force() throws IOException
+   {
+      dataChannel.force(false);
+      directoryChannel.force(false);
+   }
+
+   /**
+    * Drop all data and start with an empty log
+    *
+    * @throws IOException
+    */
+   public void clear() throws IOException
+   {
+      ticksInChunk = 0;
+      block.clear();
+      dataChannel.truncate(0);
+      directoryChannel.truncate(HEADER_SIZE);
+      dataChannel.position(0);
+      directoryChannel.position(HEADER_SIZE);
+   }
+
+   /**
+    * Write the last partial chunk and close the files
+    *
+    * @throws IOException
+    */
+   public void close() throws IOException
+   {
+      writeChunk();
+      dataChannel.close();
+      directoryChannel.close();
+   }
+}
@@ -0,0 +1,141 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * Least recently used cache of decoded log chunks.
+ *
+ * A chunk holds ticksPerChunk consecutive uncompressed log lines. The cache is bounded by the total size of the decoded
+ * chunks and is safe to use from multiple threads. Chunks are decoded outside the lock, so a slow decode does not
+ * block other threads that hit the cache.
+ */
+public class LogChunkCache
+{
+   public interface ChunkLoader
+   {
+      /**
+       * Decode lines [chunk * ticksPerChunk, chunk * ticksPerChunk + ticks) into target
+       *
+       * @param chunk index of the chunk
+       * @param target buffer of ticks * lineSize bytes
+       * @return number of decoded lines
+       */
+      public int load(int chunk, ByteBuffer target) throws IOException;
+   }
+
+   private final int ticksPerChunk;
+   private final int lineSize;
+   private final long maximumSize;
+   private final ChunkLoader loader;
+
+   private final LinkedHashMap<Integer, ByteBuffer> chunks = new LinkedHashMap<>(16, 0.75f, true);
+   private long cachedSize = 0;
+
+   private long hits = 0;
+   private long misses = 0;
+
+   /**
+    * @param ticksPerChunk number of log lines in a chunk
+    * @param lineSize size of a log line in bytes
+    * @param maximumSize maximum size of all decoded chunks in bytes. At least one chunk is always kept.
+    * @param loader decoder for chunks that are not in the cache
+    */
+   public LogChunkCache(int ticksPerChunk, int lineSize, long maximumSize, ChunkLoader loader)
+   {
+      this.ticksPerChunk = ticksPerChunk;
+      this.lineSize = lineSize;
+      this.maximumSize = maximumSize;
+      this.loader = loader;
+   }
+
+   /**
+    * Get a decoded chunk. The returned buffer is read only, line i of the chunk starts at i * lineSize. The limit of the
+    * buffer is set after the last decoded line.
+    */
+   public ByteBuffer getChunk(int chunk) throws IOException
+   {
+      synchronized (chunks)
+      {
+         ByteBuffer cached = chunks.get(chunk);
+         if (cached != null)
+         {
+            hits++;
+            return cached.duplicate();
+         }
+         misses++;
+      }
+
+      ByteBuffer decoded = ByteBuffer.allocate(ticksPerChunk * lineSize);
+      int ticks = loader.load(chunk, decoded);
+      decoded.clear();
+      decoded.limit(ticks * lineSize);
+      ByteBuffer readOnly = decoded.asReadOnlyBuffer();
+
+      synchronized (chunks)
+      {
+         ByteBuffer previous = chunks.put(chunk, readOnly);
+         if (previous != null)
+         {
+            // Another thread decoded the same chunk in the mean time
+            cachedSize -= previous.capacity();
+         }
+         cachedSize += readOnly.capacity();
+
+         Iterator<Entry<Integer, ByteBuffer>> iterator = chunks.entrySet().iterator();
+         while (cachedSize > maximumSize && chunks.size() > 1)
+         {
+            cachedSize -= iterator.next().getValue().capacity();
+            iterator.remove();
+         }
+      }
+
+      return readOnly.duplicate();
+   }
+
+   public int getTicksPerChunk()
+   {
+      return ticksPerChunk;
+   }
+
+   public int getLineSize()
+   {
+      return lineSize;
+   }
+
+   public int getNumberOfCachedChunks()
+   {
+      synchronized (chunks)
+      {
+         return chunks.size();
+      }
+   }
+
+   public long getHits()
+   {
+      synchronized (chunks)
+      {
+         return hits;
+      }
+   }
+
+   public long getMisses()
+   {
+      synchronized (chunks)
+      {
+         return misses;
+      }
+   }
+
+   public void clear()
+   {
+      synchronized (chunks)
+      {
+         chunks.clear();
+         cachedSize = 0;
+      }
+   }
+}
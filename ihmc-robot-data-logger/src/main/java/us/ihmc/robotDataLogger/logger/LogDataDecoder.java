@@ -0,0 +1,207 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.tools.compression.CompressionImplementation;
+
+/**
+ * Decodes log lines written by the LogDataEncoder.
+ * 
+ * For delta encoded logs the decoder keeps the last decoded line. Decoding the line following it only costs a single
+ * decompression; decoding any other line decodes forward from the keyframe before it.
+ * 
+ * Not thread safe, create a decoder per thread.
+ */
+public class LogDataDecoder
+{
+   public interface CompressedDataReader
+   {
+      /**
+       * @param position index of the log line
+       * @return the compressed data of the line, from position to limit
+       */
+      public ByteBuffer readCompressedData(int position) throws IOException;
+   }
+
+   private final LogCodec codec;
+   private final int keyframeInterval;
+   private final int bufferSize;
+   private final boolean deltaEncoded;
+   private final CompressionImplementation compressor;
+
+   private final ByteBuffer previousLine;
+   private final ByteBuffer deltaLine;
+
+   private int previousPosition = -1;
+
+   /**
+    * Create a decoder for the data file described in logProperties
+    * 
+    * @param logProperties properties of the log
+    * @param bufferSize length of a log line in bytes
+    */
+   public static LogDataDecoder create(LogProperties logProperties, int bufferSize)
+   {
+      return new LogDataDecoder(logProperties.getVariables().getCodec(), logProperties.getVariables().getKeyframeInterval(), bufferSize);
+   }
+
+   public LogDataDecoder(LogCodec codec, int keyframeInterval, int bufferSize)
+   {
+      this.codec = codec == null ? LogCodec.SNAPPY : codec;
+      this.deltaEncoded = LogDataEncoder.isDeltaEncoded(this.codec);
+      if (deltaEncoded && keyframeInterval <= 0)
+      {
+         throw new RuntimeException("Invalid keyframe interval " + keyframeInterval + " for codec " + this.codec);
+      }
+
+      this.keyframeInterval = keyframeInterval;
+      this.bufferSize = bufferSize;
+      this.compressor = LogDataEncoder.createCompressionImplementation(this.codec);
+
+      if (deltaEncoded)
+      {
+         previousLine = ByteBuffer.allocate(bufferSize);
+         deltaLine = ByteBuffer.allocate(bufferSize);
+      }
+      else
+      {
+         previousLine = null;
+         deltaLine = null;
+      }
+   }
+
+   public boolean isDeltaEncoded()
+   {
+      return deltaEncoded;
+   }
+
+   /**
+    * @return the last line at or before position that can be decoded without decoding previous lines
+    */
+   public int getKeyframe(int position)
+   {
+      if (deltaEncoded)
+      {
+         return position - position % keyframeInterval;
+      }
+      else
+      {
+         return position;
+      }
+   }
+
+   /**
+    * Decode a log line sequentially. For delta encoded logs, position has to be a keyframe or directly follow the
+    * previously decoded line.
+    * 
+    * @param position index of the log line
+    * @param compressed compressed line, from position to limit
+    * @param target buffer to write the decoded line to. The position is advanced by bufferSize
+    */
+   public void decode(int position, ByteBuffer compressed, ByteBuffer target)
+   {
+      if (!deltaEncoded)
+      {
+         compressor.decompress(compressed, target, bufferSize);
+         return;
+      }
+
+      decodeDelta(position, compressed);
+      copyPreviousLine(target);
+   }
+
+   /**
+    * Decode an arbitrary log line, reading the lines since the previous keyframe from reader if needed.
+    * 
+    * @param position index of the log line
+    * @param reader source of the compressed data
+    * @param target buffer to write the decoded line to. The position is advanced by bufferSize
+    */
+   public void decode(int position, CompressedDataReader reader, ByteBuffer target) throws IOException
+   {
+      if (!deltaEncoded)
+      {
+         compressor.decompress(reader.readCompressedData(position), target, bufferSize);
+         return;
+      }
+
+      if (position != previousPosition)
+      {
+         int start = getKeyframe(position);
+         if (previousPosition >= start && previousPosition < position)
+         {
+            start = previousPosition + 1;
+         }
+
+         for (int i = start; i <= position; i++)
+         {
+            decodeDelta(i, reader.readCompressedData(i));
+         }
+      }
+      copyPreviousLine(target);
+   }
+
+   private void decodeDelta(int position, ByteBuffer compressed)
+   {
+      boolean keyframe = position % keyframeInterval == 0;
+      if (!keyframe && position != previousPosition + 1)
+      {
+         throw new IllegalStateException("Cannot decode line " + position + " before line " + (position - 1) + " has been decoded");
+      }
+
+      deltaLine.clear();
+      compressor.decompress(compressed, deltaLine, bufferSize);
+
+      if (keyframe)
+      {
+         for (int i = 0; i < bufferSize; i += 8)
+         {
+            previousLine.putLong(i, deltaLine.getLong(i));
+         }
+      }
+      else
+      {
+         for (int i = 0; i < bufferSize; i += 8)
+         {
+            previousLine.putLong(i, previousLine.getLong(i) ^ deltaLine.getLong(i));
+         }
+      }
+      previousPosition = position;
+   }
+
+   private void copyPreviousLine(ByteBuffer target)
+   {
+      int start = target.position();
+      for (int i = 0; i < bufferSize; i += 8)
+      {
+         target.putLong(start + i, previousLine.getLong(i));
+      }
+      target.position(start + bufferSize);
+   }
+
+   /**
+    * @return size of the buffer needed to hold an encoded line
+    */
+   public int maxCompressedLength()
+   {
+      return compressor.maxCompressedLength(bufferSize);
+   }
+
+   public int getBufferSize()
+   {
+      return bufferSize;
+   }
+
+   public LogCodec getCodec()
+   {
+      return codec;
+   }
+
+   public int getKeyframeInterval()
+   {
+      return keyframeInterval;
+   }
+}
@@ -0,0 +1,149 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.nio.ByteBuffer;
+
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.tools.compression.CompressionImplementation;
+import us.ihmc.tools.compression.LZ4CompressionImplementation;
+import us.ihmc.tools.compression.SnappyCompressionImplementation;
+
+/**
+ * Encodes log lines for the data file of a log.
+ * 
+ * The delta codecs XOR every log line with the previous line before compression. Most variables do not change between
+ * ticks, so the XOR'ed line is mostly zeros and compresses a lot better than the line itself. Every keyframeInterval
+ * lines, counted from the start of the log, a line is compressed without delta encoding so a reader can start decoding
+ * at any keyframe instead of at the start of the log.
+ * 
+ * The codec and keyframe interval are stored in the LogProperties of the log. Use LogDataDecoder to decode.
+ */
+public class LogDataEncoder
+{
+   public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+   private final LogCodec codec;
+   private final int keyframeInterval;
+   private final int bufferSize;
+   private final CompressionImplementation compressor;
+
+   private final ByteBuffer previousLine;
+   private final ByteBuffer deltaLine;
+
+   private long position = 0;
+
+   static CompressionImplementation createCompressionImplementation(LogCodec codec)
+   {
+      switch (codec)
+      {
+      case SNAPPY:
+      case DELTA_SNAPPY:
+         return new SnappyCompressionImplementation();
+      case DELTA_LZ4_HIGH:
+         return new LZ4CompressionImplementation(true);
+      default:
+         throw new RuntimeException("Unknown codec " + codec);
+      }
+   }
+
+   static boolean isDeltaEncoded(LogCodec codec)
+   {
+      return codec != LogCodec.SNAPPY;
+   }
+
+   /**
+    * @param codec codec to encode the data with
+    * @param keyframeInterval number of lines between keyframes. Ignored if the codec does not use delta encoding
+    * @param bufferSize length of a log line in bytes
+    */
+   public LogDataEncoder(LogCodec codec, int keyframeInterval, int bufferSize)
+   {
+      if (isDeltaEncoded(codec) && keyframeInterval <= 0)
+      {
+         throw new IllegalArgumentException("Keyframe interval has to be positive for codec " + codec);
+      }
+
+      this.codec = codec;
+      this.keyframeInterval = keyframeInterval;
+      this.bufferSize = bufferSize;
+      this.compressor = createCompressionImplementation(codec);
+
+      if (isDeltaEncoded(codec))
+      {
+         previousLine = ByteBuffer.allocate(bufferSize);
+         deltaLine = ByteBuffer.allocate(bufferSize);
+      }
+      else
+      {
+         previousLine = null;
+         deltaLine = null;
+      }
+   }
+
+   /**
+    * @return size of the buffer needed to hold an encoded line
+    */
+   public int maxCompressedLength()
+   {
+      return compressor.maxCompressedLength(bufferSize);
+   }
+
+   /**
+    * Encode the next line of the log.
+    * 
+    * @param line bufferSize bytes of data, from position to limit. The position is advanced to the limit.
+    * @param target buffer to write the encoded line to, starting at its position.
+    * @return size of the encoded line
+    */
+   public int encode(ByteBuffer line, ByteBuffer target)
+   {
+      if (!isDeltaEncoded(codec))
+      {
+         position++;
+         return compressor.compress(line, target);
+      }
+
+      int start = line.position();
+      int size;
+      if (position % keyframeInterval == 0)
+      {
+         for (int i = 0; i < bufferSize; i += 8)
+         {
+            previousLine.putLong(i, line.getLong(start + i));
+         }
+         size = compressor.compress(line, target);
+      }
+      else
+      {
+         for (int i = 0; i < bufferSize; i += 8)
+         {
+            long value = line.getLong(start + i);
+            deltaLine.putLong(i, value ^ previousLine.getLong(i));
+            previousLine.putLong(i, value);
+         }
+         line.position(start + bufferSize);
+         deltaLine.clear();
+         size = compressor.compress(deltaLine, target);
+      }
+
+      position++;
+      return size;
+   }
+
+   /**
+    * Start encoding at the first line of a new or truncated log. The next line will be a keyframe.
+    */
+   public void restart()
+   {
+      position = 0;
+   }
+
+   public LogCodec getCodec()
+   {
+      return codec;
+   }
+
+   public int getKeyframeInterval()
+   {
+      return keyframeInterval;
+   }
+}
@@ -0,0 +1,40 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writer for uncompressed log lines, called from the writer thread of the WriteBehindLogWriter.
+ */
+public interface LogLineWriter
+{
+   /**
+    * @param logLine uncompressed log line, starting with the timestamp at index 0. The position of the buffer is not
+    *           changed.
+    * @throws IOException
+    */
+   public void write(ByteBuffer logLine) throws IOException;
+
+   /**
+    * Force the data written so far to the storage device
+    *
+    * @throws IOException
+    */
+   public default void force() throws IOException
+   {
+   }
+
+   /**
+    * Drop all data and start with an empty log
+    *
+    * @throws IOException
+    */
+   public void clear() throws IOException;
+
+   /**
+    * Write the remaining data and close the files
+    *
+    * @throws IOException
+    */
+   public void close() throws IOException;
+}
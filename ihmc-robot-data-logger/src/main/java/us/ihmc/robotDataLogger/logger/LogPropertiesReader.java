@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import us.ihmc.idl.serializers.extra.CustomDeserializationHandler;
 import us.ihmc.idl.serializers.extra.PropertiesSerializer;
 import us.ihmc.robotDataLogger.Camera;
+import us.ihmc.robotDataLogger.LogCodec;
 import us.ihmc.robotDataLogger.LogProperties;
 import us.ihmc.robotDataLogger.LogPropertiesPubSubType;
 
@@ -25,6 +26,12 @@ public class LogPropertiesReader extends LogProperties
       {
          throw new RuntimeException("Cannot load properties " + file.getAbsolutePath());
       }
+
+      // Logs written before the codec was recorded are compressed line by line with Snappy
+      if (getVariables().getCodec() == null)
+      {
+         getVariables().setCodec(LogCodec.SNAPPY);
+      }
    }
 
    private static class LegacyFileHandler implements CustomDeserializationHandler<LogProperties>
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 
 import us.ihmc.idl.serializers.extra.PropertiesSerializer;
+import us.ihmc.robotDataLogger.LogCodec;
 import us.ihmc.robotDataLogger.LogProperties;
 import us.ihmc.robotDataLogger.LogPropertiesPubSubType;
 
@@ -23,6 +24,7 @@ public class LogPropertiesWriter extends LogProperties
       setVersion(version);
       // Backwards comparability options
       getVideo().setHasTimebase(true);
+      getVariables().setCodec(LogCodec.SNAPPY);
    }
    
    public void store() throws IOException
@@ -0,0 +1,72 @@
+package us.ihmc.robotDataLogger.logger;
+
+/**
+ * Result of a LogPyramidReader query. Every element summarizes a block of ticks of the log.
+ */
+public class LogPyramidData
+{
+   private final int level;
+   private final ColumnarLogData data;
+
+   LogPyramidData(int level, ColumnarLogData data)
+   {
+      this.level = level;
+      this.data = data;
+   }
+
+   /**
+    * @return level of the pyramid the data was read from. Every block holds 2^level ticks, except the last block of the log.
+    */
+   public int getLevel()
+   {
+      return level;
+   }
+
+   public long getTicksPerBlock()
+   {
+      return 1L << level;
+   }
+
+   public int getNumberOfBlocks()
+   {
+      return data.getNumberOfElements();
+   }
+
+   /**
+    * @return timestamp of the first tick in the block
+    */
+   public long getTimestamp(int block)
+   {
+      return data.getTimestamp(block);
+   }
+
+   /**
+    * @param variable index in the list of requested variables
+    * @param block index of the block
+    * @param statistic LogPyramidWriter.MIN, MAX, MEAN or LAST
+    */
+   public double get(int variable, int block, int statistic)
+   {
+      return data.getDouble(variable * LogPyramidWriter.NUMBER_OF_STATISTICS + statistic, block);
+   }
+
+   public double getMin(int variable, int block)
+   {
+      return get(variable, block, LogPyramidWriter.MIN);
+   }
+
+   public double getMax(int variable, int block)
+   {
+      return get(variable, block, LogPyramidWriter.MAX);
+   }
+
+   public double getMean(int variable, int block)
+   {
+      return get(variable, block, LogPyramidWriter.MEAN);
+   }
+
+   public double getLast(int variable, int block)
+   {
+      return get(variable, block, LogPyramidWriter.LAST);
+   }
+}
@@ -0,0 +1,201 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.robotDataLogger.LogProperties;
+
+/**
+ * Reader for the summary pyramid written by the LogPyramidWriter.
+ *
+ * A plot of width n pixels can ask for at most n blocks. The reader picks the finest level that satisfies this, so the
+ * amount of data read depends on the width of the plot and not on the length of the time range.
+ */
+public class LogPyramidReader
+{
+   private final int firstLevel;
+   private final int numberOfVariables;
+   private final long numberOfTicks;
+   private final long firstTimestamp;
+   private final long lastTimestamp;
+
+   private final ColumnarLogReader[] readers;
+
+   /**
+    * Open the pyramid of a log directory
+    *
+    * @param logDirectory Directory containing the log
+    * @param logProperties Properties of the log
+    * @return reader or null if the log does not contain a complete pyramid
+    * @throws IOException
+    */
+   public static LogPyramidReader open(File logDirectory, LogProperties logProperties) throws IOException
+   {
+      if (logProperties.getVariables().getPyramidAsString().isEmpty())
+      {
+         return null;
+      }
+
+      File directory = new File(logDirectory, logProperties.getVariables().getPyramidAsString());
+      if (!new File(directory, LogPyramidWriter.HEADER_FILE).exists())
+      {
+         return null;
+      }
+
+      return new LogPyramidReader(directory);
+   }
+
+   public LogPyramidReader(File directory) throws IOException
+   {
+      ByteBuffer header = ByteBuffer.allocate(LogPyramidWriter.HEADER_SIZE);
+      try (FileInputStream headerStream = new FileInputStream(new File(directory, LogPyramidWriter.HEADER_FILE));
+            FileChannel headerChannel = headerStream.getChannel())
+      {
+         while (header.hasRemaining())
+         {
+            if (headerChannel.read(header) < 0)
+            {
+               throw new IOException("Pyramid header is truncated in " + directory);
+            }
+         }
+      }
+      header.flip();
+
+      firstLevel = header.getInt();
+      int numberOfLevels = header.getInt();
+      numberOfVariables = header.getInt();
+      numberOfTicks = header.getLong();
+      firstTimestamp = header.getLong();
+      lastTimestamp = header.getLong();
+
+      readers = new ColumnarLogReader[numberOfLevels];
+      for (int i = 0; i < numberOfLevels; i++)
+      {
+         int level = firstLevel + i;
+         readers[i] = new ColumnarLogReader(new File(directory, LogPyramidWriter.getDataFilename(level)),
+                                            new File(directory, LogPyramidWriter.getIndexFilename(level)));
+      }
+   }
+
+   public int getFirstLevel()
+   {
+      return firstLevel;
+   }
+
+   public int getNumberOfLevels()
+   {
+      return readers.length;
+   }
+
+   /**
+    * @return number of variables in the log, not counting the timestamp
+    */
+   public int getNumberOfVariables()
+   {
+      return numberOfVariables;
+   }
+
+   public long getNumberOfTicks()
+   {
+      return numberOfTicks;
+   }
+
+   private double getTimePerTick()
+   {
+      if (numberOfTicks < 2)
+      {
+         return 1.0;
+      }
+      return Math.max(1.0, (double) (lastTimestamp - firstTimestamp) / (numberOfTicks - 1));
+   }
+
+   /**
+    * Find the finest level that has at most maximumNumberOfBlocks blocks between two timestamps
+    *
+    * @return level or -1 if the full resolution log has at most maximumNumberOfBlocks ticks in the range
+    */
+   public int getLevel(long startTimestamp, long endTimestamp, int maximumNumberOfBlocks)
+   {
+      double ticks = (Math.min(endTimestamp, lastTimestamp) - Math.max(startTimestamp, firstTimestamp)) / getTimePerTick() + 1.0;
+      if (ticks <= maximumNumberOfBlocks)
+      {
+         return -1;
+      }
+
+      for (int i = 0; i < readers.length; i++)
+      {
+         if (Math.ceil(ticks / (1L << (firstLevel + i))) <= maximumNumberOfBlocks)
+         {
+            return firstLevel + i;
+         }
+      }
+      return firstLevel + readers.length - 1;
+   }
+
+   /**
+    * Read the summary of a set of variables between two timestamps, using the finest level that has at most
+    * maximumNumberOfBlocks blocks in the range. Use getLevel() first to check if the full resolution log is small enough.
+    *
+    * @param startTimestamp first timestamp to read
+    * @param endTimestamp last timestamp to read
+    * @param maximumNumberOfBlocks maximum number of blocks to return, for example the width of the plot in pixels
+    * @param variables variables to read. Variable 1 to n are the YoVariables in the order of the handshake, followed by the joint states.
+    * @return summary of the requested variables
+    * @throws IOException
+    */
+   public LogPyramidData read(long startTimestamp, long endTimestamp, int maximumNumberOfBlocks, int... variables) throws IOException
+   {
+      int level = Math.max(firstLevel, getLevel(startTimestamp, endTimestamp, maximumNumberOfBlocks));
+      return read(level, startTimestamp, endTimestamp, variables);
+   }
+
+   /**
+    * Read the summary of a set of variables between two timestamps from a single level. The block that contains
+    * startTimestamp is included.
+    *
+    * @param level level to read, between getFirstLevel() and getFirstLevel() + getNumberOfLevels() - 1
+    * @param startTimestamp first timestamp to read
+    * @param endTimestamp last timestamp to read
+    * @param variables variables to read. Variable 1 to n are the YoVariables in the order of the handshake, followed by the joint states.
+    * @return summary of the requested variables
+    * @throws IOException
+    */
+   public LogPyramidData read(int level, long startTimestamp, long endTimestamp, int... variables) throws IOException
+   {
+      if (level < firstLevel || level >= firstLevel + readers.length)
+      {
+         throw new IllegalArgumentException("Level " + level + " is out of range [" + firstLevel + ", " + (firstLevel + readers.length) + ")");
+      }
+
+      int[] columns = new int[variables.length * LogPyramidWriter.NUMBER_OF_STATISTICS];
+      for (int i = 0; i < variables.length; i++)
+      {
+         if (variables[i] < 1 || variables[i] > numberOfVariables)
+         {
+            throw new IllegalArgumentException("Variable " + variables[i] + " is out of range [1, " + numberOfVariables + "]");
+         }
+         for (int statistic = 0; statistic < LogPyramidWriter.NUMBER_OF_STATISTICS; statistic++)
+         {
+            columns[i * LogPyramidWriter.NUMBER_OF_STATISTICS + statistic] = 1 + (variables[i] - 1) * LogPyramidWriter.NUMBER_OF_STATISTICS + statistic;
+         }
+      }
+
+      // Widen the range so the block that contains the start timestamp is included
+      long blockDuration = (long) Math.ceil(getTimePerTick() * (1L << level));
+      long widenedStart = startTimestamp > Long.MIN_VALUE + blockDuration ? startTimestamp - blockDuration + 1 : Long.MIN_VALUE;
+
+      ColumnarLogData data = readers[level - firstLevel].read(widenedStart, endTimestamp, columns);
+      return new LogPyramidData(level, data);
+   }
+
+   public void close()
+   {
+      for (ColumnarLogReader reader : readers)
+      {
+         reader.close();
+      }
+   }
+}
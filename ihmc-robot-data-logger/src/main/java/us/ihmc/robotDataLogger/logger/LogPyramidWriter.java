@@ -0,0 +1,319 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import us.ihmc.yoVariables.variable.YoVariable;
+import us.ihmc.yoVariables.variable.YoVariableType;
+
+/**
+ * Writes a multi-resolution summary of a log, so a plot of a long log only has to read a number of entries in the order
+ * of the number of pixels instead of every tick.
+ *
+ * Level i of the pyramid holds the minimum, maximum, mean and last value of every variable for consecutive blocks of
+ * 2^(firstLevel + i) ticks. Every level is stored with a ColumnarLogWriter, one line per block:
+ *
+ * <pre>
+ * long timestamp of the first tick in the block
+ * for every variable (column 1 to n of the log line): double min, double max, double mean, double last
+ * </pre>
+ *
+ * All statistics are stored as double bits, integer, long, boolean and enum variables are converted to double.
+ *
+ * The pyramid is built incrementally: ticks are accumulated in the first level, and every completed block is merged
+ * into the next level. Adding a tick costs a constant amount of work per variable.
+ */
+public class LogPyramidWriter implements LogLineWriter
+{
+   public static final int DEFAULT_FIRST_LEVEL = 6;
+   public static final int DEFAULT_NUMBER_OF_LEVELS = 12;
+
+   public static final int MIN = 0;
+   public static final int MAX = 1;
+   public static final int MEAN = 2;
+   public static final int LAST = 3;
+   public static final int NUMBER_OF_STATISTICS = 4;
+
+   /** Number of blocks in a chunk of the columnar level files */
+   static final int BLOCKS_PER_CHUNK = 32;
+   static final String HEADER_FILE = "pyramid.header";
+   static final int HEADER_SIZE = 3 * 4 + 3 * 8;
+
+   private final File directory;
+   private final boolean[] doubleColumns;
+   private final int numberOfVariables;
+   private final int firstLevel;
+
+   private final ColumnarLogWriter[] writers;
+   private final Block[] levels;
+   private final ByteBuffer line;
+
+   private long numberOfTicks = 0;
+   private long firstTimestamp;
+   private long lastTimestamp;
+
+   /**
+    * @param variables variables in the log, in the order of the handshake
+    * @param numberOfJointStateVariables number of joint state values after the variables
+    * @return for every column of a log line, true if the column holds double bits
+    */
+   public static boolean[] getDoubleColumns(List<YoVariable<?>> variables, int numberOfJointStateVariables)
+   {
+      boolean[] doubleColumns = new boolean[1 + variables.size() + numberOfJointStateVariables];
+      for (int i = 0; i < variables.size(); i++)
+      {
+         doubleColumns[1 + i] = variables.get(i).getYoVariableType() == YoVariableType.DOUBLE;
+      }
+      for (int i = 1 + variables.size(); i < doubleColumns.length; i++)
+      {
+         doubleColumns[i] = true;
+      }
+      return doubleColumns;
+   }
+
+   public static String getDataFilename(int level)
+   {
+      return "level" + level + ".bcl";
+   }
+
+   public static String getIndexFilename(int level)
+   {
+      return "level" + level + ".cdx";
+   }
+
+   /**
+    * @param directory directory to write the pyramid to. Gets created if it does not exist.
+    * @param doubleColumns for every column of a log line, true if the column holds double bits. See getDoubleColumns()
+    * @param firstLevel the first level contains blocks of 2^firstLevel ticks
+    * @param numberOfLevels number of levels in the pyramid
+    * @throws IOException
+    */
+   public LogPyramidWriter(File directory, boolean[] doubleColumns, int firstLevel, int numberOfLevels) throws IOException
+   {
+      if (firstLevel < 0 || numberOfLevels < 1 || firstLevel + numberOfLevels > 62)
+      {
+         throw new IllegalArgumentException("Invalid pyramid levels " + firstLevel + " to " + (firstLevel + numberOfLevels - 1));
+      }
+      if (!directory.isDirectory() && !directory.mkdirs())
+      {
+         throw new IOException("Cannot create " + directory);
+      }
+
+      this.directory = directory;
+      this.doubleColumns = doubleColumns;
+      this.numberOfVariables = doubleColumns.length - 1;
+      this.firstLevel = firstLevel;
+
+      int numberOfColumns = 1 + NUMBER_OF_STATISTICS * numberOfVariables;
+      this.writers = new ColumnarLogWriter[numberOfLevels];
+      this.levels = new Block[numberOfLevels];
+      for (int i = 0; i < numberOfLevels; i++)
+      {
+         int level = firstLevel + i;
+         writers[i] = new ColumnarLogWriter(new File(directory, getDataFilename(level)), new File(directory, getIndexFilename(level)), numberOfColumns,
+                                            BLOCKS_PER_CHUNK);
+         levels[i] = new Block(numberOfVariables, 1L << level);
+      }
+      this.line = ByteBuffer.allocate(numberOfColumns * 8);
+   }
+
+   /**
+    * Add a log line
+    *
+    * @param logLine uncompressed log line, starting with the timestamp. The position of the buffer is not changed.
+    * @throws IOException
+    */
+   public void write(ByteBuffer logLine) throws IOException
+   {
+      long timestamp = logLine.getLong(0);
+      if (numberOfTicks == 0)
+      {
+         firstTimestamp = timestamp;
+      }
+      lastTimestamp = timestamp;
+      numberOfTicks++;
+
+      levels[0].add(timestamp, logLine, doubleColumns);
+      if (levels[0].isComplete())
+      {
+         completeBlock(0);
+      }
+   }
+
+   private void completeBlock(int i) throws IOException
+   {
+      writeBlock(i);
+      if (i + 1 < levels.length)
+      {
+         levels[i + 1].merge(levels[i]);
+         levels[i].reset();
+         if (levels[i + 1].isComplete())
+         {
+            completeBlock(i + 1);
+         }
+      }
+      else
+      {
+         levels[i].reset();
+      }
+   }
+
+   private void writeBlock(int i) throws IOException
+   {
+      line.clear();
+      levels[i].pack(line);
+      line.flip();
+      writers[i].write(line);
+   }
+
+   /**
+    * Drop all data and start with an empty pyramid
+    *
+    * @throws IOException
+    */
+   public void clear() throws IOException
+   {
+      for (int i = 0; i < levels.length; i++)
+      {
+         levels[i].reset();
+         writers[i].clear();
+      }
+      numberOfTicks = 0;
+   }
+
+   /**
+    * Write the partial blocks at the end of the log, the header and close the files
+    *
+    * @throws IOException
+    */
+   public void close() throws IOException
+   {
+      for (int i = 0; i < levels.length; i++)
+      {
+         if (levels[i].count > 0)
+         {
+            writeBlock(i);
+            if (i + 1 < levels.length)
+            {
+               levels[i + 1].merge(levels[i]);
+            }
+            levels[i].reset();
+         }
+         writers[i].close();
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(firstLevel);
+      header.putInt(levels.length);
+      header.putInt(numberOfVariables);
+      header.putLong(numberOfTicks);
+      header.putLong(firstTimestamp);
+      header.putLong(lastTimestamp);
+      header.flip();
+      try (FileChannel headerChannel = new FileOutputStream(new File(directory, HEADER_FILE)).getChannel())
+      {
+         headerChannel.write(header);
+      }
+   }
+
+   /**
+    * Statistics of all variables over a block of ticks
+    */
+   private static class Block
+   {
+      private final long size;
+      private final double[] min;
+      private final double[] max;
+      private final double[] sum;
+      private final double[] last;
+
+      private long count = 0;
+      private long timestamp;
+
+      private Block(int numberOfVariables, long size)
+      {
+         this.size = size;
+         this.min = new double[numberOfVariables];
+         this.max = new double[numberOfVariables];
+         this.sum = new double[numberOfVariables];
+         this.last = new double[numberOfVariables];
+      }
+
+      private void add(long timestamp, ByteBuffer logLine, boolean[] doubleColumns)
+      {
+         if (count == 0)
+         {
+            this.timestamp = timestamp;
+         }
+
+         for (int i = 0; i < min.length; i++)
+         {
+            long bits = logLine.getLong((i + 1) * 8);
+            double value = doubleColumns[i + 1] ? Double.longBitsToDouble(bits) : (double) bits;
+
+            if (count == 0)
+            {
+               min[i] = value;
+               max[i] = value;
+               sum[i] = value;
+            }
+            else
+            {
+               min[i] = Math.min(min[i], value);
+               max[i] = Math.max(max[i], value);
+               sum[i] += value;
+            }
+            last[i] = value;
+         }
+         count++;
+      }
+
+      private void merge(Block other)
+      {
+         if (count == 0)
+         {
+            timestamp = other.timestamp;
+            System.arraycopy(other.min, 0, min, 0, min.length);
+            System.arraycopy(other.max, 0, max, 0, max.length);
+            System.arraycopy(other.sum, 0, sum, 0, sum.length);
+         }
+         else
+         {
+            for (int i = 0; i < min.length; i++)
+            {
+               min[i] = Math.min(min[i], other.min[i]);
+               max[i] = Math.max(max[i], other.max[i]);
+               sum[i] += other.sum[i];
+            }
+         }
+         System.arraycopy(other.last, 0, last, 0, last.length);
+         count += other.count;
+      }
+
+      private boolean isComplete()
+      {
+         return count == size;
+      }
+
+      private void pack(ByteBuffer target)
+      {
+         target.putLong(timestamp);
+         for (int i = 0; i < min.length; i++)
+         {
+            target.putLong(Double.doubleToLongBits(min[i]));
+            target.putLong(Double.doubleToLongBits(max[i]));
+            target.putLong(Double.doubleToLongBits(sum[i] / count));
+            target.putLong(Double.doubleToLongBits(last[i]));
+         }
+      }
+
+      private void reset()
+      {
+         count = 0;
+      }
+   }
+}
@@ -0,0 +1,357 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.pubsub.Domain;
+import us.ihmc.pubsub.DomainFactory;
+import us.ihmc.pubsub.DomainFactory.PubSubImplementation;
+import us.ihmc.pubsub.attributes.HistoryQosPolicy.HistoryQosPolicyKind;
+import us.ihmc.pubsub.attributes.ParticipantAttributes;
+import us.ihmc.pubsub.attributes.PublishModeKind;
+import us.ihmc.pubsub.attributes.PublisherAttributes;
+import us.ihmc.pubsub.attributes.ReliabilityKind;
+import us.ihmc.pubsub.attributes.SubscriberAttributes;
+import us.ihmc.pubsub.common.MatchingInfo;
+import us.ihmc.pubsub.participant.Participant;
+import us.ihmc.pubsub.publisher.Publisher;
+import us.ihmc.pubsub.subscriber.Subscriber;
+import us.ihmc.pubsub.subscriber.SubscriberListener;
+import us.ihmc.pubsub.types.ByteBufferPubSubType;
+import us.ihmc.robotDataLogger.rtps.LogParticipantSettings;
+
+/**
+ * Serves parts of a log to remote clients, so a log can be analyzed without copying the log directory.
+ *
+ * Clients send a LogServerRequest with a set of columns, a time window and a decimation. The server answers with one or
+ * more compressed LogServerResponses. Decoded chunks of the log are kept in a LogChunkCache shared by all clients, so
+ * multiple clients scrubbing the same part of the log only decode it once. Requests are handled on a pool of worker
+ * threads.
+ *
+ * Use LogServerClient to connect to the server.
+ */
+public class LogServer extends YoVariableLogReader
+{
+   public interface ResponseConsumer
+   {
+      public void send(LogServerResponse response) throws IOException;
+   }
+
+   private final String name;
+   private final int lineSize;
+   private final LogChunkCache cache;
+   private final ExecutorService executor;
+
+   private final ThreadLocal<LogServerResponse> responses = ThreadLocal.withInitial(LogServerResponse::new);
+   private final ThreadLocal<ByteBuffer> responseBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(LogServerResponse.getMaximumSerializedSize()));
+
+   private final HashMap<Long, Long> lastRequestIDs = new HashMap<>();
+
+   private Domain domain;
+   private Participant participant;
+   private Publisher responsePublisher;
+
+   /**
+    * Open a log to serve
+    *
+    * @param logDirectory directory of the log
+    * @param name name of the server, clients connect by name
+    * @param numberOfThreads number of requests handled in parallel
+    * @param cacheSize maximum size of the decoded chunk cache in bytes
+    * @throws IOException
+    */
+   public LogServer(File logDirectory, String name, int numberOfThreads, long cacheSize) throws IOException
+   {
+      super(logDirectory, new LogPropertiesReader(new File(logDirectory, YoVariableLoggerListener.propertyFile)));
+      if (!initialize())
+      {
+         throw new IOException("Cannot initialize log " + logDirectory);
+      }
+
+      this.name = name;
+      this.lineSize = getNumberOfVariables() * 8;
+
+      // Align the chunks to keyframes, so every chunk decodes without decoding lines of the previous chunk
+      int ticksPerChunk = LogServerSettings.DEFAULT_TICKS_PER_CHUNK;
+      if (LogDataEncoder.isDeltaEncoded(logProperties.getVariables().getCodec()))
+      {
+         int keyframeInterval = (int) logProperties.getVariables().getKeyframeInterval();
+         ticksPerChunk = Math.max(1, ticksPerChunk / keyframeInterval) * keyframeInterval;
+      }
+
+      this.cache = new LogChunkCache(ticksPerChunk, lineSize, cacheSize, this::loadChunk);
+      this.executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+   }
+
+   private int loadChunk(int chunk, ByteBuffer target) throws IOException
+   {
+      int first = chunk * cache.getTicksPerChunk();
+      int last = Math.min(first + cache.getTicksPerChunk(), getNumberOfEntries()) - 1;
+
+      // Every load uses its own decoder, so chunks can be decoded concurrently
+      ParallelLogDecoder decoder = createParallelDecoder();
+      decoder.decode(first, last, (position, data) -> target.put(data));
+      return last - first + 1;
+   }
+
+   /**
+    * Start listening for requests
+    *
+    * @param implementation FAST_RTPS to serve over the network, INTRAPROCESS for clients in the same process
+    * @throws IOException
+    */
+   public void start(PubSubImplementation implementation) throws IOException
+   {
+      domain = DomainFactory.getDomain(implementation);
+      ParticipantAttributes participantAttributes = domain.createParticipantAttributes(LogParticipantSettings.domain, getClass().getSimpleName());
+      participant = domain.createParticipant(participantAttributes);
+
+      String partition = LogServerSettings.getPartition(name);
+
+      ByteBufferPubSubType responseType = new ByteBufferPubSubType(LogServerSettings.responseTopicType, LogServerSettings.MAXIMUM_RESPONSE_SIZE);
+      PublisherAttributes publisherAttributes = domain.createPublisherAttributes(participant, responseType, LogServerSettings.responseTopicName,
+                                                                                 ReliabilityKind.RELIABLE, partition);
+      publisherAttributes.getTopic().getHistoryQos().setKind(HistoryQosPolicyKind.KEEP_ALL_HISTORY_QOS);
+      if (publisherAttributes.getQos().getPublishMode() == PublishModeKind.ASYNCHRONOUS_PUBLISH_MODE)
+      {
+         publisherAttributes.getThroughputController().setBytesPerPeriod(65000);
+         publisherAttributes.getThroughputController().setPeriodMillisecs(1);
+      }
+      responsePublisher = domain.createPublisher(participant, publisherAttributes);
+
+      ByteBufferPubSubType requestType = new ByteBufferPubSubType(LogServerSettings.requestTopicType, LogServerSettings.MAXIMUM_REQUEST_SIZE);
+      SubscriberAttributes subscriberAttributes = domain.createSubscriberAttributes(participant, requestType, LogServerSettings.requestTopicName,
+                                                                                    ReliabilityKind.RELIABLE, partition);
+      domain.createSubscriber(participant, subscriberAttributes, new RequestListener());
+
+      System.out.println("Serving " + logDirectory + " as " + name);
+   }
+
+   /**
+    * Answer a request. Independent of the transport, the responses are passed to consumer in order.
+    *
+    * The response passed to consumer is reused after send() returns.
+    *
+    * @param request
+    * @param consumer
+    * @throws IOException
+    */
+   public void handleRequest(LogServerRequest request, ResponseConsumer consumer) throws IOException
+   {
+      LogServerResponse response = responses.get();
+      if (request.getDecimation() < 1)
+      {
+         response.setError(request.getClientID(), request.getRequestID(), "Decimation has to be at least 1, got " + request.getDecimation());
+         consumer.send(response);
+         return;
+      }
+      if (request.getStartTimestamp() > request.getEndTimestamp())
+      {
+         response.setError(request.getClientID(), request.getRequestID(),
+                           "Start timestamp " + request.getStartTimestamp() + " is after end timestamp " + request.getEndTimestamp());
+         consumer.send(response);
+         return;
+      }
+
+      int[] columns = request.getColumns();
+      for (int column : columns)
+      {
+         if (column < 0 || column >= getNumberOfVariables())
+         {
+            response.setError(request.getClientID(), request.getRequestID(),
+                              "Column " + column + " is out of range [0, " + getNumberOfVariables() + ")");
+            consumer.send(response);
+            return;
+         }
+      }
+
+      int elements = 0;
+      int first = 0;
+      if (getNumberOfEntries() > 0)
+      {
+         first = getPosition(request.getStartTimestamp());
+         int last = getPosition(request.getEndTimestamp());
+         if (getTimestamp(last) > request.getEndTimestamp())
+         {
+            last--;
+         }
+         if (getTimestamp(first) >= request.getStartTimestamp() && last >= first)
+         {
+            elements = (last - first) / request.getDecimation() + 1;
+         }
+      }
+
+      int elementsPerResponse = LogServerResponse.getMaximumNumberOfElements(columns.length);
+      int numberOfResponses = Math.max(1, (elements + elementsPerResponse - 1) / elementsPerResponse);
+
+      int currentChunk = -1;
+      ByteBuffer chunkData = null;
+      for (int i = 0; i < numberOfResponses; i++)
+      {
+         int firstElement = i * elementsPerResponse;
+         int elementsInResponse = Math.min(elementsPerResponse, elements - firstElement);
+         response.set(request.getClientID(), request.getRequestID(), i, numberOfResponses, elementsInResponse, columns.length);
+
+         for (int element = 0; element < elementsInResponse; element++)
+         {
+            int entry = first + (firstElement + element) * request.getDecimation();
+            int chunk = entry / cache.getTicksPerChunk();
+            if (chunk != currentChunk)
+            {
+               chunkData = cache.getChunk(chunk);
+               currentChunk = chunk;
+            }
+
+            int offset = (entry - chunk * cache.getTicksPerChunk()) * lineSize;
+            response.setTimestamp(element, getTimestamp(entry));
+            for (int c = 0; c < columns.length; c++)
+            {
+               response.setLongBits(c, element, chunkData.getLong(offset + columns[c] * 8));
+            }
+         }
+
+         consumer.send(response);
+      }
+   }
+
+   private void publish(LogServerResponse response) throws IOException
+   {
+      ByteBuffer buffer = responseBuffers.get();
+      buffer.clear();
+      response.serialize(buffer);
+      buffer.flip();
+
+      synchronized (responsePublisher)
+      {
+         responsePublisher.write(buffer);
+      }
+   }
+
+   /**
+    * Let the client know the request failed instead of letting it wait for a timeout
+    */
+   private void sendError(LogServerRequest request, Exception cause)
+   {
+      LogServerResponse response = responses.get();
+      response.setError(request.getClientID(), request.getRequestID(), "Server failed to answer request: " + cause);
+      try
+      {
+         publish(response);
+      }
+      catch (IOException | RuntimeException e)
+      {
+         e.printStackTrace();
+      }
+   }
+
+   private class RequestListener implements SubscriberListener
+   {
+      private final ByteBuffer requestBuffer = ByteBuffer.allocate(LogServerSettings.MAXIMUM_REQUEST_SIZE);
+
+      @Override
+      public void onNewDataMessage(Subscriber subscriber)
+      {
+         requestBuffer.clear();
+         if (subscriber.takeNextData(requestBuffer, null))
+         {
+            requestBuffer.flip();
+            LogServerRequest request = new LogServerRequest();
+            try
+            {
+               request.deserialize(requestBuffer);
+            }
+            catch (RuntimeException e)
+            {
+               System.err.println("Received invalid request: " + e.getMessage());
+               return;
+            }
+
+            // Clients resend requests till the first response arrives, only handle each request once
+            Long lastRequestID = lastRequestIDs.get(request.getClientID());
+            if (lastRequestID != null && lastRequestID >= request.getRequestID())
+            {
+               return;
+            }
+            lastRequestIDs.put(request.getClientID(), request.getRequestID());
+
+            executor.execute(() -> {
+               try
+               {
+                  handleRequest(request, LogServer.this::publish);
+               }
+               catch (IOException | RuntimeException e)
+               {
+                  e.printStackTrace();
+                  sendError(request, e);
+               }
+            });
+         }
+      }
+
+      @Override
+      public void onSubscriptionMatched(Subscriber subscriber, MatchingInfo info)
+      {
+      }
+   }
+
+   public LogChunkCache getCache()
+   {
+      return cache;
+   }
+
+   @Override
+   public void close()
+   {
+      executor.shutdownNow();
+      try
+      {
+         executor.awaitTermination(5, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e)
+      {
+         e.printStackTrace();
+      }
+
+      if (participant != null)
+      {
+         domain.removeParticipant(participant);
+         participant = null;
+      }
+      super.close();
+   }
+
+   public static void main(String[] args) throws JSAPException, IOException
+   {
+      SimpleJSAP jsap = new SimpleJSAP("LogServer", "Serves a log to remote clients", new Parameter[] {
+            new FlaggedOption("name", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'n', "name", "Name of the server. Defaults to the name of the log directory."),
+            new FlaggedOption("threads", JSAP.INTEGER_PARSER, "4", JSAP.NOT_REQUIRED, 't', "threads", "Number of requests to handle in parallel"),
+            new FlaggedOption("cacheSize", JSAP.LONG_PARSER, String.valueOf(LogServerSettings.DEFAULT_CACHE_SIZE / (1024 * 1024)), JSAP.NOT_REQUIRED, 'c', "cacheSize", "Size of the decoded chunk cache in MB"),
+            new UnflaggedOption("directory", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "Log directory") });
+      JSAPResult config = jsap.parse(args);
+      if (jsap.messagePrinted())
+      {
+         System.out.println(jsap.getUsage());
+         System.out.println(jsap.getHelp());
+         System.exit(-1);
+      }
+
+      File directory = new File(config.getString("directory"));
+      String name = config.contains("name") ? config.getString("name") : directory.getName();
+      LogServer server = new LogServer(directory, name, config.getInt("threads"), config.getLong("cacheSize") * 1024 * 1024);
+      server.start(PubSubImplementation.FAST_RTPS);
+   }
+}
@@ -0,0 +1,267 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import us.ihmc.pubsub.Domain;
+import us.ihmc.pubsub.DomainFactory;
+import us.ihmc.pubsub.DomainFactory.PubSubImplementation;
+import us.ihmc.pubsub.attributes.HistoryQosPolicy.HistoryQosPolicyKind;
+import us.ihmc.pubsub.attributes.ParticipantAttributes;
+import us.ihmc.pubsub.attributes.PublisherAttributes;
+import us.ihmc.pubsub.attributes.ReliabilityKind;
+import us.ihmc.pubsub.attributes.SubscriberAttributes;
+import us.ihmc.pubsub.common.MatchingInfo;
+import us.ihmc.pubsub.participant.Participant;
+import us.ihmc.pubsub.publisher.Publisher;
+import us.ihmc.pubsub.subscriber.Subscriber;
+import us.ihmc.pubsub.subscriber.SubscriberListener;
+import us.ihmc.pubsub.types.ByteBufferPubSubType;
+import us.ihmc.robotDataLogger.rtps.LogParticipantSettings;
+
+/**
+ * Client for the LogServer. Requests are answered one at a time.
+ *
+ * Requests are resent till the server starts answering, so the client can be created before the server is found.
+ */
+public class LogServerClient
+{
+   private static final long DEFAULT_TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+   private static final long RESEND_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+
+   private final long clientID = ThreadLocalRandom.current().nextLong();
+   private long requestID = 0;
+   private long timeout = DEFAULT_TIMEOUT;
+
+   private final Domain domain;
+   private final Participant participant;
+   private final Publisher requestPublisher;
+   private final ByteBuffer requestBuffer = ByteBuffer.allocate(LogServerSettings.MAXIMUM_REQUEST_SIZE);
+
+   private final Object lock = new Object();
+   private PendingRequest pendingRequest = null;
+
+   /**
+    * Connect to a log server
+    *
+    * @param serverName name of the server
+    * @param implementation FAST_RTPS to connect over the network, INTRAPROCESS for a server in the same process
+    * @throws IOException
+    */
+   public LogServerClient(String serverName, PubSubImplementation implementation) throws IOException
+   {
+      domain = DomainFactory.getDomain(implementation);
+      ParticipantAttributes participantAttributes = domain.createParticipantAttributes(LogParticipantSettings.domain, getClass().getSimpleName());
+      participant = domain.createParticipant(participantAttributes);
+
+      String partition = LogServerSettings.getPartition(serverName);
+
+      ByteBufferPubSubType requestType = new ByteBufferPubSubType(LogServerSettings.requestTopicType, LogServerSettings.MAXIMUM_REQUEST_SIZE);
+      PublisherAttributes publisherAttributes = domain.createPublisherAttributes(participant, requestType, LogServerSettings.requestTopicName,
+                                                                                 ReliabilityKind.RELIABLE, partition);
+      requestPublisher = domain.createPublisher(participant, publisherAttributes);
+
+      ByteBufferPubSubType responseType = new ByteBufferPubSubType(LogServerSettings.responseTopicType, LogServerSettings.MAXIMUM_RESPONSE_SIZE);
+      SubscriberAttributes subscriberAttributes = domain.createSubscriberAttributes(participant, responseType, LogServerSettings.responseTopicName,
+                                                                                    ReliabilityKind.RELIABLE, partition);
+      subscriberAttributes.getTopic().getHistoryQos().setKind(HistoryQosPolicyKind.KEEP_ALL_HISTORY_QOS);
+      domain.createSubscriber(participant, subscriberAttributes, new ResponseListener());
+   }
+
+   /**
+    * Request a set of columns between two timestamps (inclusive).
+    *
+    * Column 0 is the timestamp, column 1 to n are the YoVariables in the order of the handshake, followed by the joint states.
+    *
+    * @param startTimestamp first timestamp to read
+    * @param endTimestamp last timestamp to read
+    * @param decimation only return every decimation'th tick
+    * @param columns columns to read
+    * @return data for the requested columns
+    * @throws IOException if the server rejects the request or does not answer in time
+    */
+   public synchronized ColumnarLogData request(long startTimestamp, long endTimestamp, int decimation, int... columns) throws IOException
+   {
+      LogServerRequest request = new LogServerRequest(clientID, ++requestID, startTimestamp, endTimestamp, decimation, columns);
+      requestBuffer.clear();
+      request.serialize(requestBuffer);
+      requestBuffer.flip();
+
+      PendingRequest pending = new PendingRequest(request.getRequestID(), columns.length);
+      synchronized (lock)
+      {
+         pendingRequest = pending;
+      }
+
+      try
+      {
+         long deadline = System.nanoTime() + timeout;
+         long nextSend = System.nanoTime();
+         synchronized (lock)
+         {
+            while (!pending.isComplete())
+            {
+               long now = System.nanoTime();
+               if (now >= deadline)
+               {
+                  throw new IOException("Timeout waiting for log server");
+               }
+
+               if (!pending.hasResponse() && now >= nextSend)
+               {
+                  requestBuffer.rewind();
+                  requestPublisher.write(requestBuffer);
+                  nextSend = now + RESEND_INTERVAL;
+               }
+
+               long waitTime = pending.hasResponse() ? deadline - now : Math.min(deadline, nextSend) - now;
+               TimeUnit.NANOSECONDS.timedWait(lock, Math.max(1, waitTime));
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         throw new IOException("Interrupted while waiting for log server", e);
+      }
+      finally
+      {
+         synchronized (lock)
+         {
+            pendingRequest = null;
+         }
+      }
+
+      if (pending.errorMessage != null)
+      {
+         throw new IOException("Log server rejected request: " + pending.errorMessage);
+      }
+      return new ColumnarLogData(pending.numberOfElements, pending.timestamps, pending.data);
+   }
+
+   /**
+    * @param timeout maximum time to wait for the complete answer to a request in nanoseconds
+    */
+   public synchronized void setTimeout(long timeout)
+   {
+      this.timeout = timeout;
+   }
+
+   public void close()
+   {
+      domain.removeParticipant(participant);
+   }
+
+   private class ResponseListener implements SubscriberListener
+   {
+      private final ByteBuffer responseBuffer = ByteBuffer.allocate(LogServerSettings.MAXIMUM_RESPONSE_SIZE);
+      private final LogServerResponse response = new LogServerResponse();
+
+      @Override
+      public void onNewDataMessage(Subscriber subscriber)
+      {
+         responseBuffer.clear();
+         if (subscriber.takeNextData(responseBuffer, null))
+         {
+            responseBuffer.flip();
+            try
+            {
+               response.deserialize(responseBuffer);
+            }
+            catch (IOException | RuntimeException e)
+            {
+               System.err.println("Received invalid response: " + e.getMessage());
+               return;
+            }
+
+            if (response.getClientID() != clientID)
+            {
+               return;
+            }
+
+            synchronized (lock)
+            {
+               if (pendingRequest != null && pendingRequest.requestID == response.getRequestID())
+               {
+                  pendingRequest.add(response);
+                  lock.notifyAll();
+               }
+            }
+         }
+      }
+
+      @Override
+      public void onSubscriptionMatched(Subscriber subscriber, MatchingInfo info)
+      {
+      }
+   }
+
+   private static class PendingRequest
+   {
+      private final long requestID;
+      private final int numberOfColumns;
+
+      private boolean[] received = null;
+      private int numberOfReceivedResponses = 0;
+      private String errorMessage = null;
+
+      private int elementsPerResponse;
+      private int numberOfElements = 0;
+      private long[] timestamps;
+      private long[][] data;
+
+      private PendingRequest(long requestID, int numberOfColumns)
+      {
+         this.requestID = requestID;
+         this.numberOfColumns = numberOfColumns;
+      }
+
+      private boolean hasResponse()
+      {
+         return received != null || errorMessage != null;
+      }
+
+      private boolean isComplete()
+      {
+         return errorMessage != null || (received != null && numberOfReceivedResponses == received.length);
+      }
+
+      private void add(LogServerResponse response)
+      {
+         if (response.getStatus() == LogServerResponse.ERROR)
+         {
+            errorMessage = response.getErrorMessage();
+            return;
+         }
+
+         if (received == null)
+         {
+            received = new boolean[response.getNumberOfChunks()];
+            elementsPerResponse = LogServerResponse.getMaximumNumberOfElements(numberOfColumns);
+            int maximumElements = received.length * elementsPerResponse;
+            timestamps = new long[maximumElements];
+            data = new long[numberOfColumns][maximumElements];
+         }
+
+         int chunk = response.getChunk();
+         if (chunk >= received.length || received[chunk])
+         {
+            return;
+         }
+         received[chunk] = true;
+         numberOfReceivedResponses++;
+
+         int offset = chunk * elementsPerResponse;
+         for (int element = 0; element < response.getNumberOfElements(); element++)
+         {
+            timestamps[offset + element] = response.getTimestamp(element);
+            for (int column = 0; column < numberOfColumns; column++)
+            {
+               data[column][offset + element] = response.getLongBits(column, element);
+            }
+         }
+         numberOfElements += response.getNumberOfElements();
+      }
+   }
+}
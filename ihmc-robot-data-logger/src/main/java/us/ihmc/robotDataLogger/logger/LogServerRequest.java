@@ -0,0 +1,116 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Request for a set of columns of a log between two timestamps, sent from a LogServerClient to the LogServer.
+ *
+ * Columns follow the layout of a log line: column 0 is the timestamp, column 1 to n are the YoVariables in the order of
+ * the handshake, followed by the joint states.
+ */
+public class LogServerRequest
+{
+   private static final int HEADER_SIZE = 4 * 8 + 4 + 4;
+   public static final int MAXIMUM_NUMBER_OF_COLUMNS = (LogServerSettings.MAXIMUM_REQUEST_SIZE - HEADER_SIZE) / 4;
+
+   private long clientID;
+   private long requestID;
+   private long startTimestamp;
+   private long endTimestamp;
+   private int decimation;
+   private int[] columns;
+
+   public LogServerRequest()
+   {
+   }
+
+   public LogServerRequest(long clientID, long requestID, long startTimestamp, long endTimestamp, int decimation, int[] columns)
+   {
+      if (decimation < 1)
+      {
+         throw new IllegalArgumentException("Decimation has to be at least 1");
+      }
+      if (columns.length > MAXIMUM_NUMBER_OF_COLUMNS)
+      {
+         throw new IllegalArgumentException("Cannot request more than " + MAXIMUM_NUMBER_OF_COLUMNS + " columns at once");
+      }
+
+      this.clientID = clientID;
+      this.requestID = requestID;
+      this.startTimestamp = startTimestamp;
+      this.endTimestamp = endTimestamp;
+      this.decimation = decimation;
+      this.columns = columns;
+   }
+
+   public void serialize(ByteBuffer target)
+   {
+      target.putLong(clientID);
+      target.putLong(requestID);
+      target.putLong(startTimestamp);
+      target.putLong(endTimestamp);
+      target.putInt(decimation);
+      target.putInt(columns.length);
+      for (int column : columns)
+      {
+         target.putInt(column);
+      }
+   }
+
+   public void deserialize(ByteBuffer source)
+   {
+      clientID = source.getLong();
+      requestID = source.getLong();
+      startTimestamp = source.getLong();
+      endTimestamp = source.getLong();
+      decimation = source.getInt();
+      int numberOfColumns = source.getInt();
+      if (numberOfColumns < 0 || numberOfColumns > source.remaining() / 4)
+      {
+         throw new IllegalArgumentException("Invalid number of columns " + numberOfColumns);
+      }
+      columns = new int[numberOfColumns];
+      for (int i = 0; i < numberOfColumns; i++)
+      {
+         columns[i] = source.getInt();
+      }
+   }
+
+   public long getClientID()
+   {
+      return clientID;
+   }
+
+   public long getRequestID()
+   {
+      return requestID;
+   }
+
+   public long getStartTimestamp()
+   {
+      return startTimestamp;
+   }
+
+   public long getEndTimestamp()
+   {
+      return endTimestamp;
+   }
+
+   public int getDecimation()
+   {
+      return decimation;
+   }
+
+   public int[] getColumns()
+   {
+      return columns;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "LogServerRequest [clientID=" + clientID + ", requestID=" + requestID + ", startTimestamp=" + startTimestamp + ", endTimestamp=" + endTimestamp
+            + ", decimation=" + decimation + ", columns=" + Arrays.toString(columns) + "]";
+   }
+}
@@ -0,0 +1,196 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Part of the answer of the LogServer to a LogServerRequest.
+ *
+ * Large answers are split in multiple responses, each holding a consecutive range of the requested elements. The column
+ * data of a response is stored column by column, starting with the timestamps, and is Snappy compressed on the wire.
+ */
+public class LogServerResponse
+{
+   public static final int OK = 0;
+   public static final int ERROR = 1;
+
+   private static final int HEADER_SIZE = 2 * 8 + 6 * 4;
+
+   private long clientID;
+   private long requestID;
+   private int status;
+   private int chunk;
+   private int numberOfChunks;
+   private int numberOfElements;
+   private int numberOfColumns;
+
+   private final ByteBuffer data = ByteBuffer.allocate(LogServerSettings.MAXIMUM_RESPONSE_DATA_SIZE);
+   private String errorMessage = null;
+
+   /**
+    * @return maximum number of elements in a single response with numberOfColumns columns, excluding the timestamp
+    */
+   public static int getMaximumNumberOfElements(int numberOfColumns)
+   {
+      return Math.max(1, LogServerSettings.MAXIMUM_RESPONSE_DATA_SIZE / ((numberOfColumns + 1) * 8));
+   }
+
+   public void set(long clientID, long requestID, int chunk, int numberOfChunks, int numberOfElements, int numberOfColumns)
+   {
+      if ((numberOfColumns + 1) * numberOfElements * 8 > data.capacity())
+      {
+         throw new IllegalArgumentException("Response data exceeds maximum size");
+      }
+
+      this.clientID = clientID;
+      this.requestID = requestID;
+      this.status = OK;
+      this.chunk = chunk;
+      this.numberOfChunks = numberOfChunks;
+      this.numberOfElements = numberOfElements;
+      this.numberOfColumns = numberOfColumns;
+      this.errorMessage = null;
+   }
+
+   public void setError(long clientID, long requestID, String errorMessage)
+   {
+      this.clientID = clientID;
+      this.requestID = requestID;
+      this.status = ERROR;
+      this.chunk = 0;
+      this.numberOfChunks = 1;
+      this.numberOfElements = 0;
+      this.numberOfColumns = 0;
+      this.errorMessage = errorMessage;
+   }
+
+   private int getIndex(int column, int element)
+   {
+      return ((column + 1) * numberOfElements + element) * 8;
+   }
+
+   public void setTimestamp(int element, long timestamp)
+   {
+      data.putLong(getIndex(-1, element), timestamp);
+   }
+
+   public void setLongBits(int column, int element, long value)
+   {
+      data.putLong(getIndex(column, element), value);
+   }
+
+   public long getTimestamp(int element)
+   {
+      return data.getLong(getIndex(-1, element));
+   }
+
+   public long getLongBits(int column, int element)
+   {
+      return data.getLong(getIndex(column, element));
+   }
+
+   public void serialize(ByteBuffer target) throws IOException
+   {
+      target.putLong(clientID);
+      target.putLong(requestID);
+      target.putInt(status);
+      target.putInt(chunk);
+      target.putInt(numberOfChunks);
+      target.putInt(numberOfElements);
+      target.putInt(numberOfColumns);
+
+      int sizePosition = target.position();
+      target.putInt(0);
+      if (status == ERROR)
+      {
+         target.put(errorMessage.getBytes(StandardCharsets.UTF_8));
+      }
+      else
+      {
+         data.clear();
+         data.limit((numberOfColumns + 1) * numberOfElements * 8);
+         SnappyUtils.compress(data, target);
+      }
+      target.putInt(sizePosition, target.position() - sizePosition - 4);
+   }
+
+   public void deserialize(ByteBuffer source) throws IOException
+   {
+      clientID = source.getLong();
+      requestID = source.getLong();
+      status = source.getInt();
+      chunk = source.getInt();
+      numberOfChunks = source.getInt();
+      numberOfElements = source.getInt();
+      numberOfColumns = source.getInt();
+      int size = source.getInt();
+
+      ByteBuffer payload = source.slice();
+      payload.limit(size);
+
+      if (status == ERROR)
+      {
+         byte[] message = new byte[size];
+         payload.get(message);
+         errorMessage = new String(message, StandardCharsets.UTF_8);
+      }
+      else
+      {
+         if ((numberOfColumns + 1) * numberOfElements * 8 > data.capacity())
+         {
+            throw new IOException("Response data exceeds maximum size");
+         }
+         errorMessage = null;
+         data.clear();
+         SnappyUtils.uncompress(payload, data);
+      }
+   }
+
+   public static int getMaximumSerializedSize()
+   {
+      return HEADER_SIZE + 4 + SnappyUtils.maxCompressedLength(LogServerSettings.MAXIMUM_RESPONSE_DATA_SIZE);
+   }
+
+   public long getClientID()
+   {
+      return clientID;
+   }
+
+   public long getRequestID()
+   {
+      return requestID;
+   }
+
+   public int getStatus()
+   {
+      return status;
+   }
+
+   public String getErrorMessage()
+   {
+      return errorMessage;
+   }
+
+   public int getChunk()
+   {
+      return chunk;
+   }
+
+   public int getNumberOfChunks()
+   {
+      return numberOfChunks;
+   }
+
+   public int getNumberOfElements()
+   {
+      return numberOfElements;
+   }
+
+   public int getNumberOfColumns()
+   {
+      return numberOfColumns;
+   }
+}
@@ -0,0 +1,30 @@
+package us.ihmc.robotDataLogger.logger;
+
+import us.ihmc.robotDataLogger.rtps.LogParticipantSettings;
+
+public class LogServerSettings
+{
+   public static final String partition = LogParticipantSettings.partition + LogParticipantSettings.namespaceSeperator + "LogServer";
+   public static final String requestTopicType = "us::ihmc::robotDataLogger::logServer::request";
+   public static final String responseTopicType = "us::ihmc::robotDataLogger::logServer::response";
+   public static final String requestTopicName = "request";
+   public static final String responseTopicName = "response";
+
+   public static final int MAXIMUM_REQUEST_SIZE = 64 * 1024;
+   public static final int MAXIMUM_RESPONSE_SIZE = 1024 * 1024;
+
+   /** Maximum amount of column data in a single response, before compression */
+   public static final int MAXIMUM_RESPONSE_DATA_SIZE = 512 * 1024;
+
+   public static final int DEFAULT_TICKS_PER_CHUNK = 256;
+   public static final long DEFAULT_CACHE_SIZE = 512L * 1024L * 1024L;
+
+   /**
+    * @param serverName name of the log server
+    * @return partition for all topics of the server
+    */
+   public static String getPartition(String serverName)
+   {
+      return partition + LogParticipantSettings.namespaceSeperator + serverName;
+   }
+}
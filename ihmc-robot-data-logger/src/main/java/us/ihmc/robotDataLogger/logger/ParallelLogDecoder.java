@@ -0,0 +1,238 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.MappedLogIndex;
+
+/**
+ * Decompresses a range of a compressed log on a fork-join pool.
+ *
+ * The range is split in segments of consecutive entries. Every segment is read with a single positional read and
+ * decompressed by a worker thread. A bounded number of segments is decoded ahead of the consumer, and the
+ * segments are handed out strictly in order.
+ * 
+ * For delta encoded logs the segment boundaries are aligned to keyframes, so only the first segment of a range has to
+ * decode lines before the start of the range.
+ *
+ * Usage:
+ *
+ * <pre>
+ * decoder.start(first, last);
+ * while (decoder.hasNext())
+ * {
+ *    ByteBuffer line = decoder.next();
+ * }
+ * </pre>
+ */
+public class ParallelLogDecoder
+{
+   private static final int TARGET_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+   public interface LogLineConsumer
+   {
+      /**
+       * Called in order for every decoded log line
+       *
+       * @param position index of the log line
+       * @param data uncompressed log line
+       */
+      public void process(int position, ByteBuffer data) throws IOException;
+   }
+
+   private final FileChannel logChannel;
+   private final MappedLogIndex logIndex;
+   private final LogCodec codec;
+   private final int keyframeInterval;
+   private final int bufferSize;
+   private final ForkJoinPool pool;
+   private final int entriesPerSegment;
+   private final int maximumSegmentsInFlight;
+
+   private final ArrayDeque<ForkJoinTask<DecodedSegment>> segmentsInFlight = new ArrayDeque<>();
+
+   private int nextSegmentStart;
+   private int last;
+
+   private DecodedSegment currentSegment = null;
+   private int currentElement;
+
+   public ParallelLogDecoder(FileChannel logChannel, MappedLogIndex logIndex, LogProperties logProperties, int bufferSize)
+   {
+      this(logChannel, logIndex, logProperties.getVariables().getCodec(), logProperties.getVariables().getKeyframeInterval(), bufferSize,
+           ForkJoinPool.commonPool());
+   }
+
+   public ParallelLogDecoder(FileChannel logChannel, MappedLogIndex logIndex, LogCodec codec, int keyframeInterval, int bufferSize, ForkJoinPool pool)
+   {
+      this.logChannel = logChannel;
+      this.logIndex = logIndex;
+      this.codec = codec;
+      this.keyframeInterval = keyframeInterval;
+      this.bufferSize = bufferSize;
+      this.pool = pool;
+
+      int entriesPerSegment = Math.max(1, TARGET_SEGMENT_SIZE / bufferSize);
+      if (LogDataEncoder.isDeltaEncoded(codec))
+      {
+         entriesPerSegment = Math.max(1, entriesPerSegment / keyframeInterval) * keyframeInterval;
+      }
+      this.entriesPerSegment = entriesPerSegment;
+      this.maximumSegmentsInFlight = 2 * pool.getParallelism();
+   }
+
+   /**
+    * Start decoding a range of entries. Cancels decoding of the previous range.
+    *
+    * @param first first entry to decode
+    * @param last last entry to decode (inclusive)
+    */
+   public void start(int first, int last)
+   {
+      cancel();
+      this.nextSegmentStart = first;
+      this.last = Math.min(last, logIndex.getNumberOfEntries() - 1);
+
+      while (segmentsInFlight.size() < maximumSegmentsInFlight && submitNextSegment())
+         ;
+   }
+
+   private boolean submitNextSegment()
+   {
+      if (nextSegmentStart > last)
+      {
+         return false;
+      }
+
+      int segmentStart = nextSegmentStart;
+      int segmentEnd = (segmentStart / entriesPerSegment + 1) * entriesPerSegment - 1;
+      int elements = Math.min(segmentEnd, last) - segmentStart + 1;
+      nextSegmentStart += elements;
+
+      segmentsInFlight.add(pool.submit(() -> decodeSegment(segmentStart, elements)));
+      return true;
+   }
+
+   private DecodedSegment decodeSegment(int segmentStart, int elements) throws IOException
+   {
+      LogDataDecoder decoder = new LogDataDecoder(codec, keyframeInterval, bufferSize);
+      int readStart = decoder.getKeyframe(segmentStart);
+      long startOffset = logIndex.getDataOffset(readStart);
+      int segmentEnd = segmentStart + elements - 1;
+      long endOffset = logIndex.getDataOffset(segmentEnd) + logIndex.getCompressedSize(segmentEnd);
+
+      ByteBuffer compressed = ByteBuffer.allocate((int) (endOffset - startOffset));
+      while (compressed.hasRemaining())
+      {
+         if (logChannel.read(compressed, startOffset + compressed.position()) < 0)
+         {
+            throw new IOException("Unexpected end of log data at entry " + segmentStart);
+         }
+      }
+
+      LogDataDecoder.CompressedDataReader reader = (entry) -> {
+         int position = (int) (logIndex.getDataOffset(entry) - startOffset);
+         compressed.limit(position + logIndex.getCompressedSize(entry));
+         compressed.position(position);
+         return compressed;
+      };
+
+      ByteBuffer uncompressed = ByteBuffer.allocate(elements * bufferSize);
+      for (int i = 0; i < elements; i++)
+      {
+         uncompressed.limit((i + 1) * bufferSize);
+         uncompressed.position(i * bufferSize);
+         decoder.decode(segmentStart + i, reader, uncompressed);
+      }
+
+      return new DecodedSegment(elements, uncompressed);
+   }
+
+   public boolean hasNext()
+   {
+      return (currentSegment != null && currentElement < currentSegment.elements) || !segmentsInFlight.isEmpty();
+   }
+
+   /**
+    * Get the next uncompressed log line. Blocks till the segment containing the line is decoded.
+    *
+    * @return uncompressed log line, starting at index 0 of the returned buffer
+    * @throws IOException
+    */
+   public ByteBuffer next() throws IOException
+   {
+      if (currentSegment == null || currentElement >= currentSegment.elements)
+      {
+         ForkJoinTask<DecodedSegment> task = segmentsInFlight.poll();
+         if (task == null)
+         {
+            return null;
+         }
+
+         try
+         {
+            currentSegment = task.join();
+         }
+         catch (RuntimeException e)
+         {
+            if (e.getCause() instanceof IOException)
+            {
+               throw (IOException) e.getCause();
+            }
+            throw e;
+         }
+         currentElement = 0;
+         submitNextSegment();
+      }
+
+      ByteBuffer data = currentSegment.data;
+      data.limit((currentElement + 1) * bufferSize);
+      data.position(currentElement * bufferSize);
+      currentElement++;
+      return data.slice();
+   }
+
+   /**
+    * Decode entries first to last (inclusive) and pass them in order to consumer
+    */
+   public void decode(int first, int last, LogLineConsumer consumer) throws IOException
+   {
+      start(first, last);
+      int position = first;
+      while (hasNext())
+      {
+         consumer.process(position++, next());
+      }
+   }
+
+   /**
+    * Stop decoding the current range
+    */
+   public void cancel()
+   {
+      for (ForkJoinTask<DecodedSegment> task : segmentsInFlight)
+      {
+         task.cancel(false);
+      }
+      segmentsInFlight.clear();
+      currentSegment = null;
+   }
+
+   private static class DecodedSegment
+   {
+      private final int elements;
+      private final ByteBuffer data;
+
+      private DecodedSegment(int elements, ByteBuffer data)
+      {
+         this.elements = elements;
+         this.data = data;
+      }
+   }
+}
@@ -0,0 +1,80 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import us.ihmc.commons.Conversions;
+
+/**
+ * Compare the throughput of decoding a log serially with readData() against the ParallelLogDecoder
+ *
+ * Usage: ParallelLogDecoderBenchmark [log directory]
+ */
+public class ParallelLogDecoderBenchmark extends YoVariableLogReader
+{
+   private static final int ITERATIONS = 3;
+
+   private long checksum = 0;
+
+   public ParallelLogDecoderBenchmark(File directory) throws IOException
+   {
+      super(directory, new LogPropertiesReader(new File(directory, YoVariableLoggerListener.propertyFile)));
+
+      if (!initialize())
+      {
+         throw new IOException("Cannot initialize log " + directory);
+      }
+
+      System.out.println("Decoding " + getNumberOfEntries() + " data lines with " + getNumberOfVariables() + " variables.");
+      long totalSize = (long) getNumberOfEntries() * (long) getNumberOfVariables() * 8L;
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         System.out.println("--- Iteration " + (i + 1) + " ---");
+         benchmarkFunction("Serial", totalSize, this::decodeSerial);
+         benchmarkFunction("Parallel", totalSize, this::decodeParallel);
+      }
+      System.out.println("Checksum " + checksum);
+   }
+
+   private void decodeSerial() throws IOException
+   {
+      for (int i = 0; i < getNumberOfEntries(); i++)
+      {
+         ByteBuffer data = readData(i);
+         checksum += data.getLong(0);
+      }
+   }
+
+   private void decodeParallel() throws IOException
+   {
+      ParallelLogDecoder decoder = createParallelDecoder();
+      decoder.decode(0, getNumberOfEntries() - 1, (position, data) -> checksum += data.getLong(0));
+   }
+
+   private void benchmarkFunction(String name, long totalSize, Benchmark benchmark) throws IOException
+   {
+      long start = System.nanoTime();
+      benchmark.run();
+      long duration = System.nanoTime() - start;
+
+      double seconds = Conversions.nanosecondsToSeconds(duration);
+      System.out.println(name + ": " + seconds + "s, " + (totalSize / (1024.0 * 1024.0)) / seconds + "MB/s uncompressed");
+   }
+
+   private interface Benchmark
+   {
+      public void run() throws IOException;
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length != 1)
+      {
+         System.err.println("Usage: ParallelLogDecoderBenchmark [log directory]");
+         return;
+      }
+      new ParallelLogDecoderBenchmark(new File(args[0]));
+   }
+}
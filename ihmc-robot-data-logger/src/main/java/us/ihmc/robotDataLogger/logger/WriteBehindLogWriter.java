@@ -0,0 +1,575 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the compressed data and index of a log on a dedicated thread, so a slow disk does not block the thread that
+ * receives the data.
+ *
+ * Ticks are encoded directly into a batch from a preallocated pool. Full batches are handed to the writer thread, which
+ * writes the data and the index of a batch with a single call each and forces both files to disk periodically. The data
+ * of a batch is always written before its index, so the index never points to data that is not on disk.
+ *
+ * If the disk falls behind and all batches are waiting to be written, new ticks are dropped and counted. The tick is
+ * dropped before it is encoded, so delta encoded logs stay consistent.
+ *
+ * Optionally the uncompressed lines are kept in the batch as well and passed to LogLineWriters on the writer thread,
+ * so the columnar data and the summary pyramid are not written on the receiving thread either. The lines of a batch grow
+ * on demand until they hold as many ticks as its data, so large lines do not reduce the number of ticks a batch can
+ * buffer. Once every batch of the pool has grown, no more memory is allocated.
+ *
+ * reserve(), commit(), clear() and close() are called from a single thread or under an external lock.
+ */
+public class WriteBehindLogWriter
+{
+   public static final int DEFAULT_BATCH_SIZE = 1024 * 1024;
+   public static final int DEFAULT_NUMBER_OF_BATCHES = 32;
+   public static final long DEFAULT_FORCE_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+   public static final long DEFAULT_MAXIMUM_BATCH_AGE = TimeUnit.MILLISECONDS.toNanos(250);
+
+   private static final int INDEX_ENTRY_SIZE = 16;
+   private static final int DISK_BLOCK_SIZE = 4096;
+
+   private static final Batch STOP = new Batch(0, 0, 0, 0, 0);
+   private static final Batch CLEAR = new Batch(0, 0, 0, 0, 0);
+
+   private final FileChannel dataChannel;
+   private final FileChannel indexChannel;
+   private final long forceInterval;
+   private final long maximumBatchAge;
+   private final int lineSize;
+   private final LogLineWriter[] lineWriters;
+   private final ByteBuffer lineBuffer;
+
+   private final ArrayBlockingQueue<Batch> freeBatches;
+   private final ArrayBlockingQueue<Batch> fullBatches;
+   private final Thread writerThread;
+
+   /**
+    * Incremented by clear(). Batches submitted before the last clear are dropped by the writer thread instead of
+    * being written. At most one CLEAR marker is queued at a time, so repeated clears do not fill the queue.
+    */
+   private volatile long clearGeneration = 0;
+   private long writtenClearGeneration = 0;
+   private final AtomicBoolean clearQueued = new AtomicBoolean(false);
+
+   private Batch currentBatch;
+   private long currentBatchStartTime;
+   private int reservedPosition = -1;
+   private long dataPosition = 0;
+
+   private long numberOfWrittenTicks = 0;
+   private long numberOfDroppedTicks = 0;
+   private volatile long numberOfWrittenBatches = 0;
+   private volatile long numberOfForces = 0;
+   private volatile IOException writerException = null;
+
+   /**
+    * Create a writer with the default pool of DEFAULT_NUMBER_OF_BATCHES batches of DEFAULT_BATCH_SIZE bytes
+    *
+    * @param dataChannel channel to write the compressed data to. Closed by close().
+    * @param indexChannel channel to write the index to. Closed by close().
+    * @param maximumTickSize maximum size of a single encoded tick
+    * @param forceData force the data to disk after every batch instead of every DEFAULT_FORCE_INTERVAL
+    */
+   public WriteBehindLogWriter(FileChannel dataChannel, FileChannel indexChannel, int maximumTickSize, boolean forceData)
+   {
+      this(dataChannel, indexChannel, maximumTickSize, forceData, 0);
+   }
+
+   /**
+    * Create a writer with the default pool that also passes the uncompressed lines to lineWriters
+    *
+    * @param dataChannel channel to write the compressed data to. Closed by close().
+    * @param indexChannel channel to write the index to. Closed by close().
+    * @param maximumTickSize maximum size of a single encoded tick
+    * @param forceData force the data to disk after every batch instead of every DEFAULT_FORCE_INTERVAL
+    * @param lineSize size of an uncompressed log line. Ignored if there are no lineWriters.
+    * @param lineWriters writers for the uncompressed lines. Called and closed on the writer thread.
+    */
+   public WriteBehindLogWriter(FileChannel dataChannel, FileChannel indexChannel, int maximumTickSize, boolean forceData, int lineSize,
+                               LogLineWriter... lineWriters)
+   {
+      this(dataChannel, indexChannel, maximumTickSize, DEFAULT_BATCH_SIZE, DEFAULT_NUMBER_OF_BATCHES, forceData ? 0 : DEFAULT_FORCE_INTERVAL,
+           DEFAULT_MAXIMUM_BATCH_AGE, lineSize, lineWriters);
+   }
+
+   /**
+    * @param dataChannel channel to write the compressed data to. Closed by close().
+    * @param indexChannel channel to write the index to. Closed by close().
+    * @param maximumTickSize maximum size of a single encoded tick
+    * @param batchSize size of the data in a batch. Rounded up to a multiple of the disk block size and maximumTickSize.
+    * @param numberOfBatches number of preallocated batches
+    * @param forceInterval minimum time between forcing the files to disk in nanoseconds. 0 forces after every batch.
+    * @param maximumBatchAge partial batches are handed to the writer thread after this time in nanoseconds
+    */
+   public WriteBehindLogWriter(FileChannel dataChannel, FileChannel indexChannel, int maximumTickSize, int batchSize, int numberOfBatches,
+                               long forceInterval, long maximumBatchAge)
+   {
+      this(dataChannel, indexChannel, maximumTickSize, batchSize, numberOfBatches, forceInterval, maximumBatchAge, 0);
+   }
+
+   /**
+    * @param dataChannel channel to write the compressed data to. Closed by close().
+    * @param indexChannel channel to write the index to. Closed by close().
+    * @param maximumTickSize maximum size of a single encoded tick
+    * @param batchSize size of the data in a batch. Rounded up to a multiple of the disk block size and maximumTickSize.
+    *           The uncompressed lines of a batch start at batchSize bytes and grow with the number of ticks in the batch.
+    * @param numberOfBatches number of preallocated batches
+    * @param forceInterval minimum time between forcing the files to disk in nanoseconds. 0 forces after every batch.
+    * @param maximumBatchAge partial batches are handed to the writer thread after this time in nanoseconds
+    * @param lineSize size of an uncompressed log line. Ignored if there are no lineWriters.
+    * @param lineWriters writers for the uncompressed lines. Called and closed on the writer thread.
+    */
+   public WriteBehindLogWriter(FileChannel dataChannel, FileChannel indexChannel, int maximumTickSize, int batchSize, int numberOfBatches,
+                               long forceInterval, long maximumBatchAge, int lineSize, LogLineWriter... lineWriters)
+   {
+      if (numberOfBatches < 2)
+      {
+         throw new IllegalArgumentException("At least two batches are required");
+      }
+
+      this.dataChannel = dataChannel;
+      this.indexChannel = indexChannel;
+      this.forceInterval = forceInterval;
+      this.maximumBatchAge = maximumBatchAge;
+      this.lineWriters = lineWriters;
+      this.lineSize = lineWriters.length > 0 ? lineSize : 0;
+      this.lineBuffer = lineWriters.length > 0 ? ByteBuffer.allocate(lineSize) : null;
+
+      int dataSize = Math.max(batchSize, maximumTickSize);
+      dataSize = ((dataSize + DISK_BLOCK_SIZE - 1) / DISK_BLOCK_SIZE) * DISK_BLOCK_SIZE;
+      // Every tick is at least a few bytes, allow for small delta encoded ticks
+      int maximumTicksPerBatch = Math.max(1, dataSize / 16);
+      int maximumLinesPerBatch = 0;
+      int initialLinesPerBatch = 0;
+      if (this.lineSize > 0)
+      {
+         maximumLinesPerBatch = Math.max(1, Math.min(maximumTicksPerBatch, Integer.MAX_VALUE / this.lineSize));
+         initialLinesPerBatch = Math.min(maximumLinesPerBatch, Math.max(1, batchSize / this.lineSize));
+      }
+
+      freeBatches = new ArrayBlockingQueue<>(numberOfBatches);
+      // Room for all batches, one CLEAR and the STOP marker, so adding to the queue never fails
+      fullBatches = new ArrayBlockingQueue<>(numberOfBatches + 2);
+      for (int i = 0; i < numberOfBatches - 1; i++)
+      {
+         freeBatches.add(new Batch(dataSize, maximumTicksPerBatch, this.lineSize, initialLinesPerBatch, maximumLinesPerBatch));
+      }
+      currentBatch = new Batch(dataSize, maximumTicksPerBatch, this.lineSize, initialLinesPerBatch, maximumLinesPerBatch);
+
+      writerThread = new Thread(this::run, getClass().getSimpleName());
+      writerThread.setDaemon(true);
+      writerThread.start();
+   }
+
+   /**
+    * Reserve space for the next tick in the current batch
+    *
+    * @param maximumSize maximum size of the encoded tick
+    * @return buffer to encode the tick into, starting at its position, or null if the disk is behind and the tick has to be dropped
+    * @throws IOException if the writer thread failed to write to disk
+    */
+   public ByteBuffer reserve(int maximumSize) throws IOException
+   {
+      if (writerException != null)
+      {
+         throw writerException;
+      }
+
+      if (currentBatch != null && (currentBatch.data.remaining() < maximumSize || !currentBatch.index.hasRemaining()
+            || !currentBatch.ensureLineSpace()))
+      {
+         submitCurrentBatch();
+      }
+
+      if (currentBatch == null)
+      {
+         currentBatch = freeBatches.poll();
+         if (currentBatch == null)
+         {
+            numberOfDroppedTicks++;
+            return null;
+         }
+      }
+
+      if (currentBatch.data.remaining() < maximumSize)
+      {
+         throw new IllegalArgumentException("Tick of " + maximumSize + " bytes does not fit in a batch of " + currentBatch.data.capacity() + " bytes");
+      }
+
+      reservedPosition = currentBatch.data.position();
+      return currentBatch.data;
+   }
+
+   /**
+    * Add the tick that was encoded into the buffer returned by reserve() to the log
+    *
+    * @param timestamp timestamp of the tick
+    */
+   public void commit(long timestamp)
+   {
+      commit(timestamp, null);
+   }
+
+   /**
+    * Add the tick that was encoded into the buffer returned by reserve() to the log
+    *
+    * @param timestamp timestamp of the tick
+    * @param line uncompressed log line for the LogLineWriters, from position to limit. The position is not changed.
+    *           Ignored if there are no LogLineWriters.
+    */
+   public void commit(long timestamp, ByteBuffer line)
+   {
+      if (reservedPosition < 0)
+      {
+         throw new IllegalStateException("No space reserved");
+      }
+
+      if (lineSize > 0)
+      {
+         if (line == null || line.remaining() != lineSize)
+         {
+            throw new IllegalArgumentException("Expected a log line of " + lineSize + " bytes");
+         }
+         int start = line.position();
+         if (line.hasArray())
+         {
+            currentBatch.lines.put(line.array(), line.arrayOffset() + start, lineSize);
+         }
+         else
+         {
+            for (int i = 0; i < lineSize; i++)
+            {
+               currentBatch.lines.put(line.get(start + i));
+            }
+         }
+      }
+
+      if (currentBatch.isEmpty())
+      {
+         currentBatchStartTime = System.nanoTime();
+      }
+
+      currentBatch.index.putLong(timestamp);
+      currentBatch.index.putLong(dataPosition);
+      dataPosition += currentBatch.data.position() - reservedPosition;
+      reservedPosition = -1;
+      numberOfWrittenTicks++;
+
+      if (System.nanoTime() - currentBatchStartTime > maximumBatchAge)
+      {
+         submitCurrentBatch();
+      }
+   }
+
+   private void submitCurrentBatch()
+   {
+      if (currentBatch != null && !currentBatch.isEmpty())
+      {
+         currentBatch.clearGeneration = clearGeneration;
+         fullBatches.add(currentBatch);
+         currentBatch = freeBatches.poll();
+      }
+   }
+
+   /**
+    * Drop all data and start with an empty log. Batches that are handed to the writer thread but not written yet are
+    * dropped, the files and LogLineWriters are cleared on the writer thread.
+    *
+    * @throws InterruptedException
+    */
+   public void clear() throws InterruptedException
+   {
+      if (currentBatch != null)
+      {
+         currentBatch.clear();
+      }
+      reservedPosition = -1;
+      dataPosition = 0;
+      clearGeneration++;
+      if (clearQueued.compareAndSet(false, true))
+      {
+         fullBatches.put(CLEAR);
+      }
+   }
+
+   /**
+    * Write all pending batches, force the files to disk and close them
+    *
+    * @throws IOException if the writer thread failed to write to disk
+    */
+   public void close() throws IOException
+   {
+      submitCurrentBatch();
+      try
+      {
+         fullBatches.put(STOP);
+         writerThread.join();
+      }
+      catch (InterruptedException e)
+      {
+         throw new IOException("Interrupted while closing log", e);
+      }
+
+      if (writerException != null)
+      {
+         throw writerException;
+      }
+   }
+
+   /**
+    * @return number of ticks that were dropped because the disk could not keep up
+    */
+   public long getNumberOfDroppedTicks()
+   {
+      return numberOfDroppedTicks;
+   }
+
+   public long getNumberOfWrittenTicks()
+   {
+      return numberOfWrittenTicks;
+   }
+
+   public long getNumberOfWrittenBatches()
+   {
+      return numberOfWrittenBatches;
+   }
+
+   public long getNumberOfForces()
+   {
+      return numberOfForces;
+   }
+
+   private void run()
+   {
+      long lastForce = System.nanoTime();
+      boolean unforcedData = false;
+      try
+      {
+         while (true)
+         {
+            long timeToForce = unforcedData ? Math.max(0, lastForce + forceInterval - System.nanoTime()) : Long.MAX_VALUE;
+            Batch batch = fullBatches.poll(timeToForce, TimeUnit.NANOSECONDS);
+
+            if (batch == STOP)
+            {
+               break;
+            }
+            else if (batch == CLEAR)
+            {
+               clearQueued.set(false);
+            }
+
+            // Read after taking the batch, so a batch is never newer than the clear that is applied
+            long currentClearGeneration = clearGeneration;
+            if (currentClearGeneration != writtenClearGeneration)
+            {
+               clearFiles();
+               writtenClearGeneration = currentClearGeneration;
+            }
+
+            if (batch != null && batch != CLEAR)
+            {
+               if (writerException == null && batch.clearGeneration == writtenClearGeneration)
+               {
+                  batch.write(dataChannel, indexChannel);
+                  writeLines(batch);
+                  numberOfWrittenBatches++;
+                  unforcedData = true;
+               }
+               batch.clear();
+               freeBatches.add(batch);
+            }
+
+            if (unforcedData && System.nanoTime() - lastForce >= forceInterval)
+            {
+               force();
+               lastForce = System.nanoTime();
+               unforcedData = false;
+            }
+         }
+
+         force();
+      }
+      catch (IOException e)
+      {
+         writerException = e;
+         // Keep the pool going so the receiving thread drops ticks instead of blocking
+         drainAfterFailure();
+      }
+      catch (InterruptedException e)
+      {
+         writerException = new IOException("Log writer thread interrupted", e);
+      }
+      finally
+      {
+         try
+         {
+            dataChannel.close();
+            indexChannel.close();
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+         }
+
+         for (LogLineWriter lineWriter : lineWriters)
+         {
+            try
+            {
+               lineWriter.close();
+            }
+            catch (IOException e)
+            {
+               e.printStackTrace();
+            }
+         }
+      }
+   }
+
+   private void clearFiles() throws IOException
+   {
+      dataChannel.truncate(0);
+      indexChannel.truncate(0);
+      dataChannel.position(0);
+      indexChannel.position(0);
+      for (LogLineWriter lineWriter : lineWriters)
+      {
+         lineWriter.clear();
+      }
+   }
+
+   private void writeLines(Batch batch) throws IOException
+   {
+      if (lineSize == 0)
+      {
+         return;
+      }
+
+      int numberOfLines = batch.lines.position() / lineSize;
+      for (int line = 0; line < numberOfLines; line++)
+      {
+         System.arraycopy(batch.lines.array(), line * lineSize, lineBuffer.array(), 0, lineSize);
+         for (LogLineWriter lineWriter : lineWriters)
+         {
+            lineWriter.write(lineBuffer);
+         }
+      }
+   }
+
+   private void force() throws IOException
+   {
+      dataChannel.force(false);
+      indexChannel.force(false);
+      for (LogLineWriter lineWriter : lineWriters)
+      {
+         lineWriter.force();
+      }
+      numberOfForces++;
+   }
+
+   private void drainAfterFailure()
+   {
+      System.err.println("Cannot write log data: " + writerException.getMessage());
+      try
+      {
+         while (true)
+         {
+            Batch batch = fullBatches.take();
+            if (batch == STOP)
+            {
+               return;
+            }
+            else if (batch == CLEAR)
+            {
+               clearQueued.set(false);
+            }
+            else
+            {
+               batch.clear();
+               freeBatches.add(batch);
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         // Closing
+      }
+   }
+
+   private static class Batch
+   {
+      private final ByteBuffer data;
+      private final ByteBuffer index;
+      private final int lineSize;
+      private final int maximumLines;
+      private ByteBuffer lines;
+      private long clearGeneration;
+
+      private Batch(int dataSize, int maximumTicks, int lineSize, int initialLines, int maximumLines)
+      {
+         data = ByteBuffer.allocateDirect(dataSize);
+         index = ByteBuffer.allocateDirect(maximumTicks * INDEX_ENTRY_SIZE);
+         this.lineSize = lineSize;
+         this.maximumLines = maximumLines;
+         lines = ByteBuffer.allocate(initialLines * lineSize);
+      }
+
+      /**
+       * Makes room for one more line, doubling the lines up to maximumLines
+       *
+       * @return false if the lines are full and cannot grow
+       */
+      private boolean ensureLineSpace()
+      {
+         if (lines.remaining() >= lineSize)
+         {
+            return true;
+         }
+
+         int numberOfLines = lines.capacity() / lineSize;
+         if (numberOfLines >= maximumLines)
+         {
+            return false;
+         }
+
+         ByteBuffer grownLines = ByteBuffer.allocate((int) Math.min((long) maximumLines, 2L * numberOfLines) * lineSize);
+         lines.flip();
+         grownLines.put(lines);
+         lines = grownLines;
+         return true;
+      }
+
+      private boolean isEmpty()
+      {
+         return index.position() == 0;
+      }
+
+      private void write(FileChannel dataChannel, FileChannel indexChannel) throws IOException
+      {
+         data.flip();
+         while (data.hasRemaining())
+         {
+            dataChannel.write(data);
+         }
+         index.flip();
+         while (index.hasRemaining())
+         {
+            indexChannel.write(index);
+         }
+      }
+
+      private void clear()
+      {
+         data.clear();
+         index.clear();
+         lines.clear();
+      }
+   }
+}
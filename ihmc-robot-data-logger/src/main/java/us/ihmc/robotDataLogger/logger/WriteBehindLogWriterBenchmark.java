@@ -0,0 +1,323 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.robotDataLogger.LogCodec;
+
+/**
+ * Compare writing a log directly on the receiving thread with the WriteBehindLogWriter on a simulated slow disk.
+ *
+ * The disk stalls periodically, like a spinning disk or a busy SSD flushing its cache. The benchmark reports the time the
+ * receiving thread spends per tick. Every tick that takes longer than the tick period back-pressures the network
+ * consumer and causes lost packets in the logger.
+ *
+ * Usage: WriteBehindLogWriterBenchmark [number of variables] [duration in seconds] [stall duration in ms] [stall interval in ms]
+ */
+public class WriteBehindLogWriterBenchmark
+{
+   private static final long TICK_PERIOD = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private final int numberOfVariables;
+   private final int numberOfTicks;
+   private final long stallDuration;
+   private final long stallInterval;
+
+   public WriteBehindLogWriterBenchmark(int numberOfVariables, double duration, long stallDuration, long stallInterval)
+   {
+      this.numberOfVariables = numberOfVariables;
+      this.numberOfTicks = (int) (duration / Conversions.nanosecondsToSeconds(TICK_PERIOD));
+      this.stallDuration = stallDuration;
+      this.stallInterval = stallInterval;
+   }
+
+   public void run() throws IOException, InterruptedException
+   {
+      System.out.println("Logging " + numberOfTicks + " ticks of " + numberOfVariables + " variables, disk stalls for "
+            + Conversions.nanosecondsToMilliseconds(stallDuration) + "ms every " + Conversions.nanosecondsToMilliseconds(stallInterval) + "ms");
+
+      runDirect();
+      runWriteBehind();
+   }
+
+   private void runDirect() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("benchmark", ".bsz");
+      File index = File.createTempFile("benchmark", ".dat");
+      try (SlowFileChannel dataChannel = new SlowFileChannel(data); SlowFileChannel indexChannel = new SlowFileChannel(index))
+      {
+         LogDataEncoder encoder = new LogDataEncoder(LogCodec.SNAPPY, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL, (numberOfVariables + 1) * 8);
+         ByteBuffer compressedBuffer = ByteBuffer.allocate(encoder.maxCompressedLength());
+         ByteBuffer indexBuffer = ByteBuffer.allocate(16);
+         ByteBuffer line = ByteBuffer.allocate((numberOfVariables + 1) * 8);
+         Random random = new Random(4729L);
+
+         long[] tickTimes = new long[numberOfTicks];
+         long nextTick = System.nanoTime();
+         for (int tick = 0; tick < numberOfTicks; tick++)
+         {
+            createLine(line, tick, random);
+            nextTick = waitForTick(nextTick);
+
+            long start = System.nanoTime();
+            compressedBuffer.clear();
+            encoder.encode(line, compressedBuffer);
+            compressedBuffer.flip();
+            indexBuffer.clear();
+            indexBuffer.putLong(tick);
+            indexBuffer.putLong(dataChannel.position());
+            indexBuffer.flip();
+            indexChannel.write(indexBuffer);
+            dataChannel.write(compressedBuffer);
+            tickTimes[tick] = System.nanoTime() - start;
+         }
+
+         printResult("Direct", tickTimes, 0);
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+
+   private void runWriteBehind() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("benchmark", ".bsz");
+      File index = File.createTempFile("benchmark", ".dat");
+      try
+      {
+         LogDataEncoder encoder = new LogDataEncoder(LogCodec.SNAPPY, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL, (numberOfVariables + 1) * 8);
+         WriteBehindLogWriter writer = new WriteBehindLogWriter(new SlowFileChannel(data), new SlowFileChannel(index), encoder.maxCompressedLength(), false);
+         ByteBuffer line = ByteBuffer.allocate((numberOfVariables + 1) * 8);
+         Random random = new Random(4729L);
+
+         long[] tickTimes = new long[numberOfTicks];
+         long nextTick = System.nanoTime();
+         for (int tick = 0; tick < numberOfTicks; tick++)
+         {
+            createLine(line, tick, random);
+            nextTick = waitForTick(nextTick);
+
+            long start = System.nanoTime();
+            ByteBuffer target = writer.reserve(encoder.maxCompressedLength());
+            if (target != null)
+            {
+               encoder.encode(line, target);
+               writer.commit(tick);
+            }
+            tickTimes[tick] = System.nanoTime() - start;
+         }
+         writer.close();
+
+         printResult("Write behind", tickTimes, writer.getNumberOfDroppedTicks());
+         System.out.println("   " + writer.getNumberOfWrittenBatches() + " batches, " + writer.getNumberOfForces() + " forces");
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+
+   private void createLine(ByteBuffer line, int tick, Random random)
+   {
+      line.clear();
+      line.putLong(tick);
+      for (int i = 0; i < numberOfVariables; i++)
+      {
+         // Mix of constant and changing variables, like a real controller
+         line.putLong(i % 4 == 0 ? Double.doubleToLongBits(random.nextDouble()) : i);
+      }
+      line.flip();
+   }
+
+   private static long waitForTick(long nextTick)
+   {
+      while (System.nanoTime() < nextTick)
+      {
+         Thread.yield();
+      }
+      return nextTick + TICK_PERIOD;
+   }
+
+   private static void printResult(String name, long[] tickTimes, long droppedTicks)
+   {
+      long late = 0;
+      for (long tickTime : tickTimes)
+      {
+         if (tickTime > TICK_PERIOD)
+         {
+            late++;
+         }
+      }
+
+      long[] sorted = Arrays.copyOf(tickTimes, tickTimes.length);
+      Arrays.sort(sorted);
+      System.out.println(name + ": median " + sorted[sorted.length / 2] / 1000 + "us, 99.9% " + sorted[(int) (sorted.length * 0.999)] / 1000
+            + "us, max " + sorted[sorted.length - 1] / 1000 + "us, " + late + " ticks over the tick period, " + droppedTicks + " dropped ticks");
+   }
+
+   /**
+    * File channel that blocks writes and forces for stallDuration every stallInterval
+    */
+   private class SlowFileChannel extends FileChannel
+   {
+      private final RandomAccessFile file;
+      private final FileChannel channel;
+      private long nextStall = System.nanoTime() + stallInterval;
+
+      private SlowFileChannel(File file) throws IOException
+      {
+         this.file = new RandomAccessFile(file, "rw");
+         this.channel = this.file.getChannel();
+      }
+
+      private void stall() throws IOException
+      {
+         long now = System.nanoTime();
+         if (now >= nextStall)
+         {
+            try
+            {
+               TimeUnit.NANOSECONDS.sleep(stallDuration);
+            }
+            catch (InterruptedException e)
+            {
+               throw new IOException(e);
+            }
+            nextStall = System.nanoTime() + stallInterval;
+         }
+      }
+
+      @Override
+      public int read(ByteBuffer dst) throws IOException
+      {
+         return channel.read(dst);
+      }
+
+      @Override
+      public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+      {
+         return channel.read(dsts, offset, length);
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException
+      {
+         stall();
+         return channel.write(src);
+      }
+
+      @Override
+      public long write(ByteBuffer[] srcs, int offset, int length) throws IOException
+      {
+         stall();
+         return channel.write(srcs, offset, length);
+      }
+
+      @Override
+      public long position() throws IOException
+      {
+         return channel.position();
+      }
+
+      @Override
+      public FileChannel position(long newPosition) throws IOException
+      {
+         channel.position(newPosition);
+         return this;
+      }
+
+      @Override
+      public long size() throws IOException
+      {
+         return channel.size();
+      }
+
+      @Override
+      public FileChannel truncate(long size) throws IOException
+      {
+         channel.truncate(size);
+         return this;
+      }
+
+      @Override
+      public void force(boolean metaData) throws IOException
+      {
+         stall();
+         channel.force(metaData);
+      }
+
+      @Override
+      public long transferTo(long position, long count, WritableByteChannel target) throws IOException
+      {
+         return channel.transferTo(position, count, target);
+      }
+
+      @Override
+      public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException
+      {
+         stall();
+         return channel.transferFrom(src, position, count);
+      }
+
+      @Override
+      public int read(ByteBuffer dst, long position) throws IOException
+      {
+         return channel.read(dst, position);
+      }
+
+      @Override
+      public int write(ByteBuffer src, long position) throws IOException
+      {
+         stall();
+         return channel.write(src, position);
+      }
+
+      @Override
+      public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException
+      {
+         return channel.map(mode, position, size);
+      }
+
+      @Override
+      public FileLock lock(long position, long size, boolean shared) throws IOException
+      {
+         return channel.lock(position, size, shared);
+      }
+
+      @Override
+      public FileLock tryLock(long position, long size, boolean shared) throws IOException
+      {
+         return channel.tryLock(position, size, shared);
+      }
+
+      @Override
+      protected void implCloseChannel() throws IOException
+      {
+         channel.close();
+         file.close();
+      }
+   }
+
+   public static void main(String[] args) throws IOException, InterruptedException
+   {
+      int numberOfVariables = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+      double duration = args.length > 1 ? Double.parseDouble(args[1]) : 10.0;
+      long stallDuration = TimeUnit.MILLISECONDS.toNanos(args.length > 2 ? Long.parseLong(args[2]) : 200);
+      long stallInterval = TimeUnit.MILLISECONDS.toNanos(args.length > 3 ? Long.parseLong(args[3]) : 2000);
+      new WriteBehindLogWriterBenchmark(numberOfVariables, duration, stallDuration, stallInterval).run();
+   }
+}
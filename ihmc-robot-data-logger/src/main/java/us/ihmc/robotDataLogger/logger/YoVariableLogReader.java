@@ -6,13 +6,13 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 import com.google.common.io.Files;
 
-import us.ihmc.robotDataLogger.LogIndex;
+import us.ihmc.robotDataLogger.MappedLogIndex;
 import us.ihmc.robotDataLogger.LogProperties;
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
-import us.ihmc.tools.compression.SnappyUtils;
 
 public class YoVariableLogReader
 {
@@ -28,9 +28,10 @@ public class YoVariableLogReader
    
    protected final File handshake;
    private FileChannel logChannel;
-   private LogIndex logIndex;
+   private MappedLogIndex logIndex;
    private ByteBuffer compressedData;
    private ByteBuffer uncompressedData;
+   private LogDataDecoder logDataDecoder;
    private FileInputStream logInputStream;
    
    protected final File properties;
@@ -109,9 +110,10 @@ public class YoVariableLogReader
             logInputStream = new FileInputStream(logdata);
             logChannel = logInputStream.getChannel();
 
-            logIndex = new LogIndex(index, logChannel.size());
+            logIndex = new MappedLogIndex(index, logChannel.size());
             int bufferSize = logLineLength * 8;
-            compressedData = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+            logDataDecoder = LogDataDecoder.create(logProperties, bufferSize);
+            compressedData = ByteBuffer.allocate(logDataDecoder.maxCompressedLength());
             uncompressedData = ByteBuffer.allocate(bufferSize);
             
             numberOfEntries = logIndex.getNumberOfEntries();
@@ -155,17 +157,25 @@ public class YoVariableLogReader
    
    protected long getDataOffset(int position)
    {
-      return logIndex.dataOffsets[position];
+      return logIndex.getDataOffset(position);
    }
    
    protected int getCompressedSize(int position)
    {
-      return logIndex.compressedSizes[position];
+      return logIndex.getCompressedSize(position);
    }
    
    protected long getTimestamp(int position)
    {
-      return logIndex.timestamps[position];
+      return logIndex.getTimestamp(position);
+   }
+   
+   /**
+    * @return the last line at or before position that can be decoded without decoding the lines before it
+    */
+   protected int getKeyframe(int position)
+   {
+      return logDataDecoder.getKeyframe(position);
    }
    
    protected ByteBuffer readCompressedData(int position) throws IOException
@@ -182,11 +192,42 @@ public class YoVariableLogReader
       
    }
    
+   /**
+    * Copy the compressed data of entries first to last (inclusive) to target without decompressing it.
+    * 
+    * @return number of bytes copied
+    */
+   protected long transferCompressedData(int first, int last, WritableByteChannel target) throws IOException
+   {
+      long startOffset = getDataOffset(first);
+      long length = getDataOffset(last) + getCompressedSize(last) - startOffset;
+      
+      long transferred = 0;
+      while (transferred < length)
+      {
+         transferred += logChannel.transferTo(startOffset + transferred, length - transferred, target);
+      }
+      return length;
+   }
+   
+   /**
+    * Create a decoder that decompresses ranges of this log on the common fork-join pool.
+    * 
+    * Call initialize() first.
+    */
+   protected ParallelLogDecoder createParallelDecoder()
+   {
+      return new ParallelLogDecoder(logChannel, logIndex, logProperties, logLineLength * 8);
+   }
+   
+   /**
+    * Decode the log line at position. Reading lines in order is fastest, delta encoded logs decode every line since the
+    * previous keyframe on random access.
+    */
    protected ByteBuffer readData(int position) throws IOException
    {
-      ByteBuffer compressedData = readCompressedData(position);
       uncompressedData.clear();
-      SnappyUtils.uncompress(compressedData, uncompressedData);
+      logDataDecoder.decode(position, this::readCompressedData, uncompressedData);
       uncompressedData.flip();
       return uncompressedData;
    }
@@ -1,7 +1,6 @@
 package us.ihmc.robotDataLogger.logger;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -25,13 +24,10 @@ import us.ihmc.robotDataLogger.handshake.LogHandshake;
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.rtps.LogParticipantSettings;
-import us.ihmc.tools.compression.SnappyUtils;
 import us.ihmc.yoVariables.variable.YoVariable;
 
 public class YoVariableLoggerListener implements YoVariablesUpdatedListener
 {
-   private static final int FLUSH_EVERY_N_PACKETS = 250;
-   
    public static final String propertyFile = "robotData.log";
    private static final String handshakeFilename = "handshake.yaml";
    private static final String dataFilename = "robotData.bsz";
@@ -39,6 +35,9 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    private static final String modelResourceBundle = "resources.zip";
    private static final String indexFilename = "robotData.dat";
    private static final String summaryFilename = "summary.csv";
+   public static final String columnDataFilename = "robotData.bcl";
+   public static final String columnIndexFilename = "robotData.cdx";
+   public static final String pyramidDirectoryName = "pyramid";
 
    private final Object synchronizer = new Object();
    private final Object timestampUpdater = new Object();
@@ -50,9 +49,10 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    private final YoVariableLoggerOptions options;
    private FileChannel dataChannel;
    private FileChannel indexChannel;
+   private WriteBehindLogWriter logWriter;
+   private LogDataEncoder logDataEncoder;
 
-   private final ByteBuffer indexBuffer = ByteBuffer.allocate(16);
-   private ByteBuffer compressedBuffer;
+   private int maximumCompressedLength;
 
    private volatile boolean connected = false;
 
@@ -63,8 +63,6 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
 
    private boolean clearingLog = false;
    
-   private long currentIndex = 0;
-
    private long lastReceivedTimestamp = Long.MIN_VALUE;
    
    private YoVariableSummarizer yoVariableSummarizer = null;
@@ -89,6 +87,17 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       logProperties.getVariables().setTimestamped(true);
       logProperties.getVariables().setIndex(indexFilename);
       logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.getVariables().setCodec(options.getLogCodec());
+      logProperties.getVariables().setKeyframeInterval(options.getKeyframeInterval());
+      if (options.getColumnarTicksPerChunk() > 0)
+      {
+         logProperties.getVariables().setColumnData(columnDataFilename);
+         logProperties.getVariables().setColumnIndex(columnIndexFilename);
+      }
+      if (options.getWritePyramid())
+      {
+         logProperties.getVariables().setPyramid(pyramidDirectoryName);
+      }
 
       logProperties.setName(request.getNameAsString());
       logProperties.setTimestamp(timestamp);
@@ -182,34 +191,22 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
             {
                if(yoVariableSummarizer != null)
                {
+                  // Summarize before the tick can be dropped, so the summary covers every received tick
                   yoVariableSummarizer.setBuffer(buffer);
+                  yoVariableSummarizer.update();
                }
-               buffer.clear();
-               compressedBuffer.clear();
-               SnappyUtils.compress(buffer, compressedBuffer);
-               compressedBuffer.flip();
-
-               indexBuffer.clear();
-               indexBuffer.putLong(timestamp);
-               indexBuffer.putLong(dataChannel.position());
-               indexBuffer.flip();
-
-               indexChannel.write(indexBuffer);
-               dataChannel.write(compressedBuffer);
-               
-               if(flushAggressivelyToDisk)
+               // The disk is behind, drop the tick before encoding so the delta encoding stays consistent
+               ByteBuffer compressedBuffer = logWriter.reserve(maximumCompressedLength);
+               if (compressedBuffer == null)
                {
-                  if(++currentIndex % FLUSH_EVERY_N_PACKETS == 0)
-                  {
-                     indexChannel.force(false);
-                     dataChannel.force(false);
-                  }                  
+                  return;
                }
                
-               if(yoVariableSummarizer != null)
-               {
-                  yoVariableSummarizer.update();
-               }
+               buffer.clear();
+               logDataEncoder.encode(buffer, compressedBuffer);
+               // The columnar data and pyramid are written on the writer thread from a copy of the uncompressed line
+               buffer.clear();
+               logWriter.commit(timestamp, buffer);
             }
             catch (IOException e)
             {
@@ -245,8 +242,11 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    {
       try
       {
-         dataChannel.close();
-         indexChannel.close();
+         logWriter.close();
+         if(logWriter.getNumberOfDroppedTicks() > 0)
+         {
+            System.err.println("Dropped " + logWriter.getNumberOfDroppedTicks() + " of " + (logWriter.getNumberOfWrittenTicks() + logWriter.getNumberOfDroppedTicks()) + " ticks because the disk could not keep up");
+         }
       }
       catch (IOException e)
       {
@@ -308,6 +308,31 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
             indexFile.delete();
          }
 
+         File columnDataFile = new File(tempDirectory, columnDataFilename);
+         if (columnDataFile.exists())
+         {
+            System.out.println("Deleting columnar data file");
+            columnDataFile.delete();
+         }
+
+         File columnIndexFile = new File(tempDirectory, columnIndexFilename);
+         if (columnIndexFile.exists())
+         {
+            System.out.println("Deleting columnar index file");
+            columnIndexFile.delete();
+         }
+
+         File pyramidDirectory = new File(tempDirectory, pyramidDirectoryName);
+         if (pyramidDirectory.exists())
+         {
+            System.out.println("Deleting pyramid");
+            for (File pyramidFile : pyramidDirectory.listFiles())
+            {
+               pyramidFile.delete();
+            }
+            pyramidDirectory.delete();
+         }
+
          if (tempDirectory.exists())
          {
             System.out.println("Deleting log directory");
@@ -353,7 +378,8 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       
 
       int bufferSize = handshakeParser.getBufferSize();
-      this.compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+      this.logDataEncoder = new LogDataEncoder(options.getLogCodec(), options.getKeyframeInterval(), bufferSize);
+      this.maximumCompressedLength = logDataEncoder.maxCompressedLength();
       
       // Initialize disk format variables
       this.dataBuffer = ByteBuffer.allocate(bufferSize);
@@ -372,8 +398,24 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
             dataChannel = new FileOutputStream(dataFile, false).getChannel();
             indexChannel = new FileOutputStream(indexFile, false).getChannel();
             
+            ArrayList<LogLineWriter> lineWriters = new ArrayList<>();
+            if(options.getColumnarTicksPerChunk() > 0)
+            {
+               File columnDataFile = new File(tempDirectory, columnDataFilename);
+               File columnIndexFile = new File(tempDirectory, columnIndexFilename);
+               lineWriters.add(new ColumnarLogWriter(columnDataFile, columnIndexFile, bufferSize / 8, options.getColumnarTicksPerChunk()));
+            }
+            if(options.getWritePyramid())
+            {
+               boolean[] doubleColumns = LogPyramidWriter.getDoubleColumns(variables, handshakeParser.getNumberOfJointStateVariables());
+               lineWriters.add(new LogPyramidWriter(new File(tempDirectory, pyramidDirectoryName), doubleColumns, LogPyramidWriter.DEFAULT_FIRST_LEVEL,
+                                                    LogPyramidWriter.DEFAULT_NUMBER_OF_LEVELS));
+            }
+            
+            logWriter = new WriteBehindLogWriter(dataChannel, indexChannel, maximumCompressedLength, flushAggressivelyToDisk, bufferSize,
+                                                 lineWriters.toArray(new LogLineWriter[lineWriters.size()]));
          }
-         catch (FileNotFoundException e)
+         catch (IOException e)
          {
             throw new RuntimeException(e);
          }
@@ -443,15 +485,15 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       try
       {
          System.out.println("Clearing log.");
-         dataChannel.truncate(0);
-         indexChannel.truncate(0);
+         logWriter.clear();
+         logDataEncoder.restart();
          for (VideoDataLoggerInterface videoDataLogger : videoDataLoggers)
          {
             videoDataLogger.restart();
          }
          
       }
-      catch (IOException e)
+      catch (IOException | InterruptedException e)
       {
          e.printStackTrace();
       }
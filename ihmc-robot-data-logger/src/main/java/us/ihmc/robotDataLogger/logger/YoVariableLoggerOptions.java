@@ -9,6 +9,7 @@ import com.martiansoftware.jsap.SimpleJSAP;
 import com.martiansoftware.jsap.Switch;
 
 import us.ihmc.javadecklink.Capture.CodecID;
+import us.ihmc.robotDataLogger.LogCodec;
 
 public class YoVariableLoggerOptions
 {
@@ -27,6 +28,12 @@ public class YoVariableLoggerOptions
    private boolean disableVideo = false;
    
    private boolean flushAggressivelyToDisk = false;
+   
+   private int columnarTicksPerChunk = 0;
+   private boolean writePyramid = false;
+   
+   private LogCodec logCodec = LogCodec.SNAPPY;
+   private int keyframeInterval = LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL;
 
    public static YoVariableLoggerOptions parse(String[] args) throws JSAPException
    {
@@ -38,7 +45,11 @@ public class YoVariableLoggerOptions
                   "quality", "Video quality for MJPEG"),
             new FlaggedOption("videoCodec", JSAP.STRING_PARSER, String.valueOf(defaultCodec), JSAP.NOT_REQUIRED, 'c', "codec", "Desired video codec. AV_CODEC_ID_H264 or AV_CODEC_ID_MJPEG"),
             new FlaggedOption("crf", JSAP.INTEGER_PARSER, String.valueOf(defaultCRF), JSAP.NOT_REQUIRED, 'r', "crf", "CRF (Constant rate factor) for H264. 0-51, 0 is lossless. Sane values are 18 to 28."),
-            new Switch("flushAggressivelyToDisk", 's', "sync", "Aggressively flush data to disk. Reduces change of data loss but doesn't work on slow platters.") });
+            new Switch("flushAggressivelyToDisk", 's', "sync", "Aggressively flush data to disk. Reduces change of data loss but doesn't work on slow platters."),
+            new FlaggedOption("columnarTicksPerChunk", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, JSAP.NO_SHORTFLAG, "columnar", "Also write a columnar copy of the data with the given number of ticks per chunk. 0 disables the columnar log. " + ColumnarLogWriter.DEFAULT_TICKS_PER_CHUNK + " is a sane value."),
+            new Switch("writePyramid", JSAP.NO_SHORTFLAG, "pyramid", "Also write a min/max/mean/last summary pyramid of the data for fast plotting of long logs."),
+            new FlaggedOption("logCodec", JSAP.STRING_PARSER, String.valueOf(LogCodec.SNAPPY), JSAP.NOT_REQUIRED, JSAP.NO_SHORTFLAG, "logCodec", "Codec for the variable data. SNAPPY, DELTA_SNAPPY or DELTA_LZ4_HIGH. The delta codecs XOR each tick with the previous tick before compression."),
+            new FlaggedOption("keyframeInterval", JSAP.INTEGER_PARSER, String.valueOf(LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL), JSAP.NOT_REQUIRED, JSAP.NO_SHORTFLAG, "keyframeInterval", "Number of ticks between ticks that are not delta encoded. Higher values compress better, lower values make seeking faster.") });
       JSAPResult config = jsap.parse(args);
       if (jsap.messagePrinted())
       {
@@ -55,6 +66,10 @@ public class YoVariableLoggerOptions
       options.setCrf(config.getInt("crf"));
       
       options.setFlushAggressivelyToDisk(config.getBoolean("flushAggressivelyToDisk"));
+      options.setColumnarTicksPerChunk(config.getInt("columnarTicksPerChunk"));
+      options.setWritePyramid(config.getBoolean("writePyramid"));
+      options.setLogCodec(LogCodec.valueOf(config.getString("logCodec")));
+      options.setKeyframeInterval(config.getInt("keyframeInterval"));
 
       return options;
    }
@@ -118,6 +133,55 @@ public class YoVariableLoggerOptions
    {
       this.crf = crf;
    }
+
+   /**
+    * @return number of ticks per chunk of the columnar log, or 0 if no columnar log is written
+    */
+   public int getColumnarTicksPerChunk()
+   {
+      return columnarTicksPerChunk;
+   }
+
+   public void setColumnarTicksPerChunk(int columnarTicksPerChunk)
+   {
+      this.columnarTicksPerChunk = columnarTicksPerChunk;
+   }
+
+   /**
+    * @return true if a summary pyramid is written next to the log
+    */
+   public boolean getWritePyramid()
+   {
+      return writePyramid;
+   }
+
+   public void setWritePyramid(boolean writePyramid)
+   {
+      this.writePyramid = writePyramid;
+   }
+
+   public LogCodec getLogCodec()
+   {
+      return logCodec;
+   }
+
+   public void setLogCodec(LogCodec logCodec)
+   {
+      this.logCodec = logCodec;
+   }
+
+   /**
+    * @return number of ticks between keyframes for the delta codecs
+    */
+   public int getKeyframeInterval()
+   {
+      return keyframeInterval;
+   }
+
+   public void setKeyframeInterval(int keyframeInterval)
+   {
+      this.keyframeInterval = keyframeInterval;
+   }
    
    
    
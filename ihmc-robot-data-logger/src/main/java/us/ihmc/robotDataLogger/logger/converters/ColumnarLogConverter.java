@@ -0,0 +1,77 @@
+package us.ihmc.robotDataLogger.logger.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import us.ihmc.idl.serializers.extra.PropertiesSerializer;
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.LogPropertiesPubSubType;
+import us.ihmc.robotDataLogger.logger.ColumnarLogWriter;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+
+/**
+ * Adds columnar data to an existing compressed log, so variables can be read without decompressing full log lines.
+ */
+public class ColumnarLogConverter extends YoVariableLogReader
+{
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 1)
+      {
+         System.err.println("Usage: ColumnarLogConverter [log directory] [ticks per chunk]");
+         return;
+      }
+
+      File directory = new File(args[0]);
+      int ticksPerChunk = args.length > 1 ? Integer.parseInt(args[1]) : ColumnarLogWriter.DEFAULT_TICKS_PER_CHUNK;
+      LogProperties properties = new LogPropertiesReader(new File(directory, YoVariableLoggerListener.propertyFile));
+      new ColumnarLogConverter(directory, properties).convert(ticksPerChunk);
+   }
+
+   public ColumnarLogConverter(File logDirectory, LogProperties logProperties)
+   {
+      super(logDirectory, logProperties);
+   }
+
+   public void convert(int ticksPerChunk) throws IOException
+   {
+      if (!logProperties.getVariables().getCompressed())
+      {
+         throw new RuntimeException("Log is not compressed. Use LogCompressor to compress " + logDirectory);
+      }
+
+      if (!logProperties.getVariables().getColumnDataAsString().isEmpty())
+      {
+         System.err.println("Log already contains columnar data: " + logDirectory);
+         return;
+      }
+
+      if (!initialize())
+      {
+         return;
+      }
+
+      System.out.println("Writing columnar data for " + logDirectory);
+
+      ColumnarLogWriter writer = new ColumnarLogWriter(new File(logDirectory, YoVariableLoggerListener.columnDataFilename), new File(logDirectory, YoVariableLoggerListener.columnIndexFilename),
+                                                       getNumberOfVariables(), ticksPerChunk);
+      int numberOfEntries = getNumberOfEntries();
+      for (int i = 0; i < numberOfEntries; i++)
+      {
+         ByteBuffer data = readData(i);
+         writer.write(data);
+      }
+      writer.close();
+      close();
+
+      logProperties.getVariables().setColumnData(YoVariableLoggerListener.columnDataFilename);
+      logProperties.getVariables().setColumnIndex(YoVariableLoggerListener.columnIndexFilename);
+      PropertiesSerializer<LogProperties> serializer = new PropertiesSerializer<>(new LogPropertiesPubSubType());
+      serializer.serialize(properties, logProperties);
+
+      System.out.println("Wrote columnar data for " + logDirectory);
+   }
+}
@@ -18,16 +18,23 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 
 import us.ihmc.idl.serializers.extra.PropertiesSerializer;
+import us.ihmc.robotDataLogger.LogCodec;
 import us.ihmc.robotDataLogger.LogProperties;
 import us.ihmc.robotDataLogger.LogPropertiesPubSubType;
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogDataEncoder;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
-import us.ihmc.tools.compression.SnappyUtils;
 
 public class LogCompressor extends SimpleFileVisitor<Path>
 {
    private final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:robotData.log");
+   private final LogCodec codec;
+
+   public LogCompressor(LogCodec codec)
+   {
+      this.codec = codec;
+   }
 
    public static void main(String[] args) throws IOException
    {
@@ -49,7 +56,8 @@ public class LogCompressor extends SimpleFileVisitor<Path>
       {
          throw new RuntimeException(root + " is not a directory");
       }
-      Files.walkFileTree(root, new LogCompressor());
+      LogCodec codec = args.length > 1 ? LogCodec.valueOf(args[1]) : LogCodec.SNAPPY;
+      Files.walkFileTree(root, new LogCompressor(codec));
    }
 
    @Override
@@ -62,7 +70,7 @@ public class LogCompressor extends SimpleFileVisitor<Path>
             File directory = file.getParent().toFile();
             File log = new File(directory, YoVariableLoggerListener.propertyFile);
             LogProperties properties = new LogPropertiesReader(log);
-            compress(directory, properties);
+            compress(directory, properties, codec, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL);
          }
          catch (IOException e)
          {
@@ -80,8 +88,13 @@ public class LogCompressor extends SimpleFileVisitor<Path>
       return FileVisitResult.CONTINUE;
    }
 
-   @SuppressWarnings("resource")
    public static void compress(File directory, LogProperties properties) throws IOException
+   {
+      compress(directory, properties, LogCodec.SNAPPY, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL);
+   }
+
+   @SuppressWarnings("resource")
+   public static void compress(File directory, LogProperties properties, LogCodec codec, int keyframeInterval) throws IOException
    {
       if (!properties.getVariables().getCompressed())
       {
@@ -100,11 +113,14 @@ public class LogCompressor extends SimpleFileVisitor<Path>
          properties.getVariables().setData("robotData.bsz");
          properties.getVariables().setIndex("robotData.dat");
          properties.getVariables().setTimestamped(true);
+         properties.getVariables().setCodec(codec);
+         properties.getVariables().setKeyframeInterval(keyframeInterval);
          File compressedData = new File(directory, properties.getVariables().getDataAsString());
          File indexData = new File(directory, properties.getVariables().getIndexAsString());
 
          ByteBuffer indexBuffer = ByteBuffer.allocate(16);
-         ByteBuffer compressed = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+         LogDataEncoder encoder = new LogDataEncoder(codec, keyframeInterval, bufferSize);
+         ByteBuffer compressed = ByteBuffer.allocate(encoder.maxCompressedLength());
          ByteBuffer uncompressed = ByteBuffer.allocate(bufferSize);
          FileChannel logChannel = new FileInputStream(logdata).getChannel();
 
@@ -131,7 +147,7 @@ public class LogCompressor extends SimpleFileVisitor<Path>
             }
 
             uncompressed.flip();
-            SnappyUtils.compress(uncompressed, compressed);
+            encoder.encode(uncompressed, compressed);
             compressed.flip();
 
             indexBuffer.putLong(uncompressed.getLong(0));
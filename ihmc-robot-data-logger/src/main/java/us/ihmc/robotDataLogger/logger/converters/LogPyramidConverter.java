@@ -0,0 +1,83 @@
+package us.ihmc.robotDataLogger.logger.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import us.ihmc.idl.serializers.extra.PropertiesSerializer;
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.LogPropertiesPubSubType;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.LogPyramidWriter;
+import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+
+/**
+ * Adds a min/max/mean/last summary pyramid to an existing log, so long logs can be plotted zoomed out without reading every tick.
+ */
+public class LogPyramidConverter extends YoVariableLogReader
+{
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 1)
+      {
+         System.err.println("Usage: LogPyramidConverter [log directory] [first level] [number of levels]");
+         return;
+      }
+
+      File directory = new File(args[0]);
+      int firstLevel = args.length > 1 ? Integer.parseInt(args[1]) : LogPyramidWriter.DEFAULT_FIRST_LEVEL;
+      int numberOfLevels = args.length > 2 ? Integer.parseInt(args[2]) : LogPyramidWriter.DEFAULT_NUMBER_OF_LEVELS;
+      LogProperties properties = new LogPropertiesReader(new File(directory, YoVariableLoggerListener.propertyFile));
+      new LogPyramidConverter(directory, properties).convert(firstLevel, numberOfLevels);
+   }
+
+   public LogPyramidConverter(File logDirectory, LogProperties logProperties)
+   {
+      super(logDirectory, logProperties);
+   }
+
+   public void convert(int firstLevel, int numberOfLevels) throws IOException
+   {
+      if (!logProperties.getVariables().getCompressed())
+      {
+         throw new RuntimeException("Log is not compressed. Use LogCompressor to compress " + logDirectory);
+      }
+
+      if (!logProperties.getVariables().getPyramidAsString().isEmpty())
+      {
+         System.err.println("Log already contains a pyramid: " + logDirectory);
+         return;
+      }
+
+      if (!initialize())
+      {
+         return;
+      }
+
+      YoVariableHandshakeParser parser = YoVariableHandshakeParser.create(logProperties.getVariables().getHandshakeFileType());
+      parser.parseFrom(Files.readAllBytes(handshake.toPath()));
+      boolean[] doubleColumns = LogPyramidWriter.getDoubleColumns(parser.getYoVariablesList(), parser.getNumberOfJointStateVariables());
+
+      System.out.println("Writing pyramid for " + logDirectory);
+
+      LogPyramidWriter writer = new LogPyramidWriter(new File(logDirectory, YoVariableLoggerListener.pyramidDirectoryName), doubleColumns, firstLevel,
+                                                     numberOfLevels);
+      int numberOfEntries = getNumberOfEntries();
+      for (int i = 0; i < numberOfEntries; i++)
+      {
+         ByteBuffer data = readData(i);
+         writer.write(data);
+      }
+      writer.close();
+      close();
+
+      logProperties.getVariables().setPyramid(YoVariableLoggerListener.pyramidDirectoryName);
+      PropertiesSerializer<LogProperties> serializer = new PropertiesSerializer<>(new LogPropertiesPubSubType());
+      serializer.serialize(properties, logProperties);
+
+      System.out.println("Wrote pyramid for " + logDirectory);
+   }
+}
@@ -1,6 +1,7 @@
 package us.ihmc.robotDataLogger.rtps;
 
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
 import us.ihmc.yoVariables.variable.YoInteger;
 
 public class RTPSDebugRegistry
@@ -13,6 +14,11 @@ public class RTPSDebugRegistry
    private final YoInteger totalPackets;
    private final YoInteger skippedPacketDueToFullBuffer;
    private final YoInteger firstSegmentsMissing;
+   private final YoInteger reorderDepth;
+   private final YoInteger maximumReorderDepth;
+   private final YoInteger lateDrops;
+   private final YoDouble deliveryLatency;
+   private final YoDouble maximumDeliveryLatency;
 
    private final YoVariableRegistry loggerDebugRegistry = new YoVariableRegistry("loggerStatus");
    
@@ -27,6 +33,11 @@ public class RTPSDebugRegistry
       this.totalPackets = new YoInteger("totalPackets", loggerDebugRegistry);
       this.skippedPacketDueToFullBuffer = new YoInteger("skippedPacketDueToFullBuffer", loggerDebugRegistry);
       this.firstSegmentsMissing = new YoInteger("firstSegmentsMissing", loggerDebugRegistry);
+      this.reorderDepth = new YoInteger("reorderDepth", loggerDebugRegistry);
+      this.maximumReorderDepth = new YoInteger("maximumReorderDepth", loggerDebugRegistry);
+      this.lateDrops = new YoInteger("lateDrops", loggerDebugRegistry);
+      this.deliveryLatency = new YoDouble("deliveryLatencyInMs", loggerDebugRegistry);
+      this.maximumDeliveryLatency = new YoDouble("maximumDeliveryLatencyInMs", loggerDebugRegistry);
    }
 
    public YoInteger getSkippedPackets()
@@ -69,6 +80,42 @@ public class RTPSDebugRegistry
       return firstSegmentsMissing;
    }
    
+   /**
+    * Number of packets waiting in the reorder buffer
+    */
+   public YoInteger getReorderDepth()
+   {
+      return reorderDepth;
+   }
+
+   public YoInteger getMaximumReorderDepth()
+   {
+      return maximumReorderDepth;
+   }
+
+   /**
+    * Packets dropped because a packet with a later timestamp was already delivered
+    */
+   public YoInteger getLateDrops()
+   {
+      return lateDrops;
+   }
+
+   /**
+    * Time between receiving the first packet of a timestamp and delivering the timestamp to the listener.
+    * 
+    * The transmit time is measured on the clock of the producer, so the network latency cannot be included.
+    */
+   public YoDouble getDeliveryLatency()
+   {
+      return deliveryLatency;
+   }
+
+   public YoDouble getMaximumDeliveryLatency()
+   {
+      return maximumDeliveryLatency;
+   }
+
    public YoVariableRegistry getYoVariableRegistry()
    {
       return loggerDebugRegistry;
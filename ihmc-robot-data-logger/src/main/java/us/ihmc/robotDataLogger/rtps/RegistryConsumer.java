@@ -1,12 +1,8 @@
 package us.ihmc.robotDataLogger.rtps;
 
-import java.io.IOException;
-import java.util.concurrent.PriorityBlockingQueue;
-
 import gnu.trove.map.hash.TIntLongHashMap;
 import gnu.trove.map.hash.TObjectLongHashMap;
 import us.ihmc.commons.Conversions;
-import us.ihmc.commons.thread.ThreadTools;
 import us.ihmc.pubsub.common.Guid;
 import us.ihmc.pubsub.common.MatchingInfo;
 import us.ihmc.pubsub.common.SampleInfo;
@@ -21,12 +17,11 @@ import us.ihmc.robotDataLogger.handshake.IDLYoVariableHandshakeParser;
 public class RegistryConsumer extends Thread implements SubscriberListener
 {
    private final static long TIMEOUT = Conversions.secondsToNanoseconds(10);
+   private final static long WAKEUP_TIMEOUT = Conversions.millisecondsToNanoseconds(100);
    
    private final static int MAXIMUM_ELEMENTS = 4096;
    
-  
-//   private final ConcurrentSkipListSet<RegistryReceiveBuffer> orderedBuffers = new ConcurrentSkipListSet<>();
-   private final PriorityBlockingQueue<RegistryReceiveBuffer> orderedBuffers = new PriorityBlockingQueue<>();
+   private final RegistryReorderRing orderedBuffers = new RegistryReorderRing(MAXIMUM_ELEMENTS);
    private final SampleInfo sampleInfo = new SampleInfo();
    private volatile boolean running = true;
    
@@ -75,20 +70,14 @@ public class RegistryConsumer extends Thread implements SubscriberListener
       lastPacketReceived = System.nanoTime();
       while(running)
       {
-         ThreadTools.sleep(1);
+         orderedBuffers.await(WAKEUP_TIMEOUT);
          
          while(orderedBuffers.size() > (jitterBufferSamples + lastRegistryUid.size() + segmentsForAllVariables + 1))
          {
-            try
-            {
-               handlePackets();
-               lastPacketReceived = System.nanoTime();
-            }
-            catch (InterruptedException e)
-            {
-               // Try next time
-            }
+            handlePackets();
+            lastPacketReceived = System.nanoTime();
          }
+         updateReorderDepth();
          
          if(System.nanoTime() - lastPacketReceived > TIMEOUT)
          {
@@ -99,13 +88,7 @@ public class RegistryConsumer extends Thread implements SubscriberListener
       // Empty buffer
       while(!orderedBuffers.isEmpty())
       {
-         try
-         {
-            handlePackets();
-         }
-         catch (InterruptedException e)
-         {
-         }
+         handlePackets();
       }
       
       listener.connectionClosed();
@@ -149,14 +132,43 @@ public class RegistryConsumer extends Thread implements SubscriberListener
    }
    
 
-   private void handlePackets() throws InterruptedException
+   private void updateReorderDepth()
    {
-      RegistryReceiveBuffer buffer = orderedBuffers.take();
+      int depth = orderedBuffers.size();
+      debugRegistry.getReorderDepth().set(depth);
+      if(depth > debugRegistry.getMaximumReorderDepth().getIntegerValue())
+      {
+         debugRegistry.getMaximumReorderDepth().set(depth);
+      }
+   }
+   
+   private void updateDeliveryLatency(long receivedTimestamp)
+   {
+      double latency = Conversions.nanosecondsToMilliseconds((double) (System.nanoTime() - receivedTimestamp));
+      debugRegistry.getDeliveryLatency().set(latency);
+      if(latency > debugRegistry.getMaximumDeliveryLatency().getDoubleValue())
+      {
+         debugRegistry.getMaximumDeliveryLatency().set(latency);
+      }
+   }
+
+   private void handlePackets()
+   {
+      RegistryReceiveBuffer buffer = orderedBuffers.poll();
       if(buffer.getType() == LogDataType.DATA_PACKET)
       {
       
          long timestamp = buffer.getTimestamp();
          
+         // Data for a timestamp that is already delivered would overwrite newer values, drop it
+         if(previousTimestamp != -1 && previousTimestamp >= timestamp)
+         {
+            debugRegistry.getNonIncreasingTimestamps().increment();
+            debugRegistry.getLateDrops().increment();
+            return;
+         }
+         
+         long receivedTimestamp = buffer.getReceivedTimestamp();
          decompressBuffer(buffer);
          
          if(buffer.getOffset() > 0)
@@ -166,16 +178,13 @@ public class RegistryConsumer extends Thread implements SubscriberListener
          
          while(!orderedBuffers.isEmpty() && orderedBuffers.peek().getTimestamp() == timestamp)
          {
-            RegistryReceiveBuffer next = orderedBuffers.take();
+            RegistryReceiveBuffer next = orderedBuffers.poll();
+            receivedTimestamp = Math.min(receivedTimestamp, next.getReceivedTimestamp());
             decompressBuffer(next);
             debugRegistry.getMergedPackets().increment();
          }
          
-         if(previousTimestamp != -1 && previousTimestamp >= buffer.getTimestamp())
-         {
-            debugRegistry.getNonIncreasingTimestamps().increment();         
-         }
-         previousTimestamp = buffer.getTimestamp();
+         previousTimestamp = timestamp;
          
          if(firstSample)
          {
@@ -186,6 +195,7 @@ public class RegistryConsumer extends Thread implements SubscriberListener
          {
             listener.receivedTimestampAndData(timestamp);
          }
+         updateDeliveryLatency(receivedTimestamp);
       }
       else
       {
@@ -233,11 +243,7 @@ public class RegistryConsumer extends Thread implements SubscriberListener
          }
          sampleIdentities.put(sampleInfo.getSampleIdentity().getGuid(), sampleInfo.getSampleIdentity().getSequenceNumber().get());
 
-         if (orderedBuffers.size() < MAXIMUM_ELEMENTS)
-         {
-            orderedBuffers.add(buffer);
-         }
-         else
+         if (!orderedBuffers.offer(buffer))
          {
             debugRegistry.getSkippedPacketDueToFullBuffer().increment();
          }
@@ -2,19 +2,28 @@ package us.ihmc.robotDataLogger.rtps;
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import us.ihmc.concurrent.ConcurrentRingBuffer;
 import us.ihmc.pubsub.publisher.Publisher;
 import us.ihmc.robotDataLogger.dataBuffers.LoggerDebugRegistry;
-import us.ihmc.robotDataLogger.dataBuffers.RegistryBuffer;
 import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBuffer;
 import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
 import us.ihmc.util.PeriodicThreadScheduler;
 import us.ihmc.util.PeriodicThreadSchedulerFactory;
 
+/**
+ * Publishes the variables of a registry.
+ * 
+ * update() is called from the controller thread. It copies the variables into preallocated buffers in a ring buffer
+ * and does not allocate or block. The publisher thread sleeps till update() signals new data.
+ */
 public class RegistryPublisher
 {
    private static final int BUFFER_CAPACITY = 128;
+   
+   /** The publisher thread wakes up at least this often, in case a wakeup signal got lost */
+   private static final long MAXIMUM_WAIT_TIME = TimeUnit.MILLISECONDS.toNanos(5);
 
    private long uid = 0;
    private final ConcurrentRingBuffer<RegistrySendBuffer> ringBuffer;
@@ -24,6 +33,9 @@ public class RegistryPublisher
    private final PeriodicThreadScheduler scheduler;
    private final VariableUpdateThread variableUpdateThread = new VariableUpdateThread();
    
+   private volatile boolean running = false;
+   private volatile Thread waitingPublisherThread = null;
+   
    private final LoggerDebugRegistry loggerDebugRegistry;
    
    
@@ -45,11 +57,15 @@ public class RegistryPublisher
 
    public void start()
    {
+      running = true;
+      // The update thread does not return till stop() is called, the period only matters if it exits early.
       scheduler.schedule(variableUpdateThread, 1, TimeUnit.MILLISECONDS);
    }
 
    public void stop()
    {
+      running = false;
+      wakeupPublisherThread();
       scheduler.shutdown();
       try
       {
@@ -61,8 +77,14 @@ public class RegistryPublisher
       }
    }
 
+   /**
+    * Copy the current variable values to the publisher thread. Called from the controller thread, does not allocate.
+    * 
+    * @param timestamp
+    */
    public void update(long timestamp)
    {
+      long startTime = System.nanoTime();
       for(int segment = 0; segment < segmentSizes.length; segment++)
       {
          RegistrySendBuffer buffer = ringBuffer.next();
@@ -79,6 +101,18 @@ public class RegistryPublisher
          uid++;
          
       }
+      loggerDebugRegistry.updateCopyTime(System.nanoTime() - startTime);
+      
+      wakeupPublisherThread();
+   }
+   
+   private void wakeupPublisherThread()
+   {
+      Thread publisherThread = waitingPublisherThread;
+      if (publisherThread != null)
+      {
+         LockSupport.unpark(publisherThread);
+      }
    }
 
    private class VariableUpdateThread implements Runnable
@@ -95,42 +129,28 @@ public class RegistryPublisher
       {
          try
          {
-            while (ringBuffer.poll())
+            while (running)
             {
-               RegistryBuffer buffer;
-
-               if ((buffer = ringBuffer.read()) != null)
+               if (!ringBuffer.poll())
                {
-
-                  try
-                  {
-                     publisher.write(buffer);
-                  }
-                  catch (IOException e)
-                  {
-                     if(publisher.isAvailable())
-                     {
-                        e.printStackTrace();
-                     }
-                     else
-                     {
-                        // Shutting down
-                        return;
-                     }
-                  }
-                  
-                  if(previousUid != -1)
+                  // Announce that this thread is going to sleep and check again, update() might have committed data in between
+                  waitingPublisherThread = Thread.currentThread();
+                  if (!ringBuffer.poll())
                   {
-                     if(buffer.getUid() != previousUid + 1)
-                     {
-                        loggerDebugRegistry.lostTickInCircularBuffer();
-                     }
+                     LockSupport.parkNanos(this, MAXIMUM_WAIT_TIME);
+                     waitingPublisherThread = null;
+                     continue;
                   }
-                  previousUid = buffer.getUid();
+                  waitingPublisherThread = null;
                }
-               ringBuffer.flush();
-            }
 
+               if (!publishBuffers())
+               {
+                  // Shutting down
+                  running = false;
+                  return;
+               }
+            }
          }
          catch (Throwable e)
          {
@@ -139,6 +159,50 @@ public class RegistryPublisher
 
       }
 
+      /**
+       * Publish all buffers made available by ringBuffer.poll()
+       * 
+       * @return false if the publisher is not available anymore
+       */
+      private boolean publishBuffers()
+      {
+         int depth = 0;
+         RegistrySendBuffer buffer;
+         while ((buffer = ringBuffer.read()) != null)
+         {
+            depth++;
+            try
+            {
+               publisher.write(buffer);
+            }
+            catch (IOException e)
+            {
+               if(publisher.isAvailable())
+               {
+                  e.printStackTrace();
+               }
+               else
+               {
+                  ringBuffer.flush();
+                  return false;
+               }
+            }
+            loggerDebugRegistry.updatePublishLatency(System.nanoTime() - buffer.getTransmitTime());
+            
+            if(previousUid != -1)
+            {
+               if(buffer.getUid() != previousUid + 1)
+               {
+                  loggerDebugRegistry.lostTickInCircularBuffer();
+               }
+            }
+            previousUid = buffer.getUid();
+         }
+         ringBuffer.flush();
+         loggerDebugRegistry.updateQueueDepth(depth);
+         return true;
+      }
+
    }
 
 }
@@ -0,0 +1,207 @@
+package us.ihmc.robotDataLogger.rtps;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import us.ihmc.robotDataLogger.dataBuffers.RegistryReceiveBuffer;
+
+/**
+ * Reorder buffer between the RTPS listener thread and the RegistryConsumer thread.
+ *
+ * Incoming buffers are handed off through a preallocated single-producer/single-consumer ring without locks. The
+ * consumer moves them into a preallocated binary heap ordered by timestamp (and uid for equal timestamps) that is only
+ * touched by the consumer thread, so reordering does not need any synchronization either.
+ *
+ * The consumer parks while the ring is empty and is unparked by the producer when a new buffer arrives.
+ *
+ * Exactly one thread may call offer() and exactly one other thread may call the consumer methods.
+ */
+public class RegistryReorderRing
+{
+   private final int capacity;
+   private final int mask;
+
+   // Handoff ring, written by the producer
+   private final RegistryReceiveBuffer[] ring;
+   private final AtomicLong producerIndex = new AtomicLong();
+   private final AtomicLong consumerIndex = new AtomicLong();
+   private volatile Thread waitingConsumer = null;
+
+   // Reorder heap, only accessed by the consumer
+   private final RegistryReceiveBuffer[] heap;
+   private int heapSize = 0;
+   // Heap size as seen by the producer, to bound the number of buffers in the ring and heap together
+   private volatile int publishedHeapSize = 0;
+
+   /**
+    * @param capacity maximum number of buffers in the ring. Rounded up to a power of two.
+    */
+   public RegistryReorderRing(int capacity)
+   {
+      int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+      this.capacity = size;
+      this.mask = size - 1;
+      this.ring = new RegistryReceiveBuffer[size];
+      this.heap = new RegistryReceiveBuffer[size];
+   }
+
+   /**
+    * Producer side. Add a buffer and wake up the consumer.
+    *
+    * @return false if the ring is full and the buffer is dropped
+    */
+   public boolean offer(RegistryReceiveBuffer buffer)
+   {
+      long index = producerIndex.get();
+      // Read the consumer index before the heap size. The consumer publishes the heap size first, so this never underestimates.
+      long inRing = index - consumerIndex.get();
+      if (inRing + publishedHeapSize >= capacity)
+      {
+         return false;
+      }
+
+      ring[(int) (index & mask)] = buffer;
+      producerIndex.set(index + 1);
+
+      Thread consumer = waitingConsumer;
+      if (consumer != null)
+      {
+         LockSupport.unpark(consumer);
+      }
+      return true;
+   }
+
+   /**
+    * Consumer side. Park until new buffers are offered or the timeout expires.
+    *
+    * @param timeout maximum time to wait in nanoseconds
+    */
+   public void await(long timeout)
+   {
+      if (producerIndex.get() != consumerIndex.get())
+      {
+         return;
+      }
+
+      waitingConsumer = Thread.currentThread();
+      // Check again after announcing that we are waiting, the producer might have missed the announcement
+      if (producerIndex.get() == consumerIndex.get())
+      {
+         LockSupport.parkNanos(this, timeout);
+      }
+      waitingConsumer = null;
+   }
+
+   /**
+    * Consumer side. Move all handed off buffers into the reorder heap.
+    */
+   private void drain()
+   {
+      long index = consumerIndex.get();
+      long end = producerIndex.get();
+      while (index < end)
+      {
+         int slot = (int) (index & mask);
+         push(ring[slot]);
+         ring[slot] = null;
+         index++;
+      }
+      publishedHeapSize = heapSize;
+      consumerIndex.set(index);
+   }
+
+   /**
+    * Consumer side.
+    *
+    * @return number of buffers waiting to be handled
+    */
+   public int size()
+   {
+      drain();
+      return heapSize;
+   }
+
+   public boolean isEmpty()
+   {
+      return size() == 0;
+   }
+
+   /**
+    * Consumer side.
+    *
+    * @return the buffer with the lowest timestamp without removing it, or null if empty
+    */
+   public RegistryReceiveBuffer peek()
+   {
+      drain();
+      return heapSize == 0 ? null : heap[0];
+   }
+
+   /**
+    * Consumer side.
+    *
+    * @return the buffer with the lowest timestamp, or null if empty
+    */
+   public RegistryReceiveBuffer poll()
+   {
+      drain();
+      if (heapSize == 0)
+      {
+         return null;
+      }
+
+      RegistryReceiveBuffer first = heap[0];
+      heapSize--;
+      RegistryReceiveBuffer last = heap[heapSize];
+      heap[heapSize] = null;
+      if (heapSize > 0)
+      {
+         siftDown(last);
+      }
+      publishedHeapSize = heapSize;
+      return first;
+   }
+
+   private void push(RegistryReceiveBuffer buffer)
+   {
+      int index = heapSize++;
+      while (index > 0)
+      {
+         int parent = (index - 1) >>> 1;
+         if (heap[parent].compareTo(buffer) <= 0)
+         {
+            break;
+         }
+         heap[index] = heap[parent];
+         index = parent;
+      }
+      heap[index] = buffer;
+   }
+
+   private void siftDown(RegistryReceiveBuffer buffer)
+   {
+      int index = 0;
+      int half = heapSize >>> 1;
+      while (index < half)
+      {
+         int child = 2 * index + 1;
+         int right = child + 1;
+         if (right < heapSize && heap[right].compareTo(heap[child]) < 0)
+         {
+            child = right;
+         }
+         if (buffer.compareTo(heap[child]) <= 0)
+         {
+            break;
+         }
+         heap[index] = heap[child];
+         index = child;
+      }
+      heap[index] = buffer;
+   }
+
+   public int getCapacity()
+   {
+      return capacity;
+   }
+}
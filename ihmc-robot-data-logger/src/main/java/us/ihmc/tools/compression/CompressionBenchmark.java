@@ -8,12 +8,20 @@ import java.util.function.DoubleSupplier;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import us.ihmc.commons.Conversions;
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.robotDataLogger.logger.LogDataDecoder;
+import us.ihmc.robotDataLogger.logger.LogDataEncoder;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
 
 /**
  * Test class to compare the speed and compression factor of various algorithms
  * 
+ * The training and test sets are consecutive lines of a real log, so the delta encoding of the log codecs is measured
+ * on realistic data.
+ * 
+ * Usage: CompressionBenchmark [log directory]
+ * 
  * @author Jesper Smith
  *
  */
@@ -25,7 +33,7 @@ public class CompressionBenchmark extends YoVariableLogReader
    private final ByteBuffer[] trainingSet;
    private final ByteBuffer[] testSet;
 
-   public CompressionBenchmark() throws IOException
+   public CompressionBenchmark(File directory) throws IOException
    {
       super(directory, new LogPropertiesReader(new File(directory, File.separator + "robotData.log")));
 
@@ -65,9 +73,11 @@ public class CompressionBenchmark extends YoVariableLogReader
       long start = System.nanoTime();
       double compressionFactor = f.getAsDouble();
       long duration = System.nanoTime() - start;
+      double totalSizeInMB = ((double) elements * (double) (getNumberOfVariables() * 8)) / (1024.0 * 1024.0);
       System.out.println("Compression factor: " + compressionFactor);
       System.out.println("Duration: " + Conversions.nanosecondsToSeconds(duration) + "s");
       System.out.println("Time per data line: " + Conversions.nanosecondsToMilliseconds((double) (duration / elements)) + "ms");
+      System.out.println("Throughput: " + totalSizeInMB / Conversions.nanosecondsToSeconds(duration) + "MB/s uncompressed");
       System.out.println();
    }
 
@@ -116,6 +126,17 @@ public class CompressionBenchmark extends YoVariableLogReader
          return benchMarkCopy(directSet);
       });
 
+      for (LogCodec codec : LogCodec.values)
+      {
+         ByteBuffer[] encoded = new ByteBuffer[set.length];
+         benchmarkFunction("Log codec " + codec + " (encode)", set.length, () -> {
+            return benchMarkLogCodecEncode(codec, set, encoded);
+         });
+         benchmarkFunction("Log codec " + codec + " (decode)", set.length, () -> {
+            return benchMarkLogCodecDecode(codec, encoded);
+         });
+      }
+
    }
 
    private double benchMarkCopy(ByteBuffer[] set)
@@ -192,6 +213,49 @@ public class CompressionBenchmark extends YoVariableLogReader
       return ((double) compressedSize) / ((double) totalSize);
    }
 
+   private double benchMarkLogCodecEncode(LogCodec codec, ByteBuffer[] set, ByteBuffer[] encoded)
+   {
+      LogDataEncoder encoder = new LogDataEncoder(codec, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL, getNumberOfVariables() * 8);
+      ByteBuffer target = ByteBuffer.allocate(encoder.maxCompressedLength());
+
+      long totalSize = (long) set.length * (long) (getNumberOfVariables() * 8);
+      long compressedSize = 0;
+
+      for (int i = 0; i < set.length; i++)
+      {
+         set[i].clear();
+         target.clear();
+         encoder.encode(set[i], target);
+         target.flip();
+         compressedSize += target.remaining();
+
+         encoded[i] = ByteBuffer.allocate(target.remaining());
+         encoded[i].put(target);
+         encoded[i].flip();
+      }
+
+      return ((double) compressedSize) / ((double) totalSize);
+   }
+
+   private double benchMarkLogCodecDecode(LogCodec codec, ByteBuffer[] encoded)
+   {
+      LogDataDecoder decoder = new LogDataDecoder(codec, LogDataEncoder.DEFAULT_KEYFRAME_INTERVAL, getNumberOfVariables() * 8);
+      ByteBuffer target = ByteBuffer.allocate(getNumberOfVariables() * 8);
+
+      long totalSize = (long) encoded.length * (long) (getNumberOfVariables() * 8);
+      long compressedSize = 0;
+
+      for (int i = 0; i < encoded.length; i++)
+      {
+         encoded[i].clear();
+         compressedSize += encoded[i].remaining();
+         target.clear();
+         decoder.decode(i, encoded[i], target);
+      }
+
+      return ((double) compressedSize) / ((double) totalSize);
+   }
+
    private ByteBuffer copyData(int i) throws IOException
    {
       ByteBuffer dataLine = readData(i);
@@ -203,6 +267,6 @@ public class CompressionBenchmark extends YoVariableLogReader
 
    public static void main(String[] args) throws IOException
    {
-      new CompressionBenchmark();
+      new CompressionBenchmark(args.length > 0 ? new File(args[0]) : directory);
    }
 }
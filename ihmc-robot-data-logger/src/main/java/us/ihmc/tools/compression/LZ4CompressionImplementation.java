@@ -21,6 +21,15 @@ public class LZ4CompressionImplementation implements CompressionImplementation
    private final LZ4FastDecompressor decompressor;
 
    public LZ4CompressionImplementation()
+   {
+      this(false);
+   }
+
+   /**
+    * @param highCompression Use the LZ4 HC compressor. Compression is an order of magnitude slower for a better ratio,
+    *           decompression speed and format are the same as the fast compressor.
+    */
+   public LZ4CompressionImplementation(boolean highCompression)
    {
       LZ4Factory instance;
       boolean nativeInstance;
@@ -49,7 +58,7 @@ public class LZ4CompressionImplementation implements CompressionImplementation
 
       this.nativeInstance = nativeInstance;
 
-      compressor = instance.fastCompressor();
+      compressor = highCompression ? instance.highCompressor() : instance.fastCompressor();
       decompressor = instance.fastDecompressor();
    }
 
@@ -0,0 +1,68 @@
+package us.ihmc.tools.compression;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * CompressionImplementation wrapper around SnappyUtils.
+ * 
+ * Snappy stores the decompressed length in the compressed data. Decompression consumes all remaining data in src,
+ * so the limit of src has to be set to the end of the compressed data.
+ */
+public class SnappyCompressionImplementation implements CompressionImplementation
+{
+
+   @Override
+   public boolean supportsDirectOutput()
+   {
+      return false;
+   }
+
+   @Override
+   public int compress(ByteBuffer src, ByteBuffer target)
+   {
+      int targetPosition = target.position();
+      try
+      {
+         SnappyUtils.compress(src, target);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+      return target.position() - targetPosition;
+   }
+
+   @Override
+   public void decompress(ByteBuffer src, ByteBuffer target, int decompressedLength)
+   {
+      if (target.position() + decompressedLength > target.limit())
+      {
+         throw new BufferOverflowException();
+      }
+
+      try
+      {
+         SnappyUtils.uncompress(src, target);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   @Override
+   public int maxCompressedLength(int uncompressedLength)
+   {
+      return SnappyUtils.maxCompressedLength(uncompressedLength);
+   }
+
+   @Override
+   public int minimumDecompressedLength(int compressedLength)
+   {
+      // Inverse of maxCompressedLength = 32 + length + length / 6
+      return Math.max(0, (compressedLength - 32) * 6 / 7);
+   }
+
+}
@@ -0,0 +1,70 @@
+package us.ihmc.robotDataLogger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class MappedLogIndexTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testMappedIndexMatchesLogIndex() throws IOException
+   {
+      Random random = new Random(8234987L);
+      int entries = 10000;
+
+      File indexFile = File.createTempFile("robotData", ".dat");
+      indexFile.deleteOnExit();
+
+      long timestamp = random.nextInt(1000);
+      long offset = 0;
+      ByteBuffer indexBuffer = ByteBuffer.allocate(16);
+      try (FileOutputStream stream = new FileOutputStream(indexFile); FileChannel channel = stream.getChannel())
+      {
+         for (int i = 0; i < entries; i++)
+         {
+            indexBuffer.clear();
+            indexBuffer.putLong(timestamp);
+            indexBuffer.putLong(offset);
+            indexBuffer.flip();
+            channel.write(indexBuffer);
+
+            timestamp += 1 + random.nextInt(5);
+            offset += 1 + random.nextInt(2000);
+         }
+      }
+      long dataSize = offset + 1 + random.nextInt(2000);
+
+      LogIndex logIndex = new LogIndex(indexFile, dataSize);
+      MappedLogIndex mappedLogIndex = new MappedLogIndex(indexFile, dataSize);
+
+      assertEquals(logIndex.getNumberOfEntries(), mappedLogIndex.getNumberOfEntries());
+      assertEquals(logIndex.getInitialTimestamp(), mappedLogIndex.getInitialTimestamp());
+      for (int i = 0; i < entries; i++)
+      {
+         assertEquals(logIndex.timestamps[i], mappedLogIndex.getTimestamp(i));
+         assertEquals(logIndex.dataOffsets[i], mappedLogIndex.getDataOffset(i));
+         assertEquals(logIndex.compressedSizes[i], mappedLogIndex.getCompressedSize(i));
+      }
+
+      for (int i = 0; i < entries; i++)
+      {
+         assertEquals(i, mappedLogIndex.seek(mappedLogIndex.getTimestamp(i)));
+         if (i > 0 && mappedLogIndex.getTimestamp(i) - mappedLogIndex.getTimestamp(i - 1) > 1)
+         {
+            assertEquals(i, mappedLogIndex.seek(mappedLogIndex.getTimestamp(i) - 1));
+         }
+      }
+      assertEquals(0, mappedLogIndex.seek(Long.MIN_VALUE));
+      assertEquals(entries - 1, mappedLogIndex.seek(Long.MAX_VALUE));
+   }
+}
@@ -0,0 +1,75 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ColumnarLogWriterTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWriteAndReadColumns() throws IOException
+   {
+      Random random = new Random(1298341L);
+      int numberOfColumns = 1 + 57;
+      int ticksPerChunk = 16;
+      int numberOfTicks = 1003;
+
+      File dataFile = File.createTempFile("columnar", ".bcl");
+      File directoryFile = File.createTempFile("columnar", ".cdx");
+      dataFile.deleteOnExit();
+      directoryFile.deleteOnExit();
+
+      long[][] expected = new long[numberOfTicks][numberOfColumns];
+      ColumnarLogWriter writer = new ColumnarLogWriter(dataFile, directoryFile, numberOfColumns, ticksPerChunk);
+      ByteBuffer logLine = ByteBuffer.allocate(numberOfColumns * 8);
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         expected[tick][0] = 1000L + tick * 10L;
+         for (int column = 1; column < numberOfColumns; column++)
+         {
+            expected[tick][column] = random.nextInt(4) == 0 ? random.nextLong() : column;
+         }
+
+         logLine.clear();
+         for (int column = 0; column < numberOfColumns; column++)
+         {
+            logLine.putLong(expected[tick][column]);
+         }
+         logLine.flip();
+         writer.write(logLine);
+      }
+      writer.close();
+
+      ColumnarLogReader reader = new ColumnarLogReader(dataFile, directoryFile);
+      assertEquals(numberOfColumns, reader.getNumberOfColumns());
+      assertEquals((numberOfTicks + ticksPerChunk - 1) / ticksPerChunk, reader.getNumberOfChunks());
+
+      int firstTick = 37;
+      int lastTick = 811;
+      int[] columns = {3, 0, 57, 12};
+      ColumnarLogData data = reader.read(expected[firstTick][0] - 5, expected[lastTick][0], columns);
+
+      assertEquals(lastTick - firstTick + 1, data.getNumberOfElements());
+      for (int element = 0; element < data.getNumberOfElements(); element++)
+      {
+         assertEquals(expected[firstTick + element][0], data.getTimestamp(element));
+         for (int i = 0; i < columns.length; i++)
+         {
+            assertEquals(expected[firstTick + element][columns[i]], data.getLongBits(i, element));
+         }
+      }
+
+      ColumnarLogData all = reader.read(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+      assertEquals(numberOfTicks, all.getNumberOfElements());
+
+      reader.close();
+   }
+}
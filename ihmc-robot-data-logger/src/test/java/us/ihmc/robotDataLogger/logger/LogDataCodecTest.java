@@ -0,0 +1,163 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotDataLogger.LogCodec;
+
+public class LogDataCodecTest
+{
+   private static final int NUMBER_OF_COLUMNS = 97;
+   private static final int BUFFER_SIZE = NUMBER_OF_COLUMNS * 8;
+   private static final int NUMBER_OF_LINES = 500;
+   private static final int KEYFRAME_INTERVAL = 64;
+
+   /**
+    * Create lines where most columns stay constant between ticks, like a real log
+    */
+   private static long[][] createLines(Random random)
+   {
+      long[][] lines = new long[NUMBER_OF_LINES][NUMBER_OF_COLUMNS];
+      for (int line = 0; line < NUMBER_OF_LINES; line++)
+      {
+         lines[line][0] = 1000L * line;
+         for (int column = 1; column < NUMBER_OF_COLUMNS; column++)
+         {
+            if (line == 0 || random.nextInt(10) == 0)
+            {
+               lines[line][column] = Double.doubleToLongBits(random.nextDouble());
+            }
+            else
+            {
+               lines[line][column] = lines[line - 1][column];
+            }
+         }
+      }
+      return lines;
+   }
+
+   private static ByteBuffer[] encode(LogCodec codec, long[][] lines)
+   {
+      LogDataEncoder encoder = new LogDataEncoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+      ByteBuffer line = ByteBuffer.allocate(BUFFER_SIZE);
+      ByteBuffer[] encoded = new ByteBuffer[lines.length];
+
+      for (int i = 0; i < lines.length; i++)
+      {
+         line.clear();
+         for (int column = 0; column < NUMBER_OF_COLUMNS; column++)
+         {
+            line.putLong(lines[i][column]);
+         }
+         line.flip();
+
+         ByteBuffer target = ByteBuffer.allocate(encoder.maxCompressedLength());
+         int size = encoder.encode(line, target);
+         assertEquals(size, target.position());
+         target.flip();
+         encoded[i] = target;
+      }
+
+      return encoded;
+   }
+
+   private static void assertLine(long[] expected, ByteBuffer decoded, int start)
+   {
+      for (int column = 0; column < NUMBER_OF_COLUMNS; column++)
+      {
+         assertEquals(expected[column], decoded.getLong(start + column * 8));
+      }
+   }
+
+   private static void testSequentialRoundTrip(LogCodec codec)
+   {
+      long[][] lines = createLines(new Random(4512L));
+      ByteBuffer[] encoded = encode(codec, lines);
+
+      LogDataDecoder decoder = new LogDataDecoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+      ByteBuffer decoded = ByteBuffer.allocate(BUFFER_SIZE);
+      for (int i = 0; i < lines.length; i++)
+      {
+         decoded.clear();
+         decoder.decode(i, encoded[i].duplicate(), decoded);
+         assertEquals(BUFFER_SIZE, decoded.position());
+         assertLine(lines[i], decoded, 0);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testSnappyRoundTrip()
+   {
+      testSequentialRoundTrip(LogCodec.SNAPPY);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testDeltaSnappyRoundTrip()
+   {
+      testSequentialRoundTrip(LogCodec.DELTA_SNAPPY);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testDeltaLZ4HighRoundTrip()
+   {
+      testSequentialRoundTrip(LogCodec.DELTA_LZ4_HIGH);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testDecodeFromKeyframeInTheMiddleOfABlock() throws IOException
+   {
+      for (LogCodec codec : new LogCodec[] {LogCodec.DELTA_SNAPPY, LogCodec.DELTA_LZ4_HIGH})
+      {
+         long[][] lines = createLines(new Random(98321L));
+         ByteBuffer[] encoded = encode(codec, lines);
+         LogDataDecoder.CompressedDataReader reader = position -> encoded[position].duplicate();
+         ByteBuffer decoded = ByteBuffer.allocate(BUFFER_SIZE);
+
+         // Random access decodes forward from the keyframe before the line, also when going backwards
+         LogDataDecoder decoder = new LogDataDecoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+         int[] positions = {3 * KEYFRAME_INTERVAL + 37, 3 * KEYFRAME_INTERVAL + 38, 3 * KEYFRAME_INTERVAL + 50, KEYFRAME_INTERVAL - 1, 2 * KEYFRAME_INTERVAL,
+               NUMBER_OF_LINES - 1, 5};
+         for (int position : positions)
+         {
+            decoded.clear();
+            decoder.decode(position, reader, decoded);
+            assertLine(lines[position], decoded, 0);
+         }
+
+         // Sequential decoding can start at any keyframe
+         LogDataDecoder sequentialDecoder = new LogDataDecoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+         int keyframe = sequentialDecoder.getKeyframe(4 * KEYFRAME_INTERVAL + 21);
+         assertEquals(4 * KEYFRAME_INTERVAL, keyframe);
+         for (int i = keyframe; i < keyframe + KEYFRAME_INTERVAL + 10; i++)
+         {
+            decoded.clear();
+            sequentialDecoder.decode(i, encoded[i].duplicate(), decoded);
+            assertLine(lines[i], decoded, 0);
+         }
+
+         // But not in the middle of a block
+         LogDataDecoder invalidDecoder = new LogDataDecoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+         try
+         {
+            decoded.clear();
+            invalidDecoder.decode(KEYFRAME_INTERVAL + 1, encoded[KEYFRAME_INTERVAL + 1].duplicate(), decoded);
+            fail("Decoding a delta line without its previous line did not fail");
+         }
+         catch (IllegalStateException e)
+         {
+            // Expected
+         }
+      }
+   }
+}
@@ -0,0 +1,121 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class LogPyramidWriterTest
+{
+   private static final int NUMBER_OF_TICKS = 3001;
+   private static final int FIRST_LEVEL = 2;
+   private static final int NUMBER_OF_LEVELS = 5;
+
+   private static long getTimestamp(int tick)
+   {
+      return 5000L + tick * 10L;
+   }
+
+   private static double getValue(long[][] log, boolean[] doubleColumns, int tick, int column)
+   {
+      return doubleColumns[column] ? Double.longBitsToDouble(log[tick][column]) : log[tick][column];
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testPyramidMatchesBruteForce() throws IOException
+   {
+      File directory = Files.createTempDirectory("LogPyramidWriterTest").toFile();
+      try
+      {
+         boolean[] doubleColumns = {false, true, false, true, false};
+         Random random = new Random(1249L);
+         long[][] log = new long[NUMBER_OF_TICKS][doubleColumns.length];
+
+         LogPyramidWriter writer = new LogPyramidWriter(directory, doubleColumns, FIRST_LEVEL, NUMBER_OF_LEVELS);
+         ByteBuffer line = ByteBuffer.allocate(doubleColumns.length * 8);
+         for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+         {
+            log[tick][0] = getTimestamp(tick);
+            log[tick][1] = Double.doubleToLongBits(random.nextGaussian());
+            log[tick][2] = random.nextInt(1000) - 500;
+            log[tick][3] = Double.doubleToLongBits(tick * 0.5);
+            log[tick][4] = random.nextBoolean() ? 1 : 0;
+
+            line.clear();
+            for (long value : log[tick])
+            {
+               line.putLong(value);
+            }
+            line.flip();
+            writer.write(line);
+         }
+         writer.close();
+
+         LogPyramidReader reader = new LogPyramidReader(directory);
+         assertEquals(NUMBER_OF_TICKS, reader.getNumberOfTicks());
+         assertEquals(doubleColumns.length - 1, reader.getNumberOfVariables());
+
+         int[] variables = {4, 1, 3, 2};
+         for (int level = FIRST_LEVEL; level < FIRST_LEVEL + NUMBER_OF_LEVELS; level++)
+         {
+            int ticksPerBlock = 1 << level;
+            LogPyramidData data = reader.read(level, Long.MIN_VALUE, Long.MAX_VALUE, variables);
+            assertEquals((NUMBER_OF_TICKS + ticksPerBlock - 1) / ticksPerBlock, data.getNumberOfBlocks());
+
+            for (int block = 0; block < data.getNumberOfBlocks(); block++)
+            {
+               int firstTick = block * ticksPerBlock;
+               int lastTick = Math.min(NUMBER_OF_TICKS, firstTick + ticksPerBlock) - 1;
+               assertEquals(getTimestamp(firstTick), data.getTimestamp(block));
+
+               for (int i = 0; i < variables.length; i++)
+               {
+                  double min = Double.POSITIVE_INFINITY;
+                  double max = Double.NEGATIVE_INFINITY;
+                  double sum = 0.0;
+                  for (int tick = firstTick; tick <= lastTick; tick++)
+                  {
+                     double value = getValue(log, doubleColumns, tick, variables[i]);
+                     min = Math.min(min, value);
+                     max = Math.max(max, value);
+                     sum += value;
+                  }
+
+                  assertEquals(min, data.getMin(i, block), 0.0);
+                  assertEquals(max, data.getMax(i, block), 0.0);
+                  assertEquals(sum / (lastTick - firstTick + 1), data.getMean(i, block), 1e-9);
+                  assertEquals(getValue(log, doubleColumns, lastTick, variables[i]), data.getLast(i, block), 0.0);
+               }
+            }
+         }
+
+         // A 100 pixel wide plot of the full log reads the first level with at most 100 blocks
+         LogPyramidData overview = reader.read(Long.MIN_VALUE, Long.MAX_VALUE, 100, 1);
+         assertEquals(5, overview.getLevel());
+         assertEquals(94, overview.getNumberOfBlocks());
+
+         // Zoomed in far enough, the full resolution log is small enough
+         assertEquals(-1, reader.getLevel(getTimestamp(100), getTimestamp(199), 100));
+
+         // Partial range includes the block that contains the start
+         LogPyramidData zoomed = reader.read(FIRST_LEVEL, getTimestamp(10), getTimestamp(20), 3);
+         assertEquals(getTimestamp(8), zoomed.getTimestamp(0));
+         assertEquals(4, zoomed.getNumberOfBlocks());
+
+         reader.close();
+      }
+      finally
+      {
+         FileUtils.deleteDirectory(directory);
+      }
+   }
+}
@@ -0,0 +1,269 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.idl.serializers.extra.YAMLSerializer;
+import us.ihmc.pubsub.DomainFactory.PubSubImplementation;
+import us.ihmc.robotDataLogger.Handshake;
+import us.ihmc.robotDataLogger.HandshakeFileType;
+import us.ihmc.robotDataLogger.HandshakePubSubType;
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandShakeBuilder;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+
+public class LogServerTest
+{
+   private static final int NUMBER_OF_TICKS = 5000;
+
+   private static long getTimestamp(int tick)
+   {
+      return 1000000L + tick * 1000L;
+   }
+
+   /**
+    * Write a log with random data
+    *
+    * @return log data, indexed by tick and column
+    */
+   private static long[][] createLog(File directory, int numberOfVariables, LogCodec codec) throws IOException
+   {
+      YoVariableRegistry root = new YoVariableRegistry("root");
+      YoVariableRegistry registry = new YoVariableRegistry("variables");
+      root.addChild(registry);
+      for (int i = 0; i < numberOfVariables; i++)
+      {
+         new YoDouble("variable" + i, registry);
+      }
+
+      YoVariableHandShakeBuilder handShakeBuilder = new YoVariableHandShakeBuilder(root.getName(), 0.001);
+      handShakeBuilder.addRegistryBuffer(new RegistrySendBufferBuilder(registry, null, null));
+      Handshake handshake = handShakeBuilder.getHandShake();
+      YAMLSerializer<Handshake> serializer = new YAMLSerializer<>(new HandshakePubSubType());
+      serializer.serialize(new File(directory, "handshake.yaml"), handshake);
+
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(new File(directory, YoVariableLoggerListener.propertyFile));
+      logProperties.getVariables().setHandshake("handshake.yaml");
+      logProperties.getVariables().setData("robotData.bsz");
+      logProperties.getVariables().setCompressed(true);
+      logProperties.getVariables().setTimestamped(true);
+      logProperties.getVariables().setIndex("robotData.dat");
+      logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.getVariables().setCodec(codec);
+      logProperties.getVariables().setKeyframeInterval(64);
+      logProperties.store();
+
+      int numberOfColumns = 1 + handShakeBuilder.getNumberOfVariables();
+      long[][] expected = new long[NUMBER_OF_TICKS][numberOfColumns];
+      Random random = new Random(84912L);
+
+      LogDataEncoder encoder = new LogDataEncoder(codec, 64, numberOfColumns * 8);
+      ByteBuffer line = ByteBuffer.allocate(numberOfColumns * 8);
+      ByteBuffer compressed = ByteBuffer.allocate(encoder.maxCompressedLength());
+      ByteBuffer index = ByteBuffer.allocate(16);
+      try (FileChannel dataChannel = new FileOutputStream(new File(directory, "robotData.bsz")).getChannel();
+            FileChannel indexChannel = new FileOutputStream(new File(directory, "robotData.dat")).getChannel())
+      {
+         for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+         {
+            expected[tick][0] = getTimestamp(tick);
+            for (int column = 1; column < numberOfColumns; column++)
+            {
+               expected[tick][column] = random.nextInt(8) == 0 ? Double.doubleToLongBits(random.nextDouble()) : column;
+            }
+
+            line.clear();
+            for (int column = 0; column < numberOfColumns; column++)
+            {
+               line.putLong(expected[tick][column]);
+            }
+            line.flip();
+            compressed.clear();
+            encoder.encode(line, compressed);
+            compressed.flip();
+
+            index.clear();
+            index.putLong(getTimestamp(tick));
+            index.putLong(dataChannel.position());
+            index.flip();
+            indexChannel.write(index);
+            dataChannel.write(compressed);
+         }
+      }
+
+      return expected;
+   }
+
+   private static void assertData(long[][] expected, int firstTick, int decimation, int[] columns, ColumnarLogData data)
+   {
+      for (int element = 0; element < data.getNumberOfElements(); element++)
+      {
+         int tick = firstTick + element * decimation;
+         assertEquals(expected[tick][0], data.getTimestamp(element));
+         for (int i = 0; i < columns.length; i++)
+         {
+            assertEquals(expected[tick][columns[i]], data.getLongBits(i, element));
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 3.0)
+   @Test(timeout = 30000)
+   public void testLoopbackClient() throws IOException, InterruptedException
+   {
+      File directory = Files.createTempDirectory("LogServerTest").toFile();
+      LogServer server = null;
+      LogServerClient client = null;
+      try
+      {
+         long[][] expected = createLog(directory, 300, LogCodec.DELTA_SNAPPY);
+
+         // Small cache to force evictions
+         server = new LogServer(directory, "LogServerTest", 2, 4 * 1024 * 1024);
+         server.start(PubSubImplementation.INTRAPROCESS);
+         client = new LogServerClient("LogServerTest", PubSubImplementation.INTRAPROCESS);
+
+         int[] columns = {3, 0, 250, 17};
+         ColumnarLogData data = client.request(getTimestamp(100) - 500, getTimestamp(4200), 1, columns);
+         assertEquals(4200 - 100 + 1, data.getNumberOfElements());
+         assertData(expected, 100, 1, columns, data);
+
+         ColumnarLogData decimated = client.request(getTimestamp(37), getTimestamp(4999), 7, columns);
+         assertEquals((4999 - 37) / 7 + 1, decimated.getNumberOfElements());
+         assertData(expected, 37, 7, columns, decimated);
+
+         // Enough columns to split the answer in multiple responses
+         int[] allColumns = new int[expected[0].length];
+         for (int i = 0; i < allColumns.length; i++)
+         {
+            allColumns[i] = i;
+         }
+         ColumnarLogData all = client.request(Long.MIN_VALUE, Long.MAX_VALUE, 1, allColumns);
+         assertEquals(NUMBER_OF_TICKS, all.getNumberOfElements());
+         assertData(expected, 0, 1, allColumns, all);
+
+         ColumnarLogData empty = client.request(getTimestamp(10) + 1, getTimestamp(10) + 2, 1, columns);
+         assertEquals(0, empty.getNumberOfElements());
+
+         try
+         {
+            client.request(Long.MIN_VALUE, Long.MAX_VALUE, 1, expected[0].length);
+            fail("Request for invalid column did not fail");
+         }
+         catch (IOException e)
+         {
+            // Expected
+         }
+
+         // Two clients scrubbing the same part of the log concurrently
+         LogServerClient secondClient = new LogServerClient("LogServerTest", PubSubImplementation.INTRAPROCESS);
+         AtomicReference<Throwable> secondClientFailure = new AtomicReference<>();
+         Thread thread = new Thread(() -> {
+            try
+            {
+               for (int i = 0; i < 10; i++)
+               {
+                  assertData(expected, 1000, 1, columns, secondClient.request(getTimestamp(1000), getTimestamp(1500), 1, columns));
+               }
+            }
+            catch (Throwable e)
+            {
+               secondClientFailure.set(e);
+            }
+         });
+         thread.start();
+         for (int i = 0; i < 10; i++)
+         {
+            assertData(expected, 1200, 1, columns, client.request(getTimestamp(1200), getTimestamp(1800), 1, columns));
+         }
+         thread.join();
+         secondClient.close();
+         if (secondClientFailure.get() != null)
+         {
+            throw new AssertionError("Second client failed", secondClientFailure.get());
+         }
+
+         assertTrue(server.getCache().getHits() > 0);
+      }
+      finally
+      {
+         if (client != null)
+         {
+            client.close();
+         }
+         if (server != null)
+         {
+            server.close();
+         }
+         FileUtils.deleteDirectory(directory);
+      }
+   }
+
+   private static LogServerRequest createRequest(long startTimestamp, long endTimestamp, int decimation, int... columns)
+   {
+      // Serialize a valid request and patch the decimation, like a remote client that does not check its arguments
+      LogServerRequest validRequest = new LogServerRequest(1, 1, startTimestamp, endTimestamp, 1, columns);
+      ByteBuffer buffer = ByteBuffer.allocate(LogServerSettings.MAXIMUM_REQUEST_SIZE);
+      validRequest.serialize(buffer);
+      buffer.putInt(4 * 8, decimation);
+      buffer.flip();
+
+      LogServerRequest request = new LogServerRequest();
+      request.deserialize(buffer);
+      return request;
+   }
+
+   private static int handleAndGetStatus(LogServer server, LogServerRequest request) throws IOException
+   {
+      int[] status = {-1};
+      int[] numberOfResponses = {0};
+      server.handleRequest(request, response -> {
+         status[0] = response.getStatus();
+         numberOfResponses[0]++;
+      });
+      assertEquals(1, numberOfResponses[0]);
+      return status[0];
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testInvalidRequestsGetAnErrorResponse() throws IOException
+   {
+      File directory = Files.createTempDirectory("LogServerTest").toFile();
+      LogServer server = null;
+      try
+      {
+         createLog(directory, 10, LogCodec.DELTA_SNAPPY);
+         server = new LogServer(directory, "LogServerTest", 1, 4 * 1024 * 1024);
+
+         assertEquals(LogServerResponse.OK, handleAndGetStatus(server, createRequest(getTimestamp(10), getTimestamp(20), 1, 0, 3)));
+         assertEquals(LogServerResponse.ERROR, handleAndGetStatus(server, createRequest(getTimestamp(10), getTimestamp(20), 0, 0, 3)));
+         assertEquals(LogServerResponse.ERROR, handleAndGetStatus(server, createRequest(getTimestamp(10), getTimestamp(20), -5, 0, 3)));
+         assertEquals(LogServerResponse.ERROR, handleAndGetStatus(server, createRequest(getTimestamp(20), getTimestamp(10), 1, 0, 3)));
+      }
+      finally
+      {
+         if (server != null)
+         {
+            server.close();
+         }
+         FileUtils.deleteDirectory(directory);
+      }
+   }
+}
@@ -0,0 +1,159 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotDataLogger.LogCodec;
+import us.ihmc.robotDataLogger.MappedLogIndex;
+
+public class ParallelLogDecoderTest
+{
+   // Segments are about 8MB, so a segment holds 8 lines of 1MB
+   private static final int BUFFER_SIZE = 1024 * 1024;
+   private static final int NUMBER_OF_COLUMNS = BUFFER_SIZE / 8;
+   private static final int LINES_PER_SEGMENT = 8;
+   private static final int KEYFRAME_INTERVAL = 4;
+
+   /**
+    * Most columns stay constant between lines, a few change every line
+    */
+   private static long getValue(int line, int column)
+   {
+      if (column == 0)
+      {
+         return 1000L * line;
+      }
+      else if ((31 * column + line) % 97 == 0)
+      {
+         return (long) line * column;
+      }
+      else
+      {
+         return column;
+      }
+   }
+
+   /**
+    * Write a log of numberOfLines lines to data and index
+    *
+    * @return the compressed lines
+    */
+   private static ByteBuffer[] writeLog(LogCodec codec, int numberOfLines, File data, File index) throws IOException
+   {
+      LogDataEncoder encoder = new LogDataEncoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+      ByteBuffer line = ByteBuffer.allocate(BUFFER_SIZE);
+      ByteBuffer indexEntry = ByteBuffer.allocate(16);
+      ByteBuffer[] encoded = new ByteBuffer[numberOfLines];
+
+      try (FileChannel dataChannel = new FileOutputStream(data).getChannel(); FileChannel indexChannel = new FileOutputStream(index).getChannel())
+      {
+         for (int i = 0; i < numberOfLines; i++)
+         {
+            line.clear();
+            for (int column = 0; column < NUMBER_OF_COLUMNS; column++)
+            {
+               line.putLong(getValue(i, column));
+            }
+            line.flip();
+
+            ByteBuffer target = ByteBuffer.allocate(encoder.maxCompressedLength());
+            encoder.encode(line, target);
+            target.flip();
+            encoded[i] = target;
+
+            indexEntry.clear();
+            indexEntry.putLong(getValue(i, 0));
+            indexEntry.putLong(dataChannel.position());
+            indexEntry.flip();
+            indexChannel.write(indexEntry);
+            dataChannel.write(target.duplicate());
+         }
+      }
+
+      return encoded;
+   }
+
+   /**
+    * Decode first to last in parallel and compare every line to the serially decoded line
+    */
+   private static void assertParallelMatchesSerial(LogCodec codec, int numberOfLines, int first, int last) throws IOException
+   {
+      File data = File.createTempFile("ParallelLogDecoderTest", ".bsz");
+      File index = File.createTempFile("ParallelLogDecoderTest", ".dat");
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try
+      {
+         ByteBuffer[] encoded = writeLog(codec, numberOfLines, data, index);
+         LogDataDecoder serialDecoder = new LogDataDecoder(codec, KEYFRAME_INTERVAL, BUFFER_SIZE);
+         LogDataDecoder.CompressedDataReader reader = position -> encoded[position].duplicate();
+         ByteBuffer serialLine = ByteBuffer.allocate(BUFFER_SIZE);
+
+         try (FileChannel logChannel = new FileInputStream(data).getChannel())
+         {
+            MappedLogIndex logIndex = new MappedLogIndex(index, data.length());
+            ParallelLogDecoder parallelDecoder = new ParallelLogDecoder(logChannel, logIndex, codec, KEYFRAME_INTERVAL, BUFFER_SIZE, pool);
+
+            int[] numberOfDecodedLines = {0};
+            parallelDecoder.decode(first, last, (position, parallelLine) ->
+            {
+               assertEquals(first + numberOfDecodedLines[0], position);
+               assertEquals(BUFFER_SIZE, parallelLine.remaining());
+
+               serialLine.clear();
+               serialDecoder.decode(position, reader, serialLine);
+               for (int column = 0; column < NUMBER_OF_COLUMNS; column++)
+               {
+                  long value = serialLine.getLong(column * 8);
+                  assertEquals(getValue(position, column), value);
+                  assertEquals(value, parallelLine.getLong(column * 8));
+               }
+               numberOfDecodedLines[0]++;
+            });
+
+            assertEquals(Math.min(last, numberOfLines - 1) - first + 1, numberOfDecodedLines[0]);
+         }
+      }
+      finally
+      {
+         pool.shutdown();
+         data.delete();
+         index.delete();
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testDecodeAcrossSegmentBoundaries() throws IOException
+   {
+      int numberOfLines = 2 * LINES_PER_SEGMENT + 3;
+      for (LogCodec codec : new LogCodec[] {LogCodec.SNAPPY, LogCodec.DELTA_SNAPPY})
+      {
+         assertParallelMatchesSerial(codec, numberOfLines, 0, numberOfLines - 1);
+         // Starts between keyframes and ends in the middle of a segment
+         assertParallelMatchesSerial(codec, numberOfLines, KEYFRAME_INTERVAL + 1, 2 * LINES_PER_SEGMENT + 1);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testLogShorterThanOneSegment() throws IOException
+   {
+      int numberOfLines = LINES_PER_SEGMENT - 3;
+      for (LogCodec codec : new LogCodec[] {LogCodec.SNAPPY, LogCodec.DELTA_SNAPPY})
+      {
+         assertParallelMatchesSerial(codec, numberOfLines, 0, numberOfLines - 1);
+         // The range is clamped to the end of the log
+         assertParallelMatchesSerial(codec, numberOfLines, 1, 100);
+      }
+   }
+}
@@ -0,0 +1,275 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class WriteBehindLogWriterTest
+{
+   private static int getSize(int tick)
+   {
+      return 1 + tick % 90;
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testIndexMatchesData() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("WriteBehindLogWriterTest", ".bsz");
+      File index = File.createTempFile("WriteBehindLogWriterTest", ".dat");
+      try
+      {
+         FileChannel dataChannel = new FileOutputStream(data).getChannel();
+         FileChannel indexChannel = new FileOutputStream(index).getChannel();
+         WriteBehindLogWriter writer = new WriteBehindLogWriter(dataChannel, indexChannel, 100, 4096, 3, 0, Long.MAX_VALUE);
+
+         for (int tick = 0; tick < 2000; tick++)
+         {
+            if (tick == 500)
+            {
+               writer.clear();
+            }
+
+            ByteBuffer target = null;
+            while ((target = writer.reserve(100)) == null)
+            {
+               // Disk is behind, wait for a free batch
+               Thread.sleep(1);
+            }
+            for (int i = 0; i < getSize(tick); i++)
+            {
+               target.put((byte) tick);
+            }
+            writer.commit(tick);
+         }
+         writer.close();
+
+         byte[] dataBytes = Files.readAllBytes(data.toPath());
+         ByteBuffer indexBytes = ByteBuffer.wrap(Files.readAllBytes(index.toPath()));
+         assertEquals(1500 * 16, indexBytes.remaining());
+
+         long expectedOffset = 0;
+         for (int tick = 500; tick < 2000; tick++)
+         {
+            assertEquals(tick, indexBytes.getLong());
+            long offset = indexBytes.getLong();
+            assertEquals(expectedOffset, offset);
+            assertEquals((byte) tick, dataBytes[(int) offset]);
+            expectedOffset += getSize(tick);
+         }
+         assertEquals(expectedOffset, dataBytes.length);
+         assertEquals(2000, writer.getNumberOfWrittenTicks());
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testDropWhenPoolIsExhausted() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("WriteBehindLogWriterTest", ".bsz");
+      File index = File.createTempFile("WriteBehindLogWriterTest", ".dat");
+      try
+      {
+         // Batches only fit a single 4096 byte tick
+         WriteBehindLogWriter writer = new WriteBehindLogWriter(new FileOutputStream(data).getChannel(), new FileOutputStream(index).getChannel(), 4096,
+                                                                4096, 2, 0, Long.MAX_VALUE);
+
+         int dropped = 0;
+         for (int tick = 0; tick < 100; tick++)
+         {
+            ByteBuffer target = writer.reserve(4096);
+            if (target == null)
+            {
+               dropped++;
+               continue;
+            }
+            target.put(new byte[4096]);
+            writer.commit(tick);
+         }
+         assertEquals(dropped, writer.getNumberOfDroppedTicks());
+         writer.close();
+
+         assertEquals(writer.getNumberOfWrittenTicks() * 4096, data.length());
+         assertEquals(writer.getNumberOfWrittenTicks() * 16, index.length());
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+
+   private static class RecordingLineWriter implements LogLineWriter
+   {
+      private final List<Long> timestamps = new ArrayList<>();
+      private final List<Long> values = new ArrayList<>();
+      private Thread writerThread;
+      private boolean closed = false;
+
+      @Override
+      public void write(ByteBuffer logLine)
+      {
+         writerThread = Thread.currentThread();
+         timestamps.add(logLine.getLong(0));
+         values.add(logLine.getLong(8));
+      }
+
+      @Override
+      public void clear()
+      {
+         timestamps.clear();
+         values.clear();
+      }
+
+      @Override
+      public void close()
+      {
+         closed = true;
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testLineWritersAndRepeatedClear() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("WriteBehindLogWriterTest", ".bsz");
+      File index = File.createTempFile("WriteBehindLogWriterTest", ".dat");
+      try
+      {
+         int lineSize = 16;
+         RecordingLineWriter lineWriter = new RecordingLineWriter();
+         WriteBehindLogWriter writer = new WriteBehindLogWriter(new FileOutputStream(data).getChannel(), new FileOutputStream(index).getChannel(), 8, 4096,
+                                                                3, 0, Long.MAX_VALUE, lineSize, lineWriter);
+         ByteBuffer line = ByteBuffer.allocate(lineSize);
+
+         int firstTickAfterClear = 0;
+         for (int tick = 0; tick < 3000; tick++)
+         {
+            if (tick % 500 == 100)
+            {
+               // Many clears in a row must not fill the queue of the writer thread
+               for (int i = 0; i < 100; i++)
+               {
+                  writer.clear();
+               }
+               firstTickAfterClear = tick;
+            }
+
+            ByteBuffer target = null;
+            while ((target = writer.reserve(8)) == null)
+            {
+               Thread.sleep(1);
+            }
+            target.putLong(tick);
+
+            line.clear();
+            line.putLong(tick);
+            line.putLong(-tick);
+            line.flip();
+            writer.commit(tick, line);
+            assertEquals(0, line.position());
+         }
+         writer.close();
+
+         assertTrue(lineWriter.closed);
+         assertTrue(lineWriter.writerThread.isDaemon());
+         assertEquals(3000 - firstTickAfterClear, lineWriter.timestamps.size());
+         for (int i = 0; i < lineWriter.timestamps.size(); i++)
+         {
+            assertEquals(firstTickAfterClear + i, lineWriter.timestamps.get(i).longValue());
+            assertEquals(-(firstTickAfterClear + i), lineWriter.values.get(i).longValue());
+         }
+         assertEquals((3000 - firstTickAfterClear) * 8, data.length());
+         assertEquals((3000 - firstTickAfterClear) * 16, index.length());
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testLargeLinesDoNotLimitTicksPerBatch() throws IOException, InterruptedException
+   {
+      File data = File.createTempFile("WriteBehindLogWriterTest", ".bsz");
+      File index = File.createTempFile("WriteBehindLogWriterTest", ".dat");
+      try
+      {
+         // A single line is as large as the data of a batch, which holds 4096 / 16 ticks
+         int lineSize = 4096;
+         int ticksPerBatch = 4096 / 16;
+         CountDownLatch stall = new CountDownLatch(1);
+         RecordingLineWriter lineWriter = new RecordingLineWriter()
+         {
+            @Override
+            public void write(ByteBuffer logLine)
+            {
+               try
+               {
+                  stall.await();
+               }
+               catch (InterruptedException e)
+               {
+                  throw new RuntimeException(e);
+               }
+               super.write(logLine);
+            }
+         };
+         WriteBehindLogWriter writer = new WriteBehindLogWriter(new FileOutputStream(data).getChannel(), new FileOutputStream(index).getChannel(), 8, 4096,
+                                                                2, 0, Long.MAX_VALUE, lineSize, lineWriter);
+         ByteBuffer line = ByteBuffer.allocate(lineSize);
+
+         // The writer thread is stalled on the first batch, the second one fills up before ticks are dropped
+         int tick = 0;
+         ByteBuffer target;
+         while ((target = writer.reserve(8)) != null)
+         {
+            target.putLong(tick);
+            line.clear();
+            line.putLong(tick);
+            line.putLong(-tick);
+            line.clear();
+            writer.commit(tick, line);
+            tick++;
+         }
+         assertEquals(2 * ticksPerBatch, writer.getNumberOfWrittenTicks());
+         assertEquals(1, writer.getNumberOfDroppedTicks());
+
+         stall.countDown();
+         writer.close();
+
+         assertEquals(2 * ticksPerBatch, lineWriter.timestamps.size());
+         for (int i = 0; i < lineWriter.timestamps.size(); i++)
+         {
+            assertEquals(i, lineWriter.timestamps.get(i).longValue());
+            assertEquals(-i, lineWriter.values.get(i).longValue());
+         }
+         assertEquals(2 * ticksPerBatch * 8, data.length());
+      }
+      finally
+      {
+         data.delete();
+         index.delete();
+      }
+   }
+}
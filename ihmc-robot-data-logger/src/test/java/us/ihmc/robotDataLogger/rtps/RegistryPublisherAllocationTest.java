@@ -0,0 +1,63 @@
+package us.ihmc.robotDataLogger.rtps;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.util.PeriodicNonRealtimeThreadSchedulerFactory;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+
+public class RegistryPublisherAllocationTest
+{
+   private static final int NUMBER_OF_VARIABLES = 5000;
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0, categoriesOverride = {IntegrationCategory.SLOW})
+   @Test(timeout = 30000)
+   public void testUpdateDoesNotAllocate() throws IOException
+   {
+      AllocationProfiler.checkInstrumentation();
+
+      Random random = new Random(1234L);
+      YoVariableRegistry registry = new YoVariableRegistry("root");
+      RegistrySendBufferBuilder builder = new RegistrySendBufferBuilder(registry, null, null);
+      for (int i = 0; i < NUMBER_OF_VARIABLES; i++)
+      {
+         YoDouble variable = new YoDouble("variable" + i, registry);
+         variable.set(random.nextDouble());
+      }
+      builder.getVariables().addAll(registry.getAllVariables());
+      builder.build(0);
+
+      // The publisher thread is never started, so the ring buffer fills up and update() also has to handle a full buffer.
+      RegistryPublisher publisher = new RegistryPublisher(new PeriodicNonRealtimeThreadSchedulerFactory(), builder, null);
+
+      // Warm up
+      for (int i = 0; i < 10; i++)
+      {
+         publisher.update(i);
+      }
+
+      AllocationProfiler allocationProfiler = new AllocationProfiler();
+      List<AllocationRecord> allocations = allocationProfiler.recordAllocations(() -> {
+         for (int i = 0; i < 1000; i++)
+         {
+            publisher.update(i);
+         }
+      });
+
+      if (!allocations.isEmpty())
+      {
+         allocations.forEach(allocation -> System.out.println(allocation));
+         Assert.fail("Found allocations in RegistryPublisher.update()");
+      }
+   }
+}
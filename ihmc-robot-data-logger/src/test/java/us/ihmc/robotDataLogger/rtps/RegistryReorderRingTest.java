@@ -0,0 +1,100 @@
+package us.ihmc.robotDataLogger.rtps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotDataLogger.dataBuffers.RegistryReceiveBuffer;
+
+public class RegistryReorderRingTest
+{
+   private static RegistryReceiveBuffer createBuffer(long timestamp)
+   {
+      RegistryReceiveBuffer buffer = new RegistryReceiveBuffer(System.nanoTime());
+      buffer.setTimestamp(timestamp);
+      return buffer;
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testOrderingAndCapacity()
+   {
+      RegistryReorderRing ring = new RegistryReorderRing(6);
+      assertEquals(8, ring.getCapacity());
+      assertNull(ring.poll());
+
+      long[] timestamps = { 5, 3, 7, 1, 2, 8, 6, 4 };
+      for (long timestamp : timestamps)
+      {
+         assertTrue(ring.offer(createBuffer(timestamp)));
+      }
+      assertFalse(ring.offer(createBuffer(9)));
+
+      assertEquals(8, ring.size());
+      for (int i = 1; i <= 8; i++)
+      {
+         assertEquals(i, ring.peek().getTimestamp());
+         assertEquals(i, ring.poll().getTimestamp());
+      }
+      assertTrue(ring.isEmpty());
+      assertTrue(ring.offer(createBuffer(9)));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentReordering() throws InterruptedException
+   {
+      int elements = 200000;
+      int window = 16;
+      RegistryReorderRing ring = new RegistryReorderRing(1024);
+
+      Thread producer = new Thread(() -> {
+         Random random = new Random(1234);
+         long[] block = new long[window];
+         for (int start = 0; start < elements; start += window)
+         {
+            for (int i = 0; i < window; i++)
+            {
+               block[i] = start + i;
+            }
+            for (int i = window - 1; i > 0; i--)
+            {
+               int j = random.nextInt(i + 1);
+               long tmp = block[i];
+               block[i] = block[j];
+               block[j] = tmp;
+            }
+            for (int i = 0; i < window; i++)
+            {
+               while (!ring.offer(createBuffer(block[i])))
+               {
+                  Thread.yield();
+               }
+            }
+         }
+      });
+      producer.start();
+
+      long expected = 0;
+      while (expected < elements)
+      {
+         ring.await(1000000);
+         // Only release blocks that are complete, anything else can still be reordered
+         while (ring.size() >= window)
+         {
+            for (int i = 0; i < window; i++)
+            {
+               assertEquals(expected++, ring.poll().getTimestamp());
+            }
+         }
+      }
+      producer.join();
+      assertTrue(ring.isEmpty());
+   }
+}
@@ -17,6 +17,7 @@ import org.tukaani.xz.XZOutputStream;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 
+import us.ihmc.robotDataLogger.LogCodec;
 import us.ihmc.robotDataLogger.LogProperties;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
@@ -48,6 +49,12 @@ public class LogFileCompressor extends YoVariableLogReader
       super(logDirectory, logProperties);
       this.targetDirectory = targetDirectory;
 
+      // LogFileDecompressor restores the data file with Snappy and validates it against the checksum of the original file
+      if (logProperties.getVariables().getCodec() != LogCodec.SNAPPY)
+      {
+         throw new RuntimeException("Cannot compress logs encoded with " + logProperties.getVariables().getCodec() + ", only " + LogCodec.SNAPPY + " is supported");
+      }
+
       initialize();
 
       int maxBufferedElements = MAX_BUFFER_SIZE_IN_BYTE / 8;
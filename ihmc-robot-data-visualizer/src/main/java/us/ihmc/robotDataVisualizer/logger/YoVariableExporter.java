@@ -2,7 +2,6 @@ package us.ihmc.robotDataVisualizer.logger;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +16,7 @@ import com.jmatio.types.MLNumericArray;
 import us.ihmc.commons.Conversions;
 import us.ihmc.yoVariables.dataBuffer.DataEntry;
 import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.logger.ParallelLogDecoder;
 import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
 import us.ihmc.robotDataVisualizer.logger.util.CustomProgressMonitor;
 import us.ihmc.robotDataVisualizer.logger.util.ProgressMonitorInterface;
@@ -98,27 +98,21 @@ public class YoVariableExporter extends YoVariableLogReader
          
          
          
-         int step = elements / 90;
+         int step = Math.max(1, elements / 90);
          
-         long firstTimestamp = -1;
-         for (int i = startPosition; i <= endPosition; i++)
-         {
+         long firstTimestamp = getTimestamp(startPosition);
+         ParallelLogDecoder decoder = createParallelDecoder();
+         decoder.decode(startPosition, endPosition, (i, data) -> {
             if((i - startPosition) % step == 0) 
             {
                monitor.setProgress((i - startPosition) / step);
             }
             
-            ByteBuffer data = readData(i);
             LongBuffer dataAsLong = data.asLongBuffer();
 
             
             long entryTimestamp = dataAsLong.get();
             
-            if(firstTimestamp == -1)
-            {
-               firstTimestamp = entryTimestamp;
-            }
-            
             timestamp.setReal(entryTimestamp, i - startPosition);
             robotTime.setReal(Conversions.nanosecondsToSeconds(entryTimestamp - firstTimestamp), i - startPosition);
             
@@ -127,7 +121,7 @@ public class YoVariableExporter extends YoVariableLogReader
                DataHolder<?> dataHolder = dataHolders.get(dh);
                dataHolder.addEntry(dataAsLong);
             }
-         }
+         });
          
          monitor.setNote("Writing data to disk");
          ArrayList<MLArray>  matlabData = new ArrayList<>();
@@ -13,6 +13,8 @@ import us.ihmc.robotDataVisualizer.logger.util.ProgressMonitorInterface;
 
 public class YoVariableLogCropper extends YoVariableLogReader
 {
+   private static final int INDEX_ENTRIES_PER_WRITE = 4096;
+   
    private final MultiVideoDataPlayer player;
 
 
@@ -76,25 +78,31 @@ public class YoVariableLogCropper extends YoVariableLogReader
          FileOutputStream indexStream = new FileOutputStream(indexFile);
          FileChannel indexChannel = indexStream.getChannel();
 
-         int startPosition = getPosition(inStamp);
+         // Delta encoded data can only be decoded starting at a keyframe, so the cropped log starts at the keyframe before inStamp
+         int startPosition = getKeyframe(getPosition(inStamp));
          int endPosition = getPosition(outStamp);
 
          monitor.setNote("Writing variable data");
 
-         ByteBuffer indexBuffer = ByteBuffer.allocateDirect(16);
+         // The compressed entries are contiguous in the data file, so the data can be copied in bulk. Only the index needs rewriting.
+         long startOffset = getDataOffset(startPosition);
+         ByteBuffer indexBuffer = ByteBuffer.allocateDirect(16 * INDEX_ENTRIES_PER_WRITE);
          for (int i = startPosition; i <= endPosition; i++)
          {
-            
-            ByteBuffer compressedData = readCompressedData(i);
-
-            indexBuffer.clear();
             indexBuffer.putLong(getTimestamp(i));
-            indexBuffer.putLong(outputChannel.position());
-            indexBuffer.flip();
-            indexChannel.write(indexBuffer);
-
-            outputChannel.write(compressedData);
+            indexBuffer.putLong(getDataOffset(i) - startOffset);
+            
+            if (!indexBuffer.hasRemaining())
+            {
+               indexBuffer.flip();
+               indexChannel.write(indexBuffer);
+               indexBuffer.clear();
+            }
          }
+         indexBuffer.flip();
+         indexChannel.write(indexBuffer);
+
+         transferCompressedData(startPosition, endPosition, outputChannel);
 
          outputChannel.close();
          fileOutputStream.close();
@@ -10,8 +10,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import us.ihmc.commons.Conversions;
-import us.ihmc.robotDataLogger.LogIndex;
+import us.ihmc.robotDataLogger.MappedLogIndex;
 import us.ihmc.robotDataLogger.jointState.JointState;
+import us.ihmc.robotDataLogger.logger.LogDataDecoder;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataVisualizer.VisualizerRobot;
 import us.ihmc.robotDataVisualizer.visualizer.JointUpdater;
@@ -23,7 +24,6 @@ import us.ihmc.yoVariables.variable.YoLong;
 import us.ihmc.yoVariables.variable.YoVariable;
 import us.ihmc.robotics.robotDescription.RobotDescription;
 import us.ihmc.simulationconstructionset.SimulationConstructionSet;
-import us.ihmc.tools.compression.SnappyUtils;
 
 public class YoVariableLogPlaybackRobot extends VisualizerRobot implements RewoundListener
 {
@@ -36,8 +36,9 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
    // Compressed data helpers
    private final boolean compressed;
-   private final LogIndex logIndex;
+   private final MappedLogIndex logIndex;
    private final ByteBuffer compressedBuffer;
+   private final LogDataDecoder logDataDecoder;
    private int index = 0;
 
    private final List<JointState> jointStates;
@@ -90,8 +91,9 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          {
             throw new RuntimeException("Cannot find " + logProperties.getVariables().getIndexAsString());
          }
-         logIndex = new LogIndex(indexData, logChannel.size());
-         compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+         logIndex = new MappedLogIndex(indexData, logChannel.size());
+         logDataDecoder = LogDataDecoder.create(logProperties, bufferSize);
+         compressedBuffer = ByteBuffer.allocate(logDataDecoder.maxCompressedLength());
          numberOfEntries = logIndex.getNumberOfEntries();
       }
       else
@@ -99,6 +101,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          numberOfEntries = (int) (logChannel.size() / bufferSize) - 1;
          logIndex = null;
          compressedBuffer = null;
+         logDataDecoder = null;
       }
 
       JointUpdater.getJointUpdaterList(getRootJoints(), jointStates, jointUpdaters);
@@ -241,9 +244,9 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
       if (compressed)
       {
          index = position;
-         if(index < logIndex.dataOffsets.length)
+         if(index < logIndex.getNumberOfEntries())
          {
-            logChannel.position(logIndex.dataOffsets[position]);
+            logChannel.position(logIndex.getDataOffset(position));
          }
       }
       else
@@ -259,7 +262,23 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          throw new RuntimeException("Cannot get timestamp for non-compressed logs");
       }
 
-      return logIndex.timestamps[position];
+      return logIndex.getTimestamp(position);
+   }
+
+   private ByteBuffer readCompressedData(int position) throws IOException
+   {
+      int size = logIndex.getCompressedSize(position);
+      compressedBuffer.clear();
+      compressedBuffer.limit(size);
+
+      int read = logChannel.read(compressedBuffer, logIndex.getDataOffset(position));
+
+      if(read != size)
+      {
+         throw new RuntimeException("Expected read of " + size + ", got " + read + ". TODO: Implement loop for reading the full log line.");
+      }
+      compressedBuffer.flip();
+      return compressedBuffer;
    }
 
    private boolean readLogLine() throws IOException
@@ -273,19 +292,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          {
             return false;
          }
-         int size = logIndex.compressedSizes[index];
-         compressedBuffer.clear();
-         compressedBuffer.limit(size);
-
-         int read = logChannel.read(compressedBuffer);
-
-         if(read != size)
-         {
-            throw new RuntimeException("Expected read of " + size + ", got " + read + ". TODO: Implement loop for reading the full log line.");
-         }
-         compressedBuffer.flip();
-
-         SnappyUtils.uncompress(compressedBuffer, logLine);
+         logDataDecoder.decode(index, this::readCompressedData, logLine);
          ++index;
 
          return true;
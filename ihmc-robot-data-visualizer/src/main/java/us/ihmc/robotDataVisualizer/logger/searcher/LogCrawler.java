@@ -4,13 +4,24 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import gnu.trove.list.array.TIntArrayList;
 
 import us.ihmc.commons.Conversions;
 import us.ihmc.modelFileLoaders.SdfLoader.GeneralizedSDFRobotModel;
 import us.ihmc.modelFileLoaders.SdfLoader.RobotDescriptionFromSDFLoader;
 import us.ihmc.multicastLogDataProtocol.modelLoaders.SDFModelLoader;
+import us.ihmc.robotDataLogger.MappedLogIndex;
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.ColumnarLogData;
+import us.ihmc.robotDataLogger.logger.ColumnarLogReader;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.ParallelLogDecoder;
 import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
 import us.ihmc.robotDataVisualizer.logger.converters.LogFormatUpdater;
 import us.ihmc.robotics.robotDescription.RobotDescription;
@@ -25,6 +36,11 @@ public class LogCrawler implements Runnable
    private File logFile;
    private RobotDescription robotDescription;
 
+   // Headless streaming mode
+   private Pattern variableFilter;
+   private LogVariableStreamListener streamListener;
+   private volatile boolean stopRequested = false;
+
    public LogCrawler(File logFile, LogCrawlerListenerInterface playbackListener) throws IOException
    {
       this.logFile = logFile;
@@ -32,12 +48,57 @@ public class LogCrawler implements Runnable
       this.playbackListener = playbackListener;
    }
 
-   private void readLogFile(File selectedFile) throws IOException
+   /**
+    * Create a headless crawler that streams the values of the variables matching variableFilter to streamListener.
+    * 
+    * The model is not loaded and no robot is created. If the log contains columnar data, only the columns of the selected variables are decompressed.
+    * 
+    * @param logFile log directory
+    * @param variableFilter Regular expression that is matched against the name and the full name with name space of each variable
+    * @param streamListener listener for the variable values
+    */
+   public LogCrawler(File logFile, Pattern variableFilter, LogVariableStreamListener streamListener)
+   {
+      this.logFile = logFile;
+      logFileName = logFile.getName();
+      this.variableFilter = variableFilter;
+      this.streamListener = streamListener;
+   }
+
+   /**
+    * Create a headless crawler that streams the values of the variables with the given names to streamListener.
+    * 
+    * @see #LogCrawler(File, Pattern, LogVariableStreamListener)
+    */
+   public LogCrawler(File logFile, List<String> variableNames, LogVariableStreamListener streamListener)
+   {
+      this(logFile, createPattern(variableNames), streamListener);
+   }
+
+   private static Pattern createPattern(List<String> variableNames)
+   {
+      StringBuilder pattern = new StringBuilder();
+      for (int i = 0; i < variableNames.size(); i++)
+      {
+         if (i > 0)
+         {
+            pattern.append('|');
+         }
+         pattern.append(Pattern.quote(variableNames.get(i)));
+      }
+      return Pattern.compile(pattern.toString());
+   }
+
+   private LogPropertiesReader readLogProperties(File selectedFile)
    {
       LogPropertiesReader logProperties = new LogPropertiesReader(new File(selectedFile, YoVariableLoggerListener.propertyFile));
       LogFormatUpdater.updateLogs(selectedFile, logProperties);
       logProperties.getCameras().clear();
+      return logProperties;
+   }
 
+   private YoVariableHandshakeParser readHandshake(File selectedFile, LogPropertiesReader logProperties) throws IOException
+   {
       File handshake = new File(selectedFile, logProperties.getVariables().getHandshakeAsString());
       if (!handshake.exists())
       {
@@ -51,6 +112,13 @@ public class LogCrawler implements Runnable
 
       YoVariableHandshakeParser parser = YoVariableHandshakeParser.create(logProperties.getVariables().getHandshakeFileType());
       parser.parseFrom(handshakeData);
+      return parser;
+   }
+
+   private void readLogFile(File selectedFile) throws IOException
+   {
+      LogPropertiesReader logProperties = readLogProperties(selectedFile);
+      YoVariableHandshakeParser parser = readHandshake(selectedFile, logProperties);
       
       GeneralizedSDFRobotModel generalizedSDFRobotModel;
       if (!logProperties.getModel().getLoaderAsString().isEmpty())
@@ -91,8 +159,94 @@ public class LogCrawler implements Runnable
       dt = parser.getDt();
    }
 
+   private void streamVariables() throws IOException
+   {
+      LogPropertiesReader logProperties = readLogProperties(logFile);
+      if (!logProperties.getVariables().getCompressed())
+      {
+         throw new RuntimeException("Streaming is only supported for compressed logs. Use LogCompressor to compress " + logFile);
+      }
+      YoVariableHandshakeParser parser = readHandshake(logFile, logProperties);
+      dt = parser.getDt();
+
+      List<YoVariable<?>> allVariables = parser.getYoVariablesList();
+      ArrayList<YoVariable<?>> selectedVariables = new ArrayList<>();
+      TIntArrayList columns = new TIntArrayList();
+      for (int i = 0; i < allVariables.size(); i++)
+      {
+         YoVariable<?> variable = allVariables.get(i);
+         if (variableFilter.matcher(variable.getName()).matches() || variableFilter.matcher(variable.getFullNameWithNameSpace()).matches())
+         {
+            selectedVariables.add(variable);
+            columns.add(i + 1); // Column 0 is the timestamp
+         }
+      }
+
+      streamListener.onStart(this, selectedVariables);
+      double[] values = new double[selectedVariables.size()];
+
+      ColumnarLogReader columnarLogReader = ColumnarLogReader.open(logFile, logProperties);
+      if (columnarLogReader != null)
+      {
+         try
+         {
+            int[] requestedColumns = columns.toArray();
+            for (int chunk = 0; chunk < columnarLogReader.getNumberOfChunks() && !stopRequested; chunk++)
+            {
+               ColumnarLogData data = columnarLogReader.readChunk(chunk, requestedColumns);
+               for (int element = 0; element < data.getNumberOfElements() && !stopRequested; element++)
+               {
+                  for (int v = 0; v < values.length; v++)
+                  {
+                     values[v] = toDouble(selectedVariables.get(v), data.getLongBits(v, element));
+                  }
+                  streamListener.process(data.getTimestamp(element), values);
+               }
+            }
+         }
+         finally
+         {
+            columnarLogReader.close();
+         }
+      }
+      else
+      {
+         // Row based data has to be decompressed completely, decode ahead on all cores.
+         File logdata = new File(logFile, logProperties.getVariables().getDataAsString());
+         File index = new File(logFile, logProperties.getVariables().getIndexAsString());
+         try (FileInputStream logStream = new FileInputStream(logdata); FileChannel logChannel = logStream.getChannel())
+         {
+            MappedLogIndex logIndex = new MappedLogIndex(index, logChannel.size());
+            ParallelLogDecoder decoder = new ParallelLogDecoder(logChannel, logIndex, logProperties, parser.getBufferSize());
+            decoder.start(0, logIndex.getNumberOfEntries() - 1);
+            while (decoder.hasNext() && !stopRequested)
+            {
+               ByteBuffer data = decoder.next();
+               for (int v = 0; v < values.length; v++)
+               {
+                  values[v] = toDouble(selectedVariables.get(v), data.getLong(columns.get(v) * 8));
+               }
+               streamListener.process(data.getLong(0), values);
+            }
+            decoder.cancel();
+         }
+      }
+   }
+
+   private static double toDouble(YoVariable<?> variable, long longBits)
+   {
+      variable.setValueFromLongBits(longBits, false);
+      return variable.getValueAsDouble();
+   }
+
    public void run()
    {
+      if (streamListener != null)
+      {
+         runHeadless();
+         return;
+      }
+
       System.out.println("loading log from folder:" + logFile);
       long startTime = System.currentTimeMillis();
 
@@ -119,6 +273,35 @@ public class LogCrawler implements Runnable
       }
    }
    
+   private void runHeadless()
+   {
+      System.out.println("Streaming variables from " + logFile);
+      long startTime = System.currentTimeMillis();
+      try
+      {
+         streamVariables();
+      }
+      catch (IOException e)
+      {
+         e.printStackTrace();
+      }
+      finally
+      {
+         long endTime = System.currentTimeMillis();
+         System.out.println("Finished streaming " + logFileName + ", took " + Conversions.millisecondsToSeconds(endTime - startTime) + " seconds");
+         streamListener.onFinish();
+      }
+   }
+   
+   /**
+    * Stop streaming after the current tick. Can be called from {@link LogVariableStreamListener#process(long, double[])} to end a
+    * headless crawl early.
+    */
+   public void stop()
+   {
+      stopRequested = true;
+   }
+
    public double getDT()
    {
       return dt;
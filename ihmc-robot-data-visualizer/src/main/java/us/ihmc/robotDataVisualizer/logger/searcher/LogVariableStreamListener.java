@@ -0,0 +1,30 @@
+package us.ihmc.robotDataVisualizer.logger.searcher;
+
+import java.util.List;
+
+import us.ihmc.yoVariables.variable.YoVariable;
+
+/**
+ * Listener for the headless streaming mode of the LogCrawler. No model or robot is loaded in this mode.
+ */
+public interface LogVariableStreamListener
+{
+   /**
+    * Called before streaming starts
+    * 
+    * @param logSearcher crawler that is streaming
+    * @param variables variables that matched the filter, in the order of the values passed to process
+    */
+   public abstract void onStart(LogCrawler logSearcher, List<YoVariable<?>> variables);
+
+   /**
+    * Called for every tick in the log
+    * 
+    * @param timestamp timestamp of the tick
+    * @param values values of the selected variables. The array is reused between calls.
+    * @see LogCrawler#stop()
+    */
+   public abstract void process(long timestamp, double[] values);
+
+   public abstract void onFinish();
+}
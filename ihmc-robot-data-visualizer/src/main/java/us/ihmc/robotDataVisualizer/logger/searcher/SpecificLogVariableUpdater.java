@@ -11,15 +11,15 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import us.ihmc.commons.Conversions;
-import us.ihmc.robotDataLogger.LogIndex;
+import us.ihmc.robotDataLogger.MappedLogIndex;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.ParallelLogDecoder;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoDouble;
 import us.ihmc.yoVariables.variable.YoLong;
 import us.ihmc.yoVariables.variable.YoVariable;
 import us.ihmc.robotics.robotDescription.RobotDescription;
-import us.ihmc.tools.compression.SnappyUtils;
 
 public class SpecificLogVariableUpdater
 {
@@ -32,8 +32,8 @@ public class SpecificLogVariableUpdater
 
    // Compressed data helpers
    private final boolean compressed;
-   private final LogIndex logIndex;
-   private final ByteBuffer compressedBuffer;
+   private final MappedLogIndex logIndex;
+   private final ParallelLogDecoder decoder;
    private int index = 0;
 
    private final ByteBuffer logLine;
@@ -75,13 +75,13 @@ public class SpecificLogVariableUpdater
          {
             throw new RuntimeException("Cannot find " + logProperties.getVariables().getIndexAsString());
          }
-         logIndex = new LogIndex(indexData, logChannel.size());
-         compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+         logIndex = new MappedLogIndex(indexData, logChannel.size());
+         decoder = new ParallelLogDecoder(logChannel, logIndex, logProperties, bufferSize);
       }
       else
       {
          logIndex = null;
-         compressedBuffer = null;
+         decoder = null;
       }
 
       logLine = ByteBuffer.allocate(bufferSize);
@@ -159,10 +159,7 @@ public class SpecificLogVariableUpdater
       if (compressed)
       {
          index = position;
-         if(index < logIndex.dataOffsets.length)
-         {
-            logChannel.position(logIndex.dataOffsets[position]);
-         }
+         decoder.start(position, logIndex.getNumberOfEntries() - 1);
       }
       else
       {
@@ -177,23 +174,11 @@ public class SpecificLogVariableUpdater
 
       if (compressed)
       {
-         if(index >= logIndex.getNumberOfEntries())
+         if(!decoder.hasNext())
          {
             return false;
          }
-         int size = logIndex.compressedSizes[index];
-         compressedBuffer.clear();
-         compressedBuffer.limit(size);
-
-         int read = logChannel.read(compressedBuffer);
-
-         if(read != size)
-         {
-            throw new RuntimeException("Expected read of " + size + ", got " + read + ". TODO: Implement loop for reading the full log line.");
-         }
-         compressedBuffer.flip();
-
-         SnappyUtils.uncompress(compressedBuffer, logLine);
+         logLine.put(decoder.next());
          ++index;
 
          return true;
@@ -226,6 +211,10 @@ public class SpecificLogVariableUpdater
    {
       try
       {
+         if (decoder != null)
+         {
+            decoder.cancel();
+         }
          logChannel.close();
       }
       catch (IOException e)
@@ -0,0 +1,178 @@
+package us.ihmc.robotDataVisualizer.logger.searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.idl.serializers.extra.YAMLSerializer;
+import us.ihmc.robotDataLogger.Handshake;
+import us.ihmc.robotDataLogger.HandshakeFileType;
+import us.ihmc.robotDataLogger.HandshakePubSubType;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandShakeBuilder;
+import us.ihmc.robotDataLogger.logger.ColumnarLogWriter;
+import us.ihmc.robotDataLogger.logger.LogPropertiesWriter;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+import us.ihmc.yoVariables.variable.YoVariable;
+
+public class LogCrawlerTest
+{
+   private static final int NUMBER_OF_VARIABLES = 20;
+   private static final int NUMBER_OF_TICKS = 1000;
+
+   private static long getTimestamp(int tick)
+   {
+      return 5000L + tick * 1000L;
+   }
+
+   private static double getValue(int tick, int variable)
+   {
+      return tick * 0.5 + variable;
+   }
+
+   /**
+    * Write a log with only columnar data, so the crawler cannot fall back to the row data.
+    */
+   private static void createColumnarLog(File directory) throws IOException
+   {
+      YoVariableRegistry root = new YoVariableRegistry("root");
+      YoVariableRegistry registry = new YoVariableRegistry("variables");
+      root.addChild(registry);
+      for (int i = 0; i < NUMBER_OF_VARIABLES; i++)
+      {
+         new YoDouble("variable" + i, registry);
+      }
+
+      YoVariableHandShakeBuilder handShakeBuilder = new YoVariableHandShakeBuilder(root.getName(), 0.001);
+      handShakeBuilder.addRegistryBuffer(new RegistrySendBufferBuilder(registry, null, null));
+      Handshake handshake = handShakeBuilder.getHandShake();
+      YAMLSerializer<Handshake> serializer = new YAMLSerializer<>(new HandshakePubSubType());
+      serializer.serialize(new File(directory, "handshake.yaml"), handshake);
+
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(new File(directory, YoVariableLoggerListener.propertyFile));
+      logProperties.getVariables().setHandshake("handshake.yaml");
+      logProperties.getVariables().setData("robotData.bsz");
+      logProperties.getVariables().setCompressed(true);
+      logProperties.getVariables().setTimestamped(true);
+      logProperties.getVariables().setIndex("robotData.dat");
+      logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.getVariables().setColumnData(YoVariableLoggerListener.columnDataFilename);
+      logProperties.getVariables().setColumnIndex(YoVariableLoggerListener.columnIndexFilename);
+      logProperties.store();
+
+      int numberOfColumns = 1 + handShakeBuilder.getNumberOfVariables();
+      ColumnarLogWriter writer = new ColumnarLogWriter(new File(directory, YoVariableLoggerListener.columnDataFilename),
+                                                       new File(directory, YoVariableLoggerListener.columnIndexFilename), numberOfColumns, 64);
+      ByteBuffer line = ByteBuffer.allocate(numberOfColumns * 8);
+      for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+      {
+         line.clear();
+         line.putLong(getTimestamp(tick));
+         for (int variable = 0; variable < numberOfColumns - 1; variable++)
+         {
+            line.putLong(Double.doubleToLongBits(getValue(tick, variable)));
+         }
+         line.flip();
+         writer.write(line);
+      }
+      writer.close();
+   }
+
+   private static class RecordingListener implements LogVariableStreamListener
+   {
+      private final int ticksBeforeStop;
+      private final List<String> variableNames = new ArrayList<>();
+      private final List<Long> timestamps = new ArrayList<>();
+      private final List<double[]> values = new ArrayList<>();
+      private LogCrawler crawler;
+      private boolean finished = false;
+
+      RecordingListener(int ticksBeforeStop)
+      {
+         this.ticksBeforeStop = ticksBeforeStop;
+      }
+
+      @Override
+      public void onStart(LogCrawler logSearcher, List<YoVariable<?>> variables)
+      {
+         crawler = logSearcher;
+         for (YoVariable<?> variable : variables)
+         {
+            variableNames.add(variable.getName());
+         }
+      }
+
+      @Override
+      public void process(long timestamp, double[] values)
+      {
+         timestamps.add(timestamp);
+         this.values.add(values.clone());
+         if (timestamps.size() == ticksBeforeStop)
+         {
+            crawler.stop();
+         }
+      }
+
+      @Override
+      public void onFinish()
+      {
+         finished = true;
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testStreamColumnarLog() throws IOException
+   {
+      File directory = Files.createTempDirectory("LogCrawlerTest").toFile();
+      try
+      {
+         createColumnarLog(directory);
+
+         RecordingListener listener = new RecordingListener(-1);
+         new LogCrawler(directory, Pattern.compile("variable(3|17)"), listener).run();
+
+         assertTrue(listener.finished);
+         assertEquals(Arrays.asList("variable3", "variable17"), listener.variableNames);
+         assertEquals(NUMBER_OF_TICKS, listener.timestamps.size());
+         for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+         {
+            assertEquals(getTimestamp(tick), listener.timestamps.get(tick).longValue());
+            assertEquals(getValue(tick, 3), listener.values.get(tick)[0], 0.0);
+            assertEquals(getValue(tick, 17), listener.values.get(tick)[1], 0.0);
+         }
+
+         int ticksBeforeStop = 150;
+         RecordingListener stoppingListener = new RecordingListener(ticksBeforeStop);
+         new LogCrawler(directory, Arrays.asList("variable0", "variable9"), stoppingListener).run();
+
+         assertTrue(stoppingListener.finished);
+         assertEquals(Arrays.asList("variable0", "variable9"), stoppingListener.variableNames);
+         assertEquals(ticksBeforeStop, stoppingListener.timestamps.size());
+         for (int tick = 0; tick < ticksBeforeStop; tick++)
+         {
+            assertEquals(getTimestamp(tick), stoppingListener.timestamps.get(tick).longValue());
+            assertEquals(getValue(tick, 0), stoppingListener.values.get(tick)[0], 0.0);
+            assertEquals(getValue(tick, 9), stoppingListener.values.get(tick)[1], 0.0);
+         }
+      }
+      finally
+      {
+         FileUtils.deleteDirectory(directory);
+      }
+   }
+}
@@ -53,7 +53,11 @@ public class PlanarRegion
 
    private final ConvexPolygon2D convexHull = new ConvexPolygon2D();
 
-   private final ConvexPolygonTools convexPolygonTools = new ConvexPolygonTools();
+   /** ConvexPolygonTools keeps internal scratch variables, one instance per thread keeps the queries thread safe */
+   private static final ThreadLocal<ConvexPolygonTools> convexPolygonTools = ThreadLocal.withInitial(ConvexPolygonTools::new);
+   /** Scratch points of {@link #distanceToPointByProjectionOntoXYPlane(double, double)}, one per thread like the ConvexPolygonTools */
+   private static final ThreadLocal<Point3D> tempLocalPoint = ThreadLocal.withInitial(Point3D::new);
+   private static final ThreadLocal<Point2D> tempLocalPoint2D = ThreadLocal.withInitial(Point2D::new);
 
    /**
     * Create a new, empty planar region.
@@ -215,7 +219,7 @@ public class PlanarRegion
       for (int i = 0; i < getNumberOfConvexPolygons(); i++)
       {
          ConvexPolygon2D polygonToCheck = convexPolygons.get(i);
-         boolean hasIntersection = convexPolygonTools.computeIntersectionOfPolygons(polygonToCheck, projectedPolygon, dummyPolygon);
+         boolean hasIntersection = convexPolygonTools.get().computeIntersectionOfPolygons(polygonToCheck, projectedPolygon, dummyPolygon);
          if (hasIntersection)
             return true;
       }
@@ -241,7 +245,7 @@ public class PlanarRegion
       for (int i = 0; i < getNumberOfConvexPolygons(); i++)
       {
          ConvexPolygon2D intersectingPolygon = new ConvexPolygon2D();
-         if (convexPolygonTools.computeIntersectionOfPolygons(convexPolygons.get(i), projectedPolygon, intersectingPolygon))
+         if (convexPolygonTools.get().computeIntersectionOfPolygons(convexPolygons.get(i), projectedPolygon, intersectingPolygon))
          {
             intersectionsInPlaneFrameToPack.add(intersectingPolygon);
          }
@@ -294,7 +298,7 @@ public class PlanarRegion
       for (int i = 0; i < getNumberOfConvexPolygons(); i++)
       {
          ConvexPolygon2D intersectingPolygon = new ConvexPolygon2D();
-         convexPolygonTools.computeIntersectionOfPolygons(convexPolygons.get(i), projectedPolygon, intersectingPolygon);
+         convexPolygonTools.get().computeIntersectionOfPolygons(convexPolygons.get(i), projectedPolygon, intersectingPolygon);
 
          if (intersectingPolygon != null)
          {
@@ -466,8 +470,6 @@ public class PlanarRegion
       return distanceToPointByProjectionOntoXYPlane(point2d.getX(), point2d.getY());
    }
 
-   private final Point3D localPoint = new Point3D();
-   private final Point2D localPoint2D = new Point2D();
    /**
     * Computes the distance of the point to the region projected onto the world xy-plane.
     *
@@ -477,13 +479,12 @@ public class PlanarRegion
     */
    public double distanceToPointByProjectionOntoXYPlane(double x, double y)
    {
-      localPoint.setX(x);
-      localPoint.setY(y);
-      localPoint.setZ(getPlaneZGivenXY(x, y));
-
+      Point3D localPoint = tempLocalPoint.get();
+      localPoint.set(x, y, getPlaneZGivenXY(x, y));
       fromWorldToLocalTransform.transform(localPoint);
-      localPoint2D.set(localPoint);
 
+      Point2D localPoint2D = tempLocalPoint2D.get();
+      localPoint2D.set(localPoint.getX(), localPoint.getY());
       return distanceToPoint(localPoint2D);
    }
 
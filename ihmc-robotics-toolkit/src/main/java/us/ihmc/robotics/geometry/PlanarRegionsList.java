@@ -14,7 +14,13 @@ import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
 
 public class PlanarRegionsList
 {
+   public static final double DEFAULT_SPATIAL_INDEX_CELL_SIZE = 1.0;
+
    private final List<PlanarRegion> regions;
+   private volatile PlanarRegionsListSpatialIndex spatialIndex = null;
+
+   /** Candidates of the query running on the current thread, queries do not call each other. */
+   private static final ThreadLocal<List<PlanarRegion>> queryCandidates = ThreadLocal.withInitial(ArrayList::new);
 
    public PlanarRegionsList(PlanarRegion... planarRegions)
    {
@@ -38,6 +44,8 @@ public class PlanarRegionsList
    public void addPlanarRegion(PlanarRegion region)
    {
       regions.add(region);
+      if (spatialIndex != null)
+         spatialIndex.add(region);
    }
 
    /**
@@ -46,6 +54,108 @@ public class PlanarRegionsList
    public void clear()
    {
       regions.clear();
+      if (spatialIndex != null)
+         spatialIndex.clear();
+   }
+
+   /**
+    * Enables the spatial index with {@link #DEFAULT_SPATIAL_INDEX_CELL_SIZE}.
+    *
+    * @see #enableSpatialIndex(double)
+    */
+   public void enableSpatialIndex()
+   {
+      enableSpatialIndex(DEFAULT_SPATIAL_INDEX_CELL_SIZE);
+   }
+
+   /**
+    * Enables a uniform grid over the XY-plane holding the bounding box of each region. The queries
+    * of this list then only check the regions near the query instead of all the regions, and give
+    * the same results.
+    * <p>
+    * The index is updated by {@link #addPlanarRegion(PlanarRegion)},
+    * {@link #pollPlanarRegion(int)}, {@link #clear()} and {@link #transform(RigidBodyTransform)}.
+    * When the regions are modified in place or the list returned by
+    * {@link #getPlanarRegionsAsList()} is modified, {@link #updateSpatialIndex()} has to be called.
+    * Until then, queries fall back to checking all the regions if regions were obviously added or
+    * removed.
+    * </p>
+    * <p>
+    * The index is built here, so queries can run concurrently with this method. Modifying the list
+    * while other threads are querying it is not supported.
+    * </p>
+    *
+    * @param cellSize the size of the grid cells. Should be in the order of the size of the regions.
+    */
+   public void enableSpatialIndex(double cellSize)
+   {
+      PlanarRegionsListSpatialIndex index = new PlanarRegionsListSpatialIndex(cellSize);
+      index.set(regions);
+      spatialIndex = index;
+   }
+
+   public void disableSpatialIndex()
+   {
+      spatialIndex = null;
+   }
+
+   public boolean isSpatialIndexEnabled()
+   {
+      return spatialIndex != null;
+   }
+
+   /**
+    * Rebuilds the spatial index, to be called after the regions were modified without going through
+    * this list.
+    */
+   public void updateSpatialIndex()
+   {
+      if (spatialIndex != null)
+         enableSpatialIndex(spatialIndex.getCellSize());
+   }
+
+   /**
+    * Returns the spatial index, or null when it is disabled or when regions were obviously added or
+    * removed without going through this list. The queries then check all the regions.
+    */
+   private PlanarRegionsListSpatialIndex getSpatialIndex()
+   {
+      PlanarRegionsListSpatialIndex index = spatialIndex;
+      if (index == null)
+         return null;
+
+      int size = regions.size();
+      if (index.size() != size || (size > 0 && (index.getRegion(0) != regions.get(0) || index.getRegion(size - 1) != regions.get(size - 1))))
+         return null;
+      return index;
+   }
+
+   /**
+    * Packs the regions whose bounding box overlaps with the given box in the XY-plane, in the order
+    * of this list. Regions are only skipped when the spatial index is enabled, otherwise all the
+    * regions are packed. To be used to narrow down the regions before an exact query.
+    *
+    * @param candidatesToPack the candidates are added to this list.
+    */
+   public void findPlanarRegionCandidatesOverlappingXYBox(double minX, double minY, double maxX, double maxY, List<PlanarRegion> candidatesToPack)
+   {
+      PlanarRegionsListSpatialIndex index = getSpatialIndex();
+      if (index != null)
+         index.findCandidatesOverlappingBox(minX, minY, maxX, maxY, candidatesToPack);
+      else
+         candidatesToPack.addAll(regions);
+   }
+
+   private List<PlanarRegion> getCandidatesContainingPoint(double x, double y, double margin)
+   {
+      PlanarRegionsListSpatialIndex index = getSpatialIndex();
+      if (index == null)
+         return regions;
+
+      List<PlanarRegion> candidates = queryCandidates.get();
+      candidates.clear();
+      index.findCandidatesContainingPoint(x, y, margin, candidates);
+      return candidates;
    }
 
 
@@ -59,9 +169,22 @@ public class PlanarRegionsList
     */
    public void findPlanarRegionsIntersectingLineSegment(LineSegment2D lineSegmentInWorld, ArrayList<PlanarRegion> intersectingRegionsToPack)
    {
-      for (int i = 0; i < regions.size(); i++)
+      List<PlanarRegion> candidateRegions = regions;
+      PlanarRegionsListSpatialIndex index = getSpatialIndex();
+      if (index != null)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         Point2DReadOnly firstEndpoint = lineSegmentInWorld.getFirstEndpoint();
+         Point2DReadOnly secondEndpoint = lineSegmentInWorld.getSecondEndpoint();
+         candidateRegions = queryCandidates.get();
+         candidateRegions.clear();
+         index.findCandidatesOverlappingBox(Math.min(firstEndpoint.getX(), secondEndpoint.getX()), Math.min(firstEndpoint.getY(), secondEndpoint.getY()),
+                                            Math.max(firstEndpoint.getX(), secondEndpoint.getX()), Math.max(firstEndpoint.getY(), secondEndpoint.getY()),
+                                            candidateRegions);
+      }
+
+      for (int i = 0; i < candidateRegions.size(); i++)
+      {
+         PlanarRegion candidateRegion = candidateRegions.get(i);
          if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld))
             continue;
 
@@ -120,9 +243,12 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      // A point within maximumOrthogonalDistance of a region is at most that far from its bounding box in XY
+      List<PlanarRegion> candidateRegions = getCandidatesContainingPoint(point.getX(), point.getY(), Math.abs(maximumOrthogonalDistance));
+
+      for (int i = 0; i < candidateRegions.size(); i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = candidateRegions.get(i);
          if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
          {
             if (containers == null)
@@ -134,6 +260,26 @@ public class PlanarRegionsList
       return containers;
    }
 
+   /**
+    * Find all the planar regions that contain the given point.
+    * 
+    * @param point the query coordinates.
+    * @param maximumOrthogonalDistance tolerance expressed as maximum orthogonal distance from the
+    *           region.
+    * @param containersToPack the planar regions containing the query are added to this list.
+    */
+   public void findPlanarRegionsContainingPoint(Point3DReadOnly point, double maximumOrthogonalDistance, List<PlanarRegion> containersToPack)
+   {
+      List<PlanarRegion> candidateRegions = getCandidatesContainingPoint(point.getX(), point.getY(), Math.abs(maximumOrthogonalDistance));
+
+      for (int i = 0; i < candidateRegions.size(); i++)
+      {
+         PlanarRegion candidateRegion = candidateRegions.get(i);
+         if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
+            containersToPack.add(candidateRegion);
+      }
+   }
+
    /**
     * Find all the planar regions that contain the given point. The algorithm is equivalent to
     * projecting all the regions onto the XY-plane and then finding the regions containing the
@@ -162,9 +308,11 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      List<PlanarRegion> candidateRegions = getCandidatesContainingPoint(x, y, 0.0);
+
+      for (int i = 0; i < candidateRegions.size(); i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = candidateRegions.get(i);
          if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
          {
             if (containers == null)
@@ -176,6 +324,27 @@ public class PlanarRegionsList
       return containers;
    }
 
+   /**
+    * Find all the planar regions that contain the given point. The algorithm is equivalent to
+    * projecting all the regions onto the XY-plane and then finding the regions containing the
+    * point.
+    * 
+    * @param x the query x-coordinate.
+    * @param y the query y-coordinate.
+    * @param containersToPack the planar regions containing the query are added to this list.
+    */
+   public void findPlanarRegionsContainingPointByProjectionOntoXYPlane(double x, double y, List<PlanarRegion> containersToPack)
+   {
+      List<PlanarRegion> candidateRegions = getCandidatesContainingPoint(x, y, 0.0);
+
+      for (int i = 0; i < candidateRegions.size(); i++)
+      {
+         PlanarRegion candidateRegion = candidateRegions.get(i);
+         if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
+            containersToPack.add(candidateRegion);
+      }
+   }
+
    /**
     * Find the closest planar region to the given point. The algorithm is equivalent to
     * projecting all the regions onto the XY-plane and then finding the closest one to the point.
@@ -198,6 +367,10 @@ public class PlanarRegionsList
     */
    public PlanarRegion findClosestPlanarRegionToPointByProjectionOntoXYPlane(double x, double y)
    {
+      PlanarRegionsListSpatialIndex index = getSpatialIndex();
+      if (index != null)
+         return index.findClosestRegionByProjectionOntoXYPlane(x, y);
+
       double shortestDistanceToPoint = Double.POSITIVE_INFINITY;
       PlanarRegion closestRegion = null;
 
@@ -254,7 +427,15 @@ public class PlanarRegionsList
    /** Retrieves the i<sup>th</sup> planar region of this list and removes it from this list. */
    public PlanarRegion pollPlanarRegion(int index)
    {
-      return regions.remove(index);
+      PlanarRegion region = regions.remove(index);
+      if (spatialIndex != null)
+      {
+         if (index < spatialIndex.size() && spatialIndex.getRegion(index) == region)
+            spatialIndex.remove(index);
+         else
+            spatialIndex.set(regions);
+      }
+      return region;
    }
 
    /**
@@ -280,7 +461,10 @@ public class PlanarRegionsList
       for (int i = 0; i < getNumberOfPlanarRegions(); i++)
          planarRegionsCopy.add(regions.get(i).copy());
 
-      return new PlanarRegionsList(planarRegionsCopy);
+      PlanarRegionsList copy = new PlanarRegionsList(planarRegionsCopy);
+      if (spatialIndex != null)
+         copy.enableSpatialIndex(spatialIndex.getCellSize());
+      return copy;
    }
 
    /**
@@ -294,6 +478,9 @@ public class PlanarRegionsList
       {
          regions.get(i).transform(rigidBodyTransform);
       }
+
+      if (spatialIndex != null)
+         spatialIndex.updateAll();
    }
 
    public static PlanarRegionsList generatePlanarRegionsListFromRandomPolygonsWithRandomTransform(Random random, int numberOfRandomlyGeneratedPolygons,
@@ -0,0 +1,428 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Uniform grid over the XY-plane holding the bounding boxes of the regions of a {@link PlanarRegionsList}.
+ * <p>
+ * Every region is stored in all the cells its XY bounding box overlaps. Regions covering more than
+ * {@link #MAXIMUM_CELLS_PER_REGION} cells, and regions without a valid bounding box, are kept in a separate list that is
+ * checked by every query. Only occupied cells are stored, so the grid is unbounded.
+ * </p>
+ * <p>
+ * Candidates are returned in the order of the regions in the list, so queries give the same result as a linear scan.
+ * Queries can run concurrently from multiple threads, modifications cannot.
+ * </p>
+ */
+class PlanarRegionsListSpatialIndex
+{
+   static final int MAXIMUM_CELLS_PER_REGION = 256;
+
+   private final double cellSize;
+   private final double inverseCellSize;
+
+   private final TLongObjectHashMap<List<Entry>> cells = new TLongObjectHashMap<>();
+   private final List<Entry> entries = new ArrayList<>();
+   private final List<Entry> largeEntries = new ArrayList<>();
+
+   private int minCellX = Integer.MAX_VALUE;
+   private int minCellY = Integer.MAX_VALUE;
+   private int maxCellX = Integer.MIN_VALUE;
+   private int maxCellY = Integer.MIN_VALUE;
+
+   private final ThreadLocal<Query> queries = ThreadLocal.withInitial(Query::new);
+
+   PlanarRegionsListSpatialIndex(double cellSize)
+   {
+      if (!(cellSize > 0.0))
+         throw new IllegalArgumentException("The cell size has to be positive, was: " + cellSize);
+
+      this.cellSize = cellSize;
+      this.inverseCellSize = 1.0 / cellSize;
+   }
+
+   double getCellSize()
+   {
+      return cellSize;
+   }
+
+   int size()
+   {
+      return entries.size();
+   }
+
+   PlanarRegion getRegion(int index)
+   {
+      return entries.get(index).region;
+   }
+
+   /** Rebuilds the grid from scratch for the given regions. */
+   void set(List<PlanarRegion> regions)
+   {
+      clear();
+      for (int i = 0; i < regions.size(); i++)
+         add(regions.get(i));
+   }
+
+   void clear()
+   {
+      cells.clear();
+      entries.clear();
+      largeEntries.clear();
+      minCellX = minCellY = Integer.MAX_VALUE;
+      maxCellX = maxCellY = Integer.MIN_VALUE;
+   }
+
+   /** Adds a region at the end of the list. */
+   void add(PlanarRegion region)
+   {
+      Entry entry = new Entry(region, entries.size());
+      entries.add(entry);
+      insert(entry);
+   }
+
+   /** Removes the region at the given index of the list. */
+   void remove(int index)
+   {
+      Entry entry = entries.remove(index);
+      erase(entry);
+
+      for (int i = index; i < entries.size(); i++)
+         entries.get(i).listIndex = i;
+   }
+
+   /** Updates the bounding boxes of all the regions, to be called after the regions were moved. */
+   void updateAll()
+   {
+      cells.clear();
+      largeEntries.clear();
+      minCellX = minCellY = Integer.MAX_VALUE;
+      maxCellX = maxCellY = Integer.MIN_VALUE;
+
+      for (int i = 0; i < entries.size(); i++)
+         insert(entries.get(i));
+   }
+
+   private void insert(Entry entry)
+   {
+      entry.updateBoundingBox();
+
+      if (!entry.hasValidBoundingBox)
+      {
+         largeEntries.add(entry);
+         return;
+      }
+
+      entry.minCellX = toCell(entry.minX);
+      entry.minCellY = toCell(entry.minY);
+      entry.maxCellX = toCell(entry.maxX);
+      entry.maxCellY = toCell(entry.maxY);
+
+      long numberOfCells = ((long) entry.maxCellX - entry.minCellX + 1) * ((long) entry.maxCellY - entry.minCellY + 1);
+      if (numberOfCells > MAXIMUM_CELLS_PER_REGION)
+      {
+         entry.isLarge = true;
+         largeEntries.add(entry);
+         return;
+      }
+
+      entry.isLarge = false;
+      for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+      {
+         for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++)
+         {
+            long key = toKey(cellX, cellY);
+            List<Entry> cell = cells.get(key);
+            if (cell == null)
+            {
+               cell = new ArrayList<>(4);
+               cells.put(key, cell);
+            }
+            cell.add(entry);
+         }
+      }
+
+      minCellX = Math.min(minCellX, entry.minCellX);
+      minCellY = Math.min(minCellY, entry.minCellY);
+      maxCellX = Math.max(maxCellX, entry.maxCellX);
+      maxCellY = Math.max(maxCellY, entry.maxCellY);
+   }
+
+   private void erase(Entry entry)
+   {
+      if (!entry.hasValidBoundingBox || entry.isLarge)
+      {
+         largeEntries.remove(entry);
+         return;
+      }
+
+      for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++)
+      {
+         for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++)
+         {
+            long key = toKey(cellX, cellY);
+            List<Entry> cell = cells.get(key);
+            cell.remove(entry);
+            if (cell.isEmpty())
+               cells.remove(key);
+         }
+      }
+   }
+
+   /**
+    * Packs the regions whose XY bounding box, grown by {@code margin}, contains the query.
+    *
+    * @param regionsToPack the candidates are added to this list, in the order of the regions list.
+    */
+   void findCandidatesContainingPoint(double x, double y, double margin, List<PlanarRegion> regionsToPack)
+   {
+      Query query = startQuery();
+      addLargeCandidates(query);
+      int cellMinX = Math.max(toCell(x - margin), minCellX);
+      int cellMinY = Math.max(toCell(y - margin), minCellY);
+      int cellMaxX = Math.min(toCell(x + margin), maxCellX);
+      int cellMaxY = Math.min(toCell(y + margin), maxCellY);
+      for (int cellX = cellMinX; cellX <= cellMaxX; cellX++)
+      {
+         for (int cellY = cellMinY; cellY <= cellMaxY; cellY++)
+            addCellCandidates(query, cellX, cellY);
+      }
+
+      List<Entry> candidates = query.candidates;
+      for (int i = 0; i < candidates.size(); i++)
+      {
+         Entry entry = candidates.get(i);
+         if (!entry.hasValidBoundingBox || entry.containsXY(x, y, margin))
+            regionsToPack.add(entry.region);
+      }
+   }
+
+   /**
+    * Packs the regions whose XY bounding box overlaps with the given XY bounding box. Falls back to all the
+    * regions when the query covers more cells than there are regions.
+    *
+    * @param regionsToPack the candidates are added to this list, in the order of the regions list.
+    */
+   void findCandidatesOverlappingBox(double minX, double minY, double maxX, double maxY, List<PlanarRegion> regionsToPack)
+   {
+      Query query = startQuery();
+      int cellMinX = Math.max(toCell(minX), minCellX);
+      int cellMinY = Math.max(toCell(minY), minCellY);
+      int cellMaxX = Math.min(toCell(maxX), maxCellX);
+      int cellMaxY = Math.min(toCell(maxY), maxCellY);
+
+      if (cellMinX <= cellMaxX && cellMinY <= cellMaxY)
+      {
+         long numberOfCells = ((long) cellMaxX - cellMinX + 1) * ((long) cellMaxY - cellMinY + 1);
+         if (numberOfCells > entries.size())
+         {
+            for (int i = 0; i < entries.size(); i++)
+               regionsToPack.add(entries.get(i).region);
+            return;
+         }
+
+         for (int cellX = cellMinX; cellX <= cellMaxX; cellX++)
+         {
+            for (int cellY = cellMinY; cellY <= cellMaxY; cellY++)
+               addCellCandidates(query, cellX, cellY);
+         }
+      }
+      addLargeCandidates(query);
+
+      for (int i = 0; i < query.candidates.size(); i++)
+         regionsToPack.add(query.candidates.get(i).region);
+   }
+
+   /**
+    * Finds the region closest to the query by projection onto the XY-plane. Cells are visited in rings of increasing
+    * distance around the query, and the exact distance is only computed for regions whose bounding box is closer than
+    * the best region found so far. Ties are broken in favor of the region that comes first in the list.
+    * <p>
+    * When the query is far from the regions, visiting the empty cells would cost more than checking all the bounding
+    * boxes, so the remaining regions are then checked directly.
+    * </p>
+    */
+   PlanarRegion findClosestRegionByProjectionOntoXYPlane(double x, double y)
+   {
+      Query query = startQuery();
+      List<Entry> candidates = query.candidates;
+      addLargeCandidates(query);
+
+      Entry closest = null;
+      double shortestDistance = Double.POSITIVE_INFINITY;
+
+      int queryCellX = toCell(x);
+      int queryCellY = toCell(y);
+      int maximumRing = 0;
+      if (!entries.isEmpty() && minCellX <= maxCellX)
+      {
+         maximumRing = Math.max(Math.max(Math.abs(queryCellX - minCellX), Math.abs(maxCellX - queryCellX)),
+                                Math.max(Math.abs(queryCellY - minCellY), Math.abs(maxCellY - queryCellY)));
+      }
+
+      int maximumNumberOfCellsToVisit = 4 * entries.size() + 64;
+      int numberOfVisitedCells = 0;
+
+      for (int ring = 0; ring <= maximumRing; ring++)
+      {
+         // Every cell of this ring is at least (ring - 1) cells away from the query
+         if ((ring - 1) * cellSize > shortestDistance)
+            break;
+
+         numberOfVisitedCells += ring == 0 ? 1 : 8 * ring;
+         if (numberOfVisitedCells > maximumNumberOfCellsToVisit)
+         {
+            for (int i = 0; i < entries.size(); i++)
+               addCandidate(query, entries.get(i));
+            maximumRing = ring;
+         }
+         else if (ring == 0)
+         {
+            addCellCandidates(query, queryCellX, queryCellY);
+         }
+         else
+         {
+            for (int i = -ring; i <= ring; i++)
+            {
+               addCellCandidates(query, queryCellX + i, queryCellY - ring);
+               addCellCandidates(query, queryCellX + i, queryCellY + ring);
+            }
+            for (int i = -ring + 1; i <= ring - 1; i++)
+            {
+               addCellCandidates(query, queryCellX - ring, queryCellY + i);
+               addCellCandidates(query, queryCellX + ring, queryCellY + i);
+            }
+         }
+
+         for (int i = 0; i < candidates.size(); i++)
+         {
+            Entry entry = candidates.get(i);
+            if (entry.hasValidBoundingBox && entry.distanceXY(x, y) > shortestDistance)
+               continue;
+
+            double distance = entry.region.distanceToPointByProjectionOntoXYPlane(x, y);
+            if (distance < shortestDistance || (distance == shortestDistance && closest != null && entry.listIndex < closest.listIndex))
+            {
+               shortestDistance = distance;
+               closest = entry;
+            }
+         }
+         candidates.clear();
+      }
+
+      return closest == null ? null : closest.region;
+   }
+
+   private Query startQuery()
+   {
+      Query query = queries.get();
+      query.candidates.clear();
+      query.stamp++;
+      if (query.stamps.length < entries.size())
+         query.stamps = new int[Math.max(entries.size(), 2 * query.stamps.length)];
+      if (query.stamp == Integer.MAX_VALUE)
+      {
+         query.stamp = 1;
+         Arrays.fill(query.stamps, 0);
+      }
+      return query;
+   }
+
+   private void addLargeCandidates(Query query)
+   {
+      for (int i = 0; i < largeEntries.size(); i++)
+         addCandidate(query, largeEntries.get(i));
+   }
+
+   private void addCellCandidates(Query query, int cellX, int cellY)
+   {
+      List<Entry> cell = cells.get(toKey(cellX, cellY));
+      if (cell == null)
+         return;
+
+      for (int i = 0; i < cell.size(); i++)
+         addCandidate(query, cell.get(i));
+   }
+
+   private static void addCandidate(Query query, Entry entry)
+   {
+      if (query.stamps[entry.listIndex] == query.stamp)
+         return;
+
+      query.stamps[entry.listIndex] = query.stamp;
+
+      // Keep the candidates sorted by list index, they are usually added almost in order
+      List<Entry> candidates = query.candidates;
+      int index = candidates.size();
+      while (index > 0 && candidates.get(index - 1).listIndex > entry.listIndex)
+         index--;
+      candidates.add(index, entry);
+   }
+
+   private int toCell(double coordinate)
+   {
+      double cell = Math.floor(coordinate * inverseCellSize);
+      if (cell < Integer.MIN_VALUE / 2)
+         return Integer.MIN_VALUE / 2;
+      if (cell > Integer.MAX_VALUE / 2)
+         return Integer.MAX_VALUE / 2;
+      return (int) cell;
+   }
+
+   private static long toKey(int cellX, int cellY)
+   {
+      return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+   }
+
+   /** Scratch space of a single query, one per thread. */
+   private static class Query
+   {
+      private int stamp = 0;
+      private int[] stamps = new int[0];
+      private final List<Entry> candidates = new ArrayList<>();
+   }
+
+   private static class Entry
+   {
+      private final PlanarRegion region;
+      private int listIndex;
+
+      private boolean hasValidBoundingBox;
+      private boolean isLarge;
+      private double minX, minY, maxX, maxY;
+      private int minCellX, minCellY, maxCellX, maxCellY;
+
+      private Entry(PlanarRegion region, int listIndex)
+      {
+         this.region = region;
+         this.listIndex = listIndex;
+      }
+
+      private void updateBoundingBox()
+      {
+         BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+         minX = boundingBox.getMinX();
+         minY = boundingBox.getMinY();
+         maxX = boundingBox.getMaxX();
+         maxY = boundingBox.getMaxY();
+         hasValidBoundingBox = Double.isFinite(minX) && Double.isFinite(minY) && Double.isFinite(maxX) && Double.isFinite(maxY);
+      }
+
+      private boolean containsXY(double x, double y, double margin)
+      {
+         return x >= minX - margin && x <= maxX + margin && y >= minY - margin && y <= maxY + margin;
+      }
+
+      private double distanceXY(double x, double y)
+      {
+         double dx = Math.max(0.0, Math.max(minX - x, x - maxX));
+         double dy = Math.max(0.0, Math.max(minY - y, y - maxY));
+         return Math.sqrt(dx * dx + dy * dy);
+      }
+   }
+}
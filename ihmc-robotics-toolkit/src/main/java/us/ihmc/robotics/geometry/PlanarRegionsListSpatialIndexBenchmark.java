@@ -0,0 +1,120 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import us.ihmc.euclid.geometry.LineSegment2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+/**
+ * Compare the queries of a PlanarRegionsList with and without the spatial index for a growing number of regions.
+ *
+ * Usage: PlanarRegionsListSpatialIndexBenchmark [number of queries]
+ */
+public class PlanarRegionsListSpatialIndexBenchmark
+{
+   private static final int[] NUMBER_OF_REGIONS = {10, 50, 100, 300, 1000, 2000};
+   private static final int WARMUP_ITERATIONS = 3;
+
+   private final int numberOfQueries;
+   private double blackhole = 0.0;
+
+   public PlanarRegionsListSpatialIndexBenchmark(int numberOfQueries)
+   {
+      this.numberOfQueries = numberOfQueries;
+   }
+
+   public void run()
+   {
+      System.out.println("Regions | containing point linear/indexed | closest linear/indexed | segment linear/indexed [us per query]");
+      for (int numberOfRegions : NUMBER_OF_REGIONS)
+      {
+         Random random = new Random(1776L);
+         // Keep the density of the regions constant, like a growing map
+         double extent = 2.0 * Math.sqrt(numberOfRegions);
+         PlanarRegionsList linear = new PlanarRegionsList();
+         for (int i = 0; i < numberOfRegions; i++)
+         {
+            PlanarRegion region = PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 1, 1.0, 5);
+            RigidBodyTransform translation = new RigidBodyTransform();
+            translation.setTranslation(extent * (random.nextDouble() - 0.5), extent * (random.nextDouble() - 0.5), 0.0);
+            region.transform(translation);
+            linear.addPlanarRegion(region);
+         }
+         PlanarRegionsList indexed = linear.copy();
+         indexed.enableSpatialIndex();
+
+         double[] queries = new double[4 * numberOfQueries];
+         for (int i = 0; i < queries.length; i++)
+         {
+            queries[i] = extent * (random.nextDouble() - 0.5);
+         }
+
+         for (int i = 0; i < WARMUP_ITERATIONS; i++)
+         {
+            timeContainingPoint(linear, queries);
+            timeContainingPoint(indexed, queries);
+            timeClosest(linear, queries);
+            timeClosest(indexed, queries);
+            timeSegment(linear, queries);
+            timeSegment(indexed, queries);
+         }
+
+         System.out.println(String.format("%7d | %15.2f / %-14.2f | %9.2f / %-10.2f | %9.2f / %-10.2f", numberOfRegions, timeContainingPoint(linear, queries),
+                                          timeContainingPoint(indexed, queries), timeClosest(linear, queries), timeClosest(indexed, queries),
+                                          timeSegment(linear, queries), timeSegment(indexed, queries)));
+      }
+      System.out.println("(" + blackhole + ")");
+   }
+
+   private double timeContainingPoint(PlanarRegionsList list, double[] queries)
+   {
+      Point3D point = new Point3D();
+      long start = System.nanoTime();
+      for (int i = 0; i < numberOfQueries; i++)
+      {
+         point.set(queries[4 * i], queries[4 * i + 1], 0.0);
+         if (list.findPlanarRegionsContainingPoint(point, Double.POSITIVE_INFINITY) != null)
+         {
+            blackhole++;
+         }
+      }
+      return (System.nanoTime() - start) / 1000.0 / numberOfQueries;
+   }
+
+   private double timeClosest(PlanarRegionsList list, double[] queries)
+   {
+      long start = System.nanoTime();
+      for (int i = 0; i < numberOfQueries; i++)
+      {
+         if (list.findClosestPlanarRegionToPointByProjectionOntoXYPlane(queries[4 * i], queries[4 * i + 1]) != null)
+         {
+            blackhole++;
+         }
+      }
+      return (System.nanoTime() - start) / 1000.0 / numberOfQueries;
+   }
+
+   private double timeSegment(PlanarRegionsList list, double[] queries)
+   {
+      ArrayList<PlanarRegion> intersecting = new ArrayList<>();
+      LineSegment2D segment = new LineSegment2D();
+      long start = System.nanoTime();
+      for (int i = 0; i < numberOfQueries; i++)
+      {
+         // Short segments, like a footstep or a body path edge
+         segment.set(queries[4 * i], queries[4 * i + 1], queries[4 * i] + 0.1 * queries[4 * i + 2], queries[4 * i + 1] + 0.1 * queries[4 * i + 3]);
+         intersecting.clear();
+         list.findPlanarRegionsIntersectingLineSegment(segment, intersecting);
+         blackhole += intersecting.size();
+      }
+      return (System.nanoTime() - start) / 1000.0 / numberOfQueries;
+   }
+
+   public static void main(String[] args)
+   {
+      int numberOfQueries = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+      new PlanarRegionsListSpatialIndexBenchmark(numberOfQueries).run();
+   }
+}
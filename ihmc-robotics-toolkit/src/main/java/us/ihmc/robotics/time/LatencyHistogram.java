@@ -0,0 +1,111 @@
+package us.ihmc.robotics.time;
+
+/**
+ * Histogram of durations in nanoseconds with a bounded relative error, similar to an HDR histogram.
+ * <p>
+ * Durations below {@value #SUB_BUCKET_COUNT} ns are counted exactly. Larger durations fall in buckets whose width is
+ * 1/{@value #HALF_SUB_BUCKET_COUNT} of their lower bound, so the percentiles are within about 6% of the true value. All
+ * the memory is allocated at construction, so recording and querying do not allocate.
+ * </p>
+ */
+public class LatencyHistogram
+{
+   private static final int SUB_BUCKET_BITS = 5;
+   private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+   private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+   /** Durations are clamped to 2^40 ns, about 18 minutes. */
+   private static final int MAXIMUM_MAGNITUDE = 40;
+   private static final long MAXIMUM_VALUE = (1L << MAXIMUM_MAGNITUDE) - 1;
+
+   private final long[] counts = new long[getBucketIndex(MAXIMUM_VALUE) + 1];
+   private long totalCount = 0;
+   private long minimumValue = Long.MAX_VALUE;
+   private long maximumValue = 0;
+   private double sum = 0.0;
+
+   public void reset()
+   {
+      for (int i = 0; i < counts.length; i++)
+         counts[i] = 0;
+      totalCount = 0;
+      minimumValue = Long.MAX_VALUE;
+      maximumValue = 0;
+      sum = 0.0;
+   }
+
+   public void recordValue(long durationInNanoseconds)
+   {
+      long value = Math.max(0, Math.min(durationInNanoseconds, MAXIMUM_VALUE));
+
+      counts[getBucketIndex(value)]++;
+      totalCount++;
+      minimumValue = Math.min(minimumValue, value);
+      maximumValue = Math.max(maximumValue, value);
+      sum += value;
+   }
+
+   /**
+    * @param percentile between 0.0 and 1.0
+    * @return the upper bound of the bucket containing the given percentile in nanoseconds, or 0 if empty
+    */
+   public long getValueAtPercentile(double percentile)
+   {
+      if (totalCount == 0)
+         return 0;
+
+      long countAtPercentile = Math.max(1, (long) Math.ceil(percentile * totalCount));
+      long cumulativeCount = 0;
+
+      for (int i = 0; i < counts.length; i++)
+      {
+         cumulativeCount += counts[i];
+         if (cumulativeCount >= countAtPercentile)
+            return Math.max(minimumValue, Math.min(getBucketUpperBound(i), maximumValue));
+      }
+
+      return maximumValue;
+   }
+
+   public long getTotalCount()
+   {
+      return totalCount;
+   }
+
+   public long getMinimumValue()
+   {
+      return totalCount == 0 ? 0 : minimumValue;
+   }
+
+   public long getMaximumValue()
+   {
+      return maximumValue;
+   }
+
+   public double getMean()
+   {
+      return totalCount == 0 ? 0.0 : sum / totalCount;
+   }
+
+   static int getBucketIndex(long value)
+   {
+      if (value < SUB_BUCKET_COUNT)
+         return (int) value;
+
+      int magnitude = 63 - Long.numberOfLeadingZeros(value);
+      int shift = magnitude - SUB_BUCKET_BITS + 1;
+      int subBucket = (int) (value >> shift) - HALF_SUB_BUCKET_COUNT;
+      return SUB_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + subBucket;
+   }
+
+   static long getBucketUpperBound(int bucketIndex)
+   {
+      if (bucketIndex < SUB_BUCKET_COUNT)
+         return bucketIndex;
+
+      int index = bucketIndex - SUB_BUCKET_COUNT;
+      int magnitude = SUB_BUCKET_BITS + index / HALF_SUB_BUCKET_COUNT;
+      int shift = magnitude - SUB_BUCKET_BITS + 1;
+      long subBucket = HALF_SUB_BUCKET_COUNT + index % HALF_SUB_BUCKET_COUNT;
+      return ((subBucket + 1) << shift) - 1;
+   }
+}
@@ -0,0 +1,384 @@
+package us.ihmc.robotics.time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.commons.PrintTools;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoBoolean;
+import us.ihmc.yoVariables.variable.YoDouble;
+import us.ihmc.yoVariables.variable.YoLong;
+
+/**
+ * Measures where the time goes in a periodic control tick.
+ * <p>
+ * A tick is split in named {@link Stage}s. The duration of each stage and of the whole tick is kept in a ring buffer of
+ * recent ticks and in a {@link LatencyHistogram}. The median, 99th and 99.9th percentiles and the maximum are exported
+ * as YoVariables, one stage being updated per tick to keep the cost of a tick constant. Ticks longer than the budget
+ * are counted as overruns, and the slowest ticks are kept with the duration of each of their stages.
+ * </p>
+ * <p>
+ * All the memory is allocated when creating the profiler and its stages, measuring a tick does not allocate.
+ * </p>
+ */
+public class TickProfiler
+{
+   private static final int NUMBER_OF_RECENT_TICKS = 1024;
+   private static final int NUMBER_OF_SLOWEST_TICKS = 10;
+
+   private final String name;
+   private final YoVariableRegistry registry;
+   private final long tickBudget;
+   private final LongSupplier nanoTime;
+
+   private final YoBoolean enabled;
+   private final YoBoolean resetRequested;
+   private final YoLong tickCount;
+   private final YoLong numberOfOverruns;
+   private final YoDouble lastOverrunDuration;
+   private final YoLong lastOverrunTick;
+
+   private final Stage tickStage;
+   private final List<Stage> stages = new ArrayList<>();
+
+   private boolean isTickStarted = false;
+   private long tickStartTime;
+   private int nextStageToUpdate = 0;
+
+   private final long[] slowestTickDurations = new long[NUMBER_OF_SLOWEST_TICKS];
+   private final long[] slowestTickNumbers = new long[NUMBER_OF_SLOWEST_TICKS];
+   private final long[][] slowestTickStageDurations = new long[NUMBER_OF_SLOWEST_TICKS][0];
+   private long[] lastTickStageDurations = new long[0];
+
+   /**
+    * @param name prefix of the YoVariables of this profiler
+    * @param tickBudgetInSeconds ticks longer than this are counted as overruns
+    * @param parentRegistry registry to which the registry of this profiler is attached
+    */
+   public TickProfiler(String name, double tickBudgetInSeconds, YoVariableRegistry parentRegistry)
+   {
+      this(name, tickBudgetInSeconds, System::nanoTime, parentRegistry);
+   }
+
+   /**
+    * @param nanoTime clock used to measure the durations, in nanoseconds
+    */
+   public TickProfiler(String name, double tickBudgetInSeconds, LongSupplier nanoTime, YoVariableRegistry parentRegistry)
+   {
+      this.name = name;
+      this.nanoTime = nanoTime;
+      registry = new YoVariableRegistry(name + "TickProfiler");
+      tickBudget = Conversions.secondsToNanoseconds(tickBudgetInSeconds);
+
+      enabled = new YoBoolean(name + "ProfilerEnabled", registry);
+      resetRequested = new YoBoolean(name + "ProfilerResetRequested", registry);
+      tickCount = new YoLong(name + "TickCount", registry);
+      numberOfOverruns = new YoLong(name + "NumberOfOverruns", registry);
+      lastOverrunDuration = new YoDouble(name + "LastOverrunDuration", registry);
+      lastOverrunTick = new YoLong(name + "LastOverrunTick", registry);
+      enabled.set(true);
+
+      tickStage = new Stage("tick");
+
+      parentRegistry.addChild(registry);
+   }
+
+   /**
+    * Creates a new stage. Stages should be created before the first tick.
+    */
+   public Stage createStage(String stageName)
+   {
+      Stage stage = new Stage(stageName);
+      stages.add(stage);
+
+      lastTickStageDurations = Arrays.copyOf(lastTickStageDurations, stages.size());
+      for (int i = 0; i < NUMBER_OF_SLOWEST_TICKS; i++)
+         slowestTickStageDurations[i] = Arrays.copyOf(slowestTickStageDurations[i], stages.size());
+
+      return stage;
+   }
+
+   public void setEnabled(boolean enabled)
+   {
+      this.enabled.set(enabled);
+   }
+
+   /**
+    * Starts a tick, does nothing if a tick is already started.
+    */
+   public void startTick()
+   {
+      if (!enabled.getBooleanValue() || isTickStarted)
+         return;
+
+      isTickStarted = true;
+      tickStartTime = nanoTime.getAsLong();
+   }
+
+   /**
+    * Ends the current tick and records the duration of each stage measured since the previous tick.
+    */
+   public void stopTick()
+   {
+      if (!isTickStarted)
+         return;
+
+      long tickDuration = nanoTime.getAsLong() - tickStartTime;
+      isTickStarted = false;
+
+      if (resetRequested.getBooleanValue())
+      {
+         reset();
+         resetRequested.set(false);
+      }
+
+      tickStage.addDuration(tickDuration);
+      tickStage.record();
+
+      for (int i = 0; i < stages.size(); i++)
+      {
+         Stage stage = stages.get(i);
+         lastTickStageDurations[i] = stage.durationInTick;
+         stage.record();
+      }
+
+      if (tickDuration > tickBudget)
+      {
+         numberOfOverruns.increment();
+         lastOverrunDuration.set(Conversions.nanosecondsToSeconds(tickDuration));
+         lastOverrunTick.set(tickCount.getLongValue());
+      }
+
+      recordIfSlowestTick(tickDuration);
+
+      if (nextStageToUpdate == 0)
+         tickStage.updateYoVariables();
+      else
+         stages.get(nextStageToUpdate - 1).updateYoVariables();
+      nextStageToUpdate = (nextStageToUpdate + 1) % (stages.size() + 1);
+
+      tickCount.increment();
+   }
+
+   private void recordIfSlowestTick(long tickDuration)
+   {
+      int fastestIndex = 0;
+      for (int i = 1; i < NUMBER_OF_SLOWEST_TICKS; i++)
+      {
+         if (slowestTickDurations[i] < slowestTickDurations[fastestIndex])
+            fastestIndex = i;
+      }
+
+      if (tickDuration <= slowestTickDurations[fastestIndex])
+         return;
+
+      slowestTickDurations[fastestIndex] = tickDuration;
+      slowestTickNumbers[fastestIndex] = tickCount.getLongValue();
+      System.arraycopy(lastTickStageDurations, 0, slowestTickStageDurations[fastestIndex], 0, lastTickStageDurations.length);
+   }
+
+   /**
+    * Clears the histograms, the recent ticks and the slowest ticks.
+    */
+   public void reset()
+   {
+      tickStage.reset();
+      for (int i = 0; i < stages.size(); i++)
+         stages.get(i).reset();
+
+      Arrays.fill(slowestTickDurations, 0);
+      Arrays.fill(slowestTickNumbers, 0);
+      numberOfOverruns.set(0);
+      lastOverrunDuration.set(0.0);
+      lastOverrunTick.set(0);
+   }
+
+   public Stage getTickStage()
+   {
+      return tickStage;
+   }
+
+   public List<Stage> getStages()
+   {
+      return stages;
+   }
+
+   public long getNumberOfOverruns()
+   {
+      return numberOfOverruns.getLongValue();
+   }
+
+   /**
+    * Creates a summary of the stage percentiles and the slowest ticks. This allocates and should not be called in the
+    * control loop.
+    */
+   public String getReport()
+   {
+      StringBuilder report = new StringBuilder();
+      report.append(String.format("%s: %d ticks, %d overruns of %.3f ms%n", name, tickCount.getLongValue(), numberOfOverruns.getLongValue(),
+                                  1.0e-6 * tickBudget));
+      report.append(String.format("%-30s %10s %10s %10s %10s %10s%n", "stage [us]", "mean", "p50", "p99", "p99.9", "max"));
+      appendStage(report, tickStage);
+      for (int i = 0; i < stages.size(); i++)
+         appendStage(report, stages.get(i));
+
+      Integer[] order = new Integer[NUMBER_OF_SLOWEST_TICKS];
+      for (int i = 0; i < NUMBER_OF_SLOWEST_TICKS; i++)
+         order[i] = i;
+      Arrays.sort(order, (i, j) -> Long.compare(slowestTickDurations[j], slowestTickDurations[i]));
+
+      report.append("slowest ticks [us]:\n");
+      for (int i = 0; i < NUMBER_OF_SLOWEST_TICKS; i++)
+      {
+         int index = order[i];
+         if (slowestTickDurations[index] == 0)
+            break;
+
+         report.append(String.format("  tick %d: %.1f", slowestTickNumbers[index], 1.0e-3 * slowestTickDurations[index]));
+         for (int stageIndex = 0; stageIndex < stages.size(); stageIndex++)
+            report.append(String.format(", %s %.1f", stages.get(stageIndex).stageName, 1.0e-3 * slowestTickStageDurations[index][stageIndex]));
+         report.append("\n");
+      }
+
+      return report.toString();
+   }
+
+   private static void appendStage(StringBuilder report, Stage stage)
+   {
+      LatencyHistogram histogram = stage.histogram;
+      report.append(String.format("%-30s %10.1f %10.1f %10.1f %10.1f %10.1f%n", stage.stageName, 1.0e-3 * histogram.getMean(),
+                                  1.0e-3 * histogram.getValueAtPercentile(0.5), 1.0e-3 * histogram.getValueAtPercentile(0.99),
+                                  1.0e-3 * histogram.getValueAtPercentile(0.999), 1.0e-3 * histogram.getMaximumValue()));
+   }
+
+   public void printReport()
+   {
+      PrintTools.info(this, getReport());
+   }
+
+   private static String capitalize(String string)
+   {
+      return Character.toUpperCase(string.charAt(0)) + string.substring(1);
+   }
+
+   /**
+    * Part of a tick. Calls to {@link #start()} and {@link #stop()} can be repeated within a tick, the durations are
+    * summed.
+    */
+   public class Stage
+   {
+      private final String stageName;
+      private final LatencyHistogram histogram = new LatencyHistogram();
+      private final long[] recentDurations = new long[NUMBER_OF_RECENT_TICKS];
+      private int recentDurationIndex = 0;
+      private int numberOfRecentDurations = 0;
+
+      private final YoDouble current;
+      private final YoDouble median;
+      private final YoDouble percentile99;
+      private final YoDouble percentile999;
+      private final YoDouble maximum;
+
+      private boolean isStarted = false;
+      private long startTime;
+      private long durationInTick = 0;
+      private boolean hasRunInTick = false;
+
+      private Stage(String stageName)
+      {
+         this.stageName = stageName;
+
+         String prefix = name + capitalize(stageName);
+         current = new YoDouble(prefix + "Current", registry);
+         median = new YoDouble(prefix + "P50", registry);
+         percentile99 = new YoDouble(prefix + "P99", registry);
+         percentile999 = new YoDouble(prefix + "P999", registry);
+         maximum = new YoDouble(prefix + "Maximum", registry);
+      }
+
+      public void start()
+      {
+         if (!enabled.getBooleanValue())
+            return;
+
+         isStarted = true;
+         startTime = nanoTime.getAsLong();
+      }
+
+      public void stop()
+      {
+         if (!isStarted)
+            return;
+
+         isStarted = false;
+         addDuration(nanoTime.getAsLong() - startTime);
+      }
+
+      private void addDuration(long duration)
+      {
+         durationInTick += duration;
+         hasRunInTick = true;
+      }
+
+      private void record()
+      {
+         if (!hasRunInTick)
+            return;
+
+         histogram.recordValue(durationInTick);
+         recentDurations[recentDurationIndex] = durationInTick;
+         recentDurationIndex = (recentDurationIndex + 1) % NUMBER_OF_RECENT_TICKS;
+         numberOfRecentDurations = Math.min(numberOfRecentDurations + 1, NUMBER_OF_RECENT_TICKS);
+         current.set(Conversions.nanosecondsToSeconds(durationInTick));
+
+         durationInTick = 0;
+         hasRunInTick = false;
+      }
+
+      private void updateYoVariables()
+      {
+         median.set(Conversions.nanosecondsToSeconds(histogram.getValueAtPercentile(0.5)));
+         percentile99.set(Conversions.nanosecondsToSeconds(histogram.getValueAtPercentile(0.99)));
+         percentile999.set(Conversions.nanosecondsToSeconds(histogram.getValueAtPercentile(0.999)));
+         maximum.set(Conversions.nanosecondsToSeconds(histogram.getMaximumValue()));
+      }
+
+      private void reset()
+      {
+         histogram.reset();
+         recentDurationIndex = 0;
+         numberOfRecentDurations = 0;
+         durationInTick = 0;
+         hasRunInTick = false;
+      }
+
+      public String getName()
+      {
+         return stageName;
+      }
+
+      public LatencyHistogram getHistogram()
+      {
+         return histogram;
+      }
+
+      public int getNumberOfRecentDurations()
+      {
+         return numberOfRecentDurations;
+      }
+
+      /**
+       * @param ticksAgo 0 for the last recorded tick
+       * @return the duration of this stage in nanoseconds
+       */
+      public long getRecentDuration(int ticksAgo)
+      {
+         if (ticksAgo >= numberOfRecentDurations)
+            throw new IndexOutOfBoundsException("Only " + numberOfRecentDurations + " durations are available.");
+         return recentDurations[(recentDurationIndex - 1 - ticksAgo + NUMBER_OF_RECENT_TICKS) % NUMBER_OF_RECENT_TICKS];
+      }
+   }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -13,7 +14,10 @@ import us.ihmc.commons.MutationTestFacilitator;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
 import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.geometry.LineSegment2D;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.euclid.tuple3D.Point3D;
@@ -154,6 +158,108 @@ public class PlanarRegionsListTest
 
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSpatialIndexGivesSameResultsAsLinearScan()
+   {
+      Random random = new Random(3452L);
+      PlanarRegionsList linearList = new PlanarRegionsList();
+      for (int i = 0; i < 200; i++)
+         linearList.addPlanarRegion(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 2, 1.0, 6));
+      // A large ground region that does not fit in the grid
+      linearList.addPlanarRegion(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 1, 20.0, 6));
+
+      PlanarRegionsList indexedList = linearList.copy();
+      indexedList.enableSpatialIndex(0.5);
+      assertTrue(indexedList.isSpatialIndexEnabled());
+
+      for (int iteration = 0; iteration < 4; iteration++)
+      {
+         for (int i = 0; i < 500; i++)
+         {
+            double x = EuclidCoreRandomTools.nextDouble(random, 15.0);
+            double y = EuclidCoreRandomTools.nextDouble(random, 15.0);
+            double z = EuclidCoreRandomTools.nextDouble(random, 15.0);
+
+            assertSameRegions(linearList, linearList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y), indexedList,
+                              indexedList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y));
+            assertSameRegions(linearList, linearList.findPlanarRegionsContainingPoint(new Point3D(x, y, z), 0.5), indexedList,
+                              indexedList.findPlanarRegionsContainingPoint(new Point3D(x, y, z), 0.5));
+            assertEquals(indexOf(linearList, linearList.findClosestPlanarRegionToPointByProjectionOntoXYPlane(x, y)),
+                         indexOf(indexedList, indexedList.findClosestPlanarRegionToPointByProjectionOntoXYPlane(x, y)));
+
+            List<PlanarRegion> linearContainers = new ArrayList<>();
+            List<PlanarRegion> indexedContainers = new ArrayList<>();
+            linearList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, linearContainers);
+            indexedList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, indexedContainers);
+            assertSameRegions(linearList, linearContainers, indexedList, indexedContainers);
+            linearContainers.clear();
+            indexedContainers.clear();
+            linearList.findPlanarRegionsContainingPoint(new Point3D(x, y, z), 0.5, linearContainers);
+            indexedList.findPlanarRegionsContainingPoint(new Point3D(x, y, z), 0.5, indexedContainers);
+            assertSameRegions(linearList, linearContainers, indexedList, indexedContainers);
+
+            // The candidates contain all the regions overlapping the box
+            List<PlanarRegion> candidates = new ArrayList<>();
+            indexedList.findPlanarRegionCandidatesOverlappingXYBox(x - 0.5, y - 0.5, x + 0.5, y + 0.5, candidates);
+            for (int regionIndex = 0; regionIndex < indexedList.getNumberOfPlanarRegions(); regionIndex++)
+            {
+               PlanarRegion region = indexedList.getPlanarRegion(regionIndex);
+               BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+               boolean overlaps = boundingBox.getMinX() <= x + 0.5 && boundingBox.getMaxX() >= x - 0.5 && boundingBox.getMinY() <= y + 0.5
+                     && boundingBox.getMaxY() >= y - 0.5;
+               if (overlaps)
+                  assertTrue(candidates.contains(region));
+            }
+
+            // Far away from all the regions
+            assertEquals(indexOf(linearList, linearList.findClosestPlanarRegionToPointByProjectionOntoXYPlane(10.0 * x, 10.0 * y)),
+                         indexOf(indexedList, indexedList.findClosestPlanarRegionToPointByProjectionOntoXYPlane(10.0 * x, 10.0 * y)));
+
+            LineSegment2D lineSegment = new LineSegment2D(x, y, x + EuclidCoreRandomTools.nextDouble(random, 3.0),
+                                                          y + EuclidCoreRandomTools.nextDouble(random, 3.0));
+            ArrayList<PlanarRegion> linearIntersections = new ArrayList<>();
+            ArrayList<PlanarRegion> indexedIntersections = new ArrayList<>();
+            linearList.findPlanarRegionsIntersectingLineSegment(lineSegment, linearIntersections);
+            indexedList.findPlanarRegionsIntersectingLineSegment(lineSegment, indexedIntersections);
+            assertSameRegions(linearList, linearIntersections, indexedList, indexedIntersections);
+         }
+
+         // Modify both lists the same way
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setRotationYawAndZeroTranslation(random.nextDouble());
+         transform.setTranslation(random.nextDouble(), random.nextDouble(), random.nextDouble());
+         linearList.transform(transform);
+         indexedList.transform(transform);
+
+         int indexToPoll = random.nextInt(linearList.getNumberOfPlanarRegions());
+         linearList.pollPlanarRegion(indexToPoll);
+         indexedList.pollPlanarRegion(indexToPoll);
+
+         PlanarRegion newRegion = PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 2, 1.0, 6);
+         linearList.addPlanarRegion(newRegion);
+         indexedList.addPlanarRegion(newRegion.copy());
+      }
+   }
+
+   private static int indexOf(PlanarRegionsList planarRegionsList, PlanarRegion region)
+   {
+      return planarRegionsList.getPlanarRegionsAsList().indexOf(region);
+   }
+
+   private static void assertSameRegions(PlanarRegionsList expectedList, List<PlanarRegion> expected, PlanarRegionsList actualList, List<PlanarRegion> actual)
+   {
+      if (expected == null || actual == null)
+      {
+         assertTrue(expected == actual);
+         return;
+      }
+
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+         assertEquals(indexOf(expectedList, expected.get(i)), indexOf(actualList, actual.get(i)));
+   }
+
    public static void main(String[] args)
    {
       MutationTestFacilitator.facilitateMutationTestForClass(PlanarRegionsList.class, PlanarRegionsListTest.class);
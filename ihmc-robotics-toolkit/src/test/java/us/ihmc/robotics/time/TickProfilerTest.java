@@ -0,0 +1,101 @@
+package us.ihmc.robotics.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class TickProfilerTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testHistogramPercentiles()
+   {
+      Random random = new Random(5431L);
+      LatencyHistogram histogram = new LatencyHistogram();
+      long[] values = new long[10000];
+
+      for (int i = 0; i < values.length; i++)
+      {
+         values[i] = (long) (1.0e6 * Math.exp(3.0 * random.nextGaussian()));
+         histogram.recordValue(values[i]);
+      }
+
+      Arrays.sort(values);
+      assertEquals(values.length, histogram.getTotalCount());
+      assertEquals(values[0], histogram.getMinimumValue());
+      assertEquals(values[values.length - 1], histogram.getMaximumValue());
+
+      double[] percentiles = {0.0, 0.1, 0.5, 0.9, 0.99, 0.999, 1.0};
+      for (double percentile : percentiles)
+      {
+         long expected = values[Math.max(0, (int) Math.ceil(percentile * values.length) - 1)];
+         long actual = histogram.getValueAtPercentile(percentile);
+         assertTrue(actual >= expected);
+         assertTrue(actual <= expected * 17 / 16 + 1);
+      }
+
+      for (long value = 0; value < 100000; value++)
+      {
+         int bucketIndex = LatencyHistogram.getBucketIndex(value);
+         assertTrue(value <= LatencyHistogram.getBucketUpperBound(bucketIndex));
+         if (bucketIndex > 0)
+            assertTrue(value > LatencyHistogram.getBucketUpperBound(bucketIndex - 1));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testStagesAndOverruns()
+   {
+      long[] time = {0L};
+      TickProfiler profiler = new TickProfiler("test", 0.02, () -> time[0], new YoVariableRegistry("testRegistry"));
+      TickProfiler.Stage fastStage = profiler.createStage("fast");
+      TickProfiler.Stage slowStage = profiler.createStage("slow");
+
+      long fastDuration = 100000;
+      long slowDuration = 1000000;
+      long overrunDuration = 30000000;
+
+      int numberOfTicks = 20;
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         profiler.startTick();
+         fastStage.start();
+         time[0] += fastDuration;
+         fastStage.stop();
+         slowStage.start();
+         time[0] += tick % 5 == 0 ? overrunDuration : slowDuration;
+         slowStage.stop();
+         profiler.stopTick();
+         time[0] += 5000000;
+      }
+
+      assertEquals(numberOfTicks / 5, profiler.getNumberOfOverruns());
+      assertEquals(numberOfTicks, profiler.getTickStage().getHistogram().getTotalCount());
+      assertEquals(numberOfTicks, slowStage.getNumberOfRecentDurations());
+      assertEquals(overrunDuration, slowStage.getRecentDuration(4));
+      assertEquals(slowDuration, slowStage.getRecentDuration(0));
+      assertEquals(fastDuration + slowDuration, profiler.getTickStage().getRecentDuration(0));
+      assertEquals(fastDuration, fastStage.getHistogram().getMaximumValue());
+      assertEquals(overrunDuration + fastDuration, profiler.getTickStage().getHistogram().getMaximumValue());
+      assertTrue(profiler.getTickStage().getHistogram().getValueAtPercentile(0.5) < 20000000);
+
+      // The overruns are the slowest ticks, with the duration of their stages
+      String report = profiler.getReport();
+      assertTrue(report.contains("slowest ticks"));
+      for (int tick = 0; tick < numberOfTicks; tick += 5)
+         assertTrue(report.contains(String.format("  tick %d: %.1f, fast %.1f, slow %.1f", tick, 1.0e-3 * (overrunDuration + fastDuration),
+                                                  1.0e-3 * fastDuration, 1.0e-3 * overrunDuration)));
+
+      profiler.reset();
+      assertEquals(0, profiler.getNumberOfOverruns());
+      assertEquals(0, slowStage.getHistogram().getTotalCount());
+   }
+}
@@ -39,6 +39,8 @@ public class LIDARBasedREAModule
 
    private static final int THREAD_PERIOD_MILLISECONDS = 200;
    private static final int BUFFER_THREAD_PERIOD_MILLISECONDS = 10;
+   private static final int PIPELINED_THREAD_PERIOD_MILLISECONDS = 10;
+   private static final double LATENCY_REPORT_PERIOD = 5.0;
    private static final double OCTREE_RESOLUTION = 0.02;
    protected static final boolean DEBUG = true;
 
@@ -59,6 +61,15 @@ public class LIDARBasedREAModule
    private ScheduledFuture<?> scheduled;
    private final Messager reaMessager;
 
+   private boolean pipelinedUpdate = false;
+   private boolean isOcTreeUpdated = false;
+   private double lastPlanarRegionsUpdate = Double.NaN;
+
+   private int numberOfLatencySamples = 0;
+   private double totalScanToRegionLatency = 0.0;
+   private double maximumScanToRegionLatency = 0.0;
+   private double lastLatencyReport = Double.NaN;
+
    private LIDARBasedREAModule(Messager reaMessager, File configurationFile) throws IOException
    {
       this.reaMessager = reaMessager;
@@ -119,16 +130,26 @@ public class LIDARBasedREAModule
          }
          else
          {
-            timeReporter.run(mainUpdater::update, ocTreeTimeReport);
+            timeReporter.run(() -> isOcTreeUpdated = mainUpdater.update(), ocTreeTimeReport);
             timeReporter.run(() -> moduleStateReporter.reportOcTreeState(mainOctree), reportOcTreeStateTimeReport);
 
             if (isThreadInterrupted())
                return;
 
-            timeReporter.run(planarRegionFeatureUpdater::update, planarRegionsTimeReport);
-            timeReporter.run(() -> moduleStateReporter.reportPlanarRegionsState(planarRegionFeatureUpdater), reportPlanarRegionsStateTimeReport);
+            // In pipelined mode this runs as soon as a buffer has been inserted, otherwise at the period of the non-pipelined update
+            boolean isPlanarRegionsUpdateDue = !pipelinedUpdate || isOcTreeUpdated || !(currentTime - lastPlanarRegionsUpdate < THREAD_PERIOD_MILLISECONDS * 1.0e-3);
+
+            if (isPlanarRegionsUpdateDue)
+            {
+               timeReporter.run(planarRegionFeatureUpdater::update, planarRegionsTimeReport);
+               timeReporter.run(() -> moduleStateReporter.reportPlanarRegionsState(planarRegionFeatureUpdater), reportPlanarRegionsStateTimeReport);
 
-            planarRegionNetworkProvider.update(ocTreeUpdateSuccess);
+               planarRegionNetworkProvider.update(ocTreeUpdateSuccess);
+               lastPlanarRegionsUpdate = currentTime;
+
+               if (isOcTreeUpdated)
+                  updateScanToRegionLatency();
+            }
          }
 
          if (isThreadInterrupted())
@@ -155,6 +176,47 @@ public class LIDARBasedREAModule
          lastCompleteUpdate.set(currentTime);
    }
 
+   private void updateScanToRegionLatency()
+   {
+      long scanTime = mainUpdater.getLastIntegratedScanTime();
+      if (scanTime == Long.MIN_VALUE)
+         return;
+
+      double latency = JOctoMapTools.nanoSecondsToSeconds(System.nanoTime() - scanTime);
+      numberOfLatencySamples++;
+      totalScanToRegionLatency += latency;
+      maximumScanToRegionLatency = Math.max(maximumScanToRegionLatency, latency);
+
+      double currentTime = JOctoMapTools.nanoSecondsToSeconds(System.nanoTime());
+      if (Double.isNaN(lastLatencyReport))
+         lastLatencyReport = currentTime;
+      if (currentTime - lastLatencyReport < LATENCY_REPORT_PERIOD)
+         return;
+
+      if (DEBUG)
+      {
+         LogTools.info(String.format("Scan to region latency: %.3fs avg, %.3fs max over %d updates, %d scans dropped.",
+                                     totalScanToRegionLatency / numberOfLatencySamples, maximumScanToRegionLatency, numberOfLatencySamples,
+                                     bufferUpdater.getNumberOfDroppedScans()));
+      }
+
+      numberOfLatencySamples = 0;
+      totalScanToRegionLatency = 0.0;
+      maximumScanToRegionLatency = 0.0;
+      lastLatencyReport = currentTime;
+   }
+
+   /**
+    * In pipelined mode the octree and the planar regions are updated as soon as the buffer is full, instead of at a fixed
+    * period. Has to be called before {@link #start()}.
+    */
+   public void enablePipelinedUpdate(boolean enable)
+   {
+      if (scheduled != null)
+         throw new IllegalStateException("The update mode cannot be changed after the module has started.");
+      pipelinedUpdate = enable;
+   }
+
    private boolean isThreadInterrupted()
    {
       return Thread.interrupted() || scheduled == null || scheduled.isCancelled();
@@ -164,7 +226,10 @@ public class LIDARBasedREAModule
    {
       if (scheduled == null)
       {
-         scheduled = executorService.scheduleAtFixedRate(this::mainUpdate, 0, THREAD_PERIOD_MILLISECONDS, TimeUnit.MILLISECONDS);
+         if (pipelinedUpdate)
+            scheduled = executorService.scheduleWithFixedDelay(this::mainUpdate, 0, PIPELINED_THREAD_PERIOD_MILLISECONDS, TimeUnit.MILLISECONDS);
+         else
+            scheduled = executorService.scheduleAtFixedRate(this::mainUpdate, 0, THREAD_PERIOD_MILLISECONDS, TimeUnit.MILLISECONDS);
          executorService.scheduleAtFixedRate(bufferUpdater.createBufferThread(), 0, BUFFER_THREAD_PERIOD_MILLISECONDS, TimeUnit.MILLISECONDS);
       }
    }
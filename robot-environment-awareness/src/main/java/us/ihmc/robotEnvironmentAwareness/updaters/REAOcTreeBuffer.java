@@ -1,6 +1,8 @@
 package us.ihmc.robotEnvironmentAwareness.updaters;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import controller_msgs.msg.dds.LidarScanMessage;
@@ -13,9 +15,11 @@ import us.ihmc.robotEnvironmentAwareness.io.FilePropertyHelper;
 public class REAOcTreeBuffer
 {
    private static final int NUMBER_OF_SAMPLES = 100000;
+   /** Number of scans that can wait for the buffer thread, the oldest scan is dropped when a new one does not fit */
+   public static final int SCAN_QUEUE_CAPACITY = 20;
 
-   private final AtomicReference<LidarScanMessage> latestLidarScanMessage = new AtomicReference<>(null);
-   private final AtomicReference<ScanCollection> newFullScanReference = new AtomicReference<>(null);
+   private final ArrayBlockingQueue<TimestampedScan> scanQueue = new ArrayBlockingQueue<>(SCAN_QUEUE_CAPACITY);
+   private final AtomicLong numberOfDroppedScans = new AtomicLong();
 
    private final AtomicReference<Boolean> enable;
    private final AtomicReference<Integer> bufferSize;
@@ -23,7 +27,8 @@ public class REAOcTreeBuffer
    private final AtomicBoolean clearBuffer = new AtomicBoolean(false);
    private final AtomicBoolean isBufferFull = new AtomicBoolean(false);
    private final AtomicBoolean isBufferRequested = new AtomicBoolean(false);
-   private final AtomicReference<NormalOcTree> newBuffer = new AtomicReference<>(null);
+   private final AtomicReference<TimestampedBuffer> newBuffer = new AtomicReference<>(null);
+   private long lastPolledBufferOldestScanTime = Long.MIN_VALUE;
 
    private final double octreeResolution;
 
@@ -68,33 +73,52 @@ public class REAOcTreeBuffer
       return new Runnable()
       {
          private NormalOcTree bufferOctree = new NormalOcTree(octreeResolution);
+         /** Receive time of the oldest scan in the buffer, used to measure the scan to region latency */
+         private long oldestScanTime = Long.MIN_VALUE;
 
          @Override
          public void run()
          {
-            updateScanCollection();
-            ScanCollection newScan = newFullScanReference.getAndSet(null);
-
             if (clearBuffer.getAndSet(false))
             {
+               scanQueue.clear();
                bufferOctree.clear();
+               oldestScanTime = Long.MIN_VALUE;
                isBufferFull.set(false);
                isBufferRequested.set(false);
                return;
             }
 
-            if (newScan == null)
-               return;
+            boolean hasInsertedScan = false;
+            TimestampedScan scan;
+
+            // Insert all the scans that are waiting, so the buffer thread cannot fall behind the sensor
+            while ((scan = scanQueue.poll()) != null)
+            {
+               if (!enable.get())
+                  continue;
+
+               ScanCollection scanCollection = new ScanCollection();
+               scanCollection.setSubSampleSize(NUMBER_OF_SAMPLES);
+               scanCollection.addScan(scan.message.getScan().toArray(), scan.message.getLidarPosition());
+               bufferOctree.insertScanCollection(scanCollection, false);
+
+               if (oldestScanTime == Long.MIN_VALUE)
+                  oldestScanTime = scan.receiveTime;
+               hasInsertedScan = true;
+            }
 
-            bufferOctree.insertScanCollection(newScan, false);
+            if (!hasInsertedScan)
+               return;
 
             int numberOfLeafNodesInBuffer = bufferOctree.getNumberOfLeafNodes();
             isBufferFull.set(numberOfLeafNodesInBuffer >= bufferSize.get().intValue());
 
             if (isBufferRequested.get())
             {
-               newBuffer.set(bufferOctree);
+               newBuffer.set(new TimestampedBuffer(bufferOctree, oldestScanTime));
                bufferOctree = new NormalOcTree(octreeResolution);
+               oldestScanTime = Long.MIN_VALUE;
                isBufferRequested.set(false);
             }
 
@@ -120,24 +144,62 @@ public class REAOcTreeBuffer
 
    public NormalOcTree pollNewBuffer()
    {
-      return newBuffer.getAndSet(null);
+      TimestampedBuffer buffer = newBuffer.getAndSet(null);
+      if (buffer == null)
+         return null;
+
+      lastPolledBufferOldestScanTime = buffer.oldestScanTime;
+      return buffer.octree;
    }
 
-   private void updateScanCollection()
+   /**
+    * @return the {@link System#nanoTime()} at which the oldest scan of the last buffer returned by {@link #pollNewBuffer()} was received
+    */
+   public long getLastPolledBufferOldestScanTime()
    {
-      LidarScanMessage lidarScanMessage = latestLidarScanMessage.getAndSet(null);
-
-      if (!enable.get() || lidarScanMessage == null)
-         return;
+      return lastPolledBufferOldestScanTime;
+   }
 
-      ScanCollection scanCollection = new ScanCollection();
-      newFullScanReference.set(scanCollection);
-      scanCollection.setSubSampleSize(NUMBER_OF_SAMPLES);
-      scanCollection.addScan(lidarScanMessage.getScan().toArray(), lidarScanMessage.getLidarPosition());
+   /**
+    * @return number of scans that were dropped because the scan queue was full
+    */
+   public long getNumberOfDroppedScans()
+   {
+      return numberOfDroppedScans.get();
    }
 
    public void handleLidarScanMessage(LidarScanMessage message)
    {
-      latestLidarScanMessage.set(message);
+      TimestampedScan scan = new TimestampedScan(message, System.nanoTime());
+
+      while (!scanQueue.offer(scan))
+      {
+         if (scanQueue.poll() != null)
+            numberOfDroppedScans.incrementAndGet();
+      }
+   }
+
+   private static class TimestampedScan
+   {
+      private final LidarScanMessage message;
+      private final long receiveTime;
+
+      private TimestampedScan(LidarScanMessage message, long receiveTime)
+      {
+         this.message = message;
+         this.receiveTime = receiveTime;
+      }
+   }
+
+   private static class TimestampedBuffer
+   {
+      private final NormalOcTree octree;
+      private final long oldestScanTime;
+
+      private TimestampedBuffer(NormalOcTree octree, long oldestScanTime)
+      {
+         this.octree = octree;
+         this.oldestScanTime = oldestScanTime;
+      }
    }
 }
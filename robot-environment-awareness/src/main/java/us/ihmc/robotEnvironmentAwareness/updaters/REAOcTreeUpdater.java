@@ -28,6 +28,8 @@ public class REAOcTreeUpdater
    private final REAOcTreeBuffer reaOcTreeBuffer;
 
    private final AtomicReference<Pose3D> latestLidarPoseReference = new AtomicReference<>(null);
+   private final Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
+   private long lastIntegratedScanTime = Long.MIN_VALUE;
 
    private final AtomicReference<Boolean> enable;
    private final AtomicReference<Boolean> enableNormalEstimation;
@@ -112,10 +114,15 @@ public class REAOcTreeUpdater
       filePropertyHelper.saveProperty(REAModuleAPI.LidarMaxRange.getName(), maxRange.get());
    }
 
-   public void update()
+   /**
+    * Inserts the buffer into the octree if the buffer is ready and updates the normals.
+    *
+    * @return true if a new buffer has been inserted
+    */
+   public boolean update()
    {
       if (!enable.get())
-         return;
+         return false;
 
       handleBoundingBox();
 
@@ -127,7 +134,7 @@ public class REAOcTreeUpdater
       referenceOctree.setNormalEstimationParameters(normalEstimationParameters.get());
 
       if (latestLidarPoseReference.get() == null)
-         return;
+         return false;
 
       Point3DReadOnly sensorOrigin = latestLidarPoseReference.get().getPosition();
 
@@ -142,20 +149,34 @@ public class REAOcTreeUpdater
          PointCloud pointCloud = new PointCloud();
          bufferOctree.forEach(node -> pointCloud.add(node.getHitLocationX(), node.getHitLocationY(), node.getHitLocationZ()));
          Scan scan = new Scan(sensorOrigin, pointCloud);
-         Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
+         updatedNodes.clear();
          referenceOctree.insertScan(scan, updatedNodes, null);
+         lastIntegratedScanTime = reaOcTreeBuffer.getLastPolledBufferOldestScanTime();
       }
 
       if (clearNormals.getAndSet(false))
       {
          referenceOctree.clearNormals();
-         return;
+         return bufferOctree != null;
       }
 
-      if (bufferOctree == null || !enableNormalEstimation.get())
-         return;
+      if (bufferOctree == null)
+         return false;
 
-      referenceOctree.updateNormals();
+      // The normals only change where the scan changed the tree
+      if (enableNormalEstimation.get() && !updatedNodes.isEmpty())
+         referenceOctree.updateNormals();
+
+      updatedNodes.clear();
+      return true;
+   }
+
+   /**
+    * @return the {@link System#nanoTime()} at which the oldest scan of the last inserted buffer was received
+    */
+   public long getLastIntegratedScanTime()
+   {
+      return lastIntegratedScanTime;
    }
 
    public void clearOcTree()
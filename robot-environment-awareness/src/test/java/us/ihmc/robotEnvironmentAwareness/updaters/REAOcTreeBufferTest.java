@@ -0,0 +1,96 @@
+package us.ihmc.robotEnvironmentAwareness.updaters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import controller_msgs.msg.dds.LidarScanMessage;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.jOctoMap.iterators.OcTreeIteratorFactory;
+import us.ihmc.jOctoMap.node.NormalOcTreeNode;
+import us.ihmc.jOctoMap.ocTree.NormalOcTree;
+import us.ihmc.messager.Messager;
+import us.ihmc.messager.SharedMemoryMessager;
+import us.ihmc.robotEnvironmentAwareness.communication.REAModuleAPI;
+
+public class REAOcTreeBufferTest
+{
+   private static final double OCTREE_RESOLUTION = 0.02;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testOverfilledScanQueue() throws Exception
+   {
+      Messager messager = new SharedMemoryMessager(REAModuleAPI.API);
+      messager.startMessager();
+      REAOcTreeBuffer buffer = new REAOcTreeBuffer(OCTREE_RESOLUTION, messager, new REAModuleStateReporter(messager));
+      Runnable bufferThread = buffer.createBufferThread();
+
+      int numberOfDroppedScans = 5;
+      int numberOfScans = REAOcTreeBuffer.SCAN_QUEUE_CAPACITY + numberOfDroppedScans;
+      List<Point3D> scanPoints = new ArrayList<>();
+      long[] timesBeforeScans = new long[numberOfScans + 1];
+
+      for (int i = 0; i < numberOfScans; i++)
+      {
+         // One point per scan, far enough from the other points and rays to get its own occupied node
+         double angle = 2.0 * Math.PI * i / numberOfScans;
+         Point3D scanPoint = new Point3D(Math.cos(angle), Math.sin(angle), 0.0);
+         scanPoints.add(scanPoint);
+
+         LidarScanMessage message = new LidarScanMessage();
+         message.getScan().add((float) scanPoint.getX());
+         message.getScan().add((float) scanPoint.getY());
+         message.getScan().add((float) scanPoint.getZ());
+
+         timesBeforeScans[i] = System.nanoTime();
+         buffer.handleLidarScanMessage(message);
+      }
+      timesBeforeScans[numberOfScans] = System.nanoTime();
+
+      assertEquals(numberOfDroppedScans, buffer.getNumberOfDroppedScans());
+
+      buffer.submitBufferRequest();
+      bufferThread.run();
+      NormalOcTree octree = buffer.pollNewBuffer();
+      assertNotNull(octree);
+
+      List<Point3D> occupiedNodeCenters = new ArrayList<>();
+      for (NormalOcTreeNode node : OcTreeIteratorFactory.createLeafIterable(octree.getRoot()))
+      {
+         if (octree.isNodeOccupied(node))
+         {
+            Point3D nodeCenter = new Point3D();
+            node.getCoordinate(nodeCenter);
+            occupiedNodeCenters.add(nodeCenter);
+         }
+      }
+
+      // The oldest scans were dropped, all the others were inserted
+      for (int i = 0; i < numberOfScans; i++)
+         assertEquals(i >= numberOfDroppedScans, hasNodeAt(occupiedNodeCenters, scanPoints.get(i)));
+
+      // The buffer is timed from the oldest scan that was inserted
+      long oldestScanTime = buffer.getLastPolledBufferOldestScanTime();
+      assertTrue(oldestScanTime >= timesBeforeScans[numberOfDroppedScans]);
+      assertTrue(oldestScanTime <= timesBeforeScans[numberOfDroppedScans + 1]);
+
+      messager.closeMessager();
+   }
+
+   private static boolean hasNodeAt(List<Point3D> nodeCenters, Point3D point)
+   {
+      for (Point3D nodeCenter : nodeCenters)
+      {
+         if (nodeCenter.distance(point) <= OCTREE_RESOLUTION)
+            return true;
+      }
+      return false;
+   }
+}